@@ -0,0 +1,87 @@
+package model;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Applies a 3x3 color matrix to a full vector of packed pixels at a time with the Java Vector
+ * API. Each channel is computed with the same double multiplies and adds as the scalar kernel and
+ * rounded half up like {@link Math#round}, so the pixels are identical to the scalar ones.
+ * Every vector has the same shape, so no lane is ever converted between shapes: pairs of pixels
+ * are read as longs, channels become doubles by setting the bits of 2^52 + value, and rounded
+ * doubles become integers the same way.
+ * Pixels after the last full vector are left to the fixed-point code of {@link ColorMatrix}.
+ * This class needs the {@code jdk.incubator.vector} module and is only loaded reflectively by
+ * {@link TransformationsImpl}, which keeps the scalar kernel when the module is unavailable.
+ */
+final class VectorColorMatrix implements ColorMatrixKernel {
+  // the preferred species all share one shape, and constant species let every operation compile
+  // to vector instructions.
+  private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+  private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+  private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+  // adding 2^52 to a double in [0, 2^51) leaves its nearest integer in the low mantissa bits.
+  private static final double TWO_52 = 0x1.0p52;
+  private static final long TWO_52_BITS = Double.doubleToRawLongBits(TWO_52);
+
+  @Override
+  public void apply(ColorMatrix color, int[] src, int srcOffset, int[] dst, int dstOffset,
+                    int[] mask, int maskOffset, int count) {
+    double[] matrix = color.values();
+    int lanes = INTS.length();
+    int k = 0;
+    for (; k <= count - lanes; k += lanes) {
+      IntVector pixels = IntVector.fromArray(INTS, src, srcOffset + k);
+      LongVector pairs = (LongVector) pixels.reinterpretShape(LONGS, 0);
+      // the low half of each long is the first pixel of a pair, the high half the second.
+      LongVector low = transform(matrix, pairs);
+      LongVector high = transform(matrix, pairs.lanewise(VectorOperators.LSHR, 32));
+      IntVector result = (IntVector) low.or(high.lanewise(VectorOperators.LSHL, 32))
+              .reinterpretShape(INTS, 0);
+      if (mask != null) {
+        VectorMask<Integer> masked = IntVector.fromArray(INTS, mask, maskOffset + k)
+                .and(0xFFFFFF).compare(VectorOperators.NE, 0);
+        result = result.blend(pixels, masked);
+      }
+      result.intoArray(dst, dstOffset + k);
+    }
+    color.apply(src, srcOffset + k, dst, dstOffset + k, mask, maskOffset + k, count - k);
+  }
+
+  // Transforms the pixel held in the low 32 bits of each lane, leaving the result there.
+  private static LongVector transform(double[] matrix, LongVector pixels) {
+    DoubleVector r = channel(pixels, 16);
+    DoubleVector g = channel(pixels, 8);
+    DoubleVector b = channel(pixels, 0);
+    LongVector red = round(r.mul(matrix[0]).add(g.mul(matrix[1])).add(b.mul(matrix[2])));
+    LongVector green = round(r.mul(matrix[3]).add(g.mul(matrix[4])).add(b.mul(matrix[5])));
+    LongVector blue = round(r.mul(matrix[6]).add(g.mul(matrix[7])).add(b.mul(matrix[8])));
+    return pixels.and(0xFF000000L)
+            .or(red.lanewise(VectorOperators.LSHL, 16))
+            .or(green.lanewise(VectorOperators.LSHL, 8))
+            .or(blue);
+  }
+
+  // Returns the 8 bit channel at the given shift of each lane as an exact double.
+  private static DoubleVector channel(LongVector pixels, int shift) {
+    DoubleVector value = (DoubleVector) pixels.lanewise(VectorOperators.LSHR, shift).and(0xFFL)
+            .or(TWO_52_BITS).reinterpretShape(DOUBLES, 0);
+    return value.sub(TWO_52);
+  }
+
+  // Rounds half up and clamps to 0 to 255. Negative values always clamp to 0, so they are
+  // clamped first. Adding 2^52 rounds to the nearest integer with ties to even, so exact ties
+  // that went down are moved up by one.
+  private static LongVector round(DoubleVector values) {
+    DoubleVector positive = values.max(0.0).min(256.0);
+    DoubleVector shifted = positive.add(TWO_52);
+    VectorMask<Long> tie = positive.sub(shifted.sub(TWO_52))
+            .compare(VectorOperators.EQ, 0.5).cast(LONGS);
+    LongVector nearest = ((LongVector) shifted.reinterpretShape(LONGS, 0)).and(0x1FFL);
+    return nearest.blend(nearest.add(1L), tie).min(255L);
+  }
+}
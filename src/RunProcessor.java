@@ -2,12 +2,14 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.Arrays;
 
 import controller.ImageController;
 import controller.ImageControllerGUI;
 import controller.ImageControllerImpl;
 import model.ImageGallery;
 import model.ImageGalleryImpl;
+import model.RowExecutor;
 import view.ImageView;
 import view.ImageViewGUI;
 import view.ImageViewGUIImpl;
@@ -24,6 +26,39 @@ public class RunProcessor {
    * @param args command line arguments.
    */
   public static void main(String[] args) {
+    // "-threads N" may come before any other arguments to run every operation on N threads,
+    // "-lazy" to only run the commands whose images a save or the view reads, and
+    // "-parallel N" to run up to N independent commands of a script at the same time.
+    boolean lazy = false;
+    int workers = 1;
+    while (args.length >= 1 && args[0].startsWith("-")) {
+      if (args[0].equals("-lazy")) {
+        lazy = true;
+        args = Arrays.copyOfRange(args, 1, args.length);
+      } else if (args.length >= 2 && args[0].equals("-threads")) {
+        try {
+          RowExecutor.setParallelism(Integer.parseInt(args[1]));
+        } catch (IllegalArgumentException e) {
+          System.out.println("Invalid number of threads: " + args[1]);
+          return;
+        }
+        args = Arrays.copyOfRange(args, 2, args.length);
+      } else if (args.length >= 2 && args[0].equals("-parallel")) {
+        try {
+          workers = Integer.parseInt(args[1]);
+          if (workers < 1) {
+            throw new IllegalArgumentException();
+          }
+        } catch (IllegalArgumentException e) {
+          System.out.println("Invalid number of workers: " + args[1]);
+          return;
+        }
+        args = Arrays.copyOfRange(args, 2, args.length);
+      } else {
+        break;
+      }
+    }
+
     ImageGallery gallery = new ImageGalleryImpl();
     ImageView view = new ImageViewImpl(gallery);
 
@@ -36,7 +71,9 @@ public class RunProcessor {
       switch (args[0]) {
         case "-text":
           Readable in = new InputStreamReader(System.in);
-          ImageController controllerText = new ImageControllerImpl(gallery, view, in);
+          ImageControllerImpl controllerText = new ImageControllerImpl(gallery, view, in);
+          controllerText.setLazy(lazy);
+          controllerText.setWorkers(workers);
           controllerText.runProgram();
           break;
         case "-file":
@@ -47,7 +84,9 @@ public class RunProcessor {
           } catch (IOException e) {
             System.out.println(e.getMessage());
           }
-          ImageController controllerFile = new ImageControllerImpl(gallery, view, br);
+          ImageControllerImpl controllerFile = new ImageControllerImpl(gallery, view, br);
+          controllerFile.setLazy(lazy);
+          controllerFile.setWorkers(workers);
           controllerFile.runProgram();
           break;
         default:
@@ -0,0 +1,131 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import controller.commands.FusedPoints;
+import controller.commands.PointCommand;
+import model.ImageGallery;
+import view.ImageView;
+
+/**
+ * Runs parsed commands on a gallery in the order they come. Point commands that each read the
+ * image the one before saved, with the same mask and region, are held back and run as one pass
+ * with {@link FusedPoints} once a command that does not continue the chain comes, or
+ * {@link #flush()} is called. They are checked as they come, so they fail just as they would on
+ * their own, and reported once the chain has run. If the chain still fails when it runs, only the
+ * failure is reported, for its last command, and the commands after it run as usual. A lazy
+ * runner that records the chain only checks the arguments of its commands as they come, so a
+ * chain whose images turn out to be invalid only reports its failure once it runs.
+ */
+final class CommandRunner {
+  private final ImageGallery gallery;
+  private final boolean lazy;
+  private final ImageView view;
+  // the chain of point commands waiting to run as one pass, or null if there is none.
+  private FusedPoints fused;
+  // renders the message of each command of the chain to its view, run once the chain has run.
+  private final List<Runnable> reports = new ArrayList<>();
+  // the view the last command of the chain was reported to.
+  private ImageView chainView;
+
+  /**
+   * Constructs a runner of commands on the given gallery.
+   *
+   * @param gallery the gallery that stores the images.
+   * @param lazy    whether commands are recorded with {@link DeferredCommand} instead of run.
+   * @param view    the view to report a recorded command that fails to.
+   */
+  CommandRunner(ImageGallery gallery, boolean lazy, ImageView view) {
+    this.gallery = gallery;
+    this.lazy = lazy;
+    this.view = view;
+  }
+
+  /**
+   * Runs a command, or adds it to the chain of point commands held back and holds its message
+   * until the chain has run.
+   *
+   * @param c    the command.
+   * @param view the view to report a point command to.
+   * @throws IllegalArgumentException if the command fails.
+   */
+  void perform(ImageCommands c, ImageView view) throws IllegalArgumentException {
+    if (c instanceof PointCommand) {
+      PointCommand point = (PointCommand) c;
+      if (this.fused == null || !this.fused.add(point)) {
+        flush();
+        this.fused = this.lazy && DeferredCommand.canRecord(point, this.gallery)
+                ? new FusedPoints(point) : new FusedPoints(point, this.gallery);
+      }
+      String message = point.getMessage();
+      this.reports.add(() -> view.renderMessage(message));
+      this.chainView = view;
+    } else {
+      flush();
+      run(c);
+    }
+  }
+
+  /**
+   * Runs the chain of point commands held back, if there is one. A failure of the chain is
+   * reported to the view of its last command instead of thrown.
+   */
+  void flush() {
+    FusedPoints chain = this.fused;
+    List<Runnable> held = new ArrayList<>(this.reports);
+    ImageView out = this.chainView;
+    this.fused = null;
+    this.reports.clear();
+    this.chainView = null;
+    if (chain == null) {
+      return;
+    }
+    try {
+      run(new ReportedChain(chain, held));
+    } catch (NullPointerException e) {
+      out.renderMessage("Invalid command. Please try again." + System.lineSeparator());
+    } catch (IllegalArgumentException e) {
+      out.renderMessage(e.getMessage() + System.lineSeparator());
+      out.renderMessage("Invalid command. Please try again." + System.lineSeparator());
+    }
+  }
+
+  // Runs a command, or records it when the runner is lazy and the command can be recorded.
+  private void run(ImageCommands c) {
+    if (this.lazy && DeferredCommand.canRecord(c, this.gallery)) {
+      DeferredCommand.record(c, this.gallery, this.view);
+    } else {
+      c.runCommands(this.gallery);
+    }
+  }
+
+  // A chain of point commands, which renders the messages of its commands once it has run.
+  private static final class ReportedChain implements ImageCommands {
+    private final FusedPoints chain;
+    private final List<Runnable> reports;
+
+    private ReportedChain(FusedPoints chain, List<Runnable> reports) {
+      this.chain = chain;
+      this.reports = reports;
+    }
+
+    @Override
+    public void runCommands(ImageGallery gallery) {
+      this.chain.runCommands(gallery);
+      for (Runnable report : this.reports) {
+        report.run();
+      }
+    }
+
+    @Override
+    public List<String> getReads() {
+      return this.chain.getReads();
+    }
+
+    @Override
+    public List<String> getWrites() {
+      return this.chain.getWrites();
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package controller;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import model.ImageGallery;
+import model.ImageGalleryImpl;
+import model.SingleImage;
+import model.SingleImageDeferred;
+import view.ImageView;
+
+/**
+ * A command recorded by a lazy {@link ImageControllerImpl} instead of being run. Every name the
+ * command saves an image under gets a {@link SingleImageDeferred} in the gallery, and the command
+ * runs once, the first time one of them is read. The images the command reads are held from the
+ * time it is recorded, so commands that later save over their names do not change what it
+ * computes. If every image it saves is dropped from the gallery unread, the command never runs
+ * and lets go of the images it held. If the command fails when it runs, the failure is reported
+ * and its names keep the images they had before it, just as if it had failed right away.
+ */
+final class DeferredCommand {
+  private final ImageCommands command;
+  private final ImageView view;
+  // the images the command reads, held until it runs or is dropped.
+  private final Map<String, SingleImage> inputs = new HashMap<>();
+  // the images under the names the command writes before it, held until it runs.
+  private final Map<String, SingleImage> previous = new HashMap<>();
+  // the images the command saved, each held until its deferred image takes it.
+  private final Map<String, SingleImage> outputs = new HashMap<>();
+  // the names whose deferred image has not taken or dropped its image yet.
+  private final Set<String> waiting = new HashSet<>();
+  private boolean done;
+
+  /**
+   * Records a command that reads and saves only images of the gallery, and saves a deferred
+   * image under every name it writes.
+   *
+   * @param command the command to record.
+   * @param gallery the gallery that stores the images.
+   * @param view    the view to report a failure of the command to.
+   * @throws IllegalArgumentException if the command cannot be recorded.
+   */
+  static void record(ImageCommands command, ImageGallery gallery, ImageView view)
+          throws IllegalArgumentException {
+    if (!canRecord(command, gallery)) {
+      throw new IllegalArgumentException("Command cannot be deferred.");
+    }
+    DeferredCommand deferred = new DeferredCommand(command, gallery, view);
+    for (String name : deferred.waiting) {
+      gallery.put(name, new SingleImageDeferred(() -> deferred.take(name),
+          () -> deferred.drop(name)));
+    }
+  }
+
+  /**
+   * Returns whether a command can be recorded: it lists the names it reads and writes, it reads
+   * and changes nothing but images of the gallery, and every image it reads is in the gallery,
+   * so it fails later only where its images or arguments turn out to be invalid.
+   *
+   * @param command the command.
+   * @param gallery the gallery that stores the images.
+   * @return true if the command can be recorded.
+   */
+  static boolean canRecord(ImageCommands command, ImageGallery gallery) {
+    List<String> reads = command.getReads();
+    if (reads == null || command.getWrites() == null
+            || !Collections.emptyList().equals(command.getOtherReads())
+            || !Collections.emptyList().equals(command.getOtherWrites())) {
+      return false;
+    }
+    for (String name : reads) {
+      if (gallery.getImage(name) == null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private DeferredCommand(ImageCommands command, ImageGallery gallery, ImageView view) {
+    this.command = command;
+    this.view = view;
+    hold(command.getReads(), gallery, this.inputs);
+    hold(command.getWrites(), gallery, this.previous);
+    this.waiting.addAll(command.getWrites());
+  }
+
+  // Holds the images of the gallery under the given names, each once.
+  private static void hold(List<String> names, ImageGallery gallery,
+                           Map<String, SingleImage> held) {
+    for (String name : names) {
+      SingleImage image = gallery.getImage(name);
+      if (image != null && !held.containsKey(name)) {
+        image.retain();
+        held.put(name, image);
+      }
+    }
+  }
+
+  // Hands over the image saved under the given name, running the command first if it has not
+  // run yet.
+  private synchronized SingleImage take(String name) throws IllegalArgumentException {
+    if (!this.done) {
+      run();
+    }
+    SingleImage image = this.outputs.remove(name);
+    if (image == null) {
+      throw new IllegalArgumentException("Image " + name + " could not be computed.");
+    }
+    this.waiting.remove(name);
+    return image;
+  }
+
+  // Lets go of the image saved under the given name, which is no longer read. The images the
+  // command reads are let go once no name is waiting for it to run.
+  private synchronized void drop(String name) {
+    this.waiting.remove(name);
+    SingleImage image = this.outputs.remove(name);
+    if (image != null) {
+      image.release();
+    }
+    if (!this.done && this.waiting.isEmpty()) {
+      release(this.inputs);
+      release(this.previous);
+    }
+  }
+
+  // Runs the command on a gallery of its own that holds its inputs. That gallery reports every
+  // image as shared, so nothing is written over an input other deferred images may still read.
+  private void run() {
+    ImageGallery scratch = new ImageGalleryImpl() {
+      @Override
+      public boolean isShared(String fileName) {
+        return true;
+      }
+    };
+    try {
+      for (Map.Entry<String, SingleImage> entry : this.inputs.entrySet()) {
+        SingleImage image = entry.getValue();
+        if (image instanceof SingleImageDeferred) {
+          image = ((SingleImageDeferred) image).getImage();
+        }
+        scratch.put(entry.getKey(), image);
+      }
+      this.command.runCommands(scratch);
+      for (String name : this.waiting) {
+        SingleImage image = scratch.getImage(name);
+        image.retain();
+        this.outputs.put(name, image);
+      }
+      release(this.previous);
+    } catch (NullPointerException e) {
+      failed();
+      this.view.renderMessage("Invalid command. Please try again." + System.lineSeparator());
+    } catch (IllegalArgumentException e) {
+      failed();
+      this.view.renderMessage(e.getMessage() + System.lineSeparator());
+      this.view.renderMessage("Invalid command. Please try again." + System.lineSeparator());
+    } finally {
+      for (String name : new HashSet<>(scratch.getGallery().keySet())) {
+        scratch.remove(name);
+      }
+    }
+    this.done = true;
+    release(this.inputs);
+  }
+
+  // Hands over the images the names had before the command instead of the ones it saved.
+  private void failed() {
+    release(this.outputs);
+    for (String name : this.waiting) {
+      SingleImage image = this.previous.remove(name);
+      if (image != null) {
+        this.outputs.put(name, image);
+      }
+    }
+    release(this.previous);
+  }
+
+  private static void release(Map<String, SingleImage> held) {
+    for (SingleImage image : held.values()) {
+      image.release();
+    }
+    held.clear();
+  }
+}
@@ -1,5 +1,8 @@
 package controller;
 
+import java.util.Collections;
+import java.util.List;
+
 import model.ImageGallery;
 
 /**
@@ -14,4 +17,58 @@ public interface ImageCommands {
    * @param gallery the gallery that stores the images.
    */
   void runCommands(ImageGallery gallery);
+
+  /**
+   * Limits the command to a rectangle of the image, so every pixel outside of it keeps its
+   * source value. Commands that cannot be limited to a region reject it.
+   *
+   * @param x      the first column of the rectangle.
+   * @param y      the first row of the rectangle.
+   * @param width  the width of the rectangle.
+   * @param height the height of the rectangle.
+   * @throws IllegalArgumentException if the command does not take a region.
+   */
+  default void setRegion(int x, int y, int width, int height) throws IllegalArgumentException {
+    throw new IllegalArgumentException("This command does not take a region.");
+  }
+
+  /**
+   * Returns the names of the images the command reads from the gallery. Commands that do not
+   * say, such as buffer-stats, return null and are run after every command before them and
+   * before every command after them.
+   *
+   * @return the names the command reads, or null if it does not say.
+   */
+  default List<String> getReads() {
+    return null;
+  }
+
+  /**
+   * Returns the names the command saves images under. Commands that do not say return null.
+   *
+   * @return the names the command writes, or null if it does not say.
+   */
+  default List<String> getWrites() {
+    return null;
+  }
+
+  /**
+   * Returns what the command reads besides images of the gallery: the {@link java.nio.file.Path}
+   * of a file it loads, or the registry of kernals it looks a kernal up in.
+   *
+   * @return what else the command reads, or null if it does not say.
+   */
+  default List<Object> getOtherReads() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Returns what the command changes besides images of the gallery: the
+   * {@link java.nio.file.Path} of a file it saves, or the registry of kernals it loads into.
+   *
+   * @return what else the command writes, or null if it does not say.
+   */
+  default List<Object> getOtherWrites() {
+    return Collections.emptyList();
+  }
 }
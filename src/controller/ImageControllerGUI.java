@@ -4,21 +4,27 @@ import java.awt.image.BufferedImage;
 
 import controller.commands.BlueScale;
 import controller.commands.Blur;
+import controller.commands.BoxBlur;
 import controller.commands.Brighten;
 import controller.commands.Downscale;
 import controller.commands.FlipHorizontal;
 import controller.commands.FlipVertical;
+import controller.commands.GaussianBlur;
 import controller.commands.GreenScale;
 import controller.commands.GreyScale;
 import controller.commands.IntensityScale;
 import controller.commands.Load;
 import controller.commands.LumaScale;
 import controller.commands.RedScale;
+import controller.commands.Resize;
+import controller.commands.Rotate;
 import controller.commands.Save;
 import controller.commands.Sepia;
 import controller.commands.Sharpen;
+import controller.commands.Transpose;
 import controller.commands.ValueScale;
 import model.ImageGallery;
+import model.ResizeFilter;
 import model.SingleImage;
 import view.ImageView;
 import view.ImageViewActions;
@@ -115,6 +121,25 @@ public class ImageControllerGUI implements ImageViewActions {
     updateViewImage(fileNew);
   }
 
+  /**
+   * Resizes an image to a given width and height with a named filter. Updates the view
+   * accordingly.
+   *
+   * @param width    new width of image
+   * @param height   new height of image
+   * @param filter   the filter: nearest, bilinear, bicubic or lanczos3.
+   * @param fileName the name of the image to be updated.
+   * @param fileNew  the name of the new image.
+   */
+  @Override
+  public void resizeAction(int width, int height, String filter, String fileName,
+                           String fileNew) {
+    ImageCommands b = new Resize(width, height, ResizeFilter.of(filter), fileName, fileNew,
+            viewAction);
+    b.runCommands(gallery);
+    updateViewImage(fileNew);
+  }
+
   /**
    * Applies the greyscale filter on an image using the luma matrix. Updates the view accordingly.
    *
@@ -167,6 +192,35 @@ public class ImageControllerGUI implements ImageViewActions {
     updateViewImage(fileNew);
   }
 
+  /**
+   * Blurs an image with the average of the pixels within a radius of each pixel. Updates the view
+   * accordingly.
+   *
+   * @param radius   the number of pixels on each side of a pixel that are averaged.
+   * @param fileName the name of the image to be updated.
+   * @param fileNew  the name of the new image.
+   */
+  @Override
+  public void boxBlurAction(int radius, String fileName, String fileNew) {
+    ImageCommands b = new BoxBlur(radius, fileName, fileNew, viewAction);
+    b.runCommands(gallery);
+    updateViewImage(fileNew);
+  }
+
+  /**
+   * Blurs an image with a gaussian of a given standard deviation. Updates the view accordingly.
+   *
+   * @param sigma    the standard deviation of the gaussian in pixels.
+   * @param fileName the name of the image to be updated.
+   * @param fileNew  the name of the new image.
+   */
+  @Override
+  public void gaussianBlurAction(double sigma, String fileName, String fileNew) {
+    ImageCommands b = new GaussianBlur(sigma, fileName, fileNew, viewAction);
+    b.runCommands(gallery);
+    updateViewImage(fileNew);
+  }
+
   /**
    * Applies the horizontal flip transformation on an image. Updates the view accordingly.
    *
@@ -193,6 +247,34 @@ public class ImageControllerGUI implements ImageViewActions {
     updateViewImage(fileNew);
   }
 
+  /**
+   * Rotates an image clockwise by any angle, leaving the area it no longer covers transparent.
+   * Updates the view accordingly.
+   *
+   * @param degrees  the clockwise angle to rotate by.
+   * @param fileName the name of the image to be updated.
+   * @param fileNew  the name of the new image.
+   */
+  @Override
+  public void rotateAction(double degrees, String fileName, String fileNew) {
+    ImageCommands r = new Rotate(degrees, fileName, fileNew, viewAction);
+    r.runCommands(gallery);
+    updateViewImage(fileNew);
+  }
+
+  /**
+   * Transposes an image, swapping its rows and columns. Updates the view accordingly.
+   *
+   * @param fileName the name of the image to be updated.
+   * @param fileNew  the name of the new image.
+   */
+  @Override
+  public void transposeAction(String fileName, String fileNew) {
+    ImageCommands t = new Transpose(fileName, fileNew, viewAction);
+    t.runCommands(gallery);
+    updateViewImage(fileNew);
+  }
+
   /**
    * Applies the horizontal flip transformation on an image. Updates the view accordingly.
    *
@@ -1,5 +1,6 @@
 package controller;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Scanner;
@@ -8,23 +9,38 @@ import java.util.function.Function;
 
 import controller.commands.BlueScale;
 import controller.commands.Blur;
+import controller.commands.BoxBlur;
 import controller.commands.Brighten;
+import controller.commands.BufferStats;
+import controller.commands.Convolve;
+import controller.commands.Crop;
+import controller.commands.CustomFilter;
 import controller.commands.Downscale;
 import controller.commands.FlipHorizontal;
 import controller.commands.FlipVertical;
+import controller.commands.FusedPoints;
+import controller.commands.GaussianBlur;
 import controller.commands.GreenScale;
 import controller.commands.GreyScale;
 import controller.commands.IntensityScale;
 import controller.commands.Load;
+import controller.commands.LoadKernels;
 import controller.commands.LumaScale;
+import controller.commands.Pyramid;
 import controller.commands.RedScale;
+import controller.commands.Resize;
+import controller.commands.Rotate;
 import controller.commands.Save;
 import controller.commands.Sepia;
 import controller.commands.Sharpen;
+import controller.commands.Transpose;
 import controller.commands.ValueScale;
 import model.ImageGallery;
+import model.KernelRegistry;
+import model.ResizeFilter;
 import view.ImageView;
 
+import static java.lang.Double.parseDouble;
 import static java.lang.Integer.parseInt;
 
 /**
@@ -35,6 +51,9 @@ public class ImageControllerImpl implements ImageController {
   private final ImageGallery gallery;
   private final ImageView view;
   private final Scanner sc;
+  private final KernelRegistry kernals = new KernelRegistry();
+  private boolean lazy;
+  private int workers = 1;
 
   /**
    * Constructor for the ImageControllerImpl class.
@@ -55,21 +74,66 @@ public class ImageControllerImpl implements ImageController {
   }
 
   /**
-   * Starts the program by giving control to the controller.
+   * Sets whether commands are recorded instead of run. A lazy controller saves a
+   * {@link model.SingleImageDeferred} under every name a command writes, and the command only runs
+   * once one of those images is read: by a save, a command that cannot be recorded, such as
+   * convolve, or the view. Images no save ever reads are never computed, and an image read by
+   * several commands is computed once. Commands that read an image not in the gallery still run
+   * right away, so they fail as they would otherwise. Any other failure, and the message of every
+   * command, point commands included, is only shown when the command runs, and a command that
+   * fails leaves the images its names had before it.
+   *
+   * @param lazy whether commands are recorded instead of run.
+   */
+  public void setLazy(boolean lazy) {
+    this.lazy = lazy;
+  }
+
+  /**
+   * Sets the number of commands that may run at the same time. With more than one, the whole
+   * input is read before any command runs, and a {@link ScriptExecutor} runs every command once
+   * the commands before it that it depends on, through the images, files or kernals they read
+   * and write, are done. The images, files and messages are the same as running the commands one
+   * after another, except for buffer-stats, whose counts depend on the order images are freed.
+   * Commands run on several workers are not lazy.
+   *
+   * @param workers the number of commands that may run at the same time.
+   * @throws IllegalArgumentException if the number is less than one.
+   */
+  public void setWorkers(int workers) throws IllegalArgumentException {
+    if (workers < 1) {
+      throw new IllegalArgumentException("Number of workers must be positive.");
+    }
+    this.workers = workers;
+  }
+
+  /**
+   * Starts the program by giving control to the controller. Point commands that each read the
+   * image the one before saved, with the same mask and region, are held back and run as one
+   * pass with {@link FusedPoints} once a command that does not continue the chain comes, or the
+   * input ends. They are checked as they come, so they fail just as they would on their own, and
+   * their messages are only shown once the chain has run. A command that fails runs the chain
+   * before it first, so every message is shown in the order of the commands.
    *
    * @throws IllegalStateException if the controller is unable to perform a command.
    */
   public void runProgram() throws IllegalStateException {
+    if (this.workers > 1) {
+      runScript();
+      return;
+    }
 
     Stack<ImageCommands> commands = new Stack<>();
 
-    Map<String, Function<Scanner, ImageCommands>> knownCommands = knownCommands();
+    Map<String, Function<Scanner, ImageCommands>> knownCommands = knownCommands(this.view);
+    CommandRunner runner = new CommandRunner(this.gallery, this.lazy, this.view);
 
     while (sc.hasNext()) {
       ImageCommands c;
       String userInput = sc.next();
       if (userInput.toLowerCase().contains("q")
               || userInput.toLowerCase().contains("quit")) {
+        runner.flush();
         this.view.renderMessage("Image processor terminated.");
         return;
       }
@@ -81,24 +145,64 @@ public class ImageControllerImpl implements ImageController {
         } else {
           c = cmd.apply(sc);
           commands.add(c);
-          c.runCommands(this.gallery);
+          runner.perform(c, this.view);
         }
       } catch (NullPointerException e) {
+        runner.flush();
         this.view.renderMessage("Invalid command. Please try again." + System.lineSeparator());
       } catch (IllegalArgumentException e) {
+        runner.flush();
         this.view.renderMessage(e.getMessage() + System.lineSeparator());
         this.view.renderMessage("Invalid command. Please try again." + System.lineSeparator());
       }
     }
+    runner.flush();
+  }
+
+  // Reads every command of the input, then runs them on several workers with a ScriptExecutor.
+  // Each command is parsed with its own view, so its messages are rendered in order later.
+  private void runScript() {
+    ScriptExecutor script = new ScriptExecutor(this.gallery, this.workers);
+    boolean quit = false;
+    while (sc.hasNext()) {
+      String userInput = sc.next();
+      if (userInput.toLowerCase().contains("q")
+              || userInput.toLowerCase().contains("quit")) {
+        quit = true;
+        break;
+      }
+      MessageBuffer messages = new MessageBuffer();
+      ImageCommands c = null;
+      try {
+        Function<Scanner, ImageCommands> cmd = knownCommands(messages).getOrDefault(userInput,
+                null);
+        if (cmd == null) {
+          throw new IllegalArgumentException("Command cannot be null.");
+        } else {
+          c = cmd.apply(sc);
+        }
+      } catch (NullPointerException e) {
+        messages.renderMessage("Invalid command. Please try again." + System.lineSeparator());
+      } catch (IllegalArgumentException e) {
+        messages.renderMessage(e.getMessage() + System.lineSeparator());
+        messages.renderMessage("Invalid command. Please try again." + System.lineSeparator());
+      }
+      script.add(c, messages);
+    }
+    script.run(this.view);
+    if (quit) {
+      this.view.renderMessage("Image processor terminated.");
+    }
   }
 
   /**
    * Creates a map of known commands.
    *
+   * @param view the view the commands render their messages to.
    * @return a map of known commands.
    */
   //
-  private Map<String, Function<Scanner, ImageCommands>> knownCommands() {
+  private Map<String, Function<Scanner, ImageCommands>> knownCommands(ImageView view) {
     Map<String, Function<Scanner, ImageCommands>> knownCommands = new HashMap<>();
     knownCommands.put("load", (Scanner s) -> {
       return new Load(s.next(), s.next(), view);
@@ -172,6 +276,20 @@ public class ImageControllerImpl implements ImageController {
     knownCommands.put("vertical-flip", (Scanner s) -> {
       return new FlipVertical(s.next(), s.next(), view);
     });
+    knownCommands.put("rotate", (Scanner s) -> {
+      String[] tokens = s.nextLine().split(" ");
+      if (tokens.length == 4) {
+        return new Rotate(parseDouble(tokens[1]), tokens[2], tokens[3], view);
+      } else if (tokens.length == 8) {
+        return new Rotate(parseDouble(tokens[1]), parseInt(tokens[4]), parseInt(tokens[5]),
+                parseInt(tokens[6]), parseInt(tokens[7]), tokens[2], tokens[3], view);
+      } else {
+        throw new IllegalArgumentException("Incorrect parameters.");
+      }
+    });
+    knownCommands.put("transpose", (Scanner s) -> {
+      return new Transpose(s.next(), s.next(), view);
+    });
     knownCommands.put("brighten", (Scanner s) -> {
       String[] tokens = s.nextLine().split(" ");
       if (tokens.length == 4) {
@@ -212,6 +330,67 @@ public class ImageControllerImpl implements ImageController {
         throw new IllegalArgumentException("Incorrect parameters.");
       }
     });
+    knownCommands.put("box-blur", (Scanner s) -> {
+      String[] tokens = s.nextLine().split(" ");
+      if (tokens.length == 4) {
+        return new BoxBlur(parseInt(tokens[1]), tokens[2], tokens[3], view);
+      } else if (tokens.length == 5) {
+        return new BoxBlur(parseInt(tokens[1]), tokens[2], tokens[3], tokens[4], view);
+      } else {
+        throw new IllegalArgumentException("Incorrect parameters.");
+      }
+    });
+    knownCommands.put("gaussian-blur", (Scanner s) -> {
+      String[] tokens = s.nextLine().split(" ");
+      if (tokens.length == 4) {
+        return new GaussianBlur(parseDouble(tokens[1]), tokens[2], tokens[3], view);
+      } else if (tokens.length == 5) {
+        return new GaussianBlur(parseDouble(tokens[1]), tokens[2], tokens[3], tokens[4], view);
+      } else {
+        throw new IllegalArgumentException("Incorrect parameters.");
+      }
+    });
+    knownCommands.put("load-kernels", (Scanner s) -> {
+      return new LoadKernels(s.next(), kernals, view);
+    });
+    knownCommands.put("convolve", (Scanner s) -> {
+      String[] tokens = s.nextLine().split(" ");
+      if (tokens.length == 4) {
+        return new Convolve(tokens[1], kernals, tokens[2], tokens[3], view);
+      } else if (tokens.length == 5) {
+        return new Convolve(tokens[1], kernals, tokens[2], tokens[3], tokens[4], view);
+      } else {
+        throw new IllegalArgumentException("Incorrect parameters.");
+      }
+    });
+    knownCommands.put("custom-filter", (Scanner s) -> {
+      String[] tokens = s.nextLine().split(" ");
+      if (tokens.length < 3) {
+        throw new IllegalArgumentException("Incorrect parameters.");
+      }
+      int rows = parseInt(tokens[1]);
+      int cols = parseInt(tokens[2]);
+      if (rows <= 0 || cols <= 0) {
+        throw new IllegalArgumentException("Incorrect parameters.");
+      }
+      int files = tokens.length - 3 - rows * cols;
+      if (files != 2 && files != 3) {
+        throw new IllegalArgumentException("Incorrect parameters.");
+      }
+      double[][] kernal = new double[rows][cols];
+      for (int i = 0; i < rows; i++) {
+        for (int j = 0; j < cols; j++) {
+          kernal[i][j] = KernelRegistry.parseWeight(tokens[3 + i * cols + j]);
+        }
+      }
+      int first = 3 + rows * cols;
+      if (files == 2) {
+        return new CustomFilter(kernal, tokens[first], tokens[first + 1], view);
+      } else {
+        return new CustomFilter(kernal, tokens[first], tokens[first + 1], tokens[first + 2],
+                view);
+      }
+    });
     knownCommands.put("sharpen", (Scanner s) -> {
       String[] tokens = s.nextLine().split(" ");
       if (tokens.length == 3) {
@@ -225,6 +404,59 @@ public class ImageControllerImpl implements ImageController {
     knownCommands.put("downscale", (Scanner s) -> {
       return new Downscale(s.nextInt(), s.nextInt(), s.next(), s.next(), view);
     });
+    knownCommands.put("resize", (Scanner s) -> {
+      return new Resize(s.nextInt(), s.nextInt(), ResizeFilter.of(s.next()), s.next(), s.next(),
+              view);
+    });
+    knownCommands.put("pyramid", (Scanner s) -> {
+      return new Pyramid(s.nextInt(), s.next(), s.next(), view);
+    });
+    knownCommands.put("buffer-stats", (Scanner s) -> {
+      return new BufferStats(view);
+    });
+    knownCommands.put("crop", (Scanner s) -> {
+      return new Crop(s.nextInt(), s.nextInt(), s.nextInt(), s.nextInt(), s.next(), s.next(),
+              view);
+    });
+    for (String name : new String[]{"red-component", "green-component", "blue-component",
+        "value-component", "luma-component", "intensity-component", "brighten", "greyscale",
+        "sepia", "blur", "box-blur", "gaussian-blur", "convolve", "custom-filter", "sharpen"}) {
+      knownCommands.put(name, withRegion(knownCommands.get(name)));
+    }
     return knownCommands;
   }
+
+  /**
+   * Lets a command take an optional {@code --roi x y width height} anywhere after its name. The
+   * region is taken out of the line, the rest of the line is parsed as before and the command is
+   * limited to the region.
+   *
+   * @param command the parser of the command.
+   * @return the parser of the command with an optional region.
+   * @throws IllegalArgumentException if the region is not followed by four numbers.
+   */
+  private static Function<Scanner, ImageCommands> withRegion(
+          Function<Scanner, ImageCommands> command) throws IllegalArgumentException {
+    return (Scanner s) -> {
+      String[] tokens = s.nextLine().split(" ");
+      int roi = Arrays.asList(tokens).indexOf("--roi");
+      if (roi < 0) {
+        return command.apply(new Scanner(String.join(" ", tokens) + System.lineSeparator()));
+      }
+      if (roi + 4 >= tokens.length) {
+        throw new IllegalArgumentException("Incorrect parameters.");
+      }
+      int[] region = new int[4];
+      for (int i = 0; i < 4; i++) {
+        region[i] = parseInt(tokens[roi + 1 + i]);
+      }
+      String[] rest = new String[tokens.length - 5];
+      System.arraycopy(tokens, 0, rest, 0, roi);
+      System.arraycopy(tokens, roi + 5, rest, roi, tokens.length - roi - 5);
+      ImageCommands c = command.apply(new Scanner(String.join(" ", rest)
+              + System.lineSeparator()));
+      c.setRegion(region[0], region[1], region[2], region[3]);
+      return c;
+    };
+  }
 }
@@ -1,6 +1,5 @@
 package controller;
 
-import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileInputStream;
@@ -9,10 +8,9 @@ import java.io.IOException;
 import javax.imageio.ImageIO;
 
 import model.ImageGallery;
-import model.RGB;
-import model.RGBImpl;
 import model.SingleImage;
-import model.SingleImageImpl;
+import model.SingleImagePacked;
+import model.WritableImage;
 import view.ImageView;
 
 /**
@@ -52,20 +50,19 @@ public class ImageUtilsIO implements ImageUtils {
     int width = img.getWidth();
     int height = img.getHeight();
 
-    RGB[][] image = new RGB[height][width];
-
+    // images large enough to be tiled or stored off-heap are copied one row at a time.
+    WritableImage image = WritableImage.create(width, height, 255);
+    if (image instanceof SingleImagePacked) {
+      // getRGB already returns the pixels packed as ARGB in row-major order.
+      img.getRGB(0, 0, width, height, image.getPackedPixels(), 0, width);
+      return image;
+    }
+    int[] row = new int[width];
     for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        int rgb = img.getRGB(j, i);
-        int r = rgb >> 16 & 0xFF;
-        int g = rgb >> 8 & 0xFF;
-        int b = rgb & 0xFF;
-        int a = rgb >> 24 & 0xFF;
-        image[i][j] = new RGBImpl(r, g, b, a);
-      }
+      img.getRGB(0, i, width, 1, row, 0, width);
+      image.setPackedRow(i, row, 0);
     }
-
-    return new SingleImageImpl(width, height, 255, image);
+    return image;
   }
 
   /**
@@ -99,22 +96,20 @@ public class ImageUtilsIO implements ImageUtils {
     }
   }
 
-  // Sets a 2D array of RGB values to a BufferedImage.
+  // Sets the packed ARGB pixels of an image to a BufferedImage. Images packed on the heap are
+  // copied in one call, every other layout is copied one row at a time.
   protected static void setRGB(BufferedImage img, SingleImage model) {
-    RGB[][] pixels = model.getPixels();
-
     int width = img.getWidth();
     int height = img.getHeight();
 
+    if (model instanceof SingleImagePacked) {
+      img.setRGB(0, 0, width, height, model.getPackedPixels(), 0, width);
+      return;
+    }
+    int[] row = new int[width];
     for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        int r = pixels[i][j].getRed();
-        int g = pixels[i][j].getGreen();
-        int b = pixels[i][j].getBlue();
-        int a = pixels[i][j].getAlpha();
-        Color color = new Color(r, g, b, a);
-        img.setRGB(j, i, color.getRGB());
-      }
+      model.getPackedRow(i, row, 0);
+      img.setRGB(0, i, width, 1, row, 0, width);
     }
   }
 }
\ No newline at end of file
@@ -8,10 +8,9 @@ import java.io.OutputStreamWriter;
 import java.util.Scanner;
 
 import model.ImageGallery;
-import model.RGB;
-import model.RGBImpl;
 import model.SingleImage;
-import model.SingleImageImpl;
+import model.SingleImagePacked;
+import model.WritableImage;
 import view.ImageView;
 
 /**
@@ -70,18 +69,24 @@ public class ImageUtilsPPM implements ImageUtils {
     int height = sc.nextInt();
     int maxValue = sc.nextInt();
 
-    RGB[][] image = new RGB[height][width];
+    // the image is written one row at a time, so very large images never exist on the heap.
+    WritableImage image = WritableImage.create(width, height, maxValue);
+    int[] row = new int[width];
 
     for (int i = 0; i < height; i++) {
       for (int j = 0; j < width; j++) {
         int r = sc.nextInt();
         int g = sc.nextInt();
         int b = sc.nextInt();
-        image[i][j] = new RGBImpl(r, g, b);
+        if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255) {
+          throw new IllegalArgumentException("Invalid RGB values!");
+        }
+        row[j] = SingleImagePacked.pack(r, g, b, 0);
       }
+      image.setPackedRow(i, row, 0);
     }
 
-    return new SingleImageImpl(width, height, maxValue, image);
+    return image;
   }
 
   /**
@@ -100,9 +105,12 @@ public class ImageUtilsPPM implements ImageUtils {
       writer.write("P3" + System.lineSeparator() + (model.getWidth() + " " + model.getHeight()
               + System.lineSeparator()) + model.getMaxValue() + System.lineSeparator());
 
+      int[] row = new int[model.getWidth()];
       for (int i = 0; i < model.getHeight(); i++) {
-        for (int j = 0; j < model.getWidth(); j++) {
-          writer.write(model.getPixel(i, j) + System.lineSeparator());
+        model.getPackedRow(i, row, 0);
+        for (int pixel : row) {
+          writer.write((pixel >> 16 & 0xFF) + " " + (pixel >> 8 & 0xFF) + " " + (pixel & 0xFF)
+                  + " " + System.lineSeparator());
         }
       }
       writer.flush();
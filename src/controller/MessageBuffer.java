@@ -0,0 +1,35 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import view.ImageView;
+
+/**
+ * Holds the messages of a command that runs out of order, so they can be rendered in the order
+ * of the commands once it is done.
+ */
+final class MessageBuffer implements ImageView {
+  private final List<String> messages = new ArrayList<>();
+
+  /**
+   * Holds a message to be rendered later.
+   *
+   * @param message the message to render.
+   */
+  @Override
+  public void renderMessage(String message) {
+    this.messages.add(message);
+  }
+
+  /**
+   * Renders the messages held, in the order they came, to the given view.
+   *
+   * @param view the view to render the messages to.
+   */
+  void renderTo(ImageView view) {
+    for (String message : this.messages) {
+      view.renderMessage(message);
+    }
+  }
+}
@@ -0,0 +1,225 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import controller.commands.PointCommand;
+import model.ImageGallery;
+import view.ImageView;
+
+/**
+ * Runs a whole script of parsed commands on a pool of workers. Each command depends on the
+ * commands before it that write what it reads, and that read or write what it writes: names of
+ * the gallery, files and the loaded kernals, as listed by {@link ImageCommands#getReads()},
+ * {@link ImageCommands#getWrites()}, {@link ImageCommands#getOtherReads()} and
+ * {@link ImageCommands#getOtherWrites()}. A command runs as soon as the commands it depends on
+ * are done, so commands on different images run at the same time, while every command sees the
+ * gallery and files just as it would if the script ran in order. A command that does not list
+ * what it reads and writes waits for every command before it, and every command after it waits
+ * for it. The messages of each command, including its failure, are held and rendered in the
+ * order of the script.
+ */
+final class ScriptExecutor {
+  private final ImageGallery gallery;
+  private final int workers;
+  private final List<Task> tasks = new ArrayList<>();
+
+  /**
+   * Constructs an executor of a script on the given gallery.
+   *
+   * @param gallery the gallery that stores the images, which must be safe to use from several
+   *                threads.
+   * @param workers the number of commands that may run at the same time.
+   */
+  ScriptExecutor(ImageGallery gallery, int workers) {
+    this.gallery = gallery;
+    this.workers = workers;
+  }
+
+  /**
+   * Adds the next command of the script. A point command that reads the image the point command
+   * before it saves, with the same mask and region, joins its task, so the chain still runs as
+   * one pass.
+   *
+   * @param c        the command, or null if it failed to parse.
+   * @param messages the messages of the command, which it renders to as it runs.
+   */
+  void add(ImageCommands c, MessageBuffer messages) {
+    Task last = this.tasks.isEmpty() ? null : this.tasks.get(this.tasks.size() - 1);
+    if (last != null && continues(last.commands.get(last.commands.size() - 1), c)) {
+      last.add(c, messages);
+    } else {
+      Task task = new Task();
+      task.add(c, messages);
+      this.tasks.add(task);
+    }
+  }
+
+  // Returns whether the second command is a point command that may be fused with the first.
+  private static boolean continues(ImageCommands first, ImageCommands second) {
+    if (!(first instanceof PointCommand) || !(second instanceof PointCommand)) {
+      return false;
+    }
+    PointCommand before = (PointCommand) first;
+    PointCommand after = (PointCommand) second;
+    return after.getFileName().equals(before.getFileNew())
+            && after.getFileMask().equals(before.getFileMask())
+            && Arrays.equals(after.getRegion(), before.getRegion());
+  }
+
+  /**
+   * Runs every command added and renders their messages to the view in the order of the
+   * script, each once the command is done.
+   *
+   * @param view the view to render the messages to.
+   * @throws IllegalStateException if a command is unable to run.
+   */
+  void run(ImageView view) throws IllegalStateException {
+    plan();
+    ExecutorService pool = Executors.newFixedThreadPool(this.workers, work -> {
+      Thread thread = new Thread(work, "script-worker");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      List<CompletableFuture<Void>> done = new ArrayList<>();
+      for (int i = 0; i < this.tasks.size(); i++) {
+        Task task = this.tasks.get(i);
+        List<CompletableFuture<Void>> before = new ArrayList<>();
+        for (int dependency : task.dependencies) {
+          before.add(done.get(dependency));
+        }
+        done.add(CompletableFuture.allOf(before.toArray(new CompletableFuture<?>[0]))
+                .thenRunAsync(task::run, pool));
+      }
+      for (int i = 0; i < this.tasks.size(); i++) {
+        try {
+          done.get(i).join();
+        } catch (CompletionException e) {
+          this.tasks.get(i).renderTo(view);
+          if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
+          }
+          throw e;
+        }
+        this.tasks.get(i).renderTo(view);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  // Works out the tasks each task waits for, from what they read and write, in the order of the
+  // script.
+  private void plan() {
+    // the last task that wrote each name or file, and the tasks that read it since.
+    Map<Object, Integer> writers = new HashMap<>();
+    Map<Object, List<Integer>> readers = new HashMap<>();
+    List<Integer> sinceBarrier = new ArrayList<>();
+    int barrier = -1;
+    for (int i = 0; i < this.tasks.size(); i++) {
+      Task task = this.tasks.get(i);
+      if (barrier >= 0) {
+        task.dependencies.add(barrier);
+      }
+      if (task.reads == null) {
+        task.dependencies.addAll(sinceBarrier);
+        sinceBarrier.clear();
+        writers.clear();
+        readers.clear();
+        barrier = i;
+        continue;
+      }
+      for (Object key : task.reads) {
+        if (writers.containsKey(key)) {
+          task.dependencies.add(writers.get(key));
+        }
+      }
+      for (Object key : task.writes) {
+        if (writers.containsKey(key)) {
+          task.dependencies.add(writers.get(key));
+        }
+        task.dependencies.addAll(readers.getOrDefault(key, new ArrayList<>()));
+      }
+      task.dependencies.remove(i);
+      for (Object key : task.reads) {
+        readers.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+      }
+      for (Object key : task.writes) {
+        writers.put(key, i);
+        readers.remove(key);
+      }
+      sinceBarrier.add(i);
+    }
+  }
+
+  /**
+   * A run of commands that run in order on one worker: a single command, or a chain of point
+   * commands fused into one pass.
+   */
+  private final class Task {
+    private final List<ImageCommands> commands = new ArrayList<>();
+    private final List<MessageBuffer> messages = new ArrayList<>();
+    // what the commands read and write, or null if one of them does not say.
+    private Set<Object> reads = new HashSet<>();
+    private Set<Object> writes = new HashSet<>();
+    private final Set<Integer> dependencies = new HashSet<>();
+
+    private void add(ImageCommands c, MessageBuffer buffer) {
+      this.commands.add(c);
+      this.messages.add(buffer);
+      if (c == null || this.reads == null) {
+        return;
+      }
+      List<String> names = c.getReads();
+      List<String> saved = c.getWrites();
+      List<Object> otherReads = c.getOtherReads();
+      List<Object> otherWrites = c.getOtherWrites();
+      if (names == null || saved == null || otherReads == null || otherWrites == null) {
+        this.reads = null;
+        this.writes = null;
+        return;
+      }
+      this.reads.addAll(names);
+      this.reads.addAll(otherReads);
+      this.writes.addAll(saved);
+      this.writes.addAll(otherWrites);
+    }
+
+    // Runs the commands as the controller runs them in order, reporting each to its messages.
+    private void run() {
+      CommandRunner runner = new CommandRunner(ScriptExecutor.this.gallery, false, null);
+      for (int k = 0; k < this.commands.size(); k++) {
+        ImageCommands c = this.commands.get(k);
+        MessageBuffer out = this.messages.get(k);
+        if (c == null) {
+          continue;
+        }
+        try {
+          runner.perform(c, out);
+        } catch (NullPointerException e) {
+          out.renderMessage("Invalid command. Please try again." + System.lineSeparator());
+        } catch (IllegalArgumentException e) {
+          out.renderMessage(e.getMessage() + System.lineSeparator());
+          out.renderMessage("Invalid command. Please try again." + System.lineSeparator());
+        }
+      }
+      runner.flush();
+    }
+
+    private void renderTo(ImageView view) {
+      for (MessageBuffer buffer : this.messages) {
+        buffer.renderTo(view);
+      }
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package controller.commands;
+
+import model.ImageGallery;
+import view.ImageView;
+
+/**
+ * Creates an image blurred with the average of the pixels within a radius of each pixel.
+ */
+public class BoxBlur extends PixelCommandBase {
+  protected final int radius;
+
+  /**
+   * Constructor to assign the radius, file name, new file name, and view to render
+   * messages.
+   *
+   * @param radius   the number of pixels on each side of a pixel that are averaged.
+   * @param fileName the file to read from.
+   * @param fileNew  the given name of the file.
+   * @param view     the view to display the image (used for rendering messages).
+   * @throws IllegalArgumentException if the file name or new file name is null.
+   */
+  public BoxBlur(int radius, String fileName, String fileNew, ImageView view)
+          throws IllegalArgumentException {
+    super(fileName, fileNew, view);
+    this.radius = radius;
+  }
+
+  /**
+   * Constructor to assign the radius, file name, mask name, new file name, and view to
+   * render messages.
+   *
+   * @param radius   the number of pixels on each side of a pixel that are averaged.
+   * @param fileName the file to read from.
+   * @param fileMask the mask file.
+   * @param fileNew  the given name of the file.
+   * @param view     the view to display the image (used for rendering messages).
+   * @throws IllegalArgumentException if the file name or new file name is null.
+   */
+  public BoxBlur(int radius, String fileName, String fileMask, String fileNew,
+                 ImageView view) throws IllegalArgumentException {
+    super(fileName, fileMask, fileNew, view);
+    this.radius = radius;
+  }
+
+  /**
+   * Returns the message rendered once the command has run.
+   *
+   * @return the message.
+   */
+  @Override
+  public String getMessage() {
+    return "Successfully blurred " + this.fileName + " with radius " + this.radius
+            + " and saved as " + this.fileNew + System.lineSeparator();
+  }
+
+  /**
+   * Performs the command on the given image.
+   *
+   * @param gallery the gallery that stores the images.
+   */
+  @Override
+  public void runCommands(ImageGallery gallery) {
+    gallery.put(this.fileNew, filter(gallery).boxBlur(this.radius));
+    this.view.renderMessage(getMessage());
+  }
+}
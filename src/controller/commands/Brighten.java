@@ -1,21 +1,15 @@
 package controller.commands;
 
-import controller.ImageCommands;
-import model.ImageGallery;
-import model.SingleImage;
-import model.TransformationsImpl;
+import model.LookupTable;
+import model.PointOperation;
 import view.ImageView;
 
 /**
  * Brightens an image by a given factor. If the factor is positive, the image is brightened.
  * If the factor is negative, the image is darkened.
  */
-public class Brighten implements ImageCommands {
-  protected final String fileName;
-  protected final String fileNew;
-  protected String fileMask = "";
+public class Brighten extends PointCommandBase {
   protected final int constant;
-  protected final ImageView view;
 
   /**
    * Constructor to assign the file name, new file name, and view to render messages.
@@ -26,13 +20,8 @@ public class Brighten implements ImageCommands {
    */
   public Brighten(int constant, String fileName, String fileNew, ImageView view)
           throws IllegalArgumentException {
-    if ((fileName == null) || (fileNew == null) || (view == null)) {
-      throw new IllegalArgumentException("Arguments cannot be null");
-    }
+    super(fileName, fileNew, view);
     this.constant = constant;
-    this.fileName = fileName;
-    this.fileNew = fileNew;
-    this.view = view;
   }
 
   /**
@@ -46,36 +35,36 @@ public class Brighten implements ImageCommands {
    */
   public Brighten(int constant, String fileName, String fileMask, String fileNew, ImageView view)
           throws IllegalArgumentException {
-    this(constant, fileName, fileNew, view);
-    if (fileMask == null) {
-      throw new IllegalArgumentException("fileMask cannot be null");
-    }
-    this.fileMask = fileMask;
+    super(fileName, fileMask, fileNew, view);
+    this.constant = constant;
   }
 
   /**
-   * Performs the command on the given image.
+   * Returns the point operation the command applies.
    *
-   * @param gallery the gallery that stores the images.
+   * @return the operation.
+   * @throws IllegalArgumentException if the constant is 0.
    */
   @Override
-  public void runCommands(ImageGallery gallery) {
-    TransformationsImpl transform;
-    if (fileMask.length() > 0) {
-      transform = new TransformationsImpl(gallery.getImage(this.fileName),
-              gallery.getImage(this.fileMask));
-    } else {
-      transform = new TransformationsImpl(gallery.getImage(this.fileName));
+  public PointOperation getOperation() throws IllegalArgumentException {
+    if (this.constant == 0) {
+      throw new IllegalArgumentException("Brighten command requires a non-zero constant.");
     }
-    SingleImage newImage;
-    newImage = transform.brighten(constant);
-    gallery.put(this.fileNew, newImage);
-    if (constant > 0) {
-      this.view.renderMessage("Successfully brightened " + this.fileName + " by " + this.constant
-              + " and saved as " + this.fileNew + System.lineSeparator());
-    } else {
-      this.view.renderMessage(("Successfully darkened " + this.fileName + " by " + this.constant
-              + " and saved as " + this.fileNew + System.lineSeparator()));
+    return PointOperation.of(LookupTable.brighten(this.constant));
+  }
+
+  /**
+   * Returns the message rendered once the command has run.
+   *
+   * @return the message.
+   */
+  @Override
+  public String getMessage() {
+    if (this.constant > 0) {
+      return "Successfully brightened " + this.fileName + " by " + this.constant
+              + " and saved as " + this.fileNew + System.lineSeparator();
     }
+    return "Successfully darkened " + this.fileName + " by " + this.constant
+            + " and saved as " + this.fileNew + System.lineSeparator();
   }
 }
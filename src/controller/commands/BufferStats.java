@@ -0,0 +1,39 @@
+package controller.commands;
+
+import controller.ImageCommands;
+import model.BufferPool;
+import model.ImageGallery;
+import view.ImageView;
+
+/**
+ * Reports how well the buffer pool recycles the pixel arrays of images.
+ */
+public class BufferStats implements ImageCommands {
+  protected final ImageView view;
+
+  /**
+   * Constructor to assign the view to render messages.
+   *
+   * @param view the view to display the statistics (used for rendering messages).
+   * @throws IllegalArgumentException if the view is null.
+   */
+  public BufferStats(ImageView view) throws IllegalArgumentException {
+    if (view == null) {
+      throw new IllegalArgumentException("Arguments cannot be null");
+    }
+    this.view = view;
+  }
+
+  /**
+   * Performs the command, rendering the statistics of the buffer pool.
+   *
+   * @param gallery the gallery that stores the images.
+   */
+  @Override
+  public void runCommands(ImageGallery gallery) {
+    this.view.renderMessage("Buffer pool: " + BufferPool.getHits() + " hits, "
+            + BufferPool.getMisses() + " misses, " + BufferPool.getReturned() + " returned, "
+            + BufferPool.getDropped() + " dropped, " + BufferPool.getPooledBytes() / 1024
+            + " KB pooled" + System.lineSeparator());
+  }
+}
@@ -0,0 +1,93 @@
+package controller.commands;
+
+import java.util.Arrays;
+import java.util.List;
+
+import model.ImageGallery;
+import model.KernelRegistry;
+import view.ImageView;
+
+/**
+ * Creates an image filtered with a named kernal from a kernal registry.
+ */
+public class Convolve extends PixelCommandBase {
+  protected final String kernalName;
+  protected final KernelRegistry kernals;
+
+  /**
+   * Constructor to assign the kernal name, registry, file name, new file name, and view to render
+   * messages.
+   *
+   * @param kernalName the name of the kernal in the registry.
+   * @param kernals    the registry of kernals.
+   * @param fileName   the file to read from.
+   * @param fileNew    the given name of the file.
+   * @param view       the view to display the image (used for rendering messages).
+   * @throws IllegalArgumentException if any argument is null.
+   */
+  public Convolve(String kernalName, KernelRegistry kernals, String fileName, String fileNew,
+                  ImageView view) throws IllegalArgumentException {
+    super(fileName, fileNew, view);
+    if ((kernalName == null) || (kernals == null)) {
+      throw new IllegalArgumentException("Arguments cannot be null");
+    }
+    this.kernalName = kernalName;
+    this.kernals = kernals;
+  }
+
+  /**
+   * Constructor to assign the kernal name, registry, file name, mask name, new file name, and
+   * view to render messages.
+   *
+   * @param kernalName the name of the kernal in the registry.
+   * @param kernals    the registry of kernals.
+   * @param fileName   the file to read from.
+   * @param fileMask   the mask file.
+   * @param fileNew    the given name of the file.
+   * @param view       the view to display the image (used for rendering messages).
+   * @throws IllegalArgumentException if any argument is null.
+   */
+  public Convolve(String kernalName, KernelRegistry kernals, String fileName, String fileMask,
+                  String fileNew, ImageView view) throws IllegalArgumentException {
+    super(fileName, fileMask, fileNew, view);
+    if ((kernalName == null) || (kernals == null)) {
+      throw new IllegalArgumentException("Arguments cannot be null");
+    }
+    this.kernalName = kernalName;
+    this.kernals = kernals;
+  }
+
+  /**
+   * Returns what the command reads besides images of the gallery.
+   *
+   * @return the registry the kernal is looked up in.
+   */
+  @Override
+  public List<Object> getOtherReads() {
+    return Arrays.asList(this.kernals);
+  }
+
+  /**
+   * Returns the message rendered once the command has run.
+   *
+   * @return the message.
+   */
+  @Override
+  public String getMessage() {
+    return "Successfully filtered " + this.fileName + " with kernal "
+            + this.kernalName + " and saved as " + this.fileNew + System.lineSeparator();
+  }
+
+  /**
+   * Performs the command on the given image.
+   *
+   * @param gallery the gallery that stores the images.
+   * @throws IllegalArgumentException if no kernal has the name.
+   */
+  @Override
+  public void runCommands(ImageGallery gallery) throws IllegalArgumentException {
+    double[][] kernal = this.kernals.get(this.kernalName);
+    gallery.put(this.fileNew, filter(gallery).convolve(kernal));
+    this.view.renderMessage(getMessage());
+  }
+}
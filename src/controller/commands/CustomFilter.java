@@ -0,0 +1,73 @@
+package controller.commands;
+
+import model.ImageGallery;
+import view.ImageView;
+
+/**
+ * Creates an image filtered with a kernal of any odd size given by the user.
+ */
+public class CustomFilter extends PixelCommandBase {
+  protected final double[][] kernal;
+
+  /**
+   * Constructor to assign the kernal, file name, new file name, and view to render
+   * messages.
+   *
+   * @param kernal   the weights of the kernal, with an odd number of rows and of columns.
+   * @param fileName the file to read from.
+   * @param fileNew  the given name of the file.
+   * @param view     the view to display the image (used for rendering messages).
+   * @throws IllegalArgumentException if the kernal, file name or new file name is null.
+   */
+  public CustomFilter(double[][] kernal, String fileName, String fileNew, ImageView view)
+          throws IllegalArgumentException {
+    super(fileName, fileNew, view);
+    if ((kernal == null)) {
+      throw new IllegalArgumentException("Arguments cannot be null");
+    }
+    this.kernal = kernal;
+  }
+
+  /**
+   * Constructor to assign the kernal, file name, mask name, new file name, and view to
+   * render messages.
+   *
+   * @param kernal   the weights of the kernal, with an odd number of rows and of columns.
+   * @param fileName the file to read from.
+   * @param fileMask the mask file.
+   * @param fileNew  the given name of the file.
+   * @param view     the view to display the image (used for rendering messages).
+   * @throws IllegalArgumentException if the kernal, file name or new file name is null.
+   */
+  public CustomFilter(double[][] kernal, String fileName, String fileMask, String fileNew,
+                      ImageView view) throws IllegalArgumentException {
+    super(fileName, fileMask, fileNew, view);
+    if ((kernal == null)) {
+      throw new IllegalArgumentException("Arguments cannot be null");
+    }
+    this.kernal = kernal;
+  }
+
+  /**
+   * Returns the message rendered once the command has run.
+   *
+   * @return the message.
+   */
+  @Override
+  public String getMessage() {
+    return "Successfully filtered " + this.fileName + " with a "
+            + this.kernal.length + "x" + this.kernal[0].length + " kernal and saved as "
+            + this.fileNew + System.lineSeparator();
+  }
+
+  /**
+   * Performs the command on the given image.
+   *
+   * @param gallery the gallery that stores the images.
+   */
+  @Override
+  public void runCommands(ImageGallery gallery) {
+    gallery.put(this.fileNew, filter(gallery).convolve(this.kernal));
+    this.view.renderMessage(getMessage());
+  }
+}
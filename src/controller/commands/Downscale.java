@@ -1,5 +1,8 @@
 package controller.commands;
 
+import java.util.Arrays;
+import java.util.List;
+
 import controller.ImageCommands;
 import model.ImageGallery;
 import model.SingleImage;
@@ -35,6 +38,26 @@ public class Downscale implements ImageCommands {
     this.view = view;
   }
 
+  /**
+   * Returns the names of the images the command reads from the gallery.
+   *
+   * @return the names the command reads.
+   */
+  @Override
+  public List<String> getReads() {
+    return Arrays.asList(this.fileName);
+  }
+
+  /**
+   * Returns the names the command saves images under.
+   *
+   * @return the names the command writes.
+   */
+  @Override
+  public List<String> getWrites() {
+    return Arrays.asList(this.fileNew);
+  }
+
   /**
    * Performs the command on the given image.
    *
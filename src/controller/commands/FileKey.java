@@ -0,0 +1,30 @@
+package controller.commands;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Names the file a command loads or saves, so commands on the same file can be ordered.
+ */
+final class FileKey {
+
+  private FileKey() {
+  }
+
+  /**
+   * Returns the file at the given path as the only thing a command reads or writes besides
+   * images, with the path made absolute so that different spellings of one file are equal.
+   *
+   * @param path the path of the file.
+   * @return a list of the path of the file, or null if the path is not valid.
+   */
+  static List<Object> of(String path) {
+    try {
+      return Collections.singletonList(Paths.get(path).toAbsolutePath().normalize());
+    } catch (InvalidPathException e) {
+      return null;
+    }
+  }
+}
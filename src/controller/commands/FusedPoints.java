@@ -0,0 +1,157 @@
+package controller.commands;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import controller.ImageCommands;
+import model.ImageGallery;
+import model.PointOperation;
+import model.TransformationsImpl;
+
+/**
+ * Runs a chain of point commands, each reading the image the one before it saved with the same
+ * mask and region, as a single pass over the source of the first one. The operations of the
+ * commands are composed into one {@link PointOperation}, so the images between the steps are
+ * never made: the last image is computed once, and an image saved on the way under a name no
+ * later step saves over is kept as a view that is only computed if it is read.
+ */
+public class FusedPoints implements ImageCommands {
+  private final List<PointCommand> commands = new ArrayList<>();
+  // the operation of the chain up to and including each command.
+  private final List<PointOperation> operations = new ArrayList<>();
+  private final String fileName;
+  private final String fileMask;
+  private final int[] region;
+  // the source read when the chain started, or null to read it when the chain runs.
+  private TransformationsImpl transform;
+
+  /**
+   * Starts a chain with its first command. The source and the mask are read from the gallery
+   * right away, so the chain fails to start wherever the command would fail on its own.
+   *
+   * @param first   the first command of the chain.
+   * @param gallery the gallery that stores the images.
+   * @throws IllegalArgumentException if the command is null, or if its images or arguments are
+   *                                  invalid.
+   */
+  public FusedPoints(PointCommand first, ImageGallery gallery) throws IllegalArgumentException {
+    this(first);
+    if (gallery == null) {
+      throw new IllegalArgumentException("Arguments cannot be null");
+    }
+    this.transform = PixelCommandBase.source(gallery, this.fileName, this.fileMask, this.region);
+  }
+
+  /**
+   * Starts a chain with its first command without reading its images, which are then only read
+   * from the gallery the chain runs on. Only the arguments of the command are checked.
+   *
+   * @param first the first command of the chain.
+   * @throws IllegalArgumentException if the command is null or its arguments are invalid.
+   */
+  public FusedPoints(PointCommand first) throws IllegalArgumentException {
+    if (first == null) {
+      throw new IllegalArgumentException("Arguments cannot be null");
+    }
+    PointOperation operation = first.getOperation();
+    this.fileName = first.getFileName();
+    this.fileMask = first.getFileMask();
+    this.region = first.getRegion();
+    this.commands.add(first);
+    this.operations.add(operation);
+  }
+
+  /**
+   * Adds a command to the end of the chain if it reads the image the chain saves last, with the
+   * same mask and region, and the chain has not saved over the mask.
+   *
+   * @param next the command to add.
+   * @return true if the command was added, false if it has to run on its own.
+   * @throws IllegalArgumentException if the arguments of the command are invalid.
+   */
+  public boolean add(PointCommand next) throws IllegalArgumentException {
+    if (!next.getFileName().equals(getFileNew()) || !next.getFileMask().equals(this.fileMask)
+            || !Arrays.equals(next.getRegion(), this.region) || saves(this.fileMask, 0)) {
+      return false;
+    }
+    PointOperation operation = this.operations.get(this.operations.size() - 1)
+            .andThen(next.getOperation());
+    this.commands.add(next);
+    this.operations.add(operation);
+    return true;
+  }
+
+  /**
+   * Returns the name the last command of the chain saves its image as.
+   *
+   * @return the name of the last image.
+   */
+  public String getFileNew() {
+    return this.commands.get(this.commands.size() - 1).getFileNew();
+  }
+
+  /**
+   * Returns the names of the images the chain reads from the gallery.
+   *
+   * @return the source and the mask of the chain.
+   */
+  @Override
+  public List<String> getReads() {
+    if (this.fileMask.length() > 0) {
+      return Arrays.asList(this.fileName, this.fileMask);
+    }
+    return Arrays.asList(this.fileName);
+  }
+
+  /**
+   * Returns the names the commands of the chain save images under, each once.
+   *
+   * @return the names the chain writes.
+   */
+  @Override
+  public List<String> getWrites() {
+    List<String> names = new ArrayList<>();
+    for (PointCommand command : this.commands) {
+      if (!names.contains(command.getFileNew())) {
+        names.add(command.getFileNew());
+      }
+    }
+    return names;
+  }
+
+  // Returns whether a command from the given one on saves an image under the given name.
+  private boolean saves(String name, int from) {
+    for (int k = from; k < this.commands.size(); k++) {
+      if (this.commands.get(k).getFileNew().equals(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Saves the image of every command of the chain. The last image is computed in a single pass,
+   * written over the source when the last command saves over it and nothing else reads it, and
+   * every other image still under its name afterwards is saved as a view of the source.
+   *
+   * @param gallery the gallery that stores the images.
+   */
+  @Override
+  public void runCommands(ImageGallery gallery) {
+    TransformationsImpl transform = this.transform != null ? this.transform
+            : PixelCommandBase.source(gallery, this.fileName, this.fileMask, this.region);
+    int last = this.commands.size() - 1;
+    boolean views = false;
+    for (int k = 0; k < last; k++) {
+      String name = this.commands.get(k).getFileNew();
+      if (!saves(name, k + 1)) {
+        gallery.put(name, transform.pointOperationView(this.operations.get(k)));
+        views = true;
+      }
+    }
+    transform.setInPlace(!views && InPlace.allowed(gallery, this.fileName, this.fileMask,
+            getFileNew()));
+    gallery.put(getFileNew(), transform.pointOperation(this.operations.get(last)));
+  }
+}
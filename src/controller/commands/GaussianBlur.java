@@ -0,0 +1,66 @@
+package controller.commands;
+
+import model.ImageGallery;
+import view.ImageView;
+
+/**
+ * Creates an image blurred with a gaussian of a given standard deviation.
+ */
+public class GaussianBlur extends PixelCommandBase {
+  protected final double sigma;
+
+  /**
+   * Constructor to assign the standard deviation, file name, new file name, and view to render
+   * messages.
+   *
+   * @param sigma    the standard deviation of the gaussian in pixels.
+   * @param fileName the file to read from.
+   * @param fileNew  the given name of the file.
+   * @param view     the view to display the image (used for rendering messages).
+   * @throws IllegalArgumentException if the file name or new file name is null.
+   */
+  public GaussianBlur(double sigma, String fileName, String fileNew, ImageView view)
+          throws IllegalArgumentException {
+    super(fileName, fileNew, view);
+    this.sigma = sigma;
+  }
+
+  /**
+   * Constructor to assign the standard deviation, file name, mask name, new file name, and view to
+   * render messages.
+   *
+   * @param sigma    the standard deviation of the gaussian in pixels.
+   * @param fileName the file to read from.
+   * @param fileMask the mask file.
+   * @param fileNew  the given name of the file.
+   * @param view     the view to display the image (used for rendering messages).
+   * @throws IllegalArgumentException if the file name or new file name is null.
+   */
+  public GaussianBlur(double sigma, String fileName, String fileMask, String fileNew,
+                      ImageView view) throws IllegalArgumentException {
+    super(fileName, fileMask, fileNew, view);
+    this.sigma = sigma;
+  }
+
+  /**
+   * Returns the message rendered once the command has run.
+   *
+   * @return the message.
+   */
+  @Override
+  public String getMessage() {
+    return "Successfully blurred " + this.fileName + " with sigma " + this.sigma
+            + " and saved as " + this.fileNew + System.lineSeparator();
+  }
+
+  /**
+   * Performs the command on the given image.
+   *
+   * @param gallery the gallery that stores the images.
+   */
+  @Override
+  public void runCommands(ImageGallery gallery) {
+    gallery.put(this.fileNew, filter(gallery).gaussianBlur(this.sigma));
+    this.view.renderMessage(getMessage());
+  }
+}
@@ -1,21 +1,13 @@
 package controller.commands;
 
-import java.io.IOException;
-
-import controller.ImageCommands;
-import model.ImageGallery;
-import model.SingleImage;
-import model.TransformationsImpl;
+import model.ColorMatrix;
+import model.PointOperation;
 import view.ImageView;
 
 /**
  * Creates a greyscale image using the luma matrix.
  */
-public class GreyScale implements ImageCommands {
-  protected final String fileName;
-  protected final String fileNew;
-  protected String fileMask = "";
-  protected final ImageView view;
+public class GreyScale extends PointCommandBase {
 
   /**
    * Constructor to assign the file name, new file name, and view to render messages.
@@ -27,12 +19,7 @@ public class GreyScale implements ImageCommands {
    */
   public GreyScale(String fileName, String fileNew, ImageView view)
           throws IllegalArgumentException {
-    if ((fileName == null) || (fileNew == null) || (view == null)) {
-      throw new IllegalArgumentException("Arguments cannot be null");
-    }
-    this.fileName = fileName;
-    this.fileNew = fileNew;
-    this.view = view;
+    super(fileName, fileNew, view);
   }
 
   /**
@@ -46,31 +33,27 @@ public class GreyScale implements ImageCommands {
    */
   public GreyScale(String fileName, String fileMask, String fileNew, ImageView view)
           throws IllegalArgumentException {
-    this(fileName, fileNew, view);
-    if (fileMask == null) {
-      throw new IllegalArgumentException("fileMask cannot be null");
-    }
-    this.fileMask = fileMask;
+    super(fileName, fileMask, fileNew, view);
+  }
+
+  /**
+   * Returns the point operation the command applies.
+   *
+   * @return the operation.
+   */
+  @Override
+  public PointOperation getOperation() {
+    return PointOperation.of(ColorMatrix.LUMA);
   }
 
   /**
-   * Performs the command on the given image.
+   * Returns the message rendered once the command has run.
    *
-   * @param gallery the gallery that stores the images.
-   * @throws IOException if the file cannot be written.
+   * @return the message.
    */
   @Override
-  public void runCommands(ImageGallery gallery) {
-    TransformationsImpl transform;
-    if (fileMask.length() > 0) {
-      transform = new TransformationsImpl(gallery.getImage(this.fileName),
-              gallery.getImage(this.fileMask));
-    } else {
-      transform = new TransformationsImpl(gallery.getImage(this.fileName));
-    }
-    SingleImage newImage = transform.greyScale();
-    gallery.put(this.fileNew, newImage);
-    this.view.renderMessage("Successfully grayscaled " + this.fileName
-            + " and saved as " + this.fileNew + System.lineSeparator());
+  public String getMessage() {
+    return "Successfully grayscaled " + this.fileName
+            + " and saved as " + this.fileNew + System.lineSeparator();
   }
 }
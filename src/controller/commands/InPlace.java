@@ -0,0 +1,30 @@
+package controller.commands;
+
+import model.ImageGallery;
+
+/**
+ * Decides when a point operation may write its result over the pixels of its source, which saves
+ * allocating a whole new image for commands such as {@code brighten 10 img img}.
+ */
+final class InPlace {
+
+  private InPlace() {
+  }
+
+  /**
+   * Returns whether a point operation may write over its source: the new image replaces the
+   * source under the same name, no other name reads the pixels of the source and the source is
+   * not its own mask.
+   *
+   * @param gallery  the gallery that stores the images.
+   * @param fileName the name of the source.
+   * @param fileMask the name of the mask, or an empty string without a mask.
+   * @param fileNew  the name of the new image.
+   * @return true if the operation may write over the source.
+   */
+  static boolean allowed(ImageGallery gallery, String fileName, String fileMask,
+                         String fileNew) {
+    return fileNew.equals(fileName) && !fileMask.equals(fileName)
+            && !gallery.isShared(fileName);
+  }
+}
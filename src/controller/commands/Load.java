@@ -1,5 +1,9 @@
 package controller.commands;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import controller.ImageCommands;
 import controller.ImageUtils;
 import controller.ImageUtilsIO;
@@ -33,6 +37,36 @@ public class Load implements ImageCommands {
     this.view = view;
   }
 
+  /**
+   * Returns the names of the images the command reads from the gallery.
+   *
+   * @return the names the command reads.
+   */
+  @Override
+  public List<String> getReads() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Returns the names the command saves images under.
+   *
+   * @return the names the command writes.
+   */
+  @Override
+  public List<String> getWrites() {
+    return Arrays.asList(this.fileName);
+  }
+
+  /**
+   * Returns what the command reads besides images of the gallery.
+   *
+   * @return the path of the file to load.
+   */
+  @Override
+  public List<Object> getOtherReads() {
+    return FileKey.of(this.fileInput);
+  }
+
   /**
    * Performs the command on the given image.
    *
@@ -0,0 +1,103 @@
+package controller.commands;
+
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import controller.ImageCommands;
+import model.ImageGallery;
+import model.KernelRegistry;
+import view.ImageView;
+
+/**
+ * Loads named kernals from a file into a kernal registry, so they can be applied with the
+ * convolve command.
+ */
+public class LoadKernels implements ImageCommands {
+  protected final String fileInput;
+  protected final KernelRegistry kernals;
+  protected final ImageView view;
+
+  /**
+   * Constructor to assign the file input, the registry to load into, and view to render
+   * messages.
+   *
+   * @param fileInput the file to read from.
+   * @param kernals   the registry of kernals.
+   * @param view      the view to display the image (used for rendering messages).
+   * @throws IllegalArgumentException if any argument is null.
+   */
+  public LoadKernels(String fileInput, KernelRegistry kernals, ImageView view)
+          throws IllegalArgumentException {
+    if ((fileInput == null) || (kernals == null) || (view == null)) {
+      throw new IllegalArgumentException("Arguments cannot be null");
+    }
+    this.fileInput = fileInput;
+    this.kernals = kernals;
+    this.view = view;
+  }
+
+  /**
+   * Returns the names of the images the command reads from the gallery.
+   *
+   * @return the names the command reads.
+   */
+  @Override
+  public List<String> getReads() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Returns the names the command saves images under.
+   *
+   * @return the names the command writes.
+   */
+  @Override
+  public List<String> getWrites() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Returns what the command reads besides images of the gallery.
+   *
+   * @return the path of the file to load.
+   */
+  @Override
+  public List<Object> getOtherReads() {
+    return FileKey.of(this.fileInput);
+  }
+
+  /**
+   * Returns what the command changes besides images of the gallery.
+   *
+   * @return the registry the kernals are loaded into.
+   */
+  @Override
+  public List<Object> getOtherWrites() {
+    return Arrays.asList(this.kernals);
+  }
+
+  /**
+   * Reads the kernals of the file into the registry.
+   *
+   * @param gallery the gallery that stores the images.
+   * @throws IllegalArgumentException if the file cannot be read or its kernals are not valid.
+   */
+  @Override
+  public void runCommands(ImageGallery gallery) throws IllegalArgumentException {
+    Set<String> names;
+    try (FileReader reader = new FileReader(this.fileInput)) {
+      names = this.kernals.load(reader);
+    } catch (FileNotFoundException e) {
+      throw new IllegalArgumentException("File " + this.fileInput + " not found");
+    } catch (IOException e) {
+      throw new IllegalArgumentException(e.getMessage());
+    }
+    this.view.renderMessage("Successfully loaded kernals " + String.join(", ", names) + " from "
+            + this.fileInput + System.lineSeparator());
+  }
+}
@@ -0,0 +1,194 @@
+package controller.commands;
+
+import java.util.Arrays;
+import java.util.List;
+
+import controller.ImageCommands;
+import model.Filter;
+import model.ImageGallery;
+import model.TransformationsImpl;
+import view.ImageView;
+
+/**
+ * A command that transforms one image and saves the result under a new name, such as a point
+ * command or a filter. The command can be limited by a mask and a region; subclasses give the
+ * transform and the message rendered once it has run.
+ */
+public abstract class PixelCommandBase implements ImageCommands {
+  protected final String fileName;
+  protected final String fileNew;
+  protected String fileMask = "";
+  protected int[] region;
+  protected final ImageView view;
+
+  /**
+   * Constructor to assign the file name, new file name, and view to render messages.
+   *
+   * @param fileName the file to read from.
+   * @param fileNew  the given name of the file.
+   * @param view     the view to display the image (used for rendering messages).
+   * @throws IllegalArgumentException if the file name or new file name is null.
+   */
+  protected PixelCommandBase(String fileName, String fileNew, ImageView view)
+          throws IllegalArgumentException {
+    if ((fileName == null) || (fileNew == null) || (view == null)) {
+      throw new IllegalArgumentException("Arguments cannot be null");
+    }
+    this.fileName = fileName;
+    this.fileNew = fileNew;
+    this.view = view;
+  }
+
+  /**
+   * Constructor to assign the file name, mask name, new file name, and view to render messages.
+   *
+   * @param fileName the file to read from.
+   * @param fileMask the mask file.
+   * @param fileNew  the given name of the file.
+   * @param view     the view to display the image (used for rendering messages).
+   * @throws IllegalArgumentException if the file name or new file name is null.
+   */
+  protected PixelCommandBase(String fileName, String fileMask, String fileNew, ImageView view)
+          throws IllegalArgumentException {
+    this(fileName, fileNew, view);
+    if (fileMask == null) {
+      throw new IllegalArgumentException("fileMask cannot be null");
+    }
+    this.fileMask = fileMask;
+  }
+
+  /**
+   * Limits the command to a rectangle of the image.
+   *
+   * @param x      the first column of the rectangle.
+   * @param y      the first row of the rectangle.
+   * @param width  the width of the rectangle.
+   * @param height the height of the rectangle.
+   */
+  @Override
+  public void setRegion(int x, int y, int width, int height) {
+    this.region = new int[]{x, y, width, height};
+  }
+
+  /**
+   * Returns the name of the image the command reads.
+   *
+   * @return the name of the source.
+   */
+  public String getFileName() {
+    return this.fileName;
+  }
+
+  /**
+   * Returns the name of the mask of the command.
+   *
+   * @return the name of the mask, or an empty string without a mask.
+   */
+  public String getFileMask() {
+    return this.fileMask;
+  }
+
+  /**
+   * Returns the name the command saves the new image as.
+   *
+   * @return the name of the new image.
+   */
+  public String getFileNew() {
+    return this.fileNew;
+  }
+
+  /**
+   * Returns the rectangle the command is limited to.
+   *
+   * @return the x, y, width and height of the region, or null without a region.
+   */
+  public int[] getRegion() {
+    return this.region;
+  }
+
+  /**
+   * Returns the message rendered once the command has run.
+   *
+   * @return the message.
+   */
+  public abstract String getMessage();
+
+  /**
+   * Returns the names of the images the command reads from the gallery.
+   *
+   * @return the names the command reads.
+   */
+  @Override
+  public List<String> getReads() {
+    if (this.fileMask.length() > 0) {
+      return Arrays.asList(this.fileName, this.fileMask);
+    }
+    return Arrays.asList(this.fileName);
+  }
+
+  /**
+   * Returns the names the command saves images under.
+   *
+   * @return the names the command writes.
+   */
+  @Override
+  public List<String> getWrites() {
+    return Arrays.asList(this.fileNew);
+  }
+
+  /**
+   * Reads the source and the mask of the command from the gallery, limited to its region, and
+   * lets the new image be written over the source when nothing else reads it.
+   *
+   * @param gallery the gallery that stores the images.
+   * @return the transformations of the source.
+   * @throws IllegalArgumentException if the images are missing or the region is invalid.
+   */
+  protected TransformationsImpl transform(ImageGallery gallery) throws IllegalArgumentException {
+    TransformationsImpl transform = source(gallery, this.fileName, this.fileMask, this.region);
+    transform.setInPlace(InPlace.allowed(gallery, this.fileName, this.fileMask, this.fileNew));
+    return transform;
+  }
+
+  /**
+   * Reads the source and the mask of the command from the gallery into a filter, limited to its
+   * region. A filter reads the pixels around each pixel, so it never writes over the source.
+   *
+   * @param gallery the gallery that stores the images.
+   * @return the filter of the source.
+   * @throws IllegalArgumentException if the images are missing or the region is invalid.
+   */
+  protected Filter filter(ImageGallery gallery) throws IllegalArgumentException {
+    Filter filter;
+    if (this.fileMask.length() > 0) {
+      filter = new Filter(gallery.getImage(this.fileName), gallery.getImage(this.fileMask));
+    } else {
+      filter = new Filter(gallery.getImage(this.fileName));
+    }
+    limit(filter, this.region);
+    return filter;
+  }
+
+  // Reads a source and its mask, if the name is not empty, from the gallery, limited to the
+  // region if it is not null.
+  static TransformationsImpl source(ImageGallery gallery, String fileName, String fileMask,
+                                    int[] region) throws IllegalArgumentException {
+    TransformationsImpl transform;
+    if (fileMask.length() > 0) {
+      transform = new TransformationsImpl(gallery.getImage(fileName),
+              gallery.getImage(fileMask));
+    } else {
+      transform = new TransformationsImpl(gallery.getImage(fileName));
+    }
+    limit(transform, region);
+    return transform;
+  }
+
+  // Limits a transformation to the region, if it is not null.
+  private static void limit(TransformationsImpl transform, int[] region)
+          throws IllegalArgumentException {
+    if (region != null) {
+      transform.setRegion(region[0], region[1], region[2], region[3]);
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package controller.commands;
+
+import controller.ImageCommands;
+import model.PointOperation;
+
+/**
+ * A command that applies a point operation, a lookup table or a color matrix, to every pixel of
+ * one image. The controller fuses a run of them, each reading the image the one before it saved,
+ * into a single pass with {@link FusedPoints}.
+ */
+public interface PointCommand extends ImageCommands {
+
+  /**
+   * Returns the name of the image the command reads.
+   *
+   * @return the name of the source.
+   */
+  String getFileName();
+
+  /**
+   * Returns the name of the mask of the command.
+   *
+   * @return the name of the mask, or an empty string without a mask.
+   */
+  String getFileMask();
+
+  /**
+   * Returns the name the command saves the new image as.
+   *
+   * @return the name of the new image.
+   */
+  String getFileNew();
+
+  /**
+   * Returns the rectangle the command is limited to.
+   *
+   * @return the x, y, width and height of the region, or null without a region.
+   */
+  int[] getRegion();
+
+  /**
+   * Returns the point operation the command applies.
+   *
+   * @return the operation.
+   * @throws IllegalArgumentException if the arguments of the command do not make an operation.
+   */
+  PointOperation getOperation() throws IllegalArgumentException;
+
+  /**
+   * Returns the message rendered once the command has run.
+   *
+   * @return the message.
+   */
+  String getMessage();
+}
@@ -0,0 +1,50 @@
+package controller.commands;
+
+import model.ImageGallery;
+import view.ImageView;
+
+/**
+ * A point command that reads one image, with an optional mask and region, and saves the new
+ * image under a new name. Subclasses only give the point operation and the message.
+ */
+public abstract class PointCommandBase extends PixelCommandBase implements PointCommand {
+
+  /**
+   * Constructor to assign the file name, new file name, and view to render messages.
+   *
+   * @param fileName the file to read from.
+   * @param fileNew  the given name of the file.
+   * @param view     the view to display the image (used for rendering messages).
+   * @throws IllegalArgumentException if the file name or new file name is null.
+   */
+  protected PointCommandBase(String fileName, String fileNew, ImageView view)
+          throws IllegalArgumentException {
+    super(fileName, fileNew, view);
+  }
+
+  /**
+   * Constructor to assign the file name, mask name, new file name, and view to render messages.
+   *
+   * @param fileName the file to read from.
+   * @param fileMask the mask file.
+   * @param fileNew  the given name of the file.
+   * @param view     the view to display the image (used for rendering messages).
+   * @throws IllegalArgumentException if the file name or new file name is null.
+   */
+  protected PointCommandBase(String fileName, String fileMask, String fileNew, ImageView view)
+          throws IllegalArgumentException {
+    super(fileName, fileMask, fileNew, view);
+  }
+
+  /**
+   * Performs the command on the given image as a chain of one {@link FusedPoints}, so a command
+   * run on its own and a chain of them save the same images.
+   *
+   * @param gallery the gallery that stores the images.
+   */
+  @Override
+  public void runCommands(ImageGallery gallery) {
+    new FusedPoints(this, gallery).runCommands(gallery);
+    this.view.renderMessage(getMessage());
+  }
+}
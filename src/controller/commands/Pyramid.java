@@ -0,0 +1,95 @@
+package controller.commands;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import controller.ImageCommands;
+import model.ImageGallery;
+import model.SingleImage;
+import model.TransformationsImpl;
+import view.ImageView;
+
+/**
+ * Builds the levels of a mipmap pyramid of an image, each half the width and height of the one
+ * before it, and stores level k under the new file name followed by -k.
+ */
+public class Pyramid implements ImageCommands {
+  protected final int levels;
+  protected final String fileName;
+  protected final String fileNew;
+  protected final ImageView view;
+
+  /**
+   * Constructor to assign the number of levels, file name, new file name, and view to render
+   * messages.
+   *
+   * @param levels   the number of levels to build.
+   * @param fileName the file to read from.
+   * @param fileNew  the name the levels are stored under, followed by -1, -2 and so on.
+   * @param view     the view to display the image (used for rendering messages).
+   * @throws IllegalArgumentException if the file name or new file name is null.
+   */
+  public Pyramid(int levels, String fileName, String fileNew, ImageView view)
+          throws IllegalArgumentException {
+    if ((fileName == null) || (fileNew == null) || (view == null)) {
+      throw new IllegalArgumentException("Arguments cannot be null");
+    }
+    this.levels = levels;
+    this.fileName = fileName;
+    this.fileNew = fileNew;
+    this.view = view;
+  }
+
+  /**
+   * Returns the name level k of the pyramid is stored under.
+   *
+   * @param fileNew the name the levels are stored under.
+   * @param level   the level, 1 for the largest.
+   * @return the name of the level.
+   */
+  public static String levelName(String fileNew, int level) {
+    return fileNew + "-" + level;
+  }
+
+  /**
+   * Returns the names of the images the command reads from the gallery.
+   *
+   * @return the names the command reads.
+   */
+  @Override
+  public List<String> getReads() {
+    return Arrays.asList(this.fileName);
+  }
+
+  /**
+   * Returns the names the command saves images under.
+   *
+   * @return the names the command writes.
+   */
+  @Override
+  public List<String> getWrites() {
+    List<String> names = new ArrayList<>();
+    for (int k = 1; k <= this.levels; k++) {
+      names.add(levelName(this.fileNew, k));
+    }
+    return names;
+  }
+
+  /**
+   * Performs the command on the given image.
+   *
+   * @param gallery the gallery that stores the images.
+   */
+  @Override
+  public void runCommands(ImageGallery gallery) {
+    TransformationsImpl transform = new TransformationsImpl(gallery.getImage(this.fileName));
+    List<SingleImage> pyramid = transform.pyramid(this.levels);
+    for (int k = 0; k < pyramid.size(); k++) {
+      gallery.put(levelName(this.fileNew, k + 1), pyramid.get(k));
+    }
+    this.view.renderMessage("Successfully built " + this.levels + " pyramid levels of "
+            + this.fileName + " and saved as " + levelName(this.fileNew, 1) + " to "
+            + levelName(this.fileNew, this.levels) + System.lineSeparator());
+  }
+}
@@ -0,0 +1,83 @@
+package controller.commands;
+
+import java.util.Arrays;
+import java.util.List;
+
+import controller.ImageCommands;
+import model.ImageGallery;
+import model.ResizeFilter;
+import model.SingleImage;
+import model.TransformationsImpl;
+import view.ImageView;
+
+/**
+ * Resizes an image to a specified width and height, larger or smaller, with a given filter.
+ */
+public class Resize implements ImageCommands {
+  protected final String fileName;
+  protected final String fileNew;
+  protected final int width;
+  protected final int height;
+  protected final ResizeFilter filter;
+  protected final ImageView view;
+
+  /**
+   * Constructor to assign the size, filter, file name, new file name, and view to render
+   * messages.
+   *
+   * @param width    the width of the resized image.
+   * @param height   the height of the resized image.
+   * @param filter   the filter to sample the image with.
+   * @param fileName the file to read from.
+   * @param fileNew  the given name of the file.
+   * @param view     the view to display the image (used for rendering messages).
+   * @throws IllegalArgumentException if the filter, file name or new file name is null.
+   */
+  public Resize(int width, int height, ResizeFilter filter, String fileName, String fileNew,
+                ImageView view) throws IllegalArgumentException {
+    if ((filter == null) || (fileName == null) || (fileNew == null) || (view == null)) {
+      throw new IllegalArgumentException("Arguments cannot be null");
+    }
+    this.width = width;
+    this.height = height;
+    this.filter = filter;
+    this.fileName = fileName;
+    this.fileNew = fileNew;
+    this.view = view;
+  }
+
+  /**
+   * Returns the names of the images the command reads from the gallery.
+   *
+   * @return the names the command reads.
+   */
+  @Override
+  public List<String> getReads() {
+    return Arrays.asList(this.fileName);
+  }
+
+  /**
+   * Returns the names the command saves images under.
+   *
+   * @return the names the command writes.
+   */
+  @Override
+  public List<String> getWrites() {
+    return Arrays.asList(this.fileNew);
+  }
+
+  /**
+   * Performs the command on the given image.
+   *
+   * @param gallery the gallery that stores the images.
+   */
+  @Override
+  public void runCommands(ImageGallery gallery) {
+    TransformationsImpl transform = new TransformationsImpl(gallery.getImage(this.fileName));
+    SingleImage newImage = transform.resize(this.width, this.height, this.filter);
+    gallery.put(this.fileNew, newImage);
+    this.view.renderMessage("Successfully resized " + this.fileName + " to " + this.width + ", "
+            + this.height + " with " + this.filter.getName() + " and saved as " + this.fileNew
+            + System.lineSeparator());
+  }
+}
@@ -0,0 +1,109 @@
+package controller.commands;
+
+import java.util.Arrays;
+import java.util.List;
+
+import controller.ImageCommands;
+import model.ImageGallery;
+import model.SingleImage;
+import model.SingleImagePacked;
+import model.TransformationsImpl;
+import view.ImageView;
+
+/**
+ * Rotates an image clockwise by any angle, filling the area the rotated image does not cover with
+ * a background color.
+ */
+public class Rotate implements ImageCommands {
+  protected final double degrees;
+  protected final int background;
+  protected final String fileName;
+  protected final String fileNew;
+  protected final ImageView view;
+
+  /**
+   * Constructor to assign the angle, file name, new file name, and view to render messages. The
+   * area the rotated image does not cover is transparent black.
+   *
+   * @param degrees  the clockwise angle to rotate by.
+   * @param fileName the file to read from.
+   * @param fileNew  the given name of the file.
+   * @param view     the view to display the image (used for rendering messages).
+   * @throws IllegalArgumentException if an argument is null or the angle is not finite.
+   */
+  public Rotate(double degrees, String fileName, String fileNew, ImageView view)
+          throws IllegalArgumentException {
+    this(degrees, 0, 0, 0, 0, fileName, fileNew, view);
+  }
+
+  /**
+   * Constructor to assign the angle, background color, file name, new file name, and view to
+   * render messages.
+   *
+   * @param degrees  the clockwise angle to rotate by.
+   * @param red      the red value of the background.
+   * @param green    the green value of the background.
+   * @param blue     the blue value of the background.
+   * @param alpha    the alpha value of the background, 0 for transparent.
+   * @param fileName the file to read from.
+   * @param fileNew  the given name of the file.
+   * @param view     the view to display the image (used for rendering messages).
+   * @throws IllegalArgumentException if an argument is null, the angle is not finite or a value
+   *                                  of the background is outside 0 to 255.
+   */
+  public Rotate(double degrees, int red, int green, int blue, int alpha, String fileName,
+                String fileNew, ImageView view) throws IllegalArgumentException {
+    if ((fileName == null) || (fileNew == null) || (view == null)) {
+      throw new IllegalArgumentException("Arguments cannot be null");
+    }
+    if (Double.isNaN(degrees) || Double.isInfinite(degrees)) {
+      throw new IllegalArgumentException("Rotation angle must be finite.");
+    }
+    for (int value : new int[]{red, green, blue, alpha}) {
+      if (value < 0 || value > 255) {
+        throw new IllegalArgumentException("Background values must be between 0 and 255.");
+      }
+    }
+    this.degrees = degrees;
+    this.background = SingleImagePacked.pack(red, green, blue, alpha);
+    this.fileName = fileName;
+    this.fileNew = fileNew;
+    this.view = view;
+  }
+
+  /**
+   * Returns the names of the images the command reads from the gallery.
+   *
+   * @return the names the command reads.
+   */
+  @Override
+  public List<String> getReads() {
+    return Arrays.asList(this.fileName);
+  }
+
+  /**
+   * Returns the names the command saves images under.
+   *
+   * @return the names the command writes.
+   */
+  @Override
+  public List<String> getWrites() {
+    return Arrays.asList(this.fileNew);
+  }
+
+  /**
+   * Performs the command on the given image.
+   *
+   * @param gallery the gallery that stores the images.
+   */
+  @Override
+  public void runCommands(ImageGallery gallery) {
+    TransformationsImpl transform = new TransformationsImpl(gallery.getImage(this.fileName));
+    SingleImage newImage = transform.rotate(this.degrees, this.background);
+    gallery.put(this.fileNew, newImage);
+    String angle = this.degrees == Math.rint(this.degrees)
+            ? String.valueOf((long) this.degrees) : String.valueOf(this.degrees);
+    this.view.renderMessage("Successfully rotated " + this.fileName + " by " + angle
+            + " degrees and saved as " + this.fileNew + System.lineSeparator());
+  }
+}
@@ -1,5 +1,8 @@
 package controller.commands;
 
+import java.util.Arrays;
+import java.util.List;
+
 import controller.ImageCommands;
 import controller.ImageUtils;
 import controller.ImageUtilsIO;
@@ -31,6 +34,36 @@ public class Save implements ImageCommands {
     this.view = view;
   }
 
+  /**
+   * Returns the names of the images the command reads from the gallery.
+   *
+   * @return the names the command reads.
+   */
+  @Override
+  public List<String> getReads() {
+    return Arrays.asList(this.fileName);
+  }
+
+  /**
+   * Returns the names the command saves images under, which is the path of the file it saves.
+   *
+   * @return the names the command writes.
+   */
+  @Override
+  public List<String> getWrites() {
+    return Arrays.asList(this.fileOutput);
+  }
+
+  /**
+   * Returns what the command changes besides images of the gallery.
+   *
+   * @return the path of the file to save.
+   */
+  @Override
+  public List<Object> getOtherWrites() {
+    return FileKey.of(this.fileOutput);
+  }
+
   /**
    * Performs the command on the given image.
    *
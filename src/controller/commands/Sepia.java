@@ -1,19 +1,13 @@
 package controller.commands;
 
-import controller.ImageCommands;
-import model.Filter;
-import model.ImageGallery;
-import model.SingleImage;
+import model.ColorMatrix;
+import model.PointOperation;
 import view.ImageView;
 
 /**
  * Creates a sepia toned image using the sepia matrix.
  */
-public class Sepia implements ImageCommands {
-  protected final String fileName;
-  protected final String fileNew;
-  protected String fileMask = "";
-  protected final ImageView view;
+public class Sepia extends PointCommandBase {
 
   /**
    * Constructor to assign the file name, new file name, and view to render messages.
@@ -25,12 +19,7 @@ public class Sepia implements ImageCommands {
    */
   public Sepia(String fileName, String fileNew, ImageView view)
           throws IllegalArgumentException {
-    if ((fileName == null) || (fileNew == null) || (view == null)) {
-      throw new IllegalArgumentException("Arguments cannot be null");
-    }
-    this.fileName = fileName;
-    this.fileNew = fileNew;
-    this.view = view;
+    super(fileName, fileNew, view);
   }
 
   /**
@@ -44,30 +33,27 @@ public class Sepia implements ImageCommands {
    */
   public Sepia(String fileName, String fileMask, String fileNew, ImageView view)
           throws IllegalArgumentException {
-    this(fileName, fileNew, view);
-    if (fileMask == null) {
-      throw new IllegalArgumentException("fileMask cannot be null");
-    }
-    this.fileMask = fileMask;
+    super(fileName, fileMask, fileNew, view);
   }
 
   /**
-   * Performs the command on the given image.
+   * Returns the point operation the command applies.
    *
-   * @param gallery the gallery that stores the images.
+   * @return the operation.
    */
   @Override
-  public void runCommands(ImageGallery gallery) {
-    Filter transform;
-    if (fileMask.length() > 0) {
-      transform = new Filter(gallery.getImage(this.fileName),
-              gallery.getImage(this.fileMask));
-    } else {
-      transform = new Filter(gallery.getImage(this.fileName));
-    }
-    SingleImage newImage = transform.sepiaScale();
-    gallery.put(this.fileNew, newImage);
-    this.view.renderMessage("Successfully sepia toned " + this.fileName
-            + " and saved as " + this.fileNew + System.lineSeparator());
+  public PointOperation getOperation() {
+    return PointOperation.of(ColorMatrix.SEPIA);
+  }
+
+  /**
+   * Returns the message rendered once the command has run.
+   *
+   * @return the message.
+   */
+  @Override
+  public String getMessage() {
+    return "Successfully sepia toned " + this.fileName
+            + " and saved as " + this.fileNew + System.lineSeparator();
   }
 }
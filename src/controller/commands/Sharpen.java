@@ -1,19 +1,12 @@
 package controller.commands;
 
-import controller.ImageCommands;
-import model.Filter;
 import model.ImageGallery;
-import model.SingleImage;
 import view.ImageView;
 
 /**
  * Creates a sharpened image.
  */
-public class Sharpen implements ImageCommands {
-  protected final String fileName;
-  protected final String fileNew;
-  protected String fileMask = "";
-  protected final ImageView view;
+public class Sharpen extends PixelCommandBase {
 
   /**
    * Constructor to assign the file name, new file name, and view to render messages.
@@ -25,12 +18,7 @@ public class Sharpen implements ImageCommands {
    */
   public Sharpen(String fileName, String fileNew, ImageView view)
           throws IllegalArgumentException {
-    if ((fileName == null) || (fileNew == null) || (view == null)) {
-      throw new IllegalArgumentException("Arguments cannot be null");
-    }
-    this.fileName = fileName;
-    this.fileNew = fileNew;
-    this.view = view;
+    super(fileName, fileNew, view);
   }
 
   /**
@@ -44,11 +32,18 @@ public class Sharpen implements ImageCommands {
    */
   public Sharpen(String fileName, String fileMask, String fileNew, ImageView view)
           throws IllegalArgumentException {
-    this(fileName, fileNew, view);
-    if (fileMask == null) {
-      throw new IllegalArgumentException("fileMask cannot be null");
-    }
-    this.fileMask = fileMask;
+    super(fileName, fileMask, fileNew, view);
+  }
+
+  /**
+   * Returns the message rendered once the command has run.
+   *
+   * @return the message.
+   */
+  @Override
+  public String getMessage() {
+    return "Successfully sharpened " + this.fileName
+            + " and saved as " + this.fileNew + System.lineSeparator();
   }
 
   /**
@@ -58,16 +53,7 @@ public class Sharpen implements ImageCommands {
    */
   @Override
   public void runCommands(ImageGallery gallery) {
-    Filter transform;
-    if (fileMask.length() > 0) {
-      transform = new Filter(gallery.getImage(this.fileName),
-              gallery.getImage(this.fileMask));
-    } else {
-      transform = new Filter(gallery.getImage(this.fileName));
-    }
-    SingleImage newImage = transform.sharpen();
-    gallery.put(this.fileNew, newImage);
-    this.view.renderMessage("Successfully sharpened " + this.fileName
-            + " and saved as " + this.fileNew + System.lineSeparator());
+    gallery.put(this.fileNew, filter(gallery).sharpen());
+    this.view.renderMessage(getMessage());
   }
 }
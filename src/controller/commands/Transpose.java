@@ -0,0 +1,71 @@
+package controller.commands;
+
+import java.util.Arrays;
+import java.util.List;
+
+import controller.ImageCommands;
+import model.ImageGallery;
+import model.SingleImage;
+import model.TransformationsImpl;
+import view.ImageView;
+
+/**
+ * Transposes an image, swapping its rows and columns.
+ */
+public class Transpose implements ImageCommands {
+  protected final String fileName;
+  protected final String fileNew;
+  protected final ImageView view;
+
+  /**
+   * Constructor to assign the file name, new file name, and view to render messages.
+   *
+   * @param fileName the file to read from.
+   * @param fileNew  the given name of the file.
+   * @param view     the view to display the image (used for rendering messages).
+   * @throws IllegalArgumentException if the file name or new file name is null.
+   */
+  public Transpose(String fileName, String fileNew, ImageView view)
+          throws IllegalArgumentException {
+    if ((fileName == null) || (fileNew == null) || (view == null)) {
+      throw new IllegalArgumentException("Arguments cannot be null");
+    }
+    this.fileName = fileName;
+    this.fileNew = fileNew;
+    this.view = view;
+  }
+
+  /**
+   * Returns the names of the images the command reads from the gallery.
+   *
+   * @return the names the command reads.
+   */
+  @Override
+  public List<String> getReads() {
+    return Arrays.asList(this.fileName);
+  }
+
+  /**
+   * Returns the names the command saves images under.
+   *
+   * @return the names the command writes.
+   */
+  @Override
+  public List<String> getWrites() {
+    return Arrays.asList(this.fileNew);
+  }
+
+  /**
+   * Performs the command on the given image.
+   *
+   * @param gallery the gallery that stores the images.
+   */
+  @Override
+  public void runCommands(ImageGallery gallery) {
+    TransformationsImpl transform = new TransformationsImpl(gallery.getImage(this.fileName));
+    SingleImage newImage = transform.transpose();
+    gallery.put(this.fileNew, newImage);
+    this.view.renderMessage("Successfully transposed " + this.fileName
+            + " and saved as " + this.fileNew + System.lineSeparator());
+  }
+}
@@ -1,19 +1,12 @@
 package controller.commands;
 
-import controller.ImageCommands;
 import model.ImageGallery;
-import model.SingleImage;
-import model.TransformationsImpl;
 import view.ImageView;
 
 /**
  * Creates a greyscale image with a value-component of the image.
  */
-public class ValueScale implements ImageCommands {
-  protected final String fileName;
-  protected final String fileNew;
-  protected String fileMask = "";
-  protected final ImageView view;
+public class ValueScale extends PixelCommandBase {
 
   /**
    * Constructor to assign the file name, new file name, and view to render messages.
@@ -25,12 +18,7 @@ public class ValueScale implements ImageCommands {
    */
   public ValueScale(String fileName, String fileNew, ImageView view)
           throws IllegalArgumentException {
-    if ((fileName == null) || (fileNew == null) || (view == null)) {
-      throw new IllegalArgumentException("Arguments cannot be null");
-    }
-    this.fileName = fileName;
-    this.fileNew = fileNew;
-    this.view = view;
+    super(fileName, fileNew, view);
   }
 
   /**
@@ -44,13 +32,19 @@ public class ValueScale implements ImageCommands {
    */
   public ValueScale(String fileName, String fileMask, String fileNew, ImageView view)
           throws IllegalArgumentException {
-    this(fileName, fileNew, view);
-    if (fileMask == null) {
-      throw new IllegalArgumentException("fileMask cannot be null");
-    }
-    this.fileMask = fileMask;
+    super(fileName, fileMask, fileNew, view);
   }
 
+  /**
+   * Returns the message rendered once the command has run.
+   *
+   * @return the message.
+   */
+  @Override
+  public String getMessage() {
+    return "Successfully changed " + this.fileName
+            + " to red-component grayscale and saved as " + this.fileNew + System.lineSeparator();
+  }
 
   /**
    * Performs the command on the given image.
@@ -59,17 +53,7 @@ public class ValueScale implements ImageCommands {
    */
   @Override
   public void runCommands(ImageGallery gallery) {
-    TransformationsImpl transform;
-    if (fileMask.length() > 0) {
-      transform = new TransformationsImpl(gallery.getImage(this.fileName),
-              gallery.getImage(this.fileMask));
-    } else {
-      transform = new TransformationsImpl(gallery.getImage(this.fileName));
-    }
-    SingleImage newImage = transform.valueScale();
-    gallery.put(this.fileNew, newImage);
-    this.view.renderMessage("Successfully changed " + this.fileName
-            + " to red-component grayscale and saved as " + this.fileNew + System.lineSeparator());
+    gallery.put(this.fileNew, transform(gallery).valueScale());
+    this.view.renderMessage(getMessage());
   }
-
 }
@@ -0,0 +1,177 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Recycles the pixel arrays of images packed on the heap. A script that makes and discards many
+ * images of the same size would otherwise allocate a whole new array for every step; instead
+ * {@link WritableImage#create} borrows an array of the right length from here, and a pooled
+ * image gives its array back once its last owner releases it, for example when a gallery entry
+ * is replaced. Arrays are kept in buckets by length, up to a total capacity in bytes; when a
+ * returned array does not fit, arrays of the length least recently used are dropped first.
+ * Arrays shorter than {@link #MIN_LENGTH} are cheap to allocate and are never pooled.
+ */
+public final class BufferPool {
+  /**
+   * The length of the shortest array that is pooled.
+   */
+  public static final int MIN_LENGTH = 4096;
+
+  // buckets in the order they were last used, so the first one is the least recently used.
+  private static final Map<Integer, ArrayDeque<int[]>> buckets =
+          new LinkedHashMap<>(16, 0.75f, true);
+  private static long capacity = Math.min(1L << 28, Runtime.getRuntime().maxMemory() / 4);
+  private static long pooledBytes = 0;
+  private static long hits = 0;
+  private static long misses = 0;
+  private static long returned = 0;
+  private static long dropped = 0;
+
+  private BufferPool() {
+  }
+
+  /**
+   * Returns an array of the given length, recycled if one is pooled and new otherwise. A
+   * recycled array still holds the pixels of the image it came from.
+   *
+   * @param length the length of the array.
+   * @return an array of the given length.
+   */
+  static int[] borrow(int length) {
+    if (length < MIN_LENGTH) {
+      return new int[length];
+    }
+    synchronized (BufferPool.class) {
+      ArrayDeque<int[]> bucket = buckets.get(length);
+      if (bucket != null && !bucket.isEmpty()) {
+        hits++;
+        pooledBytes -= 4L * length;
+        int[] buffer = bucket.pop();
+        if (bucket.isEmpty()) {
+          buckets.remove(length);
+        }
+        return buffer;
+      }
+      misses++;
+    }
+    return new int[length];
+  }
+
+  /**
+   * Gives an array back to the pool. Nothing may use the array afterwards.
+   *
+   * @param buffer the array to pool.
+   */
+  static synchronized void giveBack(int[] buffer) {
+    long bytes = 4L * buffer.length;
+    if (buffer.length < MIN_LENGTH) {
+      return;
+    }
+    returned++;
+    if (bytes > capacity) {
+      dropped++;
+      return;
+    }
+    Iterator<Map.Entry<Integer, ArrayDeque<int[]>>> eldest = buckets.entrySet().iterator();
+    while (pooledBytes + bytes > capacity) {
+      Map.Entry<Integer, ArrayDeque<int[]>> bucket = eldest.next();
+      while (!bucket.getValue().isEmpty() && pooledBytes + bytes > capacity) {
+        bucket.getValue().pop();
+        pooledBytes -= 4L * bucket.getKey();
+        dropped++;
+      }
+      if (bucket.getValue().isEmpty()) {
+        eldest.remove();
+      }
+    }
+    buckets.computeIfAbsent(buffer.length, length -> new ArrayDeque<>()).push(buffer);
+    pooledBytes += bytes;
+  }
+
+  /**
+   * Sets the most bytes the pool keeps, dropping pooled arrays that no longer fit.
+   *
+   * @param bytes the capacity of the pool in bytes, 0 to pool nothing.
+   * @throws IllegalArgumentException if the capacity is negative.
+   */
+  public static synchronized void setCapacity(long bytes) throws IllegalArgumentException {
+    if (bytes < 0) {
+      throw new IllegalArgumentException("Buffer pool capacity cannot be negative.");
+    }
+    capacity = bytes;
+    Iterator<Map.Entry<Integer, ArrayDeque<int[]>>> eldest = buckets.entrySet().iterator();
+    while (pooledBytes > capacity) {
+      Map.Entry<Integer, ArrayDeque<int[]>> bucket = eldest.next();
+      while (!bucket.getValue().isEmpty() && pooledBytes > capacity) {
+        bucket.getValue().pop();
+        pooledBytes -= 4L * bucket.getKey();
+        dropped++;
+      }
+      if (bucket.getValue().isEmpty()) {
+        eldest.remove();
+      }
+    }
+  }
+
+  /**
+   * Drops every pooled array and resets the statistics.
+   */
+  public static synchronized void clear() {
+    buckets.clear();
+    pooledBytes = 0;
+    hits = 0;
+    misses = 0;
+    returned = 0;
+    dropped = 0;
+  }
+
+  /**
+   * Returns the number of arrays borrowed that were recycled.
+   *
+   * @return the number of hits.
+   */
+  public static synchronized long getHits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of arrays borrowed that had to be allocated, not counting arrays too
+   * short to pool.
+   *
+   * @return the number of misses.
+   */
+  public static synchronized long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Returns the number of arrays given back to the pool, including those it dropped.
+   *
+   * @return the number of arrays given back.
+   */
+  public static synchronized long getReturned() {
+    return returned;
+  }
+
+  /**
+   * Returns the number of arrays given back that the pool did not keep, or dropped later to
+   * stay within its capacity.
+   *
+   * @return the number of arrays dropped.
+   */
+  public static synchronized long getDropped() {
+    return dropped;
+  }
+
+  /**
+   * Returns the number of bytes of the arrays pooled right now.
+   *
+   * @return the pooled bytes.
+   */
+  public static synchronized long getPooledBytes() {
+    return pooledBytes;
+  }
+}
@@ -0,0 +1,148 @@
+package model;
+
+/**
+ * A 3x3 color matrix applied to the red, green and blue channels of packed ARGB pixels with
+ * integer fixed-point arithmetic.
+ * Every coefficient is stored as a 32 bit fixed-point integer, so a channel costs three integer
+ * multiplies, an add of one half and a shift instead of double math and {@link Math#round}.
+ * The result is always identical to rounding the double sum half up: fixed-point sums that land
+ * so close to a half that the two could disagree are recomputed with doubles.
+ */
+public final class ColorMatrix {
+  /**
+   * The luma weighting of red, green and blue, repeated for every channel.
+   */
+  public static final ColorMatrix LUMA = new ColorMatrix(new double[]{0.2126, 0.7152, 0.0722,
+                                                                      0.2126, 0.7152, 0.0722,
+                                                                      0.2126, 0.7152, 0.0722});
+
+  /**
+   * The sepia tone matrix.
+   */
+  public static final ColorMatrix SEPIA = new ColorMatrix(new double[]{0.393, 0.769, 0.189,
+                                                                       0.349, 0.686, 0.168,
+                                                                       0.272, 0.534, 0.131});
+
+  private static final int BITS = 32;
+  private static final long ONE = 1L << BITS;
+  private static final long HALF = ONE >> 1;
+  private static final long FRACTION = ONE - 1;
+
+  private final double[] values;
+  private final long[] fixed;
+  // fixed-point sums within this distance of a half are recomputed with doubles.
+  private final long window;
+
+  /**
+   * Constructs a color matrix from its coefficients in row-major order, the first row giving the
+   * new red value, the second the new green value and the third the new blue value.
+   *
+   * @param values the nine coefficients of the matrix.
+   * @throws IllegalArgumentException if there are not nine finite coefficients.
+   */
+  public ColorMatrix(double[] values) throws IllegalArgumentException {
+    if (values == null || values.length != 9) {
+      throw new IllegalArgumentException("Color transformation matrix must be of size 9");
+    }
+    this.values = values.clone();
+    double largest = 0;
+    for (double value : this.values) {
+      if (!Double.isFinite(value)) {
+        throw new IllegalArgumentException("Color transformation matrix must be finite");
+      }
+      largest = Math.max(largest, Math.abs(value));
+    }
+    // sums of three products of 255 must fit in a long, larger matrices only use doubles.
+    if (largest * 3 * 255 >= 1L << (62 - BITS)) {
+      this.fixed = null;
+      this.window = 0;
+      return;
+    }
+    this.fixed = new long[9];
+    double rowSum = 0;
+    for (int i = 0; i < 9; i++) {
+      this.fixed[i] = Math.round(this.values[i] * ONE);
+      rowSum = Math.max(rowSum, Math.abs(this.values[i]) + Math.abs(this.values[i / 3 * 3 + 1])
+              + Math.abs(this.values[i / 3 * 3 + 2]));
+    }
+    // each rounded coefficient is off by at most half a unit, times 255 for each channel, and
+    // the double sum is off by at most a few units in the last place of its three products; both
+    // are doubled to leave a margin.
+    double doubleError = 4 * 255 * rowSum * Math.ulp(1.0) * ONE;
+    this.window = 2 * (3 * 255 / 2 + 1) + 2 * (long) Math.ceil(doubleError) + 2;
+  }
+
+  /**
+   * Returns a copy of the coefficients of the matrix in row-major order.
+   *
+   * @return the nine coefficients.
+   */
+  public double[] getValues() {
+    return this.values.clone();
+  }
+
+  /**
+   * Returns whether the three rows of the matrix are the same, so the new red, green and blue
+   * values of a pixel are always equal, as in greyscale.
+   *
+   * @return true if the matrix makes grey pixels.
+   */
+  public boolean isGrey() {
+    for (int i = 0; i < 3; i++) {
+      if (this.values[i] != this.values[i + 3] || this.values[i] != this.values[i + 6]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Returns the coefficients without copying them, for kernels in this package.
+  double[] values() {
+    return this.values;
+  }
+
+  /**
+   * Transforms the given number of packed pixels from the source array into the destination
+   * array. Each channel is rounded half up and clamped to 0 to 255, alpha is kept, and pixels
+   * whose mask has any non-zero color channel are copied unchanged.
+   *
+   * @param src        the source pixels.
+   * @param srcOffset  the index in the source array of the first pixel.
+   * @param dst        the array to write the transformed pixels into.
+   * @param dstOffset  the index in the destination array of the first pixel.
+   * @param mask       the packed mask pixels, or null if no pixel is masked.
+   * @param maskOffset the index in the mask of the first pixel.
+   * @param count      the number of pixels to transform.
+   */
+  public void apply(int[] src, int srcOffset, int[] dst, int dstOffset, int[] mask,
+                    int maskOffset, int count) {
+    for (int k = 0; k < count; k++) {
+      int pixel = src[srcOffset + k];
+      if (mask != null && (mask[maskOffset + k] & 0xFFFFFF) != 0) {
+        dst[dstOffset + k] = pixel;
+        continue;
+      }
+      int r = pixel >> 16 & 0xFF;
+      int g = pixel >> 8 & 0xFF;
+      int b = pixel & 0xFF;
+      dst[dstOffset + k] = (pixel & 0xFF000000) | channel(0, r, g, b) << 16
+              | channel(3, r, g, b) << 8 | channel(6, r, g, b);
+    }
+  }
+
+  // Returns the rounded and clamped value of the matrix row starting at the given coefficient.
+  private int channel(int row, int r, int g, int b) {
+    long sum = 0;
+    if (this.fixed != null) {
+      sum = r * this.fixed[row] + g * this.fixed[row + 1] + b * this.fixed[row + 2];
+    }
+    long value;
+    if (this.fixed == null || Math.abs((sum & FRACTION) - HALF) <= this.window) {
+      value = Math.round((r * this.values[row]) + (g * this.values[row + 1])
+              + (b * this.values[row + 2]));
+    } else {
+      value = (sum + HALF) >> BITS;
+    }
+    return (int) Math.max(0, Math.min(255, value));
+  }
+}
@@ -0,0 +1,25 @@
+package model;
+
+/**
+ * Applies a 3x3 color matrix to a run of packed ARGB pixels.
+ * Every implementation must produce exactly the pixels of the double reference in
+ * {@link TransformationsImpl}: each channel is rounded half up and clamped to 0 to 255, alpha is
+ * kept, and masked pixels are copied unchanged.
+ */
+interface ColorMatrixKernel {
+
+  /**
+   * Transforms the given number of pixels from the source array into the destination array.
+   *
+   * @param matrix     the color matrix.
+   * @param src        the source pixels.
+   * @param srcOffset  the index in the source array of the first pixel.
+   * @param dst        the array to write the transformed pixels into.
+   * @param dstOffset  the index in the destination array of the first pixel.
+   * @param mask       the packed mask pixels, or null if no pixel is masked.
+   * @param maskOffset the index in the mask of the first pixel.
+   * @param count      the number of pixels to transform.
+   */
+  void apply(ColorMatrix matrix, int[] src, int srcOffset, int[] dst, int dstOffset, int[] mask,
+             int maskOffset, int count);
+}
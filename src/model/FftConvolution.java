@@ -0,0 +1,217 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Applies a large kernal to an image with the fast Fourier transform, using overlap-add.
+ * The image is cut into blocks that are each padded to one power-of-two square, transformed,
+ * multiplied by the transform of the kernal and transformed back. The results of neighbouring
+ * blocks overlap by the size of the kernal and are added up, so only one strip of blocks and the
+ * rows it reaches are held at a time. Two channels share each complex transform: red and green
+ * are the real and imaginary parts of one, blue and alpha of the other.
+ * The kernal is applied like the taps of a {@link Filter}, with pixels outside the image left
+ * out, but the sum of every pixel is rounded once instead of once per tap.
+ */
+final class FftConvolution {
+  private final int rows;
+  private final int cols;
+  private final int size;
+  // rows and columns of the image in each block.
+  private final int blockRows;
+  private final int blockCols;
+  // the transform of the kernal, flipped so the product is a correlation like a filter's taps.
+  private final double[] kernalReal;
+  private final double[] kernalImag;
+  private final double[] cos;
+  private final double[] sin;
+  private final int[] reversed;
+
+  /**
+   * Prepares the transform of the given kernal.
+   *
+   * @param kernal the kernal, with an odd number of rows and of columns.
+   */
+  FftConvolution(double[][] kernal) {
+    this.rows = kernal.length;
+    this.cols = kernal[0].length;
+    int size = 32;
+    while (size < 2 * Math.max(this.rows, this.cols)) {
+      size *= 2;
+    }
+    this.size = size;
+    this.blockRows = size - this.rows + 1;
+    this.blockCols = size - this.cols + 1;
+    this.cos = new double[size / 2];
+    this.sin = new double[size / 2];
+    for (int k = 0; k < size / 2; k++) {
+      this.cos[k] = Math.cos(2 * Math.PI * k / size);
+      this.sin[k] = Math.sin(2 * Math.PI * k / size);
+    }
+    int bits = Integer.numberOfTrailingZeros(size);
+    this.reversed = new int[size];
+    for (int k = 0; k < size; k++) {
+      this.reversed[k] = Integer.reverse(k) >>> (32 - bits);
+    }
+    this.kernalReal = new double[size * size];
+    this.kernalImag = new double[size * size];
+    for (int i = 0; i < this.rows; i++) {
+      for (int j = 0; j < this.cols; j++) {
+        this.kernalReal[i * size + j] = kernal[this.rows - 1 - i][this.cols - 1 - j];
+      }
+    }
+    transform(this.kernalReal, this.kernalImag, false);
+  }
+
+  /**
+   * Returns the number of rows of the kernal.
+   *
+   * @return the rows of the kernal.
+   */
+  int getRows() {
+    return this.rows;
+  }
+
+  /**
+   * Returns the number of rows of the image in each block.
+   *
+   * @return the rows of a block.
+   */
+  int getBlockRows() {
+    return this.blockRows;
+  }
+
+  /**
+   * Applies the kernal to one strip of rows of an image and adds the result to the sums of the
+   * rows it reaches. The strip's result reaches rows/2 rows above and below the strip; the sums
+   * of the red, green, blue and alpha channel of each image row are held one after another.
+   *
+   * @param strip     the packed pixels of the strip, width pixels for each row.
+   * @param stripRows the number of rows in the strip, at most the rows of a block.
+   * @param width     the width of the image.
+   * @param sums      the sums of each row the strip reaches, from rows/2 rows above its first row,
+   *                  where a null row is not needed and is skipped.
+   */
+  void addStrip(int[] strip, int stripRows, int width, double[][] sums) {
+    int n = this.size;
+    double[] redGreen = new double[n * n];
+    double[] greenImag = new double[n * n];
+    double[] blueAlpha = new double[n * n];
+    double[] alphaImag = new double[n * n];
+    for (int firstCol = 0; firstCol < width; firstCol += this.blockCols) {
+      int blockWidth = Math.min(this.blockCols, width - firstCol);
+      Arrays.fill(redGreen, 0);
+      Arrays.fill(greenImag, 0);
+      Arrays.fill(blueAlpha, 0);
+      Arrays.fill(alphaImag, 0);
+      for (int r = 0; r < stripRows; r++) {
+        for (int c = 0; c < blockWidth; c++) {
+          int pixel = strip[r * width + firstCol + c];
+          redGreen[r * n + c] = pixel >> 16 & 0xFF;
+          greenImag[r * n + c] = pixel >> 8 & 0xFF;
+          blueAlpha[r * n + c] = pixel & 0xFF;
+          alphaImag[r * n + c] = pixel >>> 24;
+        }
+      }
+      transform(redGreen, greenImag, false);
+      multiply(redGreen, greenImag);
+      transform(redGreen, greenImag, true);
+      transform(blueAlpha, alphaImag, false);
+      multiply(blueAlpha, alphaImag);
+      transform(blueAlpha, alphaImag, true);
+      // block result (p, q) lands on image row first + p - rows/2 and column firstCol + q - cols/2.
+      int halfCols = this.cols / 2;
+      for (int p = 0; p < stripRows + this.rows - 1; p++) {
+        double[] row = sums[p];
+        if (row == null) {
+          continue;
+        }
+        for (int q = 0; q < blockWidth + this.cols - 1; q++) {
+          int y = firstCol + q - halfCols;
+          if (y < 0 || y >= width) {
+            continue;
+          }
+          int k = p * n + q;
+          row[y] += redGreen[k];
+          row[width + y] += greenImag[k];
+          row[2 * width + y] += blueAlpha[k];
+          row[3 * width + y] += alphaImag[k];
+        }
+      }
+    }
+  }
+
+  // Multiplies a transformed block by the transform of the kernal.
+  private void multiply(double[] real, double[] imag) {
+    for (int k = 0; k < real.length; k++) {
+      double re = real[k] * this.kernalReal[k] - imag[k] * this.kernalImag[k];
+      imag[k] = real[k] * this.kernalImag[k] + imag[k] * this.kernalReal[k];
+      real[k] = re;
+    }
+  }
+
+  // Transforms a square block in place, every row and then every column. The inverse transform
+  // is scaled by the number of values, so a forward and an inverse transform are the identity.
+  private void transform(double[] real, double[] imag, boolean inverse) {
+    int n = this.size;
+    double[] columnReal = new double[n];
+    double[] columnImag = new double[n];
+    for (int r = 0; r < n; r++) {
+      transform(real, imag, r * n, 1, inverse);
+    }
+    for (int c = 0; c < n; c++) {
+      for (int r = 0; r < n; r++) {
+        columnReal[r] = real[r * n + c];
+        columnImag[r] = imag[r * n + c];
+      }
+      transform(columnReal, columnImag, 0, 1, inverse);
+      for (int r = 0; r < n; r++) {
+        real[r * n + c] = columnReal[r];
+        imag[r * n + c] = columnImag[r];
+      }
+    }
+    if (inverse) {
+      double scale = 1.0 / ((double) n * n);
+      for (int k = 0; k < real.length; k++) {
+        real[k] *= scale;
+        imag[k] *= scale;
+      }
+    }
+  }
+
+  // Transforms one line of size values starting at offset with a radix-2 transform.
+  private void transform(double[] real, double[] imag, int offset, int step, boolean inverse) {
+    int n = this.size;
+    for (int k = 0; k < n; k++) {
+      int j = this.reversed[k];
+      if (j > k) {
+        int a = offset + k * step;
+        int b = offset + j * step;
+        double re = real[a];
+        real[a] = real[b];
+        real[b] = re;
+        double im = imag[a];
+        imag[a] = imag[b];
+        imag[b] = im;
+      }
+    }
+    double sign = inverse ? 1 : -1;
+    for (int length = 2; length <= n; length *= 2) {
+      int half = length / 2;
+      int stride = n / length;
+      for (int start = 0; start < n; start += length) {
+        for (int k = 0; k < half; k++) {
+          double wr = this.cos[k * stride];
+          double wi = sign * this.sin[k * stride];
+          int a = offset + (start + k) * step;
+          int b = offset + (start + k + half) * step;
+          double re = real[b] * wr - imag[b] * wi;
+          double im = real[b] * wi + imag[b] * wr;
+          real[b] = real[a] - re;
+          imag[b] = imag[a] - im;
+          real[a] += re;
+          imag[a] += im;
+        }
+      }
+    }
+  }
+}
@@ -1,8 +1,17 @@
 package model;
 
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
 /**
  * Represents color filter operations utilizing that can be applied on images.
  * Utilizes a kernel of numbers represented in a matrix format to do so.
+ * Separable kernels, such as blur, run as horizontal passes over padded rows followed by a
+ * vertical pass, see {@link SeparableKernel}.
+ * With a mask, only the editable spans of each row are filtered and masked pixels are copied
+ * from the source; when every pixel is masked the source is returned. When the editable pixels
+ * and the pixels the kernal reaches around them make up at most half of the image, only that
+ * rectangle is filtered, and the result is a {@link SingleImagePatched} view of the source.
  */
 public class Filter extends TransformationsImpl {
 
@@ -13,6 +22,12 @@ public class Filter extends TransformationsImpl {
           {-1.0 / 8.0, 1.0 / 4.0, 1.0 / 4.0, 1.0 / 4.0, -1.0 / 8.0},
           {-1.0 / 8.0, -1.0 / 8.0, -1.0 / 8.0, -1.0 / 8.0, -1.0 / 8.0}};
 
+  /**
+   * The number of taps above which {@link #convolve} applies a kernal with the fast Fourier
+   * transform instead of tap by tap.
+   */
+  static final int FFT_TAPS = 25;
+
   static final double[][] blur = new double[][]{
           {1.0 / 16.0, 1.0 / 8.0, 1.0 / 16.0},
           {1.0 / 8.0, 1.0 / 4.0, 1.0 / 8.0},
@@ -37,12 +52,28 @@ public class Filter extends TransformationsImpl {
     super(srcImage, maskImage);
   }
 
+  // Filters the given image with a mask that has already been read.
+  private Filter(SingleImage srcImage, MaskSpans mask) {
+    super(srcImage, mask);
+  }
+
+  // Filters part of the image with the part of the mask over it.
+  @Override
+  protected TransformationsImpl part(SingleImage image, MaskSpans mask) {
+    return new Filter(image, mask);
+  }
+
   /**
    * Processes pixels with the given kernal.
    *
-   * @return a new kernal RGB value.
+   * @param pixels   the part of the image around the pixel.
+   * @param firstRow the row of the image held at the start of the pixels.
+   * @param firstCol the column of the image held at the start of each row of the pixels.
+   * @param stride   the number of columns held for each row of the pixels.
+   * @return a new kernal pixel packed as ARGB.
    */
-  private RGB filterPixels(int x, int y, double[][] kernal) {
+  private int filterPixels(int[] pixels, int firstRow, int firstCol, int stride, int x, int y,
+                           double[][] kernal) {
     int red = 0;
     int green = 0;
     int blue = 0;
@@ -52,47 +83,713 @@ public class Filter extends TransformationsImpl {
         int kernalX = x - kernal.length / 2 + i;
         int kernalY = y - kernal[0].length / 2 + j;
         if (kernalX >= 0 && kernalX < this.height && kernalY >= 0 && kernalY < this.width) {
-          int r = this.image[kernalX][kernalY].getRed();
-          int g = this.image[kernalX][kernalY].getGreen();
-          int b = this.image[kernalX][kernalY].getBlue();
-          int a = this.image[kernalX][kernalY].getAlpha();
-          red += (int) Math.round((r * kernal[i][j]));
-          green += (int) Math.round((g * kernal[i][j]));
-          blue += (int) Math.round((b * kernal[i][j]));
-          alpha += (int) Math.round((a * kernal[i][j]));
+          int pixel = pixels[(kernalX - firstRow) * stride + kernalY - firstCol];
+          red += (int) Math.round(((pixel >> 16 & 0xFF) * kernal[i][j]));
+          green += (int) Math.round(((pixel >> 8 & 0xFF) * kernal[i][j]));
+          blue += (int) Math.round(((pixel & 0xFF) * kernal[i][j]));
+          alpha += (int) Math.round(((pixel >>> 24) * kernal[i][j]));
         }
       }
     }
-    return new RGBImpl(clamp(red), clamp(green), clamp(blue), clamp(alpha));
+    return SingleImagePacked.pack(clamp(red), clamp(green), clamp(blue), clamp(alpha));
+  }
+
+  // Copies row i of the source into the destination if the mask keeps all of it, so filters
+  // skip the rows they leave unchanged, and returns whether it did.
+  private boolean keepRow(int i, int[] dst, int offset) {
+    if (editableSpans(i).length > 0) {
+      return false;
+    }
+    readRow(i, dst, offset);
+    return true;
+  }
+
+  // Filters row x of the image from the rows held in pixels, whose first row is firstRow.
+  private void filterRow(int[] pixels, int firstRow, int x, double[][] kernal, int[] dst,
+                         int offset) {
+    if (hasMask) {
+      System.arraycopy(pixels, (x - firstRow) * this.width, dst, offset, this.width);
+    }
+    int[] spans = editableSpans(x);
+    for (int s = 0; s < spans.length; s += 2) {
+      for (int y = spans[s]; y < spans[s + 1]; y++) {
+        dst[offset + y] = filterPixels(pixels, firstRow, 0, this.width, x, y, kernal);
+      }
+    }
   }
 
   /**
-   * Applies the given kernal to the image.
+   * Applies the given kernal to the image. Tiled images are filtered one tile at a time, other
+   * images that are not packed on the heap are read through a band holding only the rows the
+   * kernal covers.
    *
    * @param filter the kernal to apply.
    * @return a new image with the kernal applied.
    */
   private SingleImage constructFilter(double[][] filter) {
-    RGB[][] newImage = new RGB[this.height][this.width];
-    for (int i = 0; i < this.height; i++) {
-      for (int j = 0; j < this.width; j++) {
-        int r = image[i][j].getRed();
-        int g = image[i][j].getGreen();
-        int b = image[i][j].getBlue();
-        if (hasMask) {
-          int maskRed = maskImage[i][j].getRed();
-          int maskGreen = maskImage[i][j].getGreen();
-          int maskBlue = maskImage[i][j].getBlue();
-          // if mask color channels are non-zero, skip transformation.
-          if (maskRed > 0 || maskGreen > 0 || maskBlue > 0) {
-            newImage[i][j] = new RGBImpl(r, g, b, image[i][j].getAlpha());
+    if (allMasked()) {
+      return source;
+    }
+    SingleImage patched = patched(filter.length / 2, filter[0].length / 2,
+            part -> ((Filter) part).constructFilter(filter));
+    if (patched != null) {
+      return patched;
+    }
+    if (SeparableKernel.isSeparable(filter)) {
+      return separableFilter(new SeparableKernel(filter));
+    }
+    if (source instanceof SingleImageTiled) {
+      return filterTiles((SingleImageTiled) source, filter);
+    }
+    if (!readsByRow()) {
+      int[] image = image();
+      return produceRows(this.width, this.height, () -> (i, dst, offset) -> {
+        if (!keepRow(i, dst, offset)) {
+          filterRow(image, 0, i, filter, dst, offset);
+        }
+      });
+    }
+    int half = filter.length / 2;
+    return produceRows(this.width, this.height, () -> {
+      int[] band = new int[filter.length * this.width];
+      return (i, dst, offset) -> {
+        if (keepRow(i, dst, offset)) {
+          return;
+        }
+        int first = Math.max(0, i - half);
+        int last = Math.min(this.height - 1, i + half);
+        for (int r = first; r <= last; r++) {
+          readRow(r, band, (r - first) * this.width);
+        }
+        filterRow(band, first, i, filter, dst, offset);
+      };
+    });
+  }
+
+  // Filters every tile from the tile and the halo of neighbouring pixels the kernal reaches.
+  private SingleImage filterTiles(SingleImageTiled tiled, double[][] filter) {
+    SingleImageTiled newImage = new SingleImageTiled(this.width, this.height, this.maxValue);
+    int size = tiled.getTileSize();
+    int halfRows = filter.length / 2;
+    int halfCols = filter[0].length / 2;
+    int across = tiled.getTilesAcross();
+    RowExecutor.forEachBand(tiled.getTilesDown() * across, (firstTile, lastTile) -> {
+      int[] halo = new int[(size + 2 * halfRows) * (size + 2 * halfCols)];
+      for (int t = firstTile; t < lastTile; t++) {
+        int tileRow = t / across;
+        int tileCol = t % across;
+        int rows = tiled.getTileHeight(tileRow);
+        int cols = tiled.getTileWidth(tileCol);
+        int firstRow = Math.max(0, tileRow * size - halfRows);
+        int firstCol = Math.max(0, tileCol * size - halfCols);
+        int stride = Math.min(this.width, tileCol * size + cols + halfCols) - firstCol;
+        int haloRows = Math.min(this.height, tileRow * size + rows + halfRows) - firstRow;
+        tiled.getRegion(firstRow, firstCol, haloRows, stride, halo, 0);
+        int[] newTile = new int[size * size];
+        for (int r = 0; r < rows; r++) {
+          int x = tileRow * size + r;
+          if (hasMask) {
+            System.arraycopy(halo, (x - firstRow) * stride + tileCol * size - firstCol, newTile,
+                    r * size, cols);
+          }
+          int[] spans = editableSpans(x);
+          for (int s = 0; s < spans.length; s += 2) {
+            int from = Math.max(spans[s], tileCol * size);
+            int to = Math.min(spans[s + 1], tileCol * size + cols);
+            for (int y = from; y < to; y++) {
+              newTile[r * size + y - tileCol * size] =
+                      filterPixels(halo, firstRow, firstCol, stride, x, y, filter);
+            }
+          }
+        }
+        newImage.setTile(tileRow, tileCol, newTile);
+      }
+    });
+    return newImage;
+  }
+
+  /**
+   * Applies a separable kernal to the image. Every band of rows keeps the horizontal sums of the
+   * rows the kernal covers, so each row of the source is read and summed once per band. Tiled
+   * images are filtered one tile at a time from the tile and its halo.
+   *
+   * @param kernal the separable kernal to apply.
+   * @return a new image with the kernal applied.
+   */
+  private SingleImage separableFilter(SeparableKernel kernal) {
+    int padding = kernal.getCols() / 2;
+    if (!(source instanceof SingleImageTiled)) {
+      return produceRows(this.width, this.height, () -> {
+        SeparableRows rows = new SeparableRows(kernal, this.width, (r, padded, offset) ->
+                readRow(r, padded, offset + padding));
+        return (i, dst, offset) -> {
+          if (!keepRow(i, dst, offset)) {
+            rows.filter(i, 0, dst, offset);
+          }
+        };
+      });
+    }
+    SingleImageTiled tiled = (SingleImageTiled) source;
+    SingleImageTiled newImage = new SingleImageTiled(this.width, this.height, this.maxValue);
+    int size = tiled.getTileSize();
+    int halfRows = kernal.getRows() / 2;
+    int across = tiled.getTilesAcross();
+    RowExecutor.forEachBand(tiled.getTilesDown() * across, (firstTile, lastTile) -> {
+      int[] halo = new int[(size + kernal.getRows()) * (size + kernal.getCols())];
+      for (int t = firstTile; t < lastTile; t++) {
+        int tileRow = t / across;
+        int tileCol = t % across;
+        int rows = tiled.getTileHeight(tileRow);
+        int cols = tiled.getTileWidth(tileCol);
+        int firstRow = Math.max(0, tileRow * size - halfRows);
+        int firstCol = Math.max(0, tileCol * size - padding);
+        int stride = Math.min(this.width, tileCol * size + cols + kernal.getCols() - 1 - padding)
+                - firstCol;
+        int haloRows = Math.min(this.height, tileRow * size + rows + kernal.getRows() - 1
+                - halfRows) - firstRow;
+        tiled.getRegion(firstRow, firstCol, haloRows, stride, halo, 0);
+        // columns outside the image stay transparent black in the padded rows.
+        int start = firstCol - (tileCol * size - padding);
+        SeparableRows filtered = new SeparableRows(kernal, cols, (r, padded, offset) -> {
+          Arrays.fill(padded, 0);
+          System.arraycopy(halo, (r - firstRow) * stride, padded, offset + start, stride);
+        });
+        int[] newTile = new int[size * size];
+        for (int r = 0; r < rows; r++) {
+          filtered.filter(tileRow * size + r, tileCol * size, newTile, r * size);
+        }
+        newImage.setTile(tileRow, tileCol, newTile);
+      }
+    });
+    return newImage;
+  }
+
+  // Filters rows with a separable kernal. The horizontal sums of each row read, and the row
+  // itself for masked pixels, are kept in a ring holding one row for each row of the kernal.
+  private final class SeparableRows {
+    private final SeparableKernel kernal;
+    private final int count;
+    private final RowProducer reader;
+    private final int[] padded;
+    private final int[][] sums;
+    private final int[][] pixels;
+    private final int[] held;
+    private final int[] total;
+
+    // The reader writes a row of the source into a padded row at the given offset, with the
+    // first column filtered at offset + cols / 2 of the kernal.
+    private SeparableRows(SeparableKernel kernal, int count, RowProducer reader) {
+      this.kernal = kernal;
+      this.count = count;
+      this.reader = reader;
+      this.padded = new int[count + kernal.getCols() - 1];
+      this.sums = new int[kernal.getRows()][kernal.getGroups() * 4 * count];
+      this.pixels = new int[kernal.getRows()][count];
+      this.held = new int[kernal.getRows()];
+      Arrays.fill(this.held, -1);
+      this.total = new int[4 * count];
+    }
+
+    // Returns the horizontal sums of row r of the source, reading and summing the row only if
+    // it is not held yet.
+    private int[] sums(int r) {
+      int slot = r % this.held.length;
+      if (this.held[slot] != r) {
+        this.reader.produce(r, this.padded, 0);
+        System.arraycopy(this.padded, this.kernal.getCols() / 2, this.pixels[slot], 0,
+                this.count);
+        for (int g = 0; g < this.kernal.getGroups(); g++) {
+          this.kernal.horizontal(g, this.padded, this.count, this.sums[slot],
+                  g * 4 * this.count);
+        }
+        this.held[slot] = r;
+      }
+      return this.sums[slot];
+    }
+
+    // Filters row x of the image, whose first column is firstCol, into the destination.
+    private void filter(int x, int firstCol, int[] dst, int offset) {
+      Arrays.fill(this.total, 0);
+      int rows = this.kernal.getRows();
+      for (int t = 0; t < rows; t++) {
+        int r = x - rows / 2 + t;
+        if (r < 0 || r >= height) {
+          continue;
+        }
+        int[] rowSums = sums(r);
+        int base = this.kernal.getGroup(t) * 4 * this.count;
+        for (int k = 0; k < this.total.length; k++) {
+          this.total[k] += rowSums[base + k];
+        }
+      }
+      int n = this.count;
+      if (hasMask) {
+        System.arraycopy(this.pixels[x % rows], 0, dst, offset, n);
+      }
+      int[] spans = editableSpans(x);
+      for (int s = 0; s < spans.length; s += 2) {
+        int from = Math.max(spans[s], firstCol) - firstCol;
+        int to = Math.min(spans[s + 1], firstCol + n) - firstCol;
+        for (int y = from; y < to; y++) {
+          dst[offset + y] = SingleImagePacked.pack(clamp(this.total[y]),
+                  clamp(this.total[n + y]), clamp(this.total[2 * n + y]),
+                  clamp(this.total[3 * n + y]));
+        }
+      }
+    }
+  }
+
+  /**
+   * Applies the given kernal to the image, as a filter does: each new channel is the sum of the
+   * kernal's weights times the channels of the pixels it covers, centred on the pixel, and pixels
+   * outside the image are left out. Kernals with more than {@link #FFT_TAPS} taps are applied
+   * with the fast Fourier transform, see {@link FftConvolution}, and the sum of each pixel is
+   * rounded once; smaller kernals round every tap like {@link #blur()} and {@link #sharpen()}.
+   * 3x3 and 5x5 kernals with whole weights run with int arithmetic, see {@link IntegerKernel}.
+   *
+   * @param kernal the kernal, with an odd number of rows and of columns.
+   * @return a new image with the kernal applied.
+   * @throws IllegalArgumentException if the kernal is empty, not rectangular, has an even number
+   *                                  of rows or columns, or has a weight that is not finite.
+   */
+  public SingleImage convolve(double[][] kernal) throws IllegalArgumentException {
+    double[][] copy = checkKernal(kernal);
+    if (allMasked()) {
+      return source;
+    }
+    SingleImage patched = patched(copy.length / 2, copy[0].length / 2,
+            part -> ((Filter) part).convolve(copy));
+    if (patched != null) {
+      return patched;
+    }
+    if (copy.length * copy[0].length > FFT_TAPS) {
+      return fftFilter(new FftConvolution(copy));
+    }
+    if (IntegerKernel.isInteger(copy)) {
+      return integerFilter(new IntegerKernel(copy));
+    }
+    return constructFilter(copy);
+  }
+
+  /**
+   * Checks that a kernal can be applied and returns a copy of it.
+   *
+   * @param kernal the kernal.
+   * @return a copy of the kernal.
+   * @throws IllegalArgumentException if the kernal is empty, not rectangular, has an even number
+   *                                  of rows or columns, or has a weight that is not finite.
+   */
+  static double[][] checkKernal(double[][] kernal) throws IllegalArgumentException {
+    if (kernal == null || kernal.length % 2 == 0 || kernal[0] == null
+            || kernal[0].length % 2 == 0) {
+      throw new IllegalArgumentException("Kernal must have an odd number of rows and columns.");
+    }
+    double[][] copy = new double[kernal.length][];
+    for (int i = 0; i < kernal.length; i++) {
+      if (kernal[i] == null || kernal[i].length != kernal[0].length) {
+        throw new IllegalArgumentException("Kernal must be rectangular.");
+      }
+      copy[i] = kernal[i].clone();
+      for (double weight : copy[i]) {
+        if (!Double.isFinite(weight)) {
+          throw new IllegalArgumentException("Kernal weights must be finite.");
+        }
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Applies a whole 3x3 or 5x5 kernal. Every band of rows keeps the channels of the rows the
+   * kernal covers, padded with zeros, in a ring, so each row of the source is read and split into
+   * channels once per band.
+   *
+   * @param kernal the whole kernal to apply.
+   * @return a new image with the kernal applied.
+   */
+  private SingleImage integerFilter(IntegerKernel kernal) {
+    int size = kernal.getSize();
+    int padded = this.width + size - 1;
+    return produceRows(this.width, this.height, () -> {
+      int[] pixels = new int[this.width];
+      int[][][] ring = new int[size][4][padded];
+      int[] held = new int[size];
+      Arrays.fill(held, -1);
+      int[][] zeros = new int[4][padded];
+      int[][] rows = new int[size][];
+      int[][] sums = new int[4][this.width];
+      int[][][] channels = new int[size][][];
+      return (i, dst, offset) -> {
+        if (keepRow(i, dst, offset)) {
+          return;
+        }
+        for (int t = 0; t < size; t++) {
+          int r = i - size / 2 + t;
+          if (r < 0 || r >= this.height) {
+            channels[t] = zeros;
             continue;
           }
+          int slot = r % size;
+          if (held[slot] != r) {
+            readRow(r, pixels, 0);
+            for (int c = 0; c < 4; c++) {
+              int[] channel = ring[slot][c];
+              for (int y = 0; y < this.width; y++) {
+                channel[size / 2 + y] = pixels[y] >>> (16 - 8 * c & 31) & 0xFF;
+              }
+            }
+            held[slot] = r;
+          }
+          channels[t] = ring[slot];
         }
-        newImage[i][j] = filterPixels(i, j, filter);
+        for (int c = 0; c < 4; c++) {
+          for (int t = 0; t < size; t++) {
+            rows[t] = channels[t][c];
+          }
+          kernal.sum(rows, this.width, sums[c]);
+        }
+        if (hasMask) {
+          readRow(i, dst, offset);
+        }
+        int[] spans = editableSpans(i);
+        for (int s = 0; s < spans.length; s += 2) {
+          for (int y = spans[s]; y < spans[s + 1]; y++) {
+            dst[offset + y] = SingleImagePacked.pack(clamp(sums[0][y]), clamp(sums[1][y]),
+                    clamp(sums[2][y]), clamp(sums[3][y]));
+          }
+        }
+      };
+    });
+  }
+
+  /**
+   * Applies a kernal with the fast Fourier transform. Every band of rows transforms the strips
+   * of source rows that reach its rows, in order, and adds them into a ring of sums holding the
+   * rows the current strip reaches, so the memory used does not depend on the image height.
+   * Strips start at multiples of the block height whatever the band, so every band adds up the
+   * same blocks in the same order.
+   *
+   * @param fft the prepared kernal.
+   * @return a new image with the kernal applied.
+   */
+  private SingleImage fftFilter(FftConvolution fft) {
+    return produceRows(this.width, this.height, () -> {
+      FftRows rows = new FftRows(fft);
+      return (i, dst, offset) -> {
+        if (!keepRow(i, dst, offset)) {
+          rows.filter(i, dst, offset);
+        }
+      };
+    });
+  }
+
+  // Rows of an image filtered with the fast Fourier transform. Rows must be asked for in order
+  // within a band; the sums of the rows that strips added so far reach are held in a ring.
+  private final class FftRows {
+    private final FftConvolution fft;
+    private final int block;
+    private final int half;
+    private final int[] strip;
+    private final double[][] ring;
+    private final int[] held;
+    private final double[][] reached;
+    // the next strip to add and the first row not filtered yet.
+    private int nextStrip = -1;
+    private int nextRow;
+
+    private FftRows(FftConvolution fft) {
+      this.fft = fft;
+      this.block = fft.getBlockRows();
+      this.half = fft.getRows() / 2;
+      this.strip = new int[this.block * width];
+      this.ring = new double[this.block + fft.getRows()][4 * width];
+      this.held = new int[this.ring.length];
+      Arrays.fill(this.held, -1);
+      this.reached = new double[this.block + fft.getRows() - 1][];
+    }
+
+    // Filters row x of the image into the destination.
+    private void filter(int x, int[] dst, int offset) {
+      if (this.nextStrip < 0 || x != this.nextRow) {
+        // the first strip that reaches row x.
+        this.nextStrip = Math.max(0, Math.floorDiv(x - this.half, this.block));
+        Arrays.fill(this.held, -1);
+        this.nextRow = x;
+      }
+      int lastStrip = Math.min((x + this.half) / this.block, (height - 1) / this.block);
+      while (this.nextStrip <= lastStrip) {
+        addStrip(this.nextStrip++);
+      }
+      double[] sums = sums(x);
+      if (hasMask) {
+        readRow(x, dst, offset);
+      }
+      int n = width;
+      int[] spans = editableSpans(x);
+      for (int s = 0; s < spans.length; s += 2) {
+        for (int y = spans[s]; y < spans[s + 1]; y++) {
+          dst[offset + y] = SingleImagePacked.pack(round(sums[y]), round(sums[n + y]),
+                  round(sums[2 * n + y]), round(sums[3 * n + y]));
+        }
+      }
+      this.nextRow = x + 1;
+    }
+
+    // Transforms strip s of the source and adds it to the rows it reaches that are still to be
+    // filtered.
+    private void addStrip(int s) {
+      int first = s * this.block;
+      int count = Math.min(this.block, height - first);
+      for (int r = 0; r < count; r++) {
+        readRow(first + r, this.strip, r * width);
+      }
+      for (int p = 0; p < this.reached.length; p++) {
+        int r = first - this.half + p;
+        this.reached[p] = r >= this.nextRow && r < height ? sums(r) : null;
+      }
+      this.fft.addStrip(this.strip, count, width, this.reached);
+    }
+
+    // Returns the sums of row r, which start at zero the first time the row is held.
+    private double[] sums(int r) {
+      int slot = r % this.ring.length;
+      if (this.held[slot] != r) {
+        Arrays.fill(this.ring[slot], 0);
+        this.held[slot] = r;
+      }
+      return this.ring[slot];
+    }
+  }
+
+  // Rounds the sum of a channel half up and clamps it. The sums of the transform carry a
+  // rounding error far smaller than the margin added, so a sum that is exactly a half rounds up.
+  private int round(double sum) {
+    return clamp((int) Math.floor(Math.max(-1, Math.min(256, sum)) + 0.5 + 1e-7));
+  }
+
+  /**
+   * Blurs an image with the average of the square of pixels within the given radius of each
+   * pixel. Pixels outside the image are left out of the average. The window is kept as running
+   * sums, so the cost of each pixel does not depend on the radius.
+   *
+   * @param radius the number of pixels on each side of a pixel that are averaged with it.
+   * @return a blurred single image.
+   * @throws IllegalArgumentException if the radius is not positive.
+   */
+  public SingleImage boxBlur(int radius) throws IllegalArgumentException {
+    if (radius <= 0) {
+      throw new IllegalArgumentException("Blur radius must be positive.");
+    }
+    return boxCascade(new int[]{radius});
+  }
+
+  /**
+   * Blurs an image with a gaussian of the given standard deviation, approximated by three box
+   * blurs whose combined variance matches it. The three boxes run as running sums of each other
+   * without rounding in between, so the cost of each pixel does not depend on the standard
+   * deviation and the result is rounded once.
+   *
+   * @param sigma the standard deviation of the gaussian in pixels.
+   * @return a blurred single image.
+   * @throws IllegalArgumentException if sigma is not positive or is too large to sum exactly.
+   */
+  public SingleImage gaussianBlur(double sigma) throws IllegalArgumentException {
+    if (!(sigma > 0) || Double.isInfinite(sigma)) {
+      throw new IllegalArgumentException("Blur sigma must be positive.");
+    }
+    int[] radii = boxRadii(sigma, 3);
+    // every sum of a channel must fit in a long before it is divided.
+    double weight = 2 * 255;
+    for (int radius : radii) {
+      weight *= Math.pow(2.0 * Math.min(radius, Math.max(this.width, this.height)) + 1, 2);
+    }
+    if (weight >= Long.MAX_VALUE) {
+      throw new IllegalArgumentException("Blur sigma is too large.");
+    }
+    return boxCascade(radii);
+  }
+
+  /**
+   * Returns the radii of the given number of box blurs that together have the variance of a
+   * gaussian with the given standard deviation. The widths are the two odd widths around the
+   * ideal width, with as many of the smaller width as the variance calls for.
+   *
+   * @param sigma  the standard deviation of the gaussian.
+   * @param passes the number of box blurs.
+   * @return the radius of each box blur, smallest first, where 0 leaves the image unchanged.
+   */
+  static int[] boxRadii(double sigma, int passes) {
+    double ideal = Math.sqrt(12 * sigma * sigma / passes + 1);
+    int lower = (int) Math.floor(ideal);
+    if (lower % 2 == 0) {
+      lower--;
+    }
+    long smaller = Math.round((12 * sigma * sigma - passes * (double) lower * lower
+            - 4.0 * passes * lower - 3.0 * passes) / (-4.0 * lower - 4));
+    int[] radii = new int[passes];
+    for (int i = 0; i < passes; i++) {
+      radii[i] = ((i < smaller ? lower : lower + 2) - 1) / 2;
+    }
+    return radii;
+  }
+
+  /**
+   * Blurs the image with boxes of the given radii applied one after another. Each box is a
+   * running sum of the one before it, across each row and then down each column, and the sums
+   * are divided once by the sum of the same boxes over the pixels inside the image, so pixels
+   * outside the image are left out. Masked pixels are kept.
+   *
+   * @param radii the radius of each box, where 0 leaves the image unchanged.
+   * @return the blurred image.
+   */
+  private SingleImage boxCascade(int[] radii) {
+    if (allMasked()) {
+      return source;
+    }
+    // a window larger than the image covers all of it.
+    int[] boxes = new int[radii.length];
+    for (int k = 0; k < radii.length; k++) {
+      boxes[k] = Math.min(radii[k], Math.max(this.width, this.height));
+    }
+    SingleImage patched = patched(padding(boxes), padding(boxes),
+            part -> ((Filter) part).boxCascade(radii));
+    if (patched != null) {
+      return patched;
+    }
+    long[] colWeights = weights(this.width, boxes);
+    long[] rowWeights = weights(this.height, boxes);
+    return produceRows(this.width, this.height, () -> {
+      int[] pixels = new int[this.width];
+      long[] across = new long[4 * this.width];
+      long[] line = new long[this.width + 2 * padding(boxes)];
+      long[] prefix = new long[line.length + 1];
+      RunningRows rows = null;
+      for (int radius : boxes) {
+        RunningRows previous = rows;
+        rows = new RunningRows(radius, previous == null ? r -> {
+          // each row of the image is summed across by every box.
+          Arrays.fill(across, 0);
+          if (r >= 0 && r < this.height) {
+            readRow(r, pixels, 0);
+            for (int c = 0; c < 4; c++) {
+              Arrays.fill(line, 0);
+              for (int y = 0; y < this.width; y++) {
+                line[padding(boxes) + y] = pixels[y] >>> (16 - 8 * c & 31) & 0xFF;
+              }
+              cascade(line, prefix, boxes);
+              System.arraycopy(line, padding(boxes), across, c * this.width, this.width);
+            }
+          }
+          return across;
+        } : previous::row);
+      }
+      RunningRows blurred = rows;
+      return (i, dst, offset) -> {
+        if (keepRow(i, dst, offset)) {
+          return;
+        }
+        long[] sums = blurred.row(i);
+        if (hasMask) {
+          readRow(i, dst, offset);
+        }
+        int n = this.width;
+        int[] spans = editableSpans(i);
+        for (int s = 0; s < spans.length; s += 2) {
+          for (int y = spans[s]; y < spans[s + 1]; y++) {
+            long weight = rowWeights[i] * colWeights[y];
+            dst[offset + y] = SingleImagePacked.pack(average(sums[y], weight),
+                    average(sums[n + y], weight), average(sums[2 * n + y], weight),
+                    average(sums[3 * n + y], weight));
+          }
+        }
+      };
+    });
+  }
+
+  // Returns the number of values the boxes spread a value over on each side.
+  private static int padding(int[] boxes) {
+    int padding = 0;
+    for (int radius : boxes) {
+      padding += radius;
+    }
+    return padding;
+  }
+
+  // Returns the sum of the boxes over a line of ones of the given length, for each position.
+  private static long[] weights(int length, int[] boxes) {
+    long[] line = new long[length + 2 * padding(boxes)];
+    Arrays.fill(line, padding(boxes), padding(boxes) + length, 1);
+    cascade(line, new long[line.length + 1], boxes);
+    return Arrays.copyOfRange(line, padding(boxes), padding(boxes) + length);
+  }
+
+  // Replaces the values of a line padded with zeros by their running sums over each box in
+  // turn. The padding is wide enough that no sum reaches past the ends of the line.
+  private static void cascade(long[] line, long[] prefix, int[] boxes) {
+    for (int radius : boxes) {
+      for (int k = 0; k < line.length; k++) {
+        prefix[k + 1] = prefix[k] + line[k];
+      }
+      for (int k = 0; k < line.length; k++) {
+        line[k] = prefix[Math.min(line.length, k + radius + 1)] - prefix[Math.max(0, k - radius)];
+      }
+    }
+  }
+
+  // Rounds the quotient of a sum and its weight half up.
+  private static int average(long sum, long weight) {
+    return (int) ((2 * sum + weight) / (2 * weight));
+  }
+
+  // Sums of the rows of another sequence of rows over a window of rows, kept as a running sum.
+  // Rows must be asked for in order within a band; the rows of the window, and the one that just
+  // left it, are held in a ring so every row of the other sequence is produced once.
+  private final class RunningRows {
+    private final int radius;
+    private final IntFunction<long[]> rows;
+    private final long[][] ring;
+    private final long[] sums;
+    private int next = Integer.MIN_VALUE;
+
+    private RunningRows(int radius, IntFunction<long[]> rows) {
+      this.radius = radius;
+      this.rows = rows;
+      this.ring = new long[2 * radius + 2][];
+      this.sums = new long[4 * width];
+    }
+
+    // Holds row r of the other sequence in the ring and returns it.
+    private long[] hold(int r) {
+      long[] row = this.rows.apply(r);
+      long[] held = this.ring[Math.floorMod(r, this.ring.length)];
+      if (held == null) {
+        held = new long[row.length];
+        this.ring[Math.floorMod(r, this.ring.length)] = held;
+      }
+      System.arraycopy(row, 0, held, 0, row.length);
+      return held;
+    }
+
+    // Returns the sum of rows i - radius to i + radius of the other sequence.
+    private long[] row(int i) {
+      if (i != this.next) {
+        Arrays.fill(this.sums, 0);
+        for (int r = i - this.radius; r <= i + this.radius; r++) {
+          add(hold(r), 1);
+        }
+      } else {
+        add(hold(i + this.radius), 1);
+        add(this.ring[Math.floorMod(i - this.radius - 1, this.ring.length)], -1);
+      }
+      this.next = i + 1;
+      return this.sums;
+    }
+
+    private void add(long[] row, int sign) {
+      for (int k = 0; k < this.sums.length; k++) {
+        this.sums[k] += sign * row[k];
       }
     }
-    return new SingleImageImpl(this.width, this.height, this.maxValue, newImage);
   }
 
   /**
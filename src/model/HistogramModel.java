@@ -46,17 +46,49 @@ public class HistogramModel extends JLabel {
    * @param model the model of the image.
    */
   public void getColorArray(SingleImage model) {
-    for (int i = 0; i < model.getHeight(); i++) {
-      for (int j = 0; j < model.getWidth(); j++) {
-        int blue = model.getPixels()[i][j].getBlue();
-        int green = model.getPixels()[i][j].getGreen();
-        int red = model.getPixels()[i][j].getRed();
-        int intensity = (red + blue + green) / 3;
-        histogram[0][red]++;
-        histogram[1][green]++;
-        histogram[2][blue]++;
-        histogram[3][intensity]++;
+    if (model instanceof SingleImagePlanar) {
+      SingleImagePlanar planar = (SingleImagePlanar) model;
+      countPlane(planar.getRedPlane(), histogram[0]);
+      countPlane(planar.getGreenPlane(), histogram[1]);
+      countPlane(planar.getBluePlane(), histogram[2]);
+      byte[] red = planar.getRedPlane();
+      byte[] green = planar.getGreenPlane();
+      byte[] blue = planar.getBluePlane();
+      for (int k = 0; k < red.length; k++) {
+        histogram[3][((red[k] & 0xFF) + (green[k] & 0xFF) + (blue[k] & 0xFF)) / 3]++;
       }
+      return;
+    }
+    if (model instanceof SingleImagePacked) {
+      countPixels(model.getPackedPixels(), histogram);
+      return;
+    }
+    // other layouts, such as off-heap images, are counted one row at a time.
+    int[] row = new int[model.getWidth()];
+    for (int i = 0; i < model.getHeight(); i++) {
+      model.getPackedRow(i, row, 0);
+      countPixels(row, histogram);
+    }
+  }
+
+  // Counts the channels and intensity of the given packed pixels into the histogram.
+  private static void countPixels(int[] pixels, int[][] histogram) {
+    for (int pixel : pixels) {
+      int blue = pixel & 0xFF;
+      int green = pixel >> 8 & 0xFF;
+      int red = pixel >> 16 & 0xFF;
+      int intensity = (red + blue + green) / 3;
+      histogram[0][red]++;
+      histogram[1][green]++;
+      histogram[2][blue]++;
+      histogram[3][intensity]++;
+    }
+  }
+
+  // Counts the values of a single channel plane into the given histogram.
+  private static void countPlane(byte[] plane, int[] counts) {
+    for (byte value : plane) {
+      counts[value & 0xFF]++;
     }
   }
 
@@ -23,6 +23,23 @@ public interface ImageGallery {
    */
   SingleImage getImage(String fileName);
 
+  /**
+   * Returns whether the pixels of the image with the given name are also read under another
+   * name, either as the same image or through a view such as a flip, crop or brighten.
+   *
+   * @param fileName represents the name of the image.
+   * @return true if another name reads the pixels of the image.
+   */
+  boolean isShared(String fileName);
+
+  /**
+   * Removes the image with the given name from the gallery and releases it if no other name
+   * refers to it.
+   *
+   * @param fileName represents the name of the image.
+   */
+  void remove(String fileName);
+
 
   /**
    * Returns the gallery of images.
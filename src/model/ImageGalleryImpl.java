@@ -7,6 +7,8 @@ import java.util.Map;
  * Implementation of the {@link  ImageGallery} interface.
  * This class is used to store multiple images at one time represented as a HashMap.
  * Images are represented by their file name and corresponding {@link SingleImage} model.
+ * Putting, reading and removing images is safe from several threads, so commands on different
+ * images can run at the same time.
  */
 public class ImageGalleryImpl implements ImageGallery {
   private final Map<String, SingleImage> imageGallery;
@@ -20,19 +22,89 @@ public class ImageGalleryImpl implements ImageGallery {
 
   /**
    * Puts the given image, represented by its file name, into the gallery represented as a HashMap.
+   * The image replaced under the same name is released if no other name refers to it.
    *
    * @param fileName represents the name of the image.
    * @param model    represents the model of the image.
    */
   @Override
-  public void put(String fileName, SingleImage model) {
+  public synchronized void put(String fileName, SingleImage model) {
     if (model != null) {
-      imageGallery.put(fileName, model);
+      // every name holds one owner of its image, so the replaced image drops the owner it had.
+      model.retain();
+      SingleImage old = imageGallery.put(fileName, model);
+      if (old != null) {
+        old.release();
+      }
     } else {
       throw new IllegalArgumentException("Image cannot be null.");
     }
   }
 
+  /**
+   * Returns whether the pixels of the image with the given name are also read under another
+   * name, either as the same image or through a view such as a flip, crop or brighten.
+   *
+   * @param fileName represents the name of the image.
+   * @return true if another name reads the pixels of the image.
+   */
+  @Override
+  public synchronized boolean isShared(String fileName) {
+    SingleImage image = imageGallery.get(fileName);
+    if (image == null) {
+      return false;
+    }
+    SingleImage pixels = pixelsOf(image);
+    for (Map.Entry<String, SingleImage> entry : imageGallery.entrySet()) {
+      if (entry.getKey().equals(fileName)) {
+        continue;
+      }
+      SingleImage other = pixelsOf(entry.getValue());
+      // an image not computed yet may read any image it was recorded from.
+      if (other == pixels || other instanceof SingleImageDeferred) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Returns the image that holds the pixels the given image reads, following views to the image
+  // they were taken of.
+  private static SingleImage pixelsOf(SingleImage image) {
+    while (true) {
+      if (image instanceof SingleImageLookup) {
+        image = ((SingleImageLookup) image).getBase();
+      } else if (image instanceof SingleImageMirrored) {
+        image = ((SingleImageMirrored) image).getBase();
+      } else if (image instanceof SingleImageCropped) {
+        image = ((SingleImageCropped) image).getBase();
+      } else if (image instanceof SingleImagePatched) {
+        image = ((SingleImagePatched) image).getBase();
+      } else if (image instanceof SingleImageFused) {
+        image = ((SingleImageFused) image).getBase();
+      } else if (image instanceof SingleImageDeferred
+              && ((SingleImageDeferred) image).isComputed()) {
+        image = ((SingleImageDeferred) image).getImage();
+      } else {
+        return image;
+      }
+    }
+  }
+
+  /**
+   * Removes the image with the given name from the gallery and releases it if no other name
+   * refers to it.
+   *
+   * @param fileName represents the name of the image.
+   */
+  @Override
+  public synchronized void remove(String fileName) {
+    SingleImage old = imageGallery.remove(fileName);
+    if (old != null) {
+      old.release();
+    }
+  }
+
   /**
    * Returns the image model stored in the gallery.
    *
@@ -40,12 +112,13 @@ public class ImageGalleryImpl implements ImageGallery {
    * @return the image model stored.
    */
   @Override
-  public SingleImage getImage(String fileName) {
+  public synchronized SingleImage getImage(String fileName) {
     return imageGallery.get(fileName);
   }
 
   /**
-   * Returns the gallery of images.
+   * Returns the gallery of images. The map is not safe to read while commands run on other
+   * threads.
    *
    * @return the gallery of images.
    */
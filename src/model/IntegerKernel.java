@@ -0,0 +1,142 @@
+package model;
+
+/**
+ * A 3x3 or 5x5 kernal whose weights are all whole numbers, such as the edge, emboss and laplacian
+ * kernals. The product of a channel and a whole weight needs no rounding, so every tap of a
+ * {@link Filter} is exact and the sum of a pixel can be computed with int arithmetic. The sums
+ * are written out tap by tap for each size, with the weights held in locals, and run over one
+ * channel of a padded row at a time.
+ */
+final class IntegerKernel {
+  // the largest weight allowed, so a sum of 25 taps of 255 always fits in an int.
+  private static final int MAX_WEIGHT = 1 << 16;
+
+  private final int size;
+  private final int[] weights;
+
+  /**
+   * Converts the given kernal to whole weights.
+   *
+   * @param kernal the kernal, which must be whole.
+   * @throws IllegalArgumentException if the kernal is not a whole 3x3 or 5x5 kernal.
+   */
+  IntegerKernel(double[][] kernal) throws IllegalArgumentException {
+    if (!isInteger(kernal)) {
+      throw new IllegalArgumentException("Kernal is not a whole 3x3 or 5x5 kernal.");
+    }
+    this.size = kernal.length;
+    this.weights = new int[this.size * this.size];
+    for (int i = 0; i < this.size; i++) {
+      for (int j = 0; j < this.size; j++) {
+        this.weights[i * this.size + j] = (int) kernal[i][j];
+      }
+    }
+  }
+
+  /**
+   * Returns whether the kernal is 3x3 or 5x5 with whole weights no larger than 2^16.
+   *
+   * @param kernal the kernal.
+   * @return true if the kernal can be applied with int arithmetic.
+   */
+  static boolean isInteger(double[][] kernal) {
+    if (kernal.length != 3 && kernal.length != 5) {
+      return false;
+    }
+    for (double[] row : kernal) {
+      if (row.length != kernal.length) {
+        return false;
+      }
+      for (double weight : row) {
+        if (weight != Math.rint(weight) || Math.abs(weight) > MAX_WEIGHT) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the number of rows and columns of the kernal.
+   *
+   * @return the size of the kernal.
+   */
+  int getSize() {
+    return this.size;
+  }
+
+  /**
+   * Sums one channel of a row of the image. The rows of the channel the kernal covers, from the
+   * top, are padded with size / 2 zeros on both sides; rows outside the image are all zeros.
+   *
+   * @param rows  the padded rows of the channel.
+   * @param count the number of pixels in the row.
+   * @param sums  the array to write the sum of each pixel into.
+   */
+  void sum(int[][] rows, int count, int[] sums) {
+    if (this.size == 3) {
+      sum3(rows[0], rows[1], rows[2], count, sums);
+    } else {
+      sum5(rows, count, sums);
+    }
+  }
+
+  private void sum3(int[] a, int[] b, int[] c, int count, int[] sums) {
+    final int[] w = this.weights;
+    final int w0 = w[0];
+    final int w1 = w[1];
+    final int w2 = w[2];
+    final int w3 = w[3];
+    final int w4 = w[4];
+    final int w5 = w[5];
+    final int w6 = w[6];
+    final int w7 = w[7];
+    final int w8 = w[8];
+    for (int y = 0; y < count; y++) {
+      sums[y] = w0 * a[y] + w1 * a[y + 1] + w2 * a[y + 2]
+              + w3 * b[y] + w4 * b[y + 1] + w5 * b[y + 2]
+              + w6 * c[y] + w7 * c[y + 1] + w8 * c[y + 2];
+    }
+  }
+
+  private void sum5(int[][] rows, int count, int[] sums) {
+    final int[] w = this.weights;
+    final int w0 = w[0];
+    final int w1 = w[1];
+    final int w2 = w[2];
+    final int w3 = w[3];
+    final int w4 = w[4];
+    final int w5 = w[5];
+    final int w6 = w[6];
+    final int w7 = w[7];
+    final int w8 = w[8];
+    final int w9 = w[9];
+    final int w10 = w[10];
+    final int w11 = w[11];
+    final int w12 = w[12];
+    final int w13 = w[13];
+    final int w14 = w[14];
+    final int w15 = w[15];
+    final int w16 = w[16];
+    final int w17 = w[17];
+    final int w18 = w[18];
+    final int w19 = w[19];
+    final int w20 = w[20];
+    final int w21 = w[21];
+    final int w22 = w[22];
+    final int w23 = w[23];
+    final int w24 = w[24];
+    final int[] a = rows[0];
+    final int[] b = rows[1];
+    final int[] c = rows[2];
+    final int[] d = rows[3];
+    final int[] e = rows[4];
+    for (int y = 0; y < count; y++) {
+      sums[y] = w0 * a[y] + w1 * a[y + 1] + w2 * a[y + 2] + w3 * a[y + 3] + w4 * a[y + 4]
+              + w5 * b[y] + w6 * b[y + 1] + w7 * b[y + 2] + w8 * b[y + 3] + w9 * b[y + 4]
+              + w10 * c[y] + w11 * c[y + 1] + w12 * c[y + 2] + w13 * c[y + 3] + w14 * c[y + 4]
+              + w15 * d[y] + w16 * d[y + 1] + w17 * d[y + 2] + w18 * d[y + 3] + w19 * d[y + 4]
+              + w20 * e[y] + w21 * e[y + 1] + w22 * e[y + 2] + w23 * e[y + 3] + w24 * e[y + 4];
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Named kernals that can be applied with {@link Filter#convolve}. The registry starts with the
+ * blur and sharpen kernals of {@link Filter} and reads more from text such as:
+ * <pre>
+ * # name rows cols, then the weights row by row
+ * emboss 3 3
+ * -2 -1 0
+ * -1  1 1
+ *  0  1 2
+ * </pre>
+ * Weights are decimals or fractions such as 1/16, and everything after a # on a line is a
+ * comment. A kernal with the name of one already registered replaces it.
+ */
+public final class KernelRegistry {
+  private final Map<String, double[][]> kernals = new TreeMap<>();
+
+  /**
+   * Creates a registry holding the blur and sharpen kernals.
+   */
+  public KernelRegistry() {
+    this.kernals.put("blur", Filter.checkKernal(Filter.blur));
+    this.kernals.put("sharpen", Filter.checkKernal(Filter.sharpen));
+  }
+
+  /**
+   * Registers a kernal under the given name.
+   *
+   * @param name   the name of the kernal.
+   * @param kernal the weights of the kernal, with an odd number of rows and of columns.
+   * @throws IllegalArgumentException if the name is null or empty, or the kernal is not valid.
+   */
+  public void put(String name, double[][] kernal) throws IllegalArgumentException {
+    if (name == null || name.isEmpty()) {
+      throw new IllegalArgumentException("Kernal name cannot be empty.");
+    }
+    this.kernals.put(name, Filter.checkKernal(kernal));
+  }
+
+  /**
+   * Returns the kernal registered under the given name.
+   *
+   * @param name the name of the kernal.
+   * @return a copy of the weights of the kernal.
+   * @throws IllegalArgumentException if no kernal has the name.
+   */
+  public double[][] get(String name) throws IllegalArgumentException {
+    double[][] kernal = this.kernals.get(name);
+    if (kernal == null) {
+      throw new IllegalArgumentException("Unknown kernal " + name + ".");
+    }
+    return Filter.checkKernal(kernal);
+  }
+
+  /**
+   * Returns whether a kernal is registered under the given name.
+   *
+   * @param name the name of the kernal.
+   * @return true if the kernal is registered.
+   */
+  public boolean contains(String name) {
+    return this.kernals.containsKey(name);
+  }
+
+  /**
+   * Returns the names of the registered kernals in alphabetical order.
+   *
+   * @return the names of the kernals.
+   */
+  public Set<String> getNames() {
+    return Collections.unmodifiableSet(this.kernals.keySet());
+  }
+
+  /**
+   * Reads kernals from the given text and registers them. Either every kernal in the text is
+   * registered or, if any of them is not valid, none is.
+   *
+   * @param input the text to read.
+   * @return the names of the kernals read, in the order they were read.
+   * @throws IllegalArgumentException if the input is null or the text is not valid.
+   */
+  public Set<String> load(Readable input) throws IllegalArgumentException {
+    if (input == null) {
+      throw new IllegalArgumentException("Input cannot be null.");
+    }
+    Scanner lines = new Scanner(input);
+    StringBuilder text = new StringBuilder();
+    while (lines.hasNextLine()) {
+      String line = lines.nextLine();
+      int comment = line.indexOf('#');
+      text.append(comment < 0 ? line : line.substring(0, comment)).append(System.lineSeparator());
+    }
+    Scanner sc = new Scanner(text.toString());
+    Map<String, double[][]> read = new LinkedHashMap<>();
+    while (sc.hasNext()) {
+      String name = sc.next();
+      if (!sc.hasNextInt()) {
+        throw new IllegalArgumentException("Kernal " + name + " has no size.");
+      }
+      int rows = sc.nextInt();
+      if (!sc.hasNextInt()) {
+        throw new IllegalArgumentException("Kernal " + name + " has no size.");
+      }
+      int cols = sc.nextInt();
+      if (rows <= 0 || cols <= 0) {
+        throw new IllegalArgumentException("Kernal " + name + " has an invalid size.");
+      }
+      double[][] kernal = new double[rows][cols];
+      for (int i = 0; i < rows; i++) {
+        for (int j = 0; j < cols; j++) {
+          if (!sc.hasNext()) {
+            throw new IllegalArgumentException("Kernal " + name + " is missing weights.");
+          }
+          kernal[i][j] = parseWeight(sc.next());
+        }
+      }
+      read.put(name, Filter.checkKernal(kernal));
+    }
+    this.kernals.putAll(read);
+    return Collections.unmodifiableSet(read.keySet());
+  }
+
+  /**
+   * Parses one weight of a kernal, written as a decimal number or as a fraction such as 1/16.
+   *
+   * @param weight the weight as written.
+   * @return the value of the weight.
+   * @throws IllegalArgumentException if the weight is not a number or a fraction.
+   */
+  public static double parseWeight(String weight) throws IllegalArgumentException {
+    int slash = weight.indexOf('/');
+    if (slash < 0) {
+      return Double.parseDouble(weight);
+    }
+    return Double.parseDouble(weight.substring(0, slash))
+            / Double.parseDouble(weight.substring(slash + 1));
+  }
+}
@@ -0,0 +1,229 @@
+package model;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A point operation on the red, green and blue channels of packed ARGB pixels, stored as one
+ * 256 entry table per channel. Each new channel is the table of that channel applied to one of
+ * the old channels, so brightening, color components and any other per-channel function of a
+ * channel are all lookup tables. Alpha is always kept.
+ * Tables compose: applying one table after another is again a single table, so a chain of point
+ * operations costs one lookup per channel and one pass over the image.
+ */
+public final class LookupTable {
+  private static final LookupTable IDENTITY = of(value -> value);
+
+  // the old channel each new channel reads, 0 for red, 1 for green and 2 for blue.
+  private final int[] sources;
+  private final byte[][] tables;
+  // the tables shifted into the position of each new channel in a packed pixel.
+  private final int[][] packed;
+
+  private LookupTable(int[] sources, byte[][] tables) {
+    this.sources = sources;
+    this.tables = tables;
+    this.packed = new int[3][256];
+    for (int c = 0; c < 3; c++) {
+      for (int v = 0; v < 256; v++) {
+        this.packed[c][v] = (tables[c][v] & 0xFF) << (16 - 8 * c);
+      }
+    }
+  }
+
+  /**
+   * Returns the table that leaves every pixel unchanged.
+   *
+   * @return the identity table.
+   */
+  public static LookupTable identity() {
+    return IDENTITY;
+  }
+
+  /**
+   * Returns the table that applies the given function to every channel. The results of the
+   * function are clamped to 0 to 255.
+   *
+   * @param function the new value of a channel for each value from 0 to 255.
+   * @return the table of the function.
+   * @throws IllegalArgumentException if the function is null.
+   */
+  public static LookupTable of(IntUnaryOperator function) throws IllegalArgumentException {
+    if (function == null) {
+      throw new IllegalArgumentException("Function cannot be null.");
+    }
+    byte[] table = new byte[256];
+    for (int v = 0; v < 256; v++) {
+      table[v] = (byte) Math.max(0, Math.min(255, function.applyAsInt(v)));
+    }
+    return new LookupTable(new int[]{0, 1, 2}, new byte[][]{table, table, table});
+  }
+
+  /**
+   * Returns the table that adds the given constant to every channel, clamped to 0 to 255.
+   *
+   * @param constant the constant to add, negative to darken.
+   * @return the brighten table.
+   */
+  public static LookupTable brighten(int constant) {
+    return of(value -> value + constant);
+  }
+
+  /**
+   * Returns the table that repeats one channel in red, green and blue.
+   *
+   * @param channel the channel to repeat, 0 for red, 1 for green and 2 for blue.
+   * @return the color-component table.
+   * @throws IllegalArgumentException if the channel is invalid.
+   */
+  public static LookupTable channel(int channel) throws IllegalArgumentException {
+    if (channel < 0 || channel > 2) {
+      throw new IllegalArgumentException("Invalid color-component.");
+    }
+    return new LookupTable(new int[]{channel, channel, channel}, IDENTITY.tables);
+  }
+
+  /**
+   * Returns the table that applies this table and then the given one.
+   *
+   * @param next the table to apply after this one.
+   * @return the composed table.
+   * @throws IllegalArgumentException if the given table is null.
+   */
+  public LookupTable andThen(LookupTable next) throws IllegalArgumentException {
+    if (next == null) {
+      throw new IllegalArgumentException("Lookup table cannot be null.");
+    }
+    int[] newSources = new int[3];
+    byte[][] newTables = new byte[3][256];
+    for (int c = 0; c < 3; c++) {
+      // the new channel reads the old channel that the channel read by next was made from.
+      int middle = next.sources[c];
+      newSources[c] = this.sources[middle];
+      for (int v = 0; v < 256; v++) {
+        newTables[c][v] = next.tables[c][this.tables[middle][v] & 0xFF];
+      }
+    }
+    return new LookupTable(newSources, newTables);
+  }
+
+  /**
+   * Returns the table that applies this table and then the given color matrix. Only a table
+   * whose new channels all read the same old channel has one: the matrix then sees three
+   * functions of a single value, so its rounded and clamped result is a function of that value
+   * too.
+   *
+   * @param matrix the color matrix to apply after this table.
+   * @return the composed table.
+   * @throws IllegalArgumentException if the matrix is null or if this table reads more than one
+   *                                  channel.
+   */
+  public LookupTable andThen(ColorMatrix matrix) throws IllegalArgumentException {
+    if (matrix == null) {
+      throw new IllegalArgumentException("Color matrix cannot be null.");
+    }
+    if (!readsOneChannel()) {
+      throw new IllegalArgumentException("Only a table of one channel composes with a matrix.");
+    }
+    int[] before = new int[256];
+    for (int v = 0; v < 256; v++) {
+      before[v] = (this.tables[0][v] & 0xFF) << 16 | (this.tables[1][v] & 0xFF) << 8
+              | this.tables[2][v] & 0xFF;
+    }
+    int[] after = new int[256];
+    matrix.apply(before, 0, after, 0, null, 0, 256);
+    byte[][] newTables = new byte[3][256];
+    for (int c = 0; c < 3; c++) {
+      for (int v = 0; v < 256; v++) {
+        newTables[c][v] = (byte) (after[v] >> (16 - 8 * c));
+      }
+    }
+    int source = this.sources[0];
+    return new LookupTable(new int[]{source, source, source}, newTables);
+  }
+
+  /**
+   * Returns whether every new channel is looked up from the same old channel, as in a color
+   * component.
+   *
+   * @return true if the table reads one channel.
+   */
+  public boolean readsOneChannel() {
+    return this.sources[0] == this.sources[1] && this.sources[1] == this.sources[2];
+  }
+
+  /**
+   * Returns whether this table leaves every pixel unchanged.
+   *
+   * @return true if this is an identity table.
+   */
+  public boolean isIdentity() {
+    for (int c = 0; c < 3; c++) {
+      if (this.sources[c] != c) {
+        return false;
+      }
+      for (int v = 0; v < 256; v++) {
+        if ((this.tables[c][v] & 0xFF) != v) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the new value of one channel for a value of the old channel it reads.
+   *
+   * @param channel the new channel, 0 for red, 1 for green and 2 for blue.
+   * @param value   the value of the old channel.
+   * @return the new value from 0 to 255.
+   */
+  public int lookup(int channel, int value) {
+    return this.tables[channel][value] & 0xFF;
+  }
+
+  /**
+   * Returns the old channel that a new channel is looked up from.
+   *
+   * @param channel the new channel, 0 for red, 1 for green and 2 for blue.
+   * @return the old channel, 0 for red, 1 for green and 2 for blue.
+   */
+  public int getSource(int channel) {
+    return this.sources[channel];
+  }
+
+  /**
+   * Applies the table to one packed pixel.
+   *
+   * @param pixel the packed pixel.
+   * @return the new packed pixel.
+   */
+  public int apply(int pixel) {
+    return (pixel & 0xFF000000)
+            | this.packed[0][pixel >> (16 - 8 * this.sources[0]) & 0xFF]
+            | this.packed[1][pixel >> (16 - 8 * this.sources[1]) & 0xFF]
+            | this.packed[2][pixel >> (16 - 8 * this.sources[2]) & 0xFF];
+  }
+
+  /**
+   * Applies the table to a run of packed pixels.
+   *
+   * @param src       the source pixels.
+   * @param srcOffset the index in the source array of the first pixel.
+   * @param dst       the array to write the new pixels into, which may be the source array.
+   * @param dstOffset the index in the destination array of the first pixel.
+   * @param count     the number of pixels.
+   */
+  public void apply(int[] src, int srcOffset, int[] dst, int dstOffset, int count) {
+    int[] red = this.packed[0];
+    int[] green = this.packed[1];
+    int[] blue = this.packed[2];
+    int redShift = 16 - 8 * this.sources[0];
+    int greenShift = 16 - 8 * this.sources[1];
+    int blueShift = 16 - 8 * this.sources[2];
+    for (int k = 0; k < count; k++) {
+      int pixel = src[srcOffset + k];
+      dst[dstOffset + k] = (pixel & 0xFF000000) | red[pixel >> redShift & 0xFF]
+              | green[pixel >> greenShift & 0xFF] | blue[pixel >> blueShift & 0xFF];
+    }
+  }
+}
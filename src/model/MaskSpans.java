@@ -0,0 +1,324 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A mask read once into one bit per pixel and, for every row, the spans of pixels it leaves
+ * editable. A pixel of the mask with any non-zero color channel is masked, so operations keep
+ * the source pixel there. Operations run over the spans of each row instead of testing every
+ * pixel, so an edit of a mostly masked image costs in proportion to the pixels it changes.
+ * Masks stored in a {@link WritableImage} are read once and kept until the image is written
+ * over or collected, so a mask reused by several operations is not read again.
+ */
+final class MaskSpans {
+  private static final int[] NO_SPANS = new int[0];
+  private static final Map<SingleImage, MaskSpans> read =
+          Collections.synchronizedMap(new WeakHashMap<>());
+
+  private final int width;
+  private final int height;
+  // every row starts a new word, so a row is read and searched a word at a time. Spans made from
+  // other spans have no bits and search their spans instead.
+  private final int words;
+  private final long[] bits;
+  private final int[][] spans;
+  private long editable = 0;
+  // the smallest rectangle holding every editable pixel, empty if there is none.
+  private int top = 0;
+  private int bottom = 0;
+  private int left = 0;
+  private int right = 0;
+
+  /**
+   * Returns the spans of the given mask, reading it only if it has not been read yet. Views are
+   * read every time, since the image they read may change under them.
+   *
+   * @param mask the mask image.
+   * @return the spans of the mask.
+   */
+  static MaskSpans of(SingleImage mask) {
+    if (!(mask instanceof WritableImage)) {
+      return new MaskSpans(mask);
+    }
+    return read.computeIfAbsent(mask, MaskSpans::new);
+  }
+
+  /**
+   * Forgets the spans read from the given image, which must be called before its pixels are
+   * written over.
+   *
+   * @param image the image that changes.
+   */
+  static void forget(SingleImage image) {
+    read.remove(image);
+  }
+
+  /**
+   * Reads the given mask one row at a time.
+   *
+   * @param mask the mask image.
+   */
+  MaskSpans(SingleImage mask) {
+    this.width = mask.getWidth();
+    this.height = mask.getHeight();
+    this.words = (this.width + 63) >>> 6;
+    this.bits = new long[this.words * this.height];
+    this.spans = new int[this.height][];
+    int[] wholeRow = {0, this.width};
+    // a mask packed on the heap is read straight from its backing array.
+    int[] packed = mask instanceof SingleImagePacked ? mask.getPackedPixels() : null;
+    int[] row = packed == null ? new int[this.width] : packed;
+    int[] found = new int[this.width + 1];
+    for (int i = 0; i < this.height; i++) {
+      int first = 0;
+      if (packed == null) {
+        mask.getPackedRow(i, row, 0);
+      } else {
+        first = i * this.width;
+      }
+      int start = i * this.words;
+      for (int w = 0; w < this.words; w++) {
+        int end = Math.min(64, this.width - (w << 6));
+        int at = first + (w << 6);
+        long word = 0;
+        for (int b = 0; b < end; b++) {
+          // the channels are at most 0xFFFFFF, so adding it carries into bit 24 unless they are 0.
+          word |= (long) (((row[at + b] & 0xFFFFFF) + 0xFFFFFF) >>> 24) << b;
+        }
+        this.bits[start + w] = word;
+      }
+      int ends = 0;
+      int j = 0;
+      while (j < this.width) {
+        int begin = next(start, j, false);
+        if (begin >= this.width) {
+          break;
+        }
+        j = Math.min(this.width, next(start, begin, true));
+        found[ends++] = begin;
+        found[ends++] = j;
+      }
+      if (ends == 0) {
+        this.spans[i] = NO_SPANS;
+      } else if (ends == 2 && found[0] == 0 && found[1] == this.width) {
+        this.spans[i] = wholeRow;
+      } else {
+        this.spans[i] = Arrays.copyOf(found, ends);
+      }
+    }
+    measure();
+  }
+
+  // Builds a mask from the editable spans of each row.
+  private MaskSpans(int width, int height, int[][] spans) {
+    this.width = width;
+    this.height = height;
+    this.words = 0;
+    this.bits = null;
+    this.spans = spans;
+    measure();
+  }
+
+  /**
+   * Returns a mask of the given size that leaves only a rectangle editable.
+   *
+   * @param width  the width of the mask.
+   * @param height the height of the mask.
+   * @param x      the first column of the rectangle.
+   * @param y      the first row of the rectangle.
+   * @param cols   the number of columns of the rectangle.
+   * @param rows   the number of rows of the rectangle.
+   * @return the spans of the rectangle.
+   */
+  static MaskSpans rectangle(int width, int height, int x, int y, int cols, int rows) {
+    int[][] spans = new int[height][];
+    Arrays.fill(spans, NO_SPANS);
+    Arrays.fill(spans, y, y + rows, cols == 0 ? NO_SPANS : new int[]{x, x + cols});
+    return new MaskSpans(width, height, spans);
+  }
+
+  /**
+   * Returns this mask with every pixel outside the given rectangle masked as well.
+   *
+   * @param x    the first column of the rectangle.
+   * @param y    the first row of the rectangle.
+   * @param cols the number of columns of the rectangle.
+   * @param rows the number of rows of the rectangle.
+   * @return the spans of this mask inside the rectangle.
+   */
+  MaskSpans within(int x, int y, int cols, int rows) {
+    MaskSpans cropped = crop(y, x, rows, cols);
+    int[][] spans = new int[this.height][];
+    Arrays.fill(spans, NO_SPANS);
+    for (int i = 0; i < rows; i++) {
+      int[] row = cropped.spans[i].clone();
+      for (int s = 0; s < row.length; s++) {
+        row[s] += x;
+      }
+      spans[y + i] = row;
+    }
+    return new MaskSpans(this.width, this.height, spans);
+  }
+
+  // Counts the editable pixels and finds the rectangle that holds them.
+  private void measure() {
+    this.top = this.height;
+    this.left = this.width;
+    for (int i = 0; i < this.height; i++) {
+      int[] row = this.spans[i];
+      if (row.length == 0) {
+        continue;
+      }
+      for (int s = 0; s < row.length; s += 2) {
+        this.editable += row[s + 1] - row[s];
+      }
+      this.top = Math.min(this.top, i);
+      this.bottom = i + 1;
+      this.left = Math.min(this.left, row[0]);
+      this.right = Math.max(this.right, row[row.length - 1]);
+    }
+    if (this.editable == 0) {
+      this.top = 0;
+      this.left = 0;
+    }
+  }
+
+  /**
+   * Returns the spans of the given rectangle of this mask, as a mask of the size of the
+   * rectangle.
+   *
+   * @param row  the first row of the rectangle.
+   * @param col  the first column of the rectangle.
+   * @param rows the number of rows of the rectangle.
+   * @param cols the number of columns of the rectangle.
+   * @return the spans of the rectangle.
+   */
+  MaskSpans crop(int row, int col, int rows, int cols) {
+    int[][] cropped = new int[rows][];
+    int[] wholeRow = {0, cols};
+    int[] found = new int[cols + 1];
+    for (int i = 0; i < rows; i++) {
+      int[] spans = this.spans[row + i];
+      int ends = 0;
+      for (int s = 0; s < spans.length; s += 2) {
+        int from = Math.max(spans[s], col) - col;
+        int to = Math.min(spans[s + 1], col + cols) - col;
+        if (from < to) {
+          found[ends++] = from;
+          found[ends++] = to;
+        }
+      }
+      if (ends == 0) {
+        cropped[i] = NO_SPANS;
+      } else if (ends == 2 && found[0] == 0 && found[1] == cols) {
+        cropped[i] = wholeRow;
+      } else {
+        cropped[i] = Arrays.copyOf(found, ends);
+      }
+    }
+    return new MaskSpans(cols, rows, cropped);
+  }
+
+  // Returns the first column from col on of the row whose words start at the given index that is
+  // masked, or editable if masked is false. Columns past the width read as editable.
+  private int next(int start, int col, boolean masked) {
+    int word = col >>> 6;
+    long bits = (masked ? this.bits[start + word] : ~this.bits[start + word]) & -1L << col;
+    while (bits == 0) {
+      if (++word == this.words) {
+        return masked ? this.width : this.words << 6;
+      }
+      bits = masked ? this.bits[start + word] : ~this.bits[start + word];
+    }
+    return (word << 6) + Long.numberOfTrailingZeros(bits);
+  }
+
+  /**
+   * Returns whether the pixel at the given index, in row-major order, is masked.
+   *
+   * @param index the index of the pixel.
+   * @return true if the pixel keeps its source value.
+   */
+  boolean isMasked(int index) {
+    int row = index / this.width;
+    int col = index - row * this.width;
+    if (this.bits == null) {
+      int[] spans = this.spans[row];
+      for (int s = 0; s < spans.length; s += 2) {
+        if (col >= spans[s] && col < spans[s + 1]) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return (this.bits[row * this.words + (col >>> 6)] >>> col & 1) != 0;
+  }
+
+  /**
+   * Returns the editable spans of a row as pairs of the first column of a span and the column
+   * after its last, in order. The array is shared and must not be modified.
+   *
+   * @param row the row.
+   * @return the start and end of each span of the row.
+   */
+  int[] getSpans(int row) {
+    return this.spans[row];
+  }
+
+  /**
+   * Returns the first row with an editable pixel.
+   *
+   * @return the top of the editable rectangle.
+   */
+  int getTop() {
+    return this.top;
+  }
+
+  /**
+   * Returns the row after the last row with an editable pixel.
+   *
+   * @return the bottom of the editable rectangle.
+   */
+  int getBottom() {
+    return this.bottom;
+  }
+
+  /**
+   * Returns the first column with an editable pixel.
+   *
+   * @return the left of the editable rectangle.
+   */
+  int getLeft() {
+    return this.left;
+  }
+
+  /**
+   * Returns the column after the last column with an editable pixel.
+   *
+   * @return the right of the editable rectangle.
+   */
+  int getRight() {
+    return this.right;
+  }
+
+  /**
+   * Returns whether every pixel is masked, so an operation leaves the image unchanged.
+   *
+   * @return true if no pixel is editable.
+   */
+  boolean isAllMasked() {
+    return this.editable == 0;
+  }
+
+  /**
+   * Returns whether no pixel is masked, so an operation may ignore the mask.
+   *
+   * @return true if every pixel is editable.
+   */
+  boolean isNoneMasked() {
+    return this.editable == (long) this.width * this.height;
+  }
+}
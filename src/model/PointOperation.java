@@ -0,0 +1,226 @@
+package model;
+
+/**
+ * A chain of point operations, {@link LookupTable}s and {@link ColorMatrix}es, applied to
+ * packed ARGB pixels in a single pass. Steps are composed as they are added wherever the result
+ * stays identical to running them one after another: consecutive tables become one table, and a
+ * color matrix after a table that reads one channel becomes a table too. After a grey matrix,
+ * such as greyscale, the three channels are equal, so every later step folds into a single table
+ * of one channel. Any other color matrix rounds and clamps every channel, so two of them
+ * multiplied into one would change pixels; they stay steps of their own and run back to back
+ * over each run of pixels while it is in cache.
+ */
+public final class PointOperation {
+  private static final PointOperation IDENTITY = new PointOperation(new LookupTable[0],
+          new ColorMatrix[0]);
+
+  // step k is tables[k] or matrices[k], whichever is not null.
+  private final LookupTable[] tables;
+  private final ColorMatrix[] matrices;
+
+  private PointOperation(LookupTable[] tables, ColorMatrix[] matrices) {
+    this.tables = tables;
+    this.matrices = matrices;
+  }
+
+  /**
+   * Returns the operation that leaves every pixel unchanged.
+   *
+   * @return the operation without steps.
+   */
+  public static PointOperation identity() {
+    return IDENTITY;
+  }
+
+  /**
+   * Returns the operation of a single lookup table.
+   *
+   * @param table the table to apply.
+   * @return the operation.
+   * @throws IllegalArgumentException if the table is null.
+   */
+  public static PointOperation of(LookupTable table) throws IllegalArgumentException {
+    return IDENTITY.andThen(table);
+  }
+
+  /**
+   * Returns the operation of a single color matrix.
+   *
+   * @param matrix the color matrix to apply.
+   * @return the operation.
+   * @throws IllegalArgumentException if the matrix is null.
+   */
+  public static PointOperation of(ColorMatrix matrix) throws IllegalArgumentException {
+    return IDENTITY.andThen(matrix);
+  }
+
+  /**
+   * Returns the operation that applies this one and then the given table.
+   *
+   * @param table the table to apply after this operation.
+   * @return the longer operation.
+   * @throws IllegalArgumentException if the table is null.
+   */
+  public PointOperation andThen(LookupTable table) throws IllegalArgumentException {
+    if (table == null) {
+      throw new IllegalArgumentException("Lookup table cannot be null.");
+    }
+    if (table.isIdentity()) {
+      return this;
+    }
+    int last = size() - 1;
+    if (last >= 0 && this.tables[last] != null) {
+      LookupTable composed = this.tables[last].andThen(table);
+      return composed.isIdentity() ? withSize(last) : replaceLast(composed, null);
+    }
+    if (last >= 0 && this.matrices[last].isGrey()) {
+      // the channels are equal, so reading red for every channel changes nothing.
+      return append(LookupTable.channel(0).andThen(table), null);
+    }
+    return append(table, null);
+  }
+
+  /**
+   * Returns the operation that applies this one and then the given color matrix.
+   *
+   * @param matrix the color matrix to apply after this operation.
+   * @return the longer operation.
+   * @throws IllegalArgumentException if the matrix is null.
+   */
+  public PointOperation andThen(ColorMatrix matrix) throws IllegalArgumentException {
+    if (matrix == null) {
+      throw new IllegalArgumentException("Color matrix cannot be null.");
+    }
+    int last = size() - 1;
+    if (last >= 0 && this.tables[last] != null && this.tables[last].readsOneChannel()) {
+      return replaceLast(this.tables[last].andThen(matrix), null);
+    }
+    if (last >= 0 && this.matrices[last] != null && this.matrices[last].isGrey()) {
+      return append(LookupTable.channel(0).andThen(matrix), null);
+    }
+    return append(null, matrix);
+  }
+
+  /**
+   * Returns the operation that applies this one and then every step of the given one.
+   *
+   * @param next the operation to apply after this one.
+   * @return the longer operation.
+   * @throws IllegalArgumentException if the operation is null.
+   */
+  public PointOperation andThen(PointOperation next) throws IllegalArgumentException {
+    if (next == null) {
+      throw new IllegalArgumentException("Point operation cannot be null.");
+    }
+    PointOperation chain = this;
+    for (int k = 0; k < next.size(); k++) {
+      chain = next.tables[k] != null ? chain.andThen(next.tables[k])
+              : chain.andThen(next.matrices[k]);
+    }
+    return chain;
+  }
+
+  // Returns a copy of the first steps of this operation, with empty steps after them if the
+  // copy is longer.
+  private PointOperation withSize(int size) {
+    LookupTable[] newTables = new LookupTable[size];
+    ColorMatrix[] newMatrices = new ColorMatrix[size];
+    System.arraycopy(this.tables, 0, newTables, 0, Math.min(size, size()));
+    System.arraycopy(this.matrices, 0, newMatrices, 0, Math.min(size, size()));
+    return new PointOperation(newTables, newMatrices);
+  }
+
+  // Returns this operation with one more step, a table or a matrix.
+  private PointOperation append(LookupTable table, ColorMatrix matrix) {
+    PointOperation longer = withSize(size() + 1);
+    longer.tables[size()] = table;
+    longer.matrices[size()] = matrix;
+    return longer;
+  }
+
+  // Returns this operation with its last step replaced by a table or a matrix.
+  private PointOperation replaceLast(LookupTable table, ColorMatrix matrix) {
+    PointOperation copy = withSize(size());
+    copy.tables[size() - 1] = table;
+    copy.matrices[size() - 1] = matrix;
+    return copy;
+  }
+
+  /**
+   * Returns the number of steps run over every pixel.
+   *
+   * @return the number of tables and matrices left after composing them.
+   */
+  public int size() {
+    return this.tables.length;
+  }
+
+  /**
+   * Returns whether this operation leaves every pixel unchanged.
+   *
+   * @return true if the operation has no steps.
+   */
+  public boolean isIdentity() {
+    return size() == 0;
+  }
+
+  /**
+   * Returns the lookup table of a step.
+   *
+   * @param step the index of the step.
+   * @return the table, or null if the step is a color matrix.
+   */
+  public LookupTable getTable(int step) {
+    return this.tables[step];
+  }
+
+  /**
+   * Returns the color matrix of a step.
+   *
+   * @param step the index of the step.
+   * @return the matrix, or null if the step is a lookup table.
+   */
+  public ColorMatrix getMatrix(int step) {
+    return this.matrices[step];
+  }
+
+  /**
+   * Applies the operation to one packed pixel.
+   *
+   * @param pixel the packed pixel.
+   * @return the new packed pixel.
+   */
+  public int apply(int pixel) {
+    int[] one = {pixel};
+    apply(one, 0, one, 0, 1);
+    return one[0];
+  }
+
+  /**
+   * Applies the operation to a run of packed pixels, every step over the whole run before the
+   * next one.
+   *
+   * @param src       the source pixels.
+   * @param srcOffset the index in the source array of the first pixel.
+   * @param dst       the array to write the new pixels into, which may be the source array.
+   * @param dstOffset the index in the destination array of the first pixel.
+   * @param count     the number of pixels.
+   */
+  public void apply(int[] src, int srcOffset, int[] dst, int dstOffset, int count) {
+    if (isIdentity()) {
+      System.arraycopy(src, srcOffset, dst, dstOffset, count);
+      return;
+    }
+    int[] from = src;
+    int fromOffset = srcOffset;
+    for (int k = 0; k < size(); k++) {
+      if (this.tables[k] != null) {
+        this.tables[k].apply(from, fromOffset, dst, dstOffset, count);
+      } else {
+        this.matrices[k].apply(from, fromOffset, dst, dstOffset, null, 0, count);
+      }
+      from = dst;
+      fromOffset = dstOffset;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package model;
+
+/**
+ * The filters {@link Transformations#resize} can sample an image with. Each filter is a weight
+ * function of the distance from the centre of a new pixel to an old pixel, in old pixels, that
+ * is zero beyond its support. When an image shrinks, the filter is stretched to cover every old
+ * pixel, so shrinking averages instead of skipping pixels; nearest always takes one pixel.
+ */
+public enum ResizeFilter {
+  /**
+   * The old pixel the centre of the new pixel falls in.
+   */
+  NEAREST("nearest", 0.5),
+
+  /**
+   * Linear interpolation between the two nearest old pixels.
+   */
+  BILINEAR("bilinear", 1),
+
+  /**
+   * The cubic convolution of Keys with a = -0.5, which sharpens a little.
+   */
+  BICUBIC("bicubic", 2),
+
+  /**
+   * A sinc windowed by a wider sinc over three lobes, the sharpest of the filters.
+   */
+  LANCZOS3("lanczos3", 3);
+
+  private final String name;
+  private final double support;
+
+  ResizeFilter(String name, double support) {
+    this.name = name;
+    this.support = support;
+  }
+
+  /**
+   * Returns the filter with the given name, ignoring case.
+   *
+   * @param name nearest, bilinear, bicubic or lanczos3.
+   * @return the filter with the name.
+   * @throws IllegalArgumentException if no filter has the name.
+   */
+  public static ResizeFilter of(String name) throws IllegalArgumentException {
+    for (ResizeFilter filter : values()) {
+      if (filter.name.equalsIgnoreCase(name)) {
+        return filter;
+      }
+    }
+    throw new IllegalArgumentException("Unknown resize filter " + name
+            + ", use nearest, bilinear, bicubic or lanczos3.");
+  }
+
+  /**
+   * Returns the name of the filter, as used by {@link #of}.
+   *
+   * @return the name of the filter.
+   */
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Returns the distance from the centre beyond which the weight is zero.
+   *
+   * @return the support of the filter.
+   */
+  double getSupport() {
+    return this.support;
+  }
+
+  /**
+   * Returns the weight of an old pixel at the given distance from the centre of a new pixel.
+   *
+   * @param x the distance in old pixels from the centre of the new pixel to the centre of the
+   *          old pixel.
+   * @return the weight of the pixel.
+   */
+  double weight(double x) {
+    double d = Math.abs(x);
+    switch (this) {
+      case NEAREST:
+        // the old pixel holding the centre has its own centre less than half a pixel before it
+        // or up to half a pixel after it.
+        return x > -0.5 && x <= 0.5 ? 1 : 0;
+      case BILINEAR:
+        return d < 1 ? 1 - d : 0;
+      case BICUBIC:
+        if (d < 1) {
+          return (1.5 * d - 2.5) * d * d + 1;
+        }
+        return d < 2 ? ((-0.5 * d + 2.5) * d - 4) * d + 2 : 0;
+      default:
+        return d < 3 ? sinc(d) * sinc(d / 3) : 0;
+    }
+  }
+
+  private static double sinc(double x) {
+    if (x == 0) {
+      return 1;
+    }
+    return Math.sin(Math.PI * x) / (Math.PI * x);
+  }
+}
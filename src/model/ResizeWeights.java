@@ -0,0 +1,126 @@
+package model;
+
+/**
+ * The weights of a {@link ResizeFilter} along one direction of a resize, precomputed for every
+ * new position. The weights of each new position are fixed-point numbers with {@link #BITS}
+ * fraction bits that add up to exactly one, so a flat image stays flat. Old positions outside
+ * the image are left out and the weights of the others scaled up to make up for them.
+ */
+final class ResizeWeights {
+  /**
+   * The number of fraction bits of each weight.
+   */
+  static final int BITS = 14;
+
+  private final int[] first;
+  private final int[][] weights;
+  private final int maxTaps;
+
+  /**
+   * Computes the weights of every new position.
+   *
+   * @param oldLength the number of old positions.
+   * @param newLength the number of new positions.
+   * @param filter    the filter.
+   */
+  ResizeWeights(int oldLength, int newLength, ResizeFilter filter) {
+    double scale = (double) oldLength / newLength;
+    // shrinking stretches the filter so every old position is covered, except for nearest.
+    double stretch = filter == ResizeFilter.NEAREST ? 1 : Math.max(1, scale);
+    double support = filter.getSupport() * stretch;
+    this.first = new int[newLength];
+    this.weights = new int[newLength][];
+    int max = 0;
+    for (int j = 0; j < newLength; j++) {
+      double center = (j + 0.5) * scale;
+      int from = Math.max(0, (int) Math.floor(center - support + 0.5));
+      int to = Math.min(oldLength, (int) Math.floor(center + support + 0.5));
+      double[] exact = new double[Math.max(0, to - from)];
+      double total = 0;
+      for (int x = from; x < to; x++) {
+        exact[x - from] = filter.weight((x + 0.5 - center) / stretch);
+        total += exact[x - from];
+      }
+      if (total == 0) {
+        // too few old positions for the filter to reach; take the nearest one.
+        from = Math.min(oldLength - 1, (int) center);
+        exact = new double[]{1};
+        total = 1;
+      }
+      int[] fixed = new int[exact.length];
+      int sum = 0;
+      int largest = 0;
+      for (int t = 0; t < exact.length; t++) {
+        fixed[t] = (int) Math.round(exact[t] / total * (1 << BITS));
+        sum += fixed[t];
+        if (Math.abs(exact[t]) > Math.abs(exact[largest])) {
+          largest = t;
+        }
+      }
+      fixed[largest] += (1 << BITS) - sum;
+      this.first[j] = from;
+      this.weights[j] = fixed;
+      max = Math.max(max, fixed.length);
+    }
+    this.maxTaps = max;
+  }
+
+  /**
+   * Returns the first old position a new position reads.
+   *
+   * @param position the new position.
+   * @return the first old position.
+   */
+  int getFirst(int position) {
+    return this.first[position];
+  }
+
+  /**
+   * Returns the weights of the old positions a new position reads, from the first one.
+   *
+   * @param position the new position.
+   * @return the weights.
+   */
+  int[] getWeights(int position) {
+    return this.weights[position];
+  }
+
+  /**
+   * Returns the largest number of old positions any new position reads.
+   *
+   * @return the largest number of weights.
+   */
+  int getMaxTaps() {
+    return this.maxTaps;
+  }
+
+  /**
+   * Resizes a row of packed pixels across, writing the red, green, blue and alpha sums of each
+   * new column one after another. The sums keep the {@link #BITS} fraction bits of the weights.
+   *
+   * @param row    the old row.
+   * @param across the array to write the sums into, four for each new column.
+   */
+  void across(int[] row, int[] across) {
+    int n = this.first.length;
+    for (int j = 0; j < n; j++) {
+      int red = 0;
+      int green = 0;
+      int blue = 0;
+      int alpha = 0;
+      int[] w = this.weights[j];
+      int start = this.first[j];
+      for (int t = 0; t < w.length; t++) {
+        int pixel = row[start + t];
+        red += w[t] * (pixel >> 16 & 0xFF);
+        green += w[t] * (pixel >> 8 & 0xFF);
+        blue += w[t] * (pixel & 0xFF);
+        alpha += w[t] * (pixel >>> 24);
+      }
+      across[j] = red;
+      across[n + j] = green;
+      across[2 * n + j] = blue;
+      across[3 * n + j] = alpha;
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs work on the rows of an image, split into bands of rows on a shared {@link ForkJoinPool}.
+ * Every band is written by exactly one task and every pixel is computed the same way in each
+ * band, so the result is identical to running the rows in order. With a parallelism of one, the
+ * default, every band runs on the calling thread.
+ */
+public final class RowExecutor {
+  private static final int MIN_BAND_ROWS = 16;
+  private static int parallelism = 1;
+  private static ForkJoinPool pool = null;
+
+  /**
+   * Work on a band of consecutive rows.
+   */
+  public interface Band {
+
+    /**
+     * Processes the rows from firstRow up to, but not including, lastRow.
+     *
+     * @param firstRow the first row of the band.
+     * @param lastRow  the row after the last row of the band.
+     */
+    void run(int firstRow, int lastRow);
+  }
+
+  private RowExecutor() {
+  }
+
+  /**
+   * Sets the number of threads that work on the bands of an operation.
+   *
+   * @param threads the number of threads, one runs every operation on the calling thread.
+   * @throws IllegalArgumentException if the number of threads is not positive.
+   */
+  public static synchronized void setParallelism(int threads) throws IllegalArgumentException {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Number of threads must be positive.");
+    }
+    if (pool != null) {
+      pool.shutdown();
+    }
+    parallelism = threads;
+    pool = threads > 1 ? new ForkJoinPool(threads) : null;
+  }
+
+  /**
+   * Returns the number of threads that work on the bands of an operation.
+   *
+   * @return the number of threads.
+   */
+  public static synchronized int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Runs the given work on every row from 0 up to, but not including, rows. The rows are split
+   * into bands that run in parallel, and this returns once every band is done.
+   *
+   * @param rows the number of rows.
+   * @param band the work on each band.
+   */
+  public static void forEachBand(int rows, Band band) {
+    ForkJoinPool current;
+    int threads;
+    synchronized (RowExecutor.class) {
+      current = pool;
+      threads = parallelism;
+    }
+    if (current == null || rows < 2 * MIN_BAND_ROWS) {
+      band.run(0, rows);
+      return;
+    }
+    // a few bands per thread keeps every thread busy when some bands are slower than others.
+    int grain = Math.max(MIN_BAND_ROWS, rows / (threads * 4));
+    current.invoke(new BandTask(band, 0, rows, grain));
+  }
+
+  // Splits a range of rows in half until it is no larger than the grain.
+  private static final class BandTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final Band band;
+    private final int firstRow;
+    private final int lastRow;
+    private final int grain;
+
+    private BandTask(Band band, int firstRow, int lastRow, int grain) {
+      this.band = band;
+      this.firstRow = firstRow;
+      this.lastRow = lastRow;
+      this.grain = grain;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.lastRow - this.firstRow <= this.grain) {
+        this.band.run(this.firstRow, this.lastRow);
+        return;
+      }
+      int middle = (this.firstRow + this.lastRow) >>> 1;
+      invokeAll(new BandTask(this.band, this.firstRow, middle, this.grain),
+              new BandTask(this.band, middle, this.lastRow, this.grain));
+    }
+  }
+}
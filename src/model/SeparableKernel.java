@@ -0,0 +1,169 @@
+package model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A rank-1 (separable) kernal split into a horizontal pass over each row of the image and a
+ * vertical pass that adds up the rows the kernal covers.
+ * Every tap of a {@link Filter} rounds its own product, so the two passes keep the taps: rows of
+ * the kernal that are equal share one horizontal pass, and the rounded product of every tap is
+ * looked up in a table of the 256 channel values instead of being computed. A separable kernal
+ * has a row for each distinct value of its column factor, so the symmetric 3x3 blur needs two
+ * horizontal passes of three taps and one vertical pass of three rows.
+ */
+final class SeparableKernel {
+  private final int rows;
+  private final int cols;
+  // the horizontal pass used by each row of the kernal.
+  private final int[] rowGroup;
+  // the rounded products of each tap of each horizontal pass, for every channel value.
+  private final int[][][] tables;
+
+  /**
+   * Splits the given kernal into its horizontal passes.
+   *
+   * @param kernal the kernal, which must be separable.
+   * @throws IllegalArgumentException if the kernal is not separable.
+   */
+  SeparableKernel(double[][] kernal) throws IllegalArgumentException {
+    if (!isSeparable(kernal)) {
+      throw new IllegalArgumentException("Kernal is not separable.");
+    }
+    this.rows = kernal.length;
+    this.cols = kernal[0].length;
+    this.rowGroup = new int[this.rows];
+    int[] first = new int[this.rows];
+    int groups = 0;
+    for (int i = 0; i < this.rows; i++) {
+      int g = 0;
+      while (g < groups && !Arrays.equals(kernal[first[g]], kernal[i])) {
+        g++;
+      }
+      if (g == groups) {
+        first[groups++] = i;
+      }
+      this.rowGroup[i] = g;
+    }
+    Map<Double, int[]> byWeight = new HashMap<>();
+    this.tables = new int[groups][this.cols][];
+    for (int g = 0; g < groups; g++) {
+      for (int j = 0; j < this.cols; j++) {
+        this.tables[g][j] = byWeight.computeIfAbsent(kernal[first[g]][j], weight -> {
+          int[] table = new int[256];
+          for (int v = 0; v < 256; v++) {
+            table[v] = (int) Math.round(v * weight);
+          }
+          return table;
+        });
+      }
+    }
+  }
+
+  /**
+   * Returns whether the kernal is the outer product of a column and a row, so every row is a
+   * multiple of one row.
+   *
+   * @param kernal the kernal.
+   * @return true if the kernal is separable.
+   */
+  static boolean isSeparable(double[][] kernal) {
+    int pivotRow = 0;
+    int pivotCol = 0;
+    for (int i = 0; i < kernal.length; i++) {
+      if (kernal[i].length != kernal[0].length) {
+        return false;
+      }
+      for (int j = 0; j < kernal[i].length; j++) {
+        if (Math.abs(kernal[i][j]) > Math.abs(kernal[pivotRow][pivotCol])) {
+          pivotRow = i;
+          pivotCol = j;
+        }
+      }
+    }
+    double pivot = kernal[pivotRow][pivotCol];
+    if (pivot == 0) {
+      return false;
+    }
+    for (double[] row : kernal) {
+      for (int j = 0; j < row.length; j++) {
+        double product = row[pivotCol] * kernal[pivotRow][j];
+        if (Math.abs(row[j] * pivot - product) > 1e-12 * Math.abs(pivot * pivot)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the number of horizontal passes, one for each distinct row of the kernal.
+   *
+   * @return the number of horizontal passes.
+   */
+  int getGroups() {
+    return this.tables.length;
+  }
+
+  /**
+   * Returns the number of rows of the kernal.
+   *
+   * @return the number of rows.
+   */
+  int getRows() {
+    return this.rows;
+  }
+
+  /**
+   * Returns the number of columns of the kernal.
+   *
+   * @return the number of columns.
+   */
+  int getCols() {
+    return this.cols;
+  }
+
+  /**
+   * Returns the horizontal pass used by a row of the kernal.
+   *
+   * @param row the row of the kernal.
+   * @return the horizontal pass of the row.
+   */
+  int getGroup(int row) {
+    return this.rowGroup[row];
+  }
+
+  /**
+   * Runs one horizontal pass over a row of pixels padded with cols / 2 transparent black pixels
+   * on both sides, which add nothing to any channel. The sums of the red, green, blue and alpha
+   * channel are written one after another, count values each.
+   *
+   * @param group  the horizontal pass.
+   * @param padded the padded row of pixels.
+   * @param count  the number of pixels in the row.
+   * @param sums   the array to write the sums into.
+   * @param offset the index in the sums of the first red sum.
+   */
+  void horizontal(int group, int[] padded, int count, int[] sums, int offset) {
+    int[][] taps = this.tables[group];
+    for (int y = 0; y < count; y++) {
+      int red = 0;
+      int green = 0;
+      int blue = 0;
+      int alpha = 0;
+      for (int j = 0; j < taps.length; j++) {
+        int pixel = padded[y + j];
+        int[] table = taps[j];
+        red += table[pixel >> 16 & 0xFF];
+        green += table[pixel >> 8 & 0xFF];
+        blue += table[pixel & 0xFF];
+        alpha += table[pixel >>> 24];
+      }
+      sums[offset + y] = red;
+      sums[offset + count + y] = green;
+      sums[offset + 2 * count + y] = blue;
+      sums[offset + 3 * count + y] = alpha;
+    }
+  }
+}
@@ -22,6 +22,43 @@ public interface SingleImage {
    */
   String getPixel(int row, int col);
 
+  /**
+   * Returns an image's pixel at a given row and column packed as ARGB (8 bits per channel).
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return the packed pixel.
+   */
+  int getPackedPixel(int row, int col);
+
+  /**
+   * Returns an image's pixels packed as ARGB integers in row-major order. Implementations that
+   * are already packed return their backing array, which must not be modified.
+   *
+   * @return an array of width * height packed pixels.
+   */
+  int[] getPackedPixels();
+
+  /**
+   * Copies one row of the image's pixels packed as ARGB into the given array.
+   *
+   * @param row    the row to copy.
+   * @param dst    the array to copy the row into.
+   * @param offset the index in the array of the first pixel of the row.
+   */
+  void getPackedRow(int row, int[] dst, int offset);
+
+  /**
+   * Marks the image as held by one more owner, such as a gallery entry.
+   */
+  void retain();
+
+  /**
+   * Drops one owner of the image. Images whose storage is not managed by the garbage collector
+   * free it once no owner is left.
+   */
+  void release();
+
   /**
    * Returns the width of the image.
    *
@@ -0,0 +1,200 @@
+package model;
+
+/**
+ * A view of a rectangle of another {@link SingleImage}.
+ * No pixels are copied, every read is offset into the base image, so cropping an image takes
+ * constant time and memory. Pixels are only produced when the view is read, for example when it
+ * is saved or transformed further.
+ */
+public class SingleImageCropped implements SingleImage {
+  private final SingleImage base;
+  private final int x;
+  private final int y;
+  private final int width;
+  private final int height;
+
+  /**
+   * Constructs a view of the given rectangle of an image.
+   *
+   * @param base   the image to crop.
+   * @param x      the column of the base image where the rectangle starts.
+   * @param y      the row of the base image where the rectangle starts.
+   * @param width  the width of the rectangle.
+   * @param height the height of the rectangle.
+   * @throws IllegalArgumentException if the image is null or if the rectangle is not inside it.
+   */
+  public SingleImageCropped(SingleImage base, int x, int y, int width, int height)
+          throws IllegalArgumentException {
+    if (base == null) {
+      throw new IllegalArgumentException("Image cannot be null.");
+    }
+    if (x < 0 || y < 0 || width < 0 || height < 0 || x + width > base.getWidth()
+            || y + height > base.getHeight()) {
+      throw new IllegalArgumentException("Crop region is outside of the image.");
+    }
+    this.base = base;
+    this.x = x;
+    this.y = y;
+    this.width = width;
+    this.height = height;
+  }
+
+  /**
+   * Returns the image this view crops.
+   *
+   * @return the base image.
+   */
+  public SingleImage getBase() {
+    return this.base;
+  }
+
+  /**
+   * Returns the column of the base image where the view starts.
+   *
+   * @return the x offset of the view.
+   */
+  public int getX() {
+    return this.x;
+  }
+
+  /**
+   * Returns the row of the base image where the view starts.
+   *
+   * @return the y offset of the view.
+   */
+  public int getY() {
+    return this.y;
+  }
+
+  /**
+   * Returns a copy of an image's pixels. This builds a new {@link RGB} object per pixel and is
+   * only kept for compatibility.
+   *
+   * @return a 2D RGB array of pixels.
+   */
+  @Override
+  public RGB[][] getPixels() {
+    RGB[][] copy = new RGB[this.height][this.width];
+    int[] row = new int[this.width];
+    for (int i = 0; i < this.height; i++) {
+      getPackedRow(i, row, 0);
+      for (int j = 0; j < this.width; j++) {
+        copy[i][j] = new RGBImpl(row[j] >> 16 & 0xFF, row[j] >> 8 & 0xFF, row[j] & 0xFF,
+                row[j] >>> 24);
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Returns an image's pixel at a given width and height.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return a pixel.
+   */
+  @Override
+  public String getPixel(int row, int col) {
+    int pixel = getPackedPixel(row, col);
+    return (pixel >> 16 & 0xFF) + " " + (pixel >> 8 & 0xFF) + " " + (pixel & 0xFF) + " ";
+  }
+
+  /**
+   * Returns an image's pixel at a given row and column packed as ARGB.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return the packed pixel.
+   */
+  @Override
+  public int getPackedPixel(int row, int col) {
+    if (row < 0 || row >= this.height || col < 0 || col >= this.width) {
+      throw new IndexOutOfBoundsException("Pixel is outside of the image");
+    }
+    return this.base.getPackedPixel(this.y + row, this.x + col);
+  }
+
+  /**
+   * Returns a new array of the image's pixels packed as ARGB in row-major order.
+   *
+   * @return an array of width * height packed pixels.
+   */
+  @Override
+  public int[] getPackedPixels() {
+    int[] packed = new int[this.width * this.height];
+    for (int i = 0; i < this.height; i++) {
+      getPackedRow(i, packed, i * this.width);
+    }
+    return packed;
+  }
+
+  /**
+   * Copies one row of the image's pixels packed as ARGB into the given array. Rows of images
+   * packed on the heap are copied directly, other layouts read the full row of the base image.
+   *
+   * @param row    the row to copy.
+   * @param dst    the array to copy the row into.
+   * @param offset the index in the array of the first pixel of the row.
+   */
+  @Override
+  public void getPackedRow(int row, int[] dst, int offset) {
+    if (this.base instanceof SingleImagePacked) {
+      System.arraycopy(this.base.getPackedPixels(), (this.y + row) * this.base.getWidth() + this.x,
+              dst, offset, this.width);
+      return;
+    }
+    if (this.base instanceof SingleImageTiled) {
+      ((SingleImageTiled) this.base).getRegion(this.y + row, this.x, 1, this.width, dst, offset);
+      return;
+    }
+    int[] baseRow = new int[this.base.getWidth()];
+    this.base.getPackedRow(this.y + row, baseRow, 0);
+    System.arraycopy(baseRow, this.x, dst, offset, this.width);
+  }
+
+  /**
+   * Marks the view, and so the base image it reads from, as held by one more owner.
+   */
+  @Override
+  public void retain() {
+    this.base.retain();
+  }
+
+  /**
+   * Drops one owner of the view and of the base image it reads from.
+   */
+  @Override
+  public void release() {
+    this.base.release();
+  }
+
+  /**
+   * Returns the width of the image.
+   *
+   * @return the width of the image.
+   */
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  /**
+   * Returns the height of the image.
+   *
+   * @return the height of the image.
+   */
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Returns the maximum value of a color in the image.
+   *
+   * @return the maximum value of a color in the image.
+   */
+  @Override
+  public int getMaxValue() {
+    return this.base.getMaxValue();
+  }
+}
@@ -0,0 +1,186 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * An image that is only computed the first time it is read. A gallery in lazy mode saves one for
+ * every image a command would make, so the gallery holds a graph of images still to compute, each
+ * reading the images it was made from. Reading an image computes the images it needs and no
+ * others, and an image read by several others is computed once and kept.
+ * If the image is released by its last owner before it was computed, it is never computed and
+ * the images it would have read are let go instead.
+ */
+public class SingleImageDeferred implements SingleImage {
+  private final AtomicInteger owners = new AtomicInteger();
+  private Supplier<SingleImage> compute;
+  private Runnable drop;
+  private volatile SingleImage image;
+
+  /**
+   * Constructs an image computed by the given supplier the first time it is read. The supplier
+   * hands over one owner of the image it returns, which this image releases with its last owner.
+   * The size of the image is not known before it is computed, so asking for it computes it.
+   *
+   * @param compute the supplier of the image.
+   * @param drop    what to run instead if the image is released before it is computed.
+   * @throws IllegalArgumentException if the supplier or the drop action is null.
+   */
+  public SingleImageDeferred(Supplier<SingleImage> compute, Runnable drop)
+          throws IllegalArgumentException {
+    if (compute == null || drop == null) {
+      throw new IllegalArgumentException("Arguments cannot be null");
+    }
+    this.compute = compute;
+    this.drop = drop;
+  }
+
+  /**
+   * Returns whether the image has been computed.
+   *
+   * @return true if the image was read or computed.
+   */
+  public boolean isComputed() {
+    return this.image != null;
+  }
+
+  /**
+   * Returns the computed image, computing it if it has not been computed yet.
+   *
+   * @return the computed image.
+   * @throws IllegalStateException if the image was released before it was computed.
+   */
+  public SingleImage getImage() throws IllegalStateException {
+    SingleImage current = this.image;
+    if (current != null) {
+      return current;
+    }
+    synchronized (this) {
+      if (this.image == null) {
+        if (this.compute == null) {
+          throw new IllegalStateException("Image has been released.");
+        }
+        this.image = this.compute.get();
+        this.compute = null;
+        this.drop = null;
+      }
+      return this.image;
+    }
+  }
+
+  /**
+   * Returns a copy of an image's pixels. This builds a new {@link RGB} object per pixel and is
+   * only kept for compatibility.
+   *
+   * @return a 2D RGB array of pixels.
+   */
+  @Override
+  public RGB[][] getPixels() {
+    return getImage().getPixels();
+  }
+
+  /**
+   * Returns an image's pixel at a given width and height.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return a pixel.
+   */
+  @Override
+  public String getPixel(int row, int col) {
+    return getImage().getPixel(row, col);
+  }
+
+  /**
+   * Returns an image's pixel at a given row and column packed as ARGB.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return the packed pixel.
+   */
+  @Override
+  public int getPackedPixel(int row, int col) {
+    return getImage().getPackedPixel(row, col);
+  }
+
+  /**
+   * Returns the image's pixels packed as ARGB in row-major order, see
+   * {@link SingleImage#getPackedPixels()}.
+   *
+   * @return an array of width * height packed pixels.
+   */
+  @Override
+  public int[] getPackedPixels() {
+    return getImage().getPackedPixels();
+  }
+
+  /**
+   * Copies one row of the image's pixels packed as ARGB into the given array.
+   *
+   * @param row    the row to copy.
+   * @param dst    the array to copy the row into.
+   * @param offset the index in the array of the first pixel of the row.
+   */
+  @Override
+  public void getPackedRow(int row, int[] dst, int offset) {
+    getImage().getPackedRow(row, dst, offset);
+  }
+
+  /**
+   * Marks the image as held by one more owner.
+   */
+  @Override
+  public void retain() {
+    this.owners.incrementAndGet();
+  }
+
+  /**
+   * Drops one owner of the image. The last owner releases the computed image, or lets go of the
+   * images it would have read if it was never computed.
+   */
+  @Override
+  public void release() {
+    if (this.owners.decrementAndGet() > 0) {
+      return;
+    }
+    synchronized (this) {
+      if (this.image != null) {
+        this.image.release();
+      } else if (this.drop != null) {
+        this.drop.run();
+        this.compute = null;
+        this.drop = null;
+      }
+    }
+  }
+
+  /**
+   * Returns the width of the image.
+   *
+   * @return the width of the image.
+   */
+  @Override
+  public int getWidth() {
+    return getImage().getWidth();
+  }
+
+  /**
+   * Returns the height of the image.
+   *
+   * @return the height of the image.
+   */
+  @Override
+  public int getHeight() {
+    return getImage().getHeight();
+  }
+
+  /**
+   * Returns the maximum value of a color in the image.
+   *
+   * @return the maximum value of a color in the image.
+   */
+  @Override
+  public int getMaxValue() {
+    return getImage().getMaxValue();
+  }
+}
@@ -0,0 +1,176 @@
+package model;
+
+/**
+ * A view of another {@link SingleImage} with a {@link PointOperation} applied to every pixel a
+ * mask leaves editable. Scripts that chain point operations keep the images between the steps as
+ * views, so they are only computed if they are read. No pixels are copied, the operation is
+ * applied whenever the view is read.
+ */
+public class SingleImageFused implements SingleImage {
+  private final SingleImage base;
+  private final PointOperation operation;
+  // the editable spans of each row, or null if every pixel is editable.
+  private final MaskSpans mask;
+
+  /**
+   * Constructs a view of an image with the given operation applied to the editable pixels.
+   *
+   * @param base      the image to read the pixels from.
+   * @param operation the operation to apply.
+   * @param mask      the spans of the mask, or null without a mask.
+   */
+  SingleImageFused(SingleImage base, PointOperation operation, MaskSpans mask) {
+    this.base = base;
+    this.operation = operation;
+    this.mask = mask;
+  }
+
+  /**
+   * Returns the image this view reads from.
+   *
+   * @return the base image.
+   */
+  public SingleImage getBase() {
+    return this.base;
+  }
+
+  /**
+   * Returns the operation applied to the pixels of the base image.
+   *
+   * @return the point operation.
+   */
+  public PointOperation getOperation() {
+    return this.operation;
+  }
+
+  /**
+   * Returns a copy of an image's pixels. This builds a new {@link RGB} object per pixel and is
+   * only kept for compatibility.
+   *
+   * @return a 2D RGB array of pixels.
+   */
+  @Override
+  public RGB[][] getPixels() {
+    RGB[][] copy = new RGB[getHeight()][getWidth()];
+    int[] row = new int[getWidth()];
+    for (int i = 0; i < getHeight(); i++) {
+      getPackedRow(i, row, 0);
+      for (int j = 0; j < getWidth(); j++) {
+        copy[i][j] = new RGBImpl(row[j] >> 16 & 0xFF, row[j] >> 8 & 0xFF, row[j] & 0xFF,
+                row[j] >>> 24);
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Returns an image's pixel at a given width and height.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return a pixel.
+   */
+  @Override
+  public String getPixel(int row, int col) {
+    int pixel = getPackedPixel(row, col);
+    return (pixel >> 16 & 0xFF) + " " + (pixel >> 8 & 0xFF) + " " + (pixel & 0xFF) + " ";
+  }
+
+  /**
+   * Returns an image's pixel at a given row and column packed as ARGB.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return the packed pixel.
+   */
+  @Override
+  public int getPackedPixel(int row, int col) {
+    int pixel = this.base.getPackedPixel(row, col);
+    if (this.mask != null && this.mask.isMasked(row * getWidth() + col)) {
+      return pixel;
+    }
+    return this.operation.apply(pixel);
+  }
+
+  /**
+   * Returns a new array of the image's pixels packed as ARGB in row-major order.
+   *
+   * @return an array of width * height packed pixels.
+   */
+  @Override
+  public int[] getPackedPixels() {
+    int[] packed = new int[getWidth() * getHeight()];
+    for (int i = 0; i < getHeight(); i++) {
+      getPackedRow(i, packed, i * getWidth());
+    }
+    return packed;
+  }
+
+  /**
+   * Copies one row of the image's pixels packed as ARGB into the given array, applying the
+   * operation to each editable span of the row.
+   *
+   * @param row    the row to copy.
+   * @param dst    the array to copy the row into.
+   * @param offset the index in the array of the first pixel of the row.
+   */
+  @Override
+  public void getPackedRow(int row, int[] dst, int offset) {
+    this.base.getPackedRow(row, dst, offset);
+    if (this.mask == null) {
+      this.operation.apply(dst, offset, dst, offset, getWidth());
+      return;
+    }
+    int[] spans = this.mask.getSpans(row);
+    for (int s = 0; s < spans.length; s += 2) {
+      int at = offset + spans[s];
+      this.operation.apply(dst, at, dst, at, spans[s + 1] - spans[s]);
+    }
+  }
+
+  /**
+   * Marks the view, and so the base image it reads from, as held by one more owner.
+   */
+  @Override
+  public void retain() {
+    this.base.retain();
+  }
+
+  /**
+   * Drops one owner of the view and of the base image it reads from.
+   */
+  @Override
+  public void release() {
+    this.base.release();
+  }
+
+  /**
+   * Returns the width of the image.
+   *
+   * @return the width of the image.
+   */
+  @Override
+  public int getWidth() {
+    return this.base.getWidth();
+  }
+
+  /**
+   * Returns the height of the image.
+   *
+   * @return the height of the image.
+   */
+  @Override
+  public int getHeight() {
+    return this.base.getHeight();
+  }
+
+  /**
+   * Returns the maximum value of a color in the image.
+   *
+   * @return the maximum value of a color in the image.
+   */
+  @Override
+  public int getMaxValue() {
+    return this.base.getMaxValue();
+  }
+}
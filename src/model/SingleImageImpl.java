@@ -58,6 +58,67 @@ public class SingleImageImpl implements SingleImage {
             + " ";
   }
 
+  /**
+   * Returns an image's pixel at a given row and column packed as ARGB.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return the packed pixel.
+   */
+  @Override
+  public int getPackedPixel(int row, int col) {
+    RGB rgb = pixel[row][col];
+    return SingleImagePacked.pack(rgb.getRed(), rgb.getGreen(), rgb.getBlue(), rgb.getAlpha());
+  }
+
+  /**
+   * Returns a copy of an image's pixels packed as ARGB integers in row-major order.
+   *
+   * @return an array of width * height packed pixels.
+   */
+  @Override
+  public int[] getPackedPixels() {
+    int[] packed = new int[this.width * this.height];
+    for (int i = 0; i < this.height; i++) {
+      getPackedRow(i, packed, i * this.width);
+    }
+    return packed;
+  }
+
+  /**
+   * Copies one row of the image's pixels packed as ARGB into the given array.
+   *
+   * @param row    the row to copy.
+   * @param dst    the array to copy the row into.
+   * @param offset the index in the array of the first pixel of the row.
+   */
+  @Override
+  public void getPackedRow(int row, int[] dst, int offset) {
+    for (int j = 0; j < this.width; j++) {
+      RGB rgb = pixel[row][j];
+      dst[offset + j] = SingleImagePacked.pack(rgb.getRed(), rgb.getGreen(), rgb.getBlue(),
+              rgb.getAlpha());
+    }
+  }
+
+  /**
+   * Marks the image as held by one more owner. Heap images are freed by the garbage collector,
+   * so owners are not counted.
+   */
+  @Override
+  public void retain() {
+    // nothing to count, the garbage collector frees the pixels.
+  }
+
+  /**
+   * Drops one owner of the image. Heap images are freed by the garbage collector, so owners are
+   * not counted.
+   */
+  @Override
+  public void release() {
+    // nothing to free, the garbage collector frees the pixels.
+  }
+
   /**
    * Returns the width of the image.
    *
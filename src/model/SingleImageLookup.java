@@ -0,0 +1,165 @@
+package model;
+
+/**
+ * A view of another {@link SingleImage} with a {@link LookupTable} applied to every pixel, such
+ * as a brightened image or a greyscale color component. No pixels are copied, the table is
+ * applied whenever the view is read.
+ */
+public class SingleImageLookup implements SingleImage {
+  private final SingleImage base;
+  private final LookupTable table;
+
+  /**
+   * Constructs a view of an image with the given table applied to every pixel.
+   *
+   * @param base  the image to read the pixels from.
+   * @param table the table to apply.
+   * @throws IllegalArgumentException if the image or the table is null.
+   */
+  public SingleImageLookup(SingleImage base, LookupTable table) throws IllegalArgumentException {
+    if (base == null) {
+      throw new IllegalArgumentException("Image cannot be null.");
+    }
+    if (table == null) {
+      throw new IllegalArgumentException("Lookup table cannot be null.");
+    }
+    this.base = base;
+    this.table = table;
+  }
+
+  /**
+   * Returns the image this view reads from.
+   *
+   * @return the base image.
+   */
+  public SingleImage getBase() {
+    return this.base;
+  }
+
+  /**
+   * Returns the table applied to the pixels of the base image.
+   *
+   * @return the lookup table.
+   */
+  public LookupTable getTable() {
+    return this.table;
+  }
+
+  /**
+   * Returns a copy of an image's pixels. This builds a new {@link RGB} object per pixel and is
+   * only kept for compatibility.
+   *
+   * @return a 2D RGB array of pixels.
+   */
+  @Override
+  public RGB[][] getPixels() {
+    RGB[][] copy = new RGB[getHeight()][getWidth()];
+    int[] row = new int[getWidth()];
+    for (int i = 0; i < getHeight(); i++) {
+      getPackedRow(i, row, 0);
+      for (int j = 0; j < getWidth(); j++) {
+        copy[i][j] = new RGBImpl(row[j] >> 16 & 0xFF, row[j] >> 8 & 0xFF, row[j] & 0xFF,
+                row[j] >>> 24);
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Returns an image's pixel at a given width and height.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return a pixel.
+   */
+  @Override
+  public String getPixel(int row, int col) {
+    int pixel = getPackedPixel(row, col);
+    return (pixel >> 16 & 0xFF) + " " + (pixel >> 8 & 0xFF) + " " + (pixel & 0xFF) + " ";
+  }
+
+  /**
+   * Returns an image's pixel at a given row and column packed as ARGB.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return the packed pixel.
+   */
+  @Override
+  public int getPackedPixel(int row, int col) {
+    return this.table.apply(this.base.getPackedPixel(row, col));
+  }
+
+  /**
+   * Returns a new array of the image's pixels packed as ARGB in row-major order.
+   *
+   * @return an array of width * height packed pixels.
+   */
+  @Override
+  public int[] getPackedPixels() {
+    int[] packed = new int[getWidth() * getHeight()];
+    for (int i = 0; i < getHeight(); i++) {
+      getPackedRow(i, packed, i * getWidth());
+    }
+    return packed;
+  }
+
+  /**
+   * Copies one row of the image's pixels packed as ARGB into the given array.
+   *
+   * @param row    the row to copy.
+   * @param dst    the array to copy the row into.
+   * @param offset the index in the array of the first pixel of the row.
+   */
+  @Override
+  public void getPackedRow(int row, int[] dst, int offset) {
+    this.base.getPackedRow(row, dst, offset);
+    this.table.apply(dst, offset, dst, offset, getWidth());
+  }
+
+  /**
+   * Marks the view, and so the base image it reads from, as held by one more owner.
+   */
+  @Override
+  public void retain() {
+    this.base.retain();
+  }
+
+  /**
+   * Drops one owner of the view and of the base image it reads from.
+   */
+  @Override
+  public void release() {
+    this.base.release();
+  }
+
+  /**
+   * Returns the width of the image.
+   *
+   * @return the width of the image.
+   */
+  @Override
+  public int getWidth() {
+    return this.base.getWidth();
+  }
+
+  /**
+   * Returns the height of the image.
+   *
+   * @return the height of the image.
+   */
+  @Override
+  public int getHeight() {
+    return this.base.getHeight();
+  }
+
+  /**
+   * Returns the maximum value of a color in the image.
+   *
+   * @return the maximum value of a color in the image.
+   */
+  @Override
+  public int getMaxValue() {
+    return this.base.getMaxValue();
+  }
+}
@@ -0,0 +1,186 @@
+package model;
+
+/**
+ * A view of another {@link SingleImage} with its rows and/or columns in reverse order.
+ * No pixels are copied, every read is remapped onto the base image, so flipping an image takes
+ * constant time and memory. Pixels are only produced when the view is read, for example when it
+ * is saved or transformed further.
+ */
+public class SingleImageMirrored implements SingleImage {
+  private final SingleImage base;
+  private final boolean flipRows;
+  private final boolean flipCols;
+
+  /**
+   * Constructs a mirrored view of the given image.
+   *
+   * @param base     the image to mirror.
+   * @param flipRows whether the rows are in reverse order, flipping the image vertically.
+   * @param flipCols whether the columns are in reverse order, flipping the image horizontally.
+   * @throws IllegalArgumentException if the image is null.
+   */
+  public SingleImageMirrored(SingleImage base, boolean flipRows, boolean flipCols)
+          throws IllegalArgumentException {
+    if (base == null) {
+      throw new IllegalArgumentException("Image cannot be null.");
+    }
+    this.base = base;
+    this.flipRows = flipRows;
+    this.flipCols = flipCols;
+  }
+
+  /**
+   * Returns the image this view mirrors.
+   *
+   * @return the base image.
+   */
+  public SingleImage getBase() {
+    return this.base;
+  }
+
+  /**
+   * Returns whether the rows of the base image are in reverse order.
+   *
+   * @return true if the view is flipped vertically.
+   */
+  public boolean isFlipRows() {
+    return this.flipRows;
+  }
+
+  /**
+   * Returns whether the columns of the base image are in reverse order.
+   *
+   * @return true if the view is flipped horizontally.
+   */
+  public boolean isFlipCols() {
+    return this.flipCols;
+  }
+
+  /**
+   * Returns a copy of an image's pixels. This builds a new {@link RGB} object per pixel and is
+   * only kept for compatibility.
+   *
+   * @return a 2D RGB array of pixels.
+   */
+  @Override
+  public RGB[][] getPixels() {
+    RGB[][] copy = new RGB[getHeight()][getWidth()];
+    int[] row = new int[getWidth()];
+    for (int i = 0; i < getHeight(); i++) {
+      getPackedRow(i, row, 0);
+      for (int j = 0; j < getWidth(); j++) {
+        copy[i][j] = new RGBImpl(row[j] >> 16 & 0xFF, row[j] >> 8 & 0xFF, row[j] & 0xFF,
+                row[j] >>> 24);
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Returns an image's pixel at a given width and height.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return a pixel.
+   */
+  @Override
+  public String getPixel(int row, int col) {
+    int pixel = getPackedPixel(row, col);
+    return (pixel >> 16 & 0xFF) + " " + (pixel >> 8 & 0xFF) + " " + (pixel & 0xFF) + " ";
+  }
+
+  /**
+   * Returns an image's pixel at a given row and column packed as ARGB.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return the packed pixel.
+   */
+  @Override
+  public int getPackedPixel(int row, int col) {
+    if (row < 0 || row >= getHeight() || col < 0 || col >= getWidth()) {
+      throw new IndexOutOfBoundsException("Pixel is outside of the image");
+    }
+    return this.base.getPackedPixel(this.flipRows ? getHeight() - 1 - row : row,
+            this.flipCols ? getWidth() - 1 - col : col);
+  }
+
+  /**
+   * Returns a new array of the image's pixels packed as ARGB in row-major order.
+   *
+   * @return an array of width * height packed pixels.
+   */
+  @Override
+  public int[] getPackedPixels() {
+    int[] packed = new int[getWidth() * getHeight()];
+    for (int i = 0; i < getHeight(); i++) {
+      getPackedRow(i, packed, i * getWidth());
+    }
+    return packed;
+  }
+
+  /**
+   * Copies one row of the image's pixels packed as ARGB into the given array.
+   *
+   * @param row    the row to copy.
+   * @param dst    the array to copy the row into.
+   * @param offset the index in the array of the first pixel of the row.
+   */
+  @Override
+  public void getPackedRow(int row, int[] dst, int offset) {
+    this.base.getPackedRow(this.flipRows ? getHeight() - 1 - row : row, dst, offset);
+    if (this.flipCols) {
+      for (int j = offset, k = offset + getWidth() - 1; j < k; j++, k--) {
+        int pixel = dst[j];
+        dst[j] = dst[k];
+        dst[k] = pixel;
+      }
+    }
+  }
+
+  /**
+   * Marks the view, and so the base image it reads from, as held by one more owner.
+   */
+  @Override
+  public void retain() {
+    this.base.retain();
+  }
+
+  /**
+   * Drops one owner of the view and of the base image it reads from.
+   */
+  @Override
+  public void release() {
+    this.base.release();
+  }
+
+  /**
+   * Returns the width of the image.
+   *
+   * @return the width of the image.
+   */
+  @Override
+  public int getWidth() {
+    return this.base.getWidth();
+  }
+
+  /**
+   * Returns the height of the image.
+   *
+   * @return the height of the image.
+   */
+  @Override
+  public int getHeight() {
+    return this.base.getHeight();
+  }
+
+  /**
+   * Returns the maximum value of a color in the image.
+   *
+   * @return the maximum value of a color in the image.
+   */
+  @Override
+  public int getMaxValue() {
+    return this.base.getMaxValue();
+  }
+}
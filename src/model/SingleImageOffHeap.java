@@ -0,0 +1,276 @@
+package model;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of the {@link SingleImage} interface whose pixels live outside of the Java heap.
+ * Pixels are packed as ARGB in row-major order inside a direct {@link ByteBuffer}, so very large
+ * images do not add to garbage collection pauses. The memory is freed as soon as the last owner
+ * calls {@link #release()}, or by the garbage collector if that never happens.
+ */
+public class SingleImageOffHeap implements WritableImage {
+  private static long threshold = 1L << 24;
+  private static Object unsafe = null;
+  private static Method invokeCleaner = null;
+
+  // sun.misc.Unsafe can free a direct buffer before it is garbage collected when it is available.
+  static {
+    try {
+      Class<?> type = Class.forName("sun.misc.Unsafe");
+      Field field = type.getDeclaredField("theUnsafe");
+      field.setAccessible(true);
+      unsafe = field.get(null);
+      invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      unsafe = null;
+      invokeCleaner = null;
+    }
+  }
+
+  private final int width;
+  private final int height;
+  private final int maxValue;
+  private final AtomicInteger owners = new AtomicInteger();
+  private ByteBuffer buffer;
+  private volatile IntBuffer pixels;
+
+  /**
+   * Constructs a new off-heap image with the given width, height and max value. Every pixel
+   * starts as zero.
+   *
+   * @param width    the width of the image.
+   * @param height   the height of the image.
+   * @param maxValue the max value of the image.
+   * @throws IllegalArgumentException if the width or height is negative, if the max value is
+   *                                  invalid or if the image is too large for one buffer.
+   */
+  public SingleImageOffHeap(int width, int height, int maxValue)
+          throws IllegalArgumentException {
+    if (width < 0 || height < 0 || maxValue < 0 || maxValue > 255
+            || (long) width * height * 4 > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid image dimensions");
+    }
+    this.width = width;
+    this.height = height;
+    this.maxValue = maxValue;
+    this.buffer = ByteBuffer.allocateDirect(width * height * 4).order(ByteOrder.nativeOrder());
+    this.pixels = this.buffer.asIntBuffer();
+  }
+
+  /**
+   * Returns whether images of the given size should be stored off-heap.
+   *
+   * @param width  the width of the image.
+   * @param height the height of the image.
+   * @return true if the image has at least as many pixels as the off-heap threshold.
+   */
+  public static boolean isPreferredFor(int width, int height) {
+    return (long) width * height >= threshold;
+  }
+
+  /**
+   * Sets the number of pixels from which new images are stored off-heap.
+   *
+   * @param pixels the smallest number of pixels of an off-heap image.
+   * @throws IllegalArgumentException if the number of pixels is not positive.
+   */
+  public static void setThreshold(long pixels) throws IllegalArgumentException {
+    if (pixels <= 0) {
+      throw new IllegalArgumentException("Off-heap threshold must be positive.");
+    }
+    threshold = pixels;
+  }
+
+  // Returns the pixel buffer, failing if the image has already been released.
+  private IntBuffer pixels() {
+    IntBuffer current = this.pixels;
+    if (current == null) {
+      throw new IllegalStateException("Image has been released.");
+    }
+    return current;
+  }
+
+  // Returns a view of the pixel buffer positioned at the given pixel. Every caller gets its own
+  // position, so rows can be copied from several threads at once.
+  private IntBuffer pixelsAt(int index) {
+    IntBuffer view = pixels().duplicate();
+    view.position(index);
+    return view;
+  }
+
+  /**
+   * Copies one row of packed ARGB pixels from the given array into the image.
+   *
+   * @param row    the row to write.
+   * @param src    the array holding the new pixels of the row.
+   * @param offset the index in the array of the first pixel of the row.
+   */
+  @Override
+  public void setPackedRow(int row, int[] src, int offset) {
+    pixelsAt(row * this.width).put(src, offset, this.width);
+  }
+
+  /**
+   * Returns a copy of an image's pixels. This builds a new {@link RGB} object per pixel and is
+   * only kept for compatibility.
+   *
+   * @return a 2D RGB array of pixels.
+   */
+  @Override
+  public RGB[][] getPixels() {
+    RGB[][] copy = new RGB[this.height][this.width];
+    int[] row = new int[this.width];
+    for (int i = 0; i < this.height; i++) {
+      getPackedRow(i, row, 0);
+      for (int j = 0; j < this.width; j++) {
+        copy[i][j] = new RGBImpl(row[j] >> 16 & 0xFF, row[j] >> 8 & 0xFF, row[j] & 0xFF,
+                row[j] >>> 24);
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Returns an image's pixel at a given width and height.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return a pixel.
+   */
+  @Override
+  public String getPixel(int row, int col) {
+    int pixel = getPackedPixel(row, col);
+    return (pixel >> 16 & 0xFF) + " " + (pixel >> 8 & 0xFF) + " " + (pixel & 0xFF) + " ";
+  }
+
+  /**
+   * Returns an image's pixel at a given row and column packed as ARGB.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return the packed pixel.
+   */
+  @Override
+  public int getPackedPixel(int row, int col) {
+    if (row < 0 || row >= this.height || col < 0 || col >= this.width) {
+      throw new IndexOutOfBoundsException("Pixel is outside of the image");
+    }
+    return pixels().get(row * this.width + col);
+  }
+
+  /**
+   * Returns a new heap array of the image's pixels packed as ARGB in row-major order. Prefer
+   * {@link #getPackedRow(int, int[], int)} for large images.
+   *
+   * @return an array of width * height packed pixels.
+   */
+  @Override
+  public int[] getPackedPixels() {
+    int[] packed = new int[this.width * this.height];
+    pixelsAt(0).get(packed);
+    return packed;
+  }
+
+  /**
+   * Copies one row of the image's pixels packed as ARGB into the given array.
+   *
+   * @param row    the row to copy.
+   * @param dst    the array to copy the row into.
+   * @param offset the index in the array of the first pixel of the row.
+   */
+  @Override
+  public void getPackedRow(int row, int[] dst, int offset) {
+    pixelsAt(row * this.width).get(dst, offset, this.width);
+  }
+
+  /**
+   * Copies a rectangle of the image's pixels packed as ARGB into the given array, one row of the
+   * rectangle after another.
+   *
+   * @param row    the first row of the rectangle.
+   * @param col    the first column of the rectangle.
+   * @param rows   the number of rows of the rectangle.
+   * @param cols   the number of columns of the rectangle.
+   * @param dst    the array to copy the rectangle into.
+   * @param offset the index in the array of the first pixel of the rectangle.
+   * @throws IndexOutOfBoundsException if the rectangle is not inside the image.
+   */
+  public void getRegion(int row, int col, int rows, int cols, int[] dst, int offset) {
+    if (row < 0 || col < 0 || rows < 0 || cols < 0 || row + rows > this.height
+            || col + cols > this.width) {
+      throw new IndexOutOfBoundsException("Region is outside of the image");
+    }
+    IntBuffer view = pixels().duplicate();
+    for (int i = 0; i < rows; i++) {
+      view.position((row + i) * this.width + col);
+      view.get(dst, offset + i * cols, cols);
+    }
+  }
+
+  /**
+   * Marks the image as held by one more owner, such as a gallery entry.
+   */
+  @Override
+  public void retain() {
+    owners.incrementAndGet();
+  }
+
+  /**
+   * Drops one owner of the image and frees the off-heap memory once no owner is left. The image
+   * can no longer be read after it has been freed.
+   */
+  @Override
+  public void release() {
+    if (owners.decrementAndGet() > 0) {
+      return;
+    }
+    ByteBuffer freed;
+    synchronized (this) {
+      freed = this.buffer;
+      this.buffer = null;
+      this.pixels = null;
+    }
+    if (freed != null && invokeCleaner != null) {
+      try {
+        invokeCleaner.invoke(unsafe, freed);
+      } catch (ReflectiveOperationException e) {
+        // the garbage collector frees the buffer once it is unreachable.
+      }
+    }
+  }
+
+  /**
+   * Returns the width of the image.
+   *
+   * @return the width of the image.
+   */
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  /**
+   * Returns the height of the image.
+   *
+   * @return the height of the image.
+   */
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Returns the maximum value of a color in the image.
+   *
+   * @return the maximum value of a color in the image.
+   */
+  @Override
+  public int getMaxValue() {
+    return this.maxValue;
+  }
+}
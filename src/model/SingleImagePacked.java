@@ -0,0 +1,256 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of the {@link SingleImage} interface backed by a single contiguous array.
+ * Each pixel is packed into one integer as ARGB (8 bits per channel) and pixels are stored in
+ * row-major order, so a pixel costs 4 bytes instead of an {@link RGB} object.
+ * Images made by {@link WritableImage#create} borrow their array from {@link BufferPool} and give
+ * it back once their last owner releases them; they can no longer be read after that.
+ */
+public class SingleImagePacked implements WritableImage {
+  private volatile int[] pixels;
+  private final int width;
+  private final int height;
+  private final int maxValue;
+  private final boolean pooled;
+  private final AtomicInteger owners = new AtomicInteger();
+
+  /**
+   * Constructs a new packed image with the given width, height, max value and pixels.
+   *
+   * @param width    the width of the image.
+   * @param height   the height of the image.
+   * @param maxValue the max value of the image.
+   * @param pixels   the packed ARGB pixels of the image in row-major order.
+   * @throws IllegalArgumentException if the width or height is negative, if the max value is
+   *                                  invalid or if the pixels do not match the dimensions.
+   */
+  public SingleImagePacked(int width, int height, int maxValue, int[] pixels)
+          throws IllegalArgumentException {
+    if (width < 0 || height < 0 || maxValue < 0 || maxValue > 255 || pixels == null
+            || pixels.length != width * height) {
+      throw new IllegalArgumentException("Invalid image dimensions");
+    }
+    this.width = width;
+    this.height = height;
+    this.maxValue = maxValue;
+    this.pixels = pixels;
+    this.pooled = false;
+  }
+
+  // Constructs an image whose pixels were borrowed from the buffer pool.
+  private SingleImagePacked(int width, int height, int maxValue, int[] pixels, boolean pooled) {
+    this.width = width;
+    this.height = height;
+    this.maxValue = maxValue;
+    this.pixels = pixels;
+    this.pooled = pooled;
+  }
+
+  /**
+   * Creates a packed image whose pixels are borrowed from {@link BufferPool}, with every pixel
+   * set to zero. The pixels go back to the pool when the last owner releases the image.
+   *
+   * @param width    the width of the image.
+   * @param height   the height of the image.
+   * @param maxValue the max value of the image.
+   * @return the new image.
+   * @throws IllegalArgumentException if the width or height is negative or if the max value is
+   *                                  invalid.
+   */
+  static SingleImagePacked pooled(int width, int height, int maxValue)
+          throws IllegalArgumentException {
+    if (width < 0 || height < 0 || maxValue < 0 || maxValue > 255) {
+      throw new IllegalArgumentException("Invalid image dimensions");
+    }
+    int[] pixels = BufferPool.borrow(width * height);
+    Arrays.fill(pixels, 0);
+    return new SingleImagePacked(width, height, maxValue, pixels, true);
+  }
+
+  /**
+   * Constructs a packed copy of the given image, converting it from its own layout.
+   *
+   * @param image the image to convert.
+   * @throws IllegalArgumentException if the image is null.
+   */
+  public SingleImagePacked(SingleImage image) throws IllegalArgumentException {
+    if (image == null) {
+      throw new IllegalArgumentException("Image cannot be null.");
+    }
+    this.width = image.getWidth();
+    this.height = image.getHeight();
+    this.maxValue = image.getMaxValue();
+    this.pixels = new int[this.width * this.height];
+    this.pooled = false;
+    for (int i = 0; i < this.height; i++) {
+      image.getPackedRow(i, this.pixels, i * this.width);
+    }
+  }
+
+  // Returns the pixel array, failing if the image has given it back to the pool.
+  private int[] pixels() {
+    int[] current = this.pixels;
+    if (current == null) {
+      throw new IllegalStateException("Image has been released.");
+    }
+    return current;
+  }
+
+  /**
+   * Packs the given channels into a single ARGB integer. The channels are not validated.
+   *
+   * @param red   the red value of the pixel.
+   * @param green the green value of the pixel.
+   * @param blue  the blue value of the pixel.
+   * @param alpha the alpha value of the pixel.
+   * @return the packed pixel.
+   */
+  public static int pack(int red, int green, int blue, int alpha) {
+    return alpha << 24 | red << 16 | green << 8 | blue;
+  }
+
+  /**
+   * Returns a copy of an image's pixels. This builds a new {@link RGB} object per pixel and is
+   * only kept for compatibility, use {@link #getPackedPixels()} instead.
+   *
+   * @return a 2D RGB array of pixels.
+   */
+  @Override
+  public RGB[][] getPixels() {
+    RGB[][] copy = new RGB[this.height][this.width];
+    int[] pixels = pixels();
+    for (int i = 0; i < this.height; i++) {
+      for (int j = 0; j < this.width; j++) {
+        int pixel = pixels[i * this.width + j];
+        copy[i][j] = new RGBImpl(pixel >> 16 & 0xFF, pixel >> 8 & 0xFF, pixel & 0xFF,
+                pixel >>> 24);
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Returns an image's pixel at a given width and height.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return a pixel.
+   */
+  @Override
+  public String getPixel(int row, int col) {
+    int pixel = getPackedPixel(row, col);
+    return (pixel >> 16 & 0xFF) + " " + (pixel >> 8 & 0xFF) + " " + (pixel & 0xFF) + " ";
+  }
+
+  /**
+   * Returns an image's pixel at a given row and column packed as ARGB.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return the packed pixel.
+   */
+  @Override
+  public int getPackedPixel(int row, int col) {
+    if (row < 0 || row >= this.height || col < 0 || col >= this.width) {
+      throw new IndexOutOfBoundsException("Pixel is outside of the image");
+    }
+    return pixels()[row * this.width + col];
+  }
+
+  /**
+   * Returns the backing array of packed ARGB pixels in row-major order. The array is shared
+   * with this image and must not be modified.
+   *
+   * @return the packed pixels of the image.
+   */
+  @Override
+  public int[] getPackedPixels() {
+    return pixels();
+  }
+
+  /**
+   * Copies one row of packed ARGB pixels into the given array.
+   *
+   * @param row    the row to copy.
+   * @param dst    the array to copy the row into.
+   * @param offset the index in the array of the first pixel of the row.
+   */
+  @Override
+  public void getPackedRow(int row, int[] dst, int offset) {
+    System.arraycopy(pixels(), row * this.width, dst, offset, this.width);
+  }
+
+  /**
+   * Copies one row of packed ARGB pixels from the given array into the image.
+   *
+   * @param row    the row to write.
+   * @param src    the array holding the new pixels of the row.
+   * @param offset the index in the array of the first pixel of the row.
+   */
+  @Override
+  public void setPackedRow(int row, int[] src, int offset) {
+    System.arraycopy(src, offset, pixels(), row * this.width, this.width);
+  }
+
+  /**
+   * Marks the image as held by one more owner, such as a gallery entry.
+   */
+  @Override
+  public void retain() {
+    owners.incrementAndGet();
+  }
+
+  /**
+   * Drops one owner of the image. Once no owner is left, an image whose pixels came from
+   * {@link BufferPool} gives them back and can no longer be read; other heap images are freed by
+   * the garbage collector.
+   */
+  @Override
+  public void release() {
+    if (owners.decrementAndGet() > 0 || !pooled) {
+      return;
+    }
+    int[] freed;
+    synchronized (this) {
+      freed = this.pixels;
+      this.pixels = null;
+    }
+    if (freed != null) {
+      BufferPool.giveBack(freed);
+    }
+  }
+
+  /**
+   * Returns the width of the image.
+   *
+   * @return the width of the image.
+   */
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  /**
+   * Returns the height of the image.
+   *
+   * @return the height of the image.
+   */
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Returns the maximum value of a color in the image.
+   *
+   * @return the maximum value of a color in the image.
+   */
+  @Override
+  public int getMaxValue() {
+    return this.maxValue;
+  }
+}
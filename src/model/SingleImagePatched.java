@@ -0,0 +1,207 @@
+package model;
+
+/**
+ * A view of another {@link SingleImage} with a rectangle of its pixels replaced by a smaller
+ * image, the patch. Masked filters return one when the mask leaves only a small part of the
+ * image editable, so only that part is filtered and stored, and every other pixel is read from
+ * the base image.
+ */
+public class SingleImagePatched implements SingleImage {
+  private final SingleImage base;
+  private final SingleImage patch;
+  private final int x;
+  private final int y;
+
+  /**
+   * Constructs a view of an image with the given patch over it.
+   *
+   * @param base  the image to patch.
+   * @param patch the pixels that replace the rectangle of the base image.
+   * @param x     the column of the base image where the patch starts.
+   * @param y     the row of the base image where the patch starts.
+   * @throws IllegalArgumentException if an image is null or if the patch is not inside the base
+   *                                  image.
+   */
+  public SingleImagePatched(SingleImage base, SingleImage patch, int x, int y)
+          throws IllegalArgumentException {
+    if (base == null || patch == null) {
+      throw new IllegalArgumentException("Image cannot be null.");
+    }
+    if (x < 0 || y < 0 || x + patch.getWidth() > base.getWidth()
+            || y + patch.getHeight() > base.getHeight()) {
+      throw new IllegalArgumentException("Patch is outside of the image.");
+    }
+    this.base = base;
+    this.patch = patch;
+    this.x = x;
+    this.y = y;
+  }
+
+  /**
+   * Returns the image this view patches.
+   *
+   * @return the base image.
+   */
+  public SingleImage getBase() {
+    return this.base;
+  }
+
+  /**
+   * Returns the pixels that replace a rectangle of the base image.
+   *
+   * @return the patch.
+   */
+  public SingleImage getPatch() {
+    return this.patch;
+  }
+
+  /**
+   * Returns the column of the base image where the patch starts.
+   *
+   * @return the x offset of the patch.
+   */
+  public int getX() {
+    return this.x;
+  }
+
+  /**
+   * Returns the row of the base image where the patch starts.
+   *
+   * @return the y offset of the patch.
+   */
+  public int getY() {
+    return this.y;
+  }
+
+  // Returns whether the given pixel is covered by the patch.
+  private boolean inPatch(int row, int col) {
+    return row >= this.y && row < this.y + this.patch.getHeight() && col >= this.x
+            && col < this.x + this.patch.getWidth();
+  }
+
+  /**
+   * Returns a copy of an image's pixels. This builds a new {@link RGB} object per pixel and is
+   * only kept for compatibility.
+   *
+   * @return a 2D RGB array of pixels.
+   */
+  @Override
+  public RGB[][] getPixels() {
+    RGB[][] copy = new RGB[getHeight()][getWidth()];
+    int[] row = new int[getWidth()];
+    for (int i = 0; i < getHeight(); i++) {
+      getPackedRow(i, row, 0);
+      for (int j = 0; j < getWidth(); j++) {
+        copy[i][j] = new RGBImpl(row[j] >> 16 & 0xFF, row[j] >> 8 & 0xFF, row[j] & 0xFF,
+                row[j] >>> 24);
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Returns an image's pixel at a given width and height.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return a pixel.
+   */
+  @Override
+  public String getPixel(int row, int col) {
+    int pixel = getPackedPixel(row, col);
+    return (pixel >> 16 & 0xFF) + " " + (pixel >> 8 & 0xFF) + " " + (pixel & 0xFF) + " ";
+  }
+
+  /**
+   * Returns an image's pixel at a given row and column packed as ARGB.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return the packed pixel.
+   */
+  @Override
+  public int getPackedPixel(int row, int col) {
+    if (inPatch(row, col)) {
+      return this.patch.getPackedPixel(row - this.y, col - this.x);
+    }
+    return this.base.getPackedPixel(row, col);
+  }
+
+  /**
+   * Returns a new array of the image's pixels packed as ARGB in row-major order.
+   *
+   * @return an array of width * height packed pixels.
+   */
+  @Override
+  public int[] getPackedPixels() {
+    int[] packed = new int[getWidth() * getHeight()];
+    for (int i = 0; i < getHeight(); i++) {
+      getPackedRow(i, packed, i * getWidth());
+    }
+    return packed;
+  }
+
+  /**
+   * Copies one row of the image's pixels packed as ARGB into the given array, the row of the
+   * base image with the row of the patch over it.
+   *
+   * @param row    the row to copy.
+   * @param dst    the array to copy the row into.
+   * @param offset the index in the array of the first pixel of the row.
+   */
+  @Override
+  public void getPackedRow(int row, int[] dst, int offset) {
+    this.base.getPackedRow(row, dst, offset);
+    if (row >= this.y && row < this.y + this.patch.getHeight()) {
+      this.patch.getPackedRow(row - this.y, dst, offset + this.x);
+    }
+  }
+
+  /**
+   * Marks the view, and so the base image and the patch, as held by one more owner.
+   */
+  @Override
+  public void retain() {
+    this.base.retain();
+    this.patch.retain();
+  }
+
+  /**
+   * Drops one owner of the view, of the base image and of the patch.
+   */
+  @Override
+  public void release() {
+    this.base.release();
+    this.patch.release();
+  }
+
+  /**
+   * Returns the width of the image.
+   *
+   * @return the width of the image.
+   */
+  @Override
+  public int getWidth() {
+    return this.base.getWidth();
+  }
+
+  /**
+   * Returns the height of the image.
+   *
+   * @return the height of the image.
+   */
+  @Override
+  public int getHeight() {
+    return this.base.getHeight();
+  }
+
+  /**
+   * Returns the maximum value of a color in the image.
+   *
+   * @return the maximum value of a color in the image.
+   */
+  @Override
+  public int getMaxValue() {
+    return this.base.getMaxValue();
+  }
+}
@@ -0,0 +1,254 @@
+package model;
+
+/**
+ * Implementation of the {@link SingleImage} interface that stores each channel in its own plane.
+ * The red, green, blue and alpha values are kept in four separate byte arrays in row-major order,
+ * so operations that work on one channel at a time stream through a single tight array.
+ */
+public class SingleImagePlanar implements SingleImage {
+  private final byte[] red;
+  private final byte[] green;
+  private final byte[] blue;
+  private final byte[] alpha;
+  private final int width;
+  private final int height;
+  private final int maxValue;
+
+  /**
+   * Constructs a new planar image with the given width, height, max value and channel planes.
+   *
+   * @param width    the width of the image.
+   * @param height   the height of the image.
+   * @param maxValue the max value of the image.
+   * @param red      the red plane of the image.
+   * @param green    the green plane of the image.
+   * @param blue     the blue plane of the image.
+   * @param alpha    the alpha plane of the image.
+   * @throws IllegalArgumentException if the width or height is negative, if the max value is
+   *                                  invalid or if a plane does not match the dimensions.
+   */
+  public SingleImagePlanar(int width, int height, int maxValue, byte[] red, byte[] green,
+                           byte[] blue, byte[] alpha) throws IllegalArgumentException {
+    if (width < 0 || height < 0 || maxValue < 0 || maxValue > 255 || red == null
+            || green == null || blue == null || alpha == null || red.length != width * height
+            || green.length != red.length || blue.length != red.length
+            || alpha.length != red.length) {
+      throw new IllegalArgumentException("Invalid image dimensions");
+    }
+    this.width = width;
+    this.height = height;
+    this.maxValue = maxValue;
+    this.red = red;
+    this.green = green;
+    this.blue = blue;
+    this.alpha = alpha;
+  }
+
+  /**
+   * Constructs a planar copy of the given image, converting it from its own layout.
+   *
+   * @param image the image to convert.
+   * @throws IllegalArgumentException if the image is null.
+   */
+  public SingleImagePlanar(SingleImage image) throws IllegalArgumentException {
+    if (image == null) {
+      throw new IllegalArgumentException("Image cannot be null.");
+    }
+    this.width = image.getWidth();
+    this.height = image.getHeight();
+    this.maxValue = image.getMaxValue();
+    int size = this.width * this.height;
+    if (image instanceof SingleImagePlanar) {
+      SingleImagePlanar planar = (SingleImagePlanar) image;
+      this.red = planar.red.clone();
+      this.green = planar.green.clone();
+      this.blue = planar.blue.clone();
+      this.alpha = planar.alpha.clone();
+    } else {
+      this.red = new byte[size];
+      this.green = new byte[size];
+      this.blue = new byte[size];
+      this.alpha = new byte[size];
+      int[] row = new int[this.width];
+      for (int i = 0; i < this.height; i++) {
+        image.getPackedRow(i, row, 0);
+        int offset = i * this.width;
+        for (int j = 0; j < this.width; j++) {
+          int pixel = row[j];
+          this.red[offset + j] = (byte) (pixel >> 16);
+          this.green[offset + j] = (byte) (pixel >> 8);
+          this.blue[offset + j] = (byte) pixel;
+          this.alpha[offset + j] = (byte) (pixel >>> 24);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the red plane of the image. The array is shared with this image and must not be
+   * modified.
+   *
+   * @return the red values of the image in row-major order.
+   */
+  public byte[] getRedPlane() {
+    return this.red;
+  }
+
+  /**
+   * Returns the green plane of the image. The array is shared with this image and must not be
+   * modified.
+   *
+   * @return the green values of the image in row-major order.
+   */
+  public byte[] getGreenPlane() {
+    return this.green;
+  }
+
+  /**
+   * Returns the blue plane of the image. The array is shared with this image and must not be
+   * modified.
+   *
+   * @return the blue values of the image in row-major order.
+   */
+  public byte[] getBluePlane() {
+    return this.blue;
+  }
+
+  /**
+   * Returns the alpha plane of the image. The array is shared with this image and must not be
+   * modified.
+   *
+   * @return the alpha values of the image in row-major order.
+   */
+  public byte[] getAlphaPlane() {
+    return this.alpha;
+  }
+
+  /**
+   * Returns a copy of an image's pixels. This builds a new {@link RGB} object per pixel and is
+   * only kept for compatibility.
+   *
+   * @return a 2D RGB array of pixels.
+   */
+  @Override
+  public RGB[][] getPixels() {
+    RGB[][] copy = new RGB[this.height][this.width];
+    for (int i = 0; i < this.height; i++) {
+      for (int j = 0; j < this.width; j++) {
+        int k = i * this.width + j;
+        copy[i][j] = new RGBImpl(this.red[k] & 0xFF, this.green[k] & 0xFF, this.blue[k] & 0xFF,
+                this.alpha[k] & 0xFF);
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Returns an image's pixel at a given width and height.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return a pixel.
+   */
+  @Override
+  public String getPixel(int row, int col) {
+    int pixel = getPackedPixel(row, col);
+    return (pixel >> 16 & 0xFF) + " " + (pixel >> 8 & 0xFF) + " " + (pixel & 0xFF) + " ";
+  }
+
+  /**
+   * Returns an image's pixel at a given row and column packed as ARGB.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return the packed pixel.
+   */
+  @Override
+  public int getPackedPixel(int row, int col) {
+    if (row < 0 || row >= this.height || col < 0 || col >= this.width) {
+      throw new IndexOutOfBoundsException("Pixel is outside of the image");
+    }
+    int k = row * this.width + col;
+    return SingleImagePacked.pack(this.red[k] & 0xFF, this.green[k] & 0xFF, this.blue[k] & 0xFF,
+            this.alpha[k] & 0xFF);
+  }
+
+  /**
+   * Returns a new array of the image's pixels packed as ARGB in row-major order.
+   *
+   * @return an array of width * height packed pixels.
+   */
+  @Override
+  public int[] getPackedPixels() {
+    int[] packed = new int[this.width * this.height];
+    for (int i = 0; i < this.height; i++) {
+      getPackedRow(i, packed, i * this.width);
+    }
+    return packed;
+  }
+
+  /**
+   * Copies one row of the image's pixels packed as ARGB into the given array.
+   *
+   * @param row    the row to copy.
+   * @param dst    the array to copy the row into.
+   * @param offset the index in the array of the first pixel of the row.
+   */
+  @Override
+  public void getPackedRow(int row, int[] dst, int offset) {
+    int start = row * this.width;
+    for (int j = 0; j < this.width; j++) {
+      int k = start + j;
+      dst[offset + j] = SingleImagePacked.pack(this.red[k] & 0xFF, this.green[k] & 0xFF,
+              this.blue[k] & 0xFF, this.alpha[k] & 0xFF);
+    }
+  }
+
+  /**
+   * Marks the image as held by one more owner. Heap images are freed by the garbage collector,
+   * so owners are not counted.
+   */
+  @Override
+  public void retain() {
+    // nothing to count, the garbage collector frees the pixels.
+  }
+
+  /**
+   * Drops one owner of the image. Heap images are freed by the garbage collector, so owners are
+   * not counted.
+   */
+  @Override
+  public void release() {
+    // nothing to free, the garbage collector frees the pixels.
+  }
+
+  /**
+   * Returns the width of the image.
+   *
+   * @return the width of the image.
+   */
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  /**
+   * Returns the height of the image.
+   *
+   * @return the height of the image.
+   */
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Returns the maximum value of a color in the image.
+   *
+   * @return the maximum value of a color in the image.
+   */
+  @Override
+  public int getMaxValue() {
+    return this.maxValue;
+  }
+}
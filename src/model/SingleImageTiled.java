@@ -0,0 +1,452 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of the {@link SingleImage} interface for images larger than memory.
+ * The image is split into square tiles of packed ARGB pixels. Only a bounded number of tiles is
+ * kept in memory, the least recently used tile is written to a scratch file when another one is
+ * needed and read back the next time it is used.
+ * Every tile array holds {@code getTileSize() * getTileSize()} pixels in row-major order, tiles on
+ * the right and bottom edges only use the part that lies inside the image.
+ */
+public class SingleImageTiled implements WritableImage {
+  private static final int TILE_SIZE = 256;
+  private static long threshold = 1L << 28;
+  private static int cacheTiles = 256;
+
+  private final int width;
+  private final int height;
+  private final int maxValue;
+  private final int tilesAcross;
+  private final int tilesDown;
+  private final LinkedHashMap<Integer, int[]> cache;
+  private final BitSet dirty = new BitSet();
+  private final BitSet spilled = new BitSet();
+  private final AtomicInteger owners = new AtomicInteger();
+  private final ByteBuffer transfer = ByteBuffer.allocate(TILE_SIZE * TILE_SIZE * 4);
+  private File scratchFile = null;
+  private FileChannel scratch = null;
+  private boolean released = false;
+
+  /**
+   * Constructs a new tiled image with the given width, height and max value. Every pixel starts
+   * as zero and no tile is materialized until it is used.
+   *
+   * @param width    the width of the image.
+   * @param height   the height of the image.
+   * @param maxValue the max value of the image.
+   * @throws IllegalArgumentException if the width or height is negative or if the max value is
+   *                                  invalid.
+   */
+  public SingleImageTiled(int width, int height, int maxValue) throws IllegalArgumentException {
+    if (width < 0 || height < 0 || maxValue < 0 || maxValue > 255) {
+      throw new IllegalArgumentException("Invalid image dimensions");
+    }
+    this.width = width;
+    this.height = height;
+    this.maxValue = maxValue;
+    this.tilesAcross = (width + TILE_SIZE - 1) / TILE_SIZE;
+    this.tilesDown = (height + TILE_SIZE - 1) / TILE_SIZE;
+    // a full row of tiles always fits, so images written row by row never spill mid-band.
+    int capacity = Math.max(cacheTiles, this.tilesAcross + 1);
+    this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+        if (size() <= capacity) {
+          return false;
+        }
+        spill(eldest.getKey(), eldest.getValue());
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Returns whether images of the given size should be tiled.
+   *
+   * @param width  the width of the image.
+   * @param height the height of the image.
+   * @return true if the image has at least as many pixels as the tiled threshold.
+   */
+  public static boolean isPreferredFor(int width, int height) {
+    return (long) width * height >= threshold;
+  }
+
+  /**
+   * Sets the number of pixels from which new images are tiled.
+   *
+   * @param pixels the smallest number of pixels of a tiled image.
+   * @throws IllegalArgumentException if the number of pixels is not positive.
+   */
+  public static void setThreshold(long pixels) throws IllegalArgumentException {
+    if (pixels <= 0) {
+      throw new IllegalArgumentException("Tiled threshold must be positive.");
+    }
+    threshold = pixels;
+  }
+
+  /**
+   * Sets the number of tiles each new tiled image keeps in memory.
+   *
+   * @param tiles the number of tiles to keep in memory.
+   * @throws IllegalArgumentException if the number of tiles is not positive.
+   */
+  public static void setCacheTiles(int tiles) throws IllegalArgumentException {
+    if (tiles <= 0) {
+      throw new IllegalArgumentException("Tile cache must hold at least one tile.");
+    }
+    cacheTiles = tiles;
+  }
+
+  /**
+   * Returns the width and height of every tile.
+   *
+   * @return the size of a tile in pixels.
+   */
+  public int getTileSize() {
+    return TILE_SIZE;
+  }
+
+  /**
+   * Returns the number of tile columns of the image.
+   *
+   * @return the number of tiles across the image.
+   */
+  public int getTilesAcross() {
+    return this.tilesAcross;
+  }
+
+  /**
+   * Returns the number of tile rows of the image.
+   *
+   * @return the number of tiles down the image.
+   */
+  public int getTilesDown() {
+    return this.tilesDown;
+  }
+
+  /**
+   * Returns the number of columns of the given tile column that lie inside the image.
+   *
+   * @param tileCol the tile column.
+   * @return the width of the tiles in that column.
+   */
+  public int getTileWidth(int tileCol) {
+    return Math.min(TILE_SIZE, this.width - tileCol * TILE_SIZE);
+  }
+
+  /**
+   * Returns the number of rows of the given tile row that lie inside the image.
+   *
+   * @param tileRow the tile row.
+   * @return the height of the tiles in that row.
+   */
+  public int getTileHeight(int tileRow) {
+    return Math.min(TILE_SIZE, this.height - tileRow * TILE_SIZE);
+  }
+
+  /**
+   * Returns the pixels of a tile, reading it back from the scratch file if it was spilled.
+   * The array is shared with this image and must not be modified, use
+   * {@link #setTile(int, int, int[])} to change a tile.
+   *
+   * @param tileRow the tile row.
+   * @param tileCol the tile column.
+   * @return the packed pixels of the tile.
+   * @throws IndexOutOfBoundsException if the tile is outside of the image.
+   */
+  public synchronized int[] getTile(int tileRow, int tileCol) {
+    return tile(tileIndex(tileRow, tileCol));
+  }
+
+  /**
+   * Replaces the pixels of a tile. The image keeps the given array.
+   *
+   * @param tileRow the tile row.
+   * @param tileCol the tile column.
+   * @param tile    the new packed pixels of the tile.
+   * @throws IllegalArgumentException  if the tile does not hold a full tile of pixels.
+   * @throws IndexOutOfBoundsException if the tile is outside of the image.
+   */
+  public synchronized void setTile(int tileRow, int tileCol, int[] tile)
+          throws IllegalArgumentException {
+    if (tile == null || tile.length != TILE_SIZE * TILE_SIZE) {
+      throw new IllegalArgumentException("Tile must hold " + TILE_SIZE * TILE_SIZE + " pixels.");
+    }
+    int index = tileIndex(tileRow, tileCol);
+    checkOpen();
+    this.cache.put(index, tile);
+    this.dirty.set(index);
+  }
+
+  /**
+   * Copies a rectangle of the image's pixels packed as ARGB into the given array, one row after
+   * another. This is used to read a tile together with the halo of pixels around it.
+   *
+   * @param row    the first row of the rectangle.
+   * @param col    the first column of the rectangle.
+   * @param rows   the number of rows of the rectangle.
+   * @param cols   the number of columns of the rectangle.
+   * @param dst    the array to copy the rectangle into.
+   * @param offset the index in the array of the first pixel of the rectangle.
+   * @throws IndexOutOfBoundsException if the rectangle is not inside the image.
+   */
+  public synchronized void getRegion(int row, int col, int rows, int cols, int[] dst,
+                                     int offset) {
+    if (row < 0 || col < 0 || rows < 0 || cols < 0 || row + rows > this.height
+            || col + cols > this.width) {
+      throw new IndexOutOfBoundsException("Region is outside of the image");
+    }
+    for (int i = 0; i < rows; i++) {
+      copyRow(row + i, col, cols, dst, offset + i * cols);
+    }
+  }
+
+  // Copies part of one row of the image into dst, reading it from every tile it crosses.
+  private void copyRow(int row, int col, int cols, int[] dst, int offset) {
+    int tileRow = row / TILE_SIZE;
+    int tileOffset = (row % TILE_SIZE) * TILE_SIZE;
+    int j = col;
+    while (j < col + cols) {
+      int tileCol = j / TILE_SIZE;
+      int count = Math.min(col + cols, (tileCol + 1) * TILE_SIZE) - j;
+      int[] tile = tile(tileRow * this.tilesAcross + tileCol);
+      System.arraycopy(tile, tileOffset + j % TILE_SIZE, dst, offset + j - col, count);
+      j += count;
+    }
+  }
+
+  // Returns the index of a tile, failing if it is outside of the image.
+  private int tileIndex(int tileRow, int tileCol) {
+    if (tileRow < 0 || tileRow >= this.tilesDown || tileCol < 0 || tileCol >= this.tilesAcross) {
+      throw new IndexOutOfBoundsException("Tile is outside of the image");
+    }
+    return tileRow * this.tilesAcross + tileCol;
+  }
+
+  // Returns a tile from the cache, loading it from the scratch file or creating it if needed.
+  private int[] tile(int index) {
+    checkOpen();
+    int[] tile = this.cache.get(index);
+    if (tile != null) {
+      return tile;
+    }
+    tile = new int[TILE_SIZE * TILE_SIZE];
+    if (this.spilled.get(index)) {
+      try {
+        this.transfer.clear();
+        long position = (long) index * this.transfer.capacity();
+        while (this.transfer.hasRemaining()) {
+          if (this.scratch.read(this.transfer, position + this.transfer.position()) < 0) {
+            throw new IOException("Scratch file is truncated.");
+          }
+        }
+        this.transfer.flip();
+        this.transfer.asIntBuffer().get(tile);
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not read tile from scratch file: "
+                + e.getMessage());
+      }
+    }
+    this.cache.put(index, tile);
+    return tile;
+  }
+
+  // Writes an evicted tile to the scratch file if it changed since it was last written.
+  private void spill(int index, int[] tile) {
+    if (!this.dirty.get(index)) {
+      return;
+    }
+    try {
+      if (this.scratch == null) {
+        this.scratchFile = File.createTempFile("image", ".tiles");
+        this.scratchFile.deleteOnExit();
+        this.scratch = new RandomAccessFile(this.scratchFile, "rw").getChannel();
+      }
+      this.transfer.clear();
+      this.transfer.asIntBuffer().put(tile);
+      long position = (long) index * this.transfer.capacity();
+      while (this.transfer.hasRemaining()) {
+        this.scratch.write(this.transfer, position + this.transfer.position());
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not spill tile to scratch file: " + e.getMessage());
+    }
+    this.dirty.clear(index);
+    this.spilled.set(index);
+  }
+
+  // Fails if the image has already been released.
+  private void checkOpen() {
+    if (this.released) {
+      throw new IllegalStateException("Image has been released.");
+    }
+  }
+
+  /**
+   * Copies one row of packed ARGB pixels from the given array into the image.
+   *
+   * @param row    the row to write.
+   * @param src    the array holding the new pixels of the row.
+   * @param offset the index in the array of the first pixel of the row.
+   */
+  @Override
+  public synchronized void setPackedRow(int row, int[] src, int offset) {
+    int tileRow = row / TILE_SIZE;
+    int tileOffset = (row % TILE_SIZE) * TILE_SIZE;
+    for (int tileCol = 0; tileCol < this.tilesAcross; tileCol++) {
+      int index = tileRow * this.tilesAcross + tileCol;
+      System.arraycopy(src, offset + tileCol * TILE_SIZE, tile(index), tileOffset,
+              getTileWidth(tileCol));
+      this.dirty.set(index);
+    }
+  }
+
+  /**
+   * Returns a copy of an image's pixels. This builds a new {@link RGB} object per pixel and is
+   * only kept for compatibility.
+   *
+   * @return a 2D RGB array of pixels.
+   */
+  @Override
+  public RGB[][] getPixels() {
+    RGB[][] copy = new RGB[this.height][this.width];
+    int[] row = new int[this.width];
+    for (int i = 0; i < this.height; i++) {
+      getPackedRow(i, row, 0);
+      for (int j = 0; j < this.width; j++) {
+        copy[i][j] = new RGBImpl(row[j] >> 16 & 0xFF, row[j] >> 8 & 0xFF, row[j] & 0xFF,
+                row[j] >>> 24);
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Returns an image's pixel at a given width and height.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return a pixel.
+   */
+  @Override
+  public String getPixel(int row, int col) {
+    int pixel = getPackedPixel(row, col);
+    return (pixel >> 16 & 0xFF) + " " + (pixel >> 8 & 0xFF) + " " + (pixel & 0xFF) + " ";
+  }
+
+  /**
+   * Returns an image's pixel at a given row and column packed as ARGB.
+   *
+   * @param row the row of the pixel
+   * @param col the column of the pixel
+   * @return the packed pixel.
+   */
+  @Override
+  public synchronized int getPackedPixel(int row, int col) {
+    if (row < 0 || row >= this.height || col < 0 || col >= this.width) {
+      throw new IndexOutOfBoundsException("Pixel is outside of the image");
+    }
+    int[] tile = tile((row / TILE_SIZE) * this.tilesAcross + col / TILE_SIZE);
+    return tile[(row % TILE_SIZE) * TILE_SIZE + col % TILE_SIZE];
+  }
+
+  /**
+   * Returns a new heap array of the image's pixels packed as ARGB in row-major order. This holds
+   * the whole image in memory, prefer {@link #getTile(int, int)} or
+   * {@link #getPackedRow(int, int[], int)}.
+   *
+   * @return an array of width * height packed pixels.
+   */
+  @Override
+  public int[] getPackedPixels() {
+    int[] packed = new int[this.width * this.height];
+    for (int i = 0; i < this.height; i++) {
+      getPackedRow(i, packed, i * this.width);
+    }
+    return packed;
+  }
+
+  /**
+   * Copies one row of the image's pixels packed as ARGB into the given array.
+   *
+   * @param row    the row to copy.
+   * @param dst    the array to copy the row into.
+   * @param offset the index in the array of the first pixel of the row.
+   */
+  @Override
+  public synchronized void getPackedRow(int row, int[] dst, int offset) {
+    copyRow(row, 0, this.width, dst, offset);
+  }
+
+  /**
+   * Marks the image as held by one more owner, such as a gallery entry.
+   */
+  @Override
+  public void retain() {
+    owners.incrementAndGet();
+  }
+
+  /**
+   * Drops one owner of the image and deletes its tiles and scratch file once no owner is left.
+   * The image can no longer be read after it has been freed.
+   */
+  @Override
+  public void release() {
+    if (owners.decrementAndGet() > 0) {
+      return;
+    }
+    synchronized (this) {
+      this.released = true;
+      this.cache.clear();
+      if (this.scratch != null) {
+        try {
+          this.scratch.close();
+        } catch (IOException e) {
+          // the file is still deleted below or when the program exits.
+        }
+        this.scratchFile.delete();
+        this.scratch = null;
+      }
+    }
+  }
+
+  /**
+   * Returns the width of the image.
+   *
+   * @return the width of the image.
+   */
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  /**
+   * Returns the height of the image.
+   *
+   * @return the height of the image.
+   */
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Returns the maximum value of a color in the image.
+   *
+   * @return the maximum value of a color in the image.
+   */
+  @Override
+  public int getMaxValue() {
+    return this.maxValue;
+  }
+}
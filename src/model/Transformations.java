@@ -1,5 +1,7 @@
 package model;
 
+import java.util.List;
+
 /**
  * Represents transformation operations used by the controller in the runProgram method.
  * The transformation operations are performed on given {@link SingleImage} and
@@ -63,6 +65,46 @@ public interface Transformations {
    */
   SingleImage flipVertical();
 
+  /**
+   * Rotates an image a quarter turn clockwise.
+   *
+   * @return the rotated image, as wide as the source is high.
+   */
+  SingleImage rotate90();
+
+  /**
+   * Rotates an image half a turn.
+   *
+   * @return the rotated image.
+   */
+  SingleImage rotate180();
+
+  /**
+   * Rotates an image three quarter turns clockwise, which is a quarter turn counterclockwise.
+   *
+   * @return the rotated image, as wide as the source is high.
+   */
+  SingleImage rotate270();
+
+  /**
+   * Rotates an image clockwise by any angle with bilinear interpolation. The new image is large
+   * enough to hold the whole rotated image.
+   *
+   * @param degrees    the clockwise angle to rotate by.
+   * @param background the packed ARGB color, alpha included, of the area not covered by the
+   *                   rotated image.
+   * @return the rotated image.
+   * @throws IllegalArgumentException if the angle is not finite.
+   */
+  SingleImage rotate(double degrees, int background) throws IllegalArgumentException;
+
+  /**
+   * Transposes an image, so row i of the new image is column i of the source.
+   *
+   * @return the transposed image, as wide as the source is high.
+   */
+  SingleImage transpose();
+
   /**
    * Brightens an image by a given factor. If the factor is positive, the image is brightened.
    * If the factor is negative, the image is darkened.
@@ -80,4 +122,57 @@ public interface Transformations {
    * @param newHeight the height of the downscaled image.
    */
   SingleImage downscale(int newWidth, int newHeight);
+
+  /**
+   * Resizes an image to any width and height, larger or smaller, with the given filter.
+   *
+   * @param newWidth  the width of the resized image.
+   * @param newHeight the height of the resized image.
+   * @param filter    the filter to sample the image with.
+   * @return the resized image.
+   * @throws IllegalArgumentException if the new size is not positive or the filter is null.
+   */
+  SingleImage resize(int newWidth, int newHeight, ResizeFilter filter)
+          throws IllegalArgumentException;
+
+  /**
+   * Builds the given number of levels of a mipmap pyramid, each level half the width and height
+   * of the one before it.
+   *
+   * @param levels the number of levels to build.
+   * @return the levels, largest first.
+   * @throws IllegalArgumentException if levels is not positive or the image is too small to be
+   *                                  halved that many times.
+   */
+  List<SingleImage> pyramid(int levels) throws IllegalArgumentException;
+
+  /**
+   * Crops an image to the rectangle of the given size starting at the given column and row.
+   *
+   * @param x         the column where the cropped image starts.
+   * @param y         the row where the cropped image starts.
+   * @param newWidth  the width of the cropped image.
+   * @param newHeight the height of the cropped image.
+   * @return a cropped image.
+   * @throws IllegalArgumentException if the rectangle is not inside the image.
+   */
+  SingleImage crop(int x, int y, int newWidth, int newHeight) throws IllegalArgumentException;
+
+  /**
+   * Applies a lookup table to every pixel.
+   *
+   * @param table the table to apply.
+   * @return the new image.
+   * @throws IllegalArgumentException if the table is null.
+   */
+  SingleImage lookup(LookupTable table) throws IllegalArgumentException;
+
+  /**
+   * Applies a chain of point operations to every pixel in a single pass.
+   *
+   * @param operation the operation to apply.
+   * @return the new image.
+   * @throws IllegalArgumentException if the operation is null.
+   */
+  SingleImage pointOperation(PointOperation operation) throws IllegalArgumentException;
 }
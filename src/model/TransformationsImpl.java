@@ -1,16 +1,83 @@
 package model;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 /**
  * Implements {@link Transformations} interface to handle the transformation operations.
  * Performs transformations on a {@link SingleImage} and returns an updated {@link SingleImage}.
+ * Pixels are read and written as packed ARGB integers, so no objects are created per pixel.
+ * Masked operations that work on each channel on its own (color components, value and brighten)
+ * use the planar layout of {@link SingleImagePlanar} instead and return planar images.
+ * Images that are not packed on the heap, such as {@link SingleImageOffHeap}, are read one row at
+ * a time, and results large enough to live off-heap are written there one row at a time.
+ * Point operations on a {@link SingleImageTiled} run one tile at a time.
+ * Flips, crops and unmasked lookup tables, such as brighten and color components, return views
+ * that share the pixels of the source.
+ * In place, see {@link #setInPlace(boolean)}, the other point operations write over the pixels
+ * of the source instead of allocating a new image.
+ * A mask is read once into {@link MaskSpans}, and masked operations only transform the editable
+ * spans of each row, copying masked pixels straight from the source. A region, see
+ * {@link #setRegion}, works as a rectangular mask. When the editable pixels fit in a rectangle of
+ * at most half the image, only that rectangle is transformed and the result is a
+ * {@link SingleImagePatched} view of the source.
+ * Every operation runs on bands of rows through {@link RowExecutor}.
+ * Color matrices run on vectors of pixels when the optional {@code VectorColorMatrix} kernel and
+ * the {@code jdk.incubator.vector} module are available, and with the fixed-point integer code of
+ * {@link ColorMatrix} otherwise.
  */
 public class TransformationsImpl implements Transformations {
-  protected final RGB[][] image;
+  private static final ColorMatrixKernel MATRIX_KERNEL = loadMatrixKernel();
+  // the side of the square blocks images are turned in.
+  private static final int TURN_BLOCK = 64;
+  // one pixel in the fixed point source coordinates of a rotation.
+  private static final double ONE = 1 << 16;
+  protected final SingleImage source;
+  private int[] packed = null;
+  private byte[][] planes = null;
   protected final int width;
   protected final int height;
   protected final int maxValue;
   protected boolean hasMask = false;
-  protected RGB[][] maskImage = null;
+  MaskSpans mask = null;
+  private final int[] wholeRow;
+  private boolean inPlace = false;
+
+  /**
+   * Transforms a run of packed pixels that lie in one row of the image.
+   */
+  protected interface RowKernel {
+
+    /**
+     * Transforms the given number of pixels from the source array into the destination array.
+     *
+     * @param src       the source pixels.
+     * @param srcOffset the index in the source array of the first pixel.
+     * @param dst       the array to write the transformed pixels into.
+     * @param dstOffset the index in the destination array of the first pixel.
+     * @param index     the index of the first pixel in the image, used to look up the mask.
+     * @param count     the number of pixels to transform.
+     */
+    void apply(int[] src, int srcOffset, int[] dst, int dstOffset, int index, int count);
+  }
+
+  /**
+   * Produces the packed pixels of one row of a new image.
+   */
+  protected interface RowProducer {
+
+    /**
+     * Writes every pixel of the given row of the new image into the destination array.
+     *
+     * @param row       the row of the new image.
+     * @param dst       the array to write the row into.
+     * @param dstOffset the index in the destination array of the first pixel of the row.
+     */
+    void produce(int row, int[] dst, int dstOffset);
+  }
 
   /**
    * Constructor to get the fields of the image.
@@ -18,10 +85,15 @@ public class TransformationsImpl implements Transformations {
    * @param image the image to transform.
    */
   public TransformationsImpl(SingleImage image) {
-    this.image = image.getPixels();
+    this.source = image;
+    // bands read the backing array of a packed source in parallel, so it is looked up up front.
+    if (image instanceof SingleImagePacked) {
+      this.packed = image.getPackedPixels();
+    }
     this.width = image.getWidth();
     this.height = image.getHeight();
     this.maxValue = image.getMaxValue();
+    this.wholeRow = new int[]{0, this.width};
   }
 
   /**
@@ -33,51 +105,506 @@ public class TransformationsImpl implements Transformations {
   public TransformationsImpl(SingleImage srcImage, SingleImage maskImage)
           throws IllegalArgumentException {
     this(srcImage);
-    hasMask = true;
-    this.maskImage = maskImage.getPixels();
     if (this.width != maskImage.getWidth() || this.height != maskImage.getHeight()) {
       throw new IllegalArgumentException("Mask image width or height does not match source image.");
     }
+    this.mask = MaskSpans.of(maskImage);
+    // a mask that keeps no pixel changes nothing, so the operations run as if unmasked.
+    hasMask = !this.mask.isNoneMasked();
+  }
+
+  /**
+   * Constructor to get the fields of the image and a mask that has already been read.
+   *
+   * @param srcImage the image to transform.
+   * @param mask     the spans of the mask, of the size of the image.
+   */
+  TransformationsImpl(SingleImage srcImage, MaskSpans mask) {
+    this(srcImage);
+    this.mask = mask;
+    hasMask = !mask.isNoneMasked();
+  }
+
+  /**
+   * Sets whether point operations write their result over the pixels of the source instead of
+   * into a new image, which saves allocating and later collecting a whole image. This only
+   * happens when the source is a packed, off-heap or tiled image, or a lookup view of one, and
+   * the source is then returned. It must only be set when nothing else reads the source: not
+   * another name in a gallery, not a view, and not the mask.
+   *
+   * @param inPlace whether point operations may write over the source.
+   */
+  public void setInPlace(boolean inPlace) {
+    this.inPlace = inPlace;
+  }
+
+  /**
+   * Limits the operations to a rectangle of the image, so every pixel outside of it keeps its
+   * source value as if it were masked. With a mask, only the pixels the mask leaves editable
+   * inside the rectangle change.
+   *
+   * @param x      the first column of the rectangle.
+   * @param y      the first row of the rectangle.
+   * @param width  the width of the rectangle.
+   * @param height the height of the rectangle.
+   * @throws IllegalArgumentException if the rectangle is empty or not inside the image.
+   */
+  public void setRegion(int x, int y, int width, int height) throws IllegalArgumentException {
+    if (x < 0 || y < 0 || width <= 0 || height <= 0 || (long) x + width > this.width
+            || (long) y + height > this.height) {
+      throw new IllegalArgumentException("Region is outside of the image.");
+    }
+    if (mask == null) {
+      mask = MaskSpans.rectangle(this.width, this.height, x, y, width, height);
+    } else {
+      mask = mask.within(x, y, width, height);
+    }
+    hasMask = !mask.isNoneMasked();
+  }
+
+  // Returns the image point operations write over in place, or null if they make a new image. A
+  // lookup view reads row i of its base for its own row i, so its base can be written over too.
+  private WritableImage inPlaceTarget() {
+    if (!inPlace) {
+      return null;
+    }
+    if (source instanceof WritableImage) {
+      return (WritableImage) source;
+    }
+    if (source instanceof SingleImageLookup
+            && ((SingleImageLookup) source).getBase() instanceof WritableImage) {
+      return (WritableImage) ((SingleImageLookup) source).getBase();
+    }
+    return null;
   }
 
   protected int clamp(int value) {
     return Math.max(0, Math.min(255, value));
   }
 
+  // Only images packed on the heap are read in place, every other layout is read row by row.
+  protected boolean readsByRow() {
+    return !(source instanceof SingleImagePacked);
+  }
+
+  // Returns the backing array of a source packed on the heap.
+  protected int[] image() {
+    if (packed == null) {
+      packed = source.getPackedPixels();
+    }
+    return packed;
+  }
+
+  // Copies one row of the source into the given array.
+  protected void readRow(int row, int[] dst, int offset) {
+    if (readsByRow()) {
+      source.getPackedRow(row, dst, offset);
+    } else {
+      System.arraycopy(image(), row * this.width, dst, offset, this.width);
+    }
+  }
+
+  // Copies a rectangle of the source into the given array, cols pixels for each row. Images that
+  // are read by row and cannot copy a rectangle, such as views, are read a whole row at a time
+  // into scratch, which must hold a row of the source.
+  protected void readRegion(int row, int col, int rows, int cols, int[] dst, int offset,
+                            int[] scratch) {
+    if (!readsByRow()) {
+      int[] image = image();
+      for (int i = 0; i < rows; i++) {
+        System.arraycopy(image, (row + i) * this.width + col, dst, offset + i * cols, cols);
+      }
+    } else if (source instanceof SingleImageTiled) {
+      ((SingleImageTiled) source).getRegion(row, col, rows, cols, dst, offset);
+    } else if (source instanceof SingleImageOffHeap) {
+      ((SingleImageOffHeap) source).getRegion(row, col, rows, cols, dst, offset);
+    } else {
+      for (int i = 0; i < rows; i++) {
+        source.getPackedRow(row + i, scratch, 0);
+        System.arraycopy(scratch, col, dst, offset + i * cols, cols);
+      }
+    }
+  }
+
+  // Channel-wise operations work on planes unless the image is too large to live on the heap or
+  // they write over the source in place.
+  private boolean usesPlanes() {
+    return inPlaceTarget() == null
+            && !(source instanceof SingleImageOffHeap) && !(source instanceof SingleImageTiled)
+            && !SingleImageOffHeap.isPreferredFor(this.width, this.height)
+            && !SingleImageTiled.isPreferredFor(this.width, this.height);
+  }
+
+  // Returns the red, green, blue and alpha planes of the source, converting them only the first
+  // time they are used.
+  protected byte[][] planes() {
+    if (planes == null) {
+      SingleImagePlanar planar = source instanceof SingleImagePlanar
+              ? (SingleImagePlanar) source : new SingleImagePlanar(source);
+      planes = new byte[][]{planar.getRedPlane(), planar.getGreenPlane(), planar.getBluePlane(),
+                            planar.getAlphaPlane()};
+    }
+    return planes;
+  }
+
+  // Returns a new planar image with the given planes and the dimensions of the source.
+  private SingleImage planarImage(byte[] red, byte[] green, byte[] blue, byte[] alpha) {
+    return new SingleImagePlanar(this.width, this.height, this.maxValue, red, green, blue, alpha);
+  }
+
+  // if mask color channels are non-zero, the pixel at the given index is not transformed.
+  protected boolean isMasked(int index) {
+    return hasMask && mask.isMasked(index);
+  }
+
+  // Returns whether the mask keeps every pixel, so a masked operation returns the source.
+  protected boolean allMasked() {
+    return hasMask && mask.isAllMasked();
+  }
+
+  // Returns the start and end columns of each editable span of a row, the whole row without a
+  // mask. The array is shared and must not be modified.
+  protected int[] editableSpans(int row) {
+    return hasMask ? mask.getSpans(row) : wholeRow;
+  }
+
+  // Returns whether any pixel of the given row between columns first and last is editable.
+  private boolean hasEditable(int row, int first, int last) {
+    int[] spans = editableSpans(row);
+    for (int s = 0; s < spans.length; s += 2) {
+      if (spans[s] < last && spans[s + 1] > first) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Applies the kernel to the editable pixels of the given row between columns first and last,
+  // where src and dst hold column first at the given offsets. Masked pixels of dst are left as
+  // they are.
+  private void applySpans(RowKernel kernel, int row, int first, int last, int[] src,
+                          int srcOffset, int[] dst, int dstOffset) {
+    int[] spans = editableSpans(row);
+    for (int s = 0; s < spans.length; s += 2) {
+      int from = Math.max(spans[s], first);
+      int to = Math.min(spans[s + 1], last);
+      if (from < to) {
+        kernel.apply(src, srcOffset + from - first, dst, dstOffset + from - first,
+                row * this.width + from, to - from);
+      }
+    }
+  }
+
   /**
-   * Transforms pixels with a given color matrix.
+   * Creates a new image of the given size row by row. The new image is laid out by
+   * {@link WritableImage#create}, images packed on the heap are written in place and every other
+   * layout is written one row at a time. The rows are split into bands run by
+   * {@link RowExecutor}, and every band gets its own producer from the given supplier, so a
+   * producer can keep its own row buffers.
    *
-   * @param color matrix to transform pixels with.
-   * @return a new image with the transformed pixels.
-   * @throws IllegalArgumentException if the given matrix is not size 9
-   */
-  private SingleImage colorTransformation(double[] color) throws IllegalArgumentException {
-    if (color.length != 9) {
-      throw new IllegalArgumentException("Color transformation matrix must be of size 9");
-    }
-    RGB[][] newImage = new RGB[this.height][this.width];
-    for (int i = 0; i < this.height; i++) {
-      for (int j = 0; j < this.width; j++) {
-        int r = image[i][j].getRed();
-        int g = image[i][j].getGreen();
-        int b = image[i][j].getBlue();
-        if (hasMask) {
-          int maskRed = maskImage[i][j].getRed();
-          int maskGreen = maskImage[i][j].getGreen();
-          int maskBlue = maskImage[i][j].getBlue();
-          // if mask color channels are non-zero, skip transformation.
-          if (maskRed > 0 || maskGreen > 0 || maskBlue > 0) {
-            newImage[i][j] = new RGBImpl(r, g, b, image[i][j].getAlpha());
+   * @param newWidth  the width of the new image.
+   * @param newHeight the height of the new image.
+   * @param producers the supplier of a producer for each band of rows.
+   * @return the new image.
+   */
+  protected SingleImage produceRows(int newWidth, int newHeight,
+                                    Supplier<RowProducer> producers) {
+    WritableImage newImage = WritableImage.create(newWidth, newHeight, this.maxValue);
+    if (newImage instanceof SingleImagePacked) {
+      int[] pixels = newImage.getPackedPixels();
+      RowExecutor.forEachBand(newHeight, (first, last) -> {
+        RowProducer producer = producers.get();
+        for (int i = first; i < last; i++) {
+          producer.produce(i, pixels, i * newWidth);
+        }
+      });
+      return newImage;
+    }
+    RowExecutor.forEachBand(newHeight, (first, last) -> {
+      RowProducer producer = producers.get();
+      int[] row = new int[newWidth];
+      for (int i = first; i < last; i++) {
+        producer.produce(i, row, 0);
+        newImage.setPackedRow(i, row, 0);
+      }
+    });
+    return newImage;
+  }
+
+  // Transforms part of the image with the part of the mask over it.
+  protected TransformationsImpl part(SingleImage image, MaskSpans mask) {
+    return new TransformationsImpl(image, mask);
+  }
+
+  /**
+   * Transforms only the rectangle of editable pixels, grown by the number of pixels around a
+   * pixel the operation reads, when it is at most half of the image. The rectangle is copied out
+   * and transformed as an image of its own, see {@link #part}, and the result is a view of the
+   * source with it patched in, so the rest of the source is shared instead of copied. A patched
+   * source is patched again over its base, with the rectangle grown to cover the old patch, so
+   * views do not pile up.
+   *
+   * @param reachRows the number of rows above and below a pixel the operation reads.
+   * @param reachCols the number of columns on each side of a pixel the operation reads.
+   * @param operation the operation to run on the part of the image.
+   * @return the patched view, or null if the whole image should be transformed.
+   */
+  protected SingleImage patched(int reachRows, int reachCols,
+                                Function<TransformationsImpl, SingleImage> operation) {
+    if (!hasMask) {
+      return null;
+    }
+    int top = Math.max(0, mask.getTop() - reachRows);
+    int bottom = Math.min(this.height, mask.getBottom() + reachRows);
+    int left = Math.max(0, mask.getLeft() - reachCols);
+    int right = Math.min(this.width, mask.getRight() + reachCols);
+    SingleImage base = source;
+    if (source instanceof SingleImagePatched) {
+      SingleImagePatched patched = (SingleImagePatched) source;
+      base = patched.getBase();
+      top = Math.min(top, patched.getY());
+      bottom = Math.max(bottom, patched.getY() + patched.getPatch().getHeight());
+      left = Math.min(left, patched.getX());
+      right = Math.max(right, patched.getX() + patched.getPatch().getWidth());
+    }
+    int rows = bottom - top;
+    int cols = right - left;
+    if (2L * rows * cols > (long) this.width * this.height) {
+      return null;
+    }
+    int[] region = new int[rows * cols];
+    readRegion(top, left, rows, cols, region, 0, new int[this.width]);
+    TransformationsImpl part = part(new SingleImagePacked(cols, rows, this.maxValue, region),
+            mask.crop(top, left, rows, cols));
+    return new SingleImagePatched(base, operation.apply(part), left, top);
+  }
+
+  /**
+   * Creates a new image of the same size by transforming every row of the source. Tiled images
+   * are transformed one tile at a time into a new tiled image. With a mask the kernel only sees
+   * the editable spans of each row and masked pixels are copied from the source, and when every
+   * pixel is masked the source is returned.
+   *
+   * @param kernel the transformation of each row.
+   * @return the new image.
+   */
+  protected SingleImage mapRows(RowKernel kernel) {
+    if (allMasked()) {
+      return source;
+    }
+    WritableImage target = inPlaceTarget();
+    if (target != null) {
+      return mapInPlace(target, kernel);
+    }
+    SingleImage patched = patched(0, 0, part -> part.mapRows(kernel));
+    if (patched != null) {
+      return patched;
+    }
+    if (source instanceof SingleImageTiled) {
+      return mapTiles((SingleImageTiled) source, kernel);
+    }
+    if (readsByRow()) {
+      return produceRows(this.width, this.height, () -> {
+        int[] row = new int[this.width];
+        return (i, dst, offset) -> {
+          source.getPackedRow(i, row, 0);
+          if (hasMask) {
+            System.arraycopy(row, 0, dst, offset, this.width);
+          }
+          applySpans(kernel, i, 0, this.width, row, 0, dst, offset);
+        };
+      });
+    }
+    int[] image = image();
+    return produceRows(this.width, this.height, () -> (i, dst, offset) -> {
+      if (hasMask) {
+        System.arraycopy(image, i * this.width, dst, offset, this.width);
+      }
+      applySpans(kernel, i, 0, this.width, image, i * this.width, dst, offset);
+    });
+  }
+
+  // Transforms every row of every tile, so only a bounded number of tiles is ever in memory.
+  // Tiles are numbered in row-major order and split into bands of tiles.
+  private SingleImage mapTiles(SingleImageTiled tiled, RowKernel kernel) {
+    SingleImageTiled newImage = new SingleImageTiled(this.width, this.height, this.maxValue);
+    int size = tiled.getTileSize();
+    int across = tiled.getTilesAcross();
+    RowExecutor.forEachBand(tiled.getTilesDown() * across, (first, last) -> {
+      for (int t = first; t < last; t++) {
+        int tileRow = t / across;
+        int tileCol = t % across;
+        int[] tile = tiled.getTile(tileRow, tileCol);
+        int[] newTile = new int[size * size];
+        int cols = tiled.getTileWidth(tileCol);
+        for (int r = 0; r < tiled.getTileHeight(tileRow); r++) {
+          if (hasMask) {
+            System.arraycopy(tile, r * size, newTile, r * size, cols);
+          }
+          applySpans(kernel, tileRow * size + r, tileCol * size, tileCol * size + cols, tile,
+                  r * size, newTile, r * size);
+        }
+        newImage.setTile(tileRow, tileCol, newTile);
+      }
+    });
+    return newImage;
+  }
+
+  // Transforms every row of the source and writes it over the same row of the target. Each row is
+  // copied out first, so a kernel never reads a pixel it has already written, and a tiled source
+  // is written tile by tile. When the target is the source, masked pixels are already in place,
+  // so only the editable spans are read and written and tiles without any are skipped.
+  private SingleImage mapInPlace(WritableImage target, RowKernel kernel) {
+    MaskSpans.forget(target);
+    if (target == source && target instanceof SingleImageTiled) {
+      SingleImageTiled tiled = (SingleImageTiled) target;
+      int size = tiled.getTileSize();
+      int across = tiled.getTilesAcross();
+      RowExecutor.forEachBand(tiled.getTilesDown() * across, (first, last) -> {
+        int[] row = new int[size];
+        for (int t = first; t < last; t++) {
+          int tileRow = t / across;
+          int tileCol = t % across;
+          int cols = tiled.getTileWidth(tileCol);
+          int rows = tiled.getTileHeight(tileRow);
+          int firstCol = tileCol * size;
+          boolean editable = false;
+          for (int r = 0; r < rows && !editable; r++) {
+            editable = hasEditable(tileRow * size + r, firstCol, firstCol + cols);
+          }
+          if (!editable) {
             continue;
           }
+          int[] tile = tiled.getTile(tileRow, tileCol);
+          for (int r = 0; r < rows; r++) {
+            System.arraycopy(tile, r * size, row, 0, cols);
+            applySpans(kernel, tileRow * size + r, firstCol, firstCol + cols, row, 0, tile,
+                    r * size);
+          }
+          tiled.setTile(tileRow, tileCol, tile);
+        }
+      });
+      return target;
+    }
+    int[] pixels = target instanceof SingleImagePacked ? target.getPackedPixels() : null;
+    boolean same = target == source;
+    RowExecutor.forEachBand(this.height, (first, last) -> {
+      int[] row = new int[this.width];
+      int[] newRow = pixels == null ? new int[this.width] : null;
+      for (int i = first; i < last; i++) {
+        int[] spans = editableSpans(i);
+        if (same && spans.length == 0) {
+          continue;
+        }
+        if (pixels != null) {
+          int start = i * this.width;
+          if (same) {
+            for (int s = 0; s < spans.length; s += 2) {
+              System.arraycopy(pixels, start + spans[s], row, spans[s], spans[s + 1] - spans[s]);
+            }
+          } else {
+            // the masked pixels of a view differ from its base, so they are written too.
+            readRow(i, row, 0);
+            if (hasMask) {
+              System.arraycopy(row, 0, pixels, start, this.width);
+            }
+          }
+          applySpans(kernel, i, 0, this.width, row, 0, pixels, start);
+        } else {
+          readRow(i, row, 0);
+          if (hasMask) {
+            System.arraycopy(row, 0, newRow, 0, this.width);
+          }
+          applySpans(kernel, i, 0, this.width, row, 0, newRow, 0);
+          target.setPackedRow(i, newRow, 0);
+        }
+      }
+    });
+    return target;
+  }
+
+  // Runs the given work on the pixel indices of every editable span of the source, in bands of
+  // rows. Without a mask each span is a whole row.
+  private void forEachSpan(RowExecutor.Band band) {
+    RowExecutor.forEachBand(this.height, (first, last) -> {
+      for (int i = first; i < last; i++) {
+        int[] spans = editableSpans(i);
+        for (int s = 0; s < spans.length; s += 2) {
+          band.run(i * this.width + spans[s], i * this.width + spans[s + 1]);
         }
-        int red = (int) Math.round((r * color[0]) + (g * color[1]) + (b * color[2]));
-        int green = (int) Math.round((r * color[3]) + (g * color[4]) + (b * color[5]));
-        int blue = (int) Math.round((r * color[6]) + (g * color[7]) + (b * color[8]));
-        newImage[i][j] = new RGBImpl(clamp(red), clamp(green), clamp(blue), image[i][j].getAlpha());
       }
+    });
+  }
+
+  /**
+   * Transforms pixels with a given color matrix.
+   *
+   * @param color matrix to transform pixels with.
+   * @return a new image with the transformed pixels.
+   */
+  private SingleImage colorTransformation(ColorMatrix color) {
+    // mapRows only hands the kernel editable spans, so the kernel needs no mask.
+    return mapRows((src, srcOffset, dst, dstOffset, index, count) ->
+            MATRIX_KERNEL.apply(color, src, srcOffset, dst, dstOffset, null, index, count));
+  }
+
+  /**
+   * Applies a 3x3 color matrix to a run of packed pixels one pixel at a time with double math and
+   * {@link Math#round}. This is the reference for {@link ColorMatrix} and every
+   * {@link ColorMatrixKernel}.
+   *
+   * @param matrix     the color matrix in row-major order.
+   * @param src        the source pixels.
+   * @param srcOffset  the index in the source array of the first pixel.
+   * @param dst        the array to write the transformed pixels into.
+   * @param dstOffset  the index in the destination array of the first pixel.
+   * @param mask       the packed mask pixels, or null if no pixel is masked.
+   * @param maskOffset the index in the mask of the first pixel.
+   * @param count      the number of pixels to transform.
+   */
+  static void applyMatrix(double[] matrix, int[] src, int srcOffset, int[] dst, int dstOffset,
+                          int[] mask, int maskOffset, int count) {
+    for (int k = 0; k < count; k++) {
+      int pixel = src[srcOffset + k];
+      if (mask != null && (mask[maskOffset + k] & 0xFFFFFF) != 0) {
+        dst[dstOffset + k] = pixel;
+        continue;
+      }
+      int r = pixel >> 16 & 0xFF;
+      int g = pixel >> 8 & 0xFF;
+      int b = pixel & 0xFF;
+      long red = Math.round((r * matrix[0]) + (g * matrix[1]) + (b * matrix[2]));
+      long green = Math.round((r * matrix[3]) + (g * matrix[4]) + (b * matrix[5]));
+      long blue = Math.round((r * matrix[6]) + (g * matrix[7]) + (b * matrix[8]));
+      dst[dstOffset + k] = SingleImagePacked.pack((int) Math.max(0, Math.min(255, red)),
+              (int) Math.max(0, Math.min(255, green)), (int) Math.max(0, Math.min(255, blue)),
+              pixel >>> 24);
     }
-    return new SingleImageImpl(this.width, this.height, this.maxValue, newImage);
+  }
+
+  // Uses the vector kernel when its class from src-vector and the jdk.incubator.vector module are
+  // available and it matches the double reference on a sample of pixels, and the fixed-point
+  // kernel otherwise.
+  private static ColorMatrixKernel loadMatrixKernel() {
+    ColorMatrixKernel scalar = ColorMatrix::apply;
+    try {
+      ColorMatrixKernel vector = (ColorMatrixKernel) Class.forName("model.VectorColorMatrix")
+              .getDeclaredConstructor().newInstance();
+      int[] sample = new int[256];
+      for (int k = 0; k < sample.length; k++) {
+        sample[k] = k * 0x01030507 ^ k << 11;
+      }
+      int[] expected = new int[sample.length];
+      int[] actual = new int[sample.length];
+      applyMatrix(ColorMatrix.SEPIA.values(), sample, 0, expected, 0, null, 0, sample.length);
+      vector.apply(ColorMatrix.SEPIA, sample, 0, actual, 0, null, 0, sample.length);
+      if (Arrays.equals(expected, actual)) {
+        return vector;
+      }
+    } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+      // the module is not available, so the fixed-point kernel is used.
+    }
+    return scalar;
   }
 
   /**
@@ -87,9 +614,7 @@ public class TransformationsImpl implements Transformations {
    */
   @Override
   public SingleImage greyScale() {
-    double[] greyMatrix = new double[]{0.2126, 0.7152, 0.0722, 0.2126, 0.7152, 0.0722, 0.2126,
-                                       0.7152, 0.0722};
-    return colorTransformation(greyMatrix);
+    return colorTransformation(ColorMatrix.LUMA);
   }
 
 
@@ -100,50 +625,132 @@ public class TransformationsImpl implements Transformations {
    */
   @Override
   public SingleImage sepiaScale() {
-    double[] sepiaMatrix = new double[]{0.393, 0.769, 0.189, 0.349, 0.686, 0.168, 0.272, 0.534,
-                                        0.131};
-    return colorTransformation(sepiaMatrix);
+    return colorTransformation(ColorMatrix.SEPIA);
   }
 
 
   /**
-   * Creates a greyscale image with a color-component of the image.
+   * Creates a greyscale image with a color-component of the image through
+   * {@link #lookup(LookupTable)}.
    *
    * @return a greyscale color-component image.
    */
   public SingleImage colorScale(String s) throws IllegalArgumentException {
-    RGB[][] newImage = new RGB[this.height][this.width];
-    for (int i = 0; i < this.height; i++) {
-      for (int j = 0; j < this.width; j++) {
-        int red = image[i][j].getRed();
-        int blue = image[i][j].getBlue();
-        int green = image[i][j].getGreen();
-        if (hasMask) {
-          int maskRed = maskImage[i][j].getRed();
-          int maskGreen = maskImage[i][j].getGreen();
-          int maskBlue = maskImage[i][j].getBlue();
-          // if mask color channels are non-zero, skip transformation.
-          if (maskRed > 0 || maskGreen > 0 || maskBlue > 0) {
-            newImage[i][j] = new RGBImpl(red, green, blue, image[i][j].getAlpha());
-            continue;
-          }
-        }
-        switch (s) {
-          case "red":
-            newImage[i][j] = new RGBImpl(red, red, red, image[i][j].getAlpha());
-            break;
-          case "blue":
-            newImage[i][j] = new RGBImpl(blue, blue, blue, image[i][j].getAlpha());
-            break;
-          case "green":
-            newImage[i][j] = new RGBImpl(green, green, green, image[i][j].getAlpha());
-            break;
-          default:
-            throw new IllegalArgumentException("Invalid color-component.");
-        }
+    int channel;
+    switch (s) {
+      case "red":
+        channel = 0;
+        break;
+      case "green":
+        channel = 1;
+        break;
+      case "blue":
+        channel = 2;
+        break;
+      default:
+        throw new IllegalArgumentException("Invalid color-component.");
+    }
+    return lookup(LookupTable.channel(channel));
+  }
+
+  /**
+   * Applies a lookup table to every pixel. Without a mask the new image is a view of the source,
+   * and a table applied to such a view is composed with the table of the view, so a chain of
+   * point operations is read in a single pass. With a mask the table is applied right away and
+   * masked pixels are kept, only looking up the editable spans.
+   *
+   * @param table the table to apply.
+   * @return the new image.
+   * @throws IllegalArgumentException if the table is null.
+   */
+  @Override
+  public SingleImage lookup(LookupTable table) throws IllegalArgumentException {
+    if (table == null) {
+      throw new IllegalArgumentException("Lookup table cannot be null.");
+    }
+    if (!hasMask) {
+      SingleImage base = source;
+      LookupTable composed = table;
+      if (source instanceof SingleImageLookup) {
+        base = ((SingleImageLookup) source).getBase();
+        composed = ((SingleImageLookup) source).getTable().andThen(table);
       }
+      return composed.isIdentity() ? base : new SingleImageLookup(base, composed);
+    }
+    if (allMasked()) {
+      return source;
     }
-    return new SingleImageImpl(this.width, this.height, this.maxValue, newImage);
+    SingleImage patched = inPlaceTarget() == null ? patched(0, 0, part -> part.lookup(table))
+            : null;
+    if (patched != null) {
+      return patched;
+    }
+    if (!usesPlanes()) {
+      return mapRows((src, srcOffset, dst, dstOffset, index, count) ->
+              table.apply(src, srcOffset, dst, dstOffset, count));
+    }
+    byte[][] planes = planes();
+    return planarImage(lookupPlane(planes, table, 0), lookupPlane(planes, table, 1),
+            lookupPlane(planes, table, 2), planes[3].clone());
+  }
+
+  /**
+   * Applies a chain of point operations to every pixel in a single pass, so the images between
+   * its steps are never made. A chain of a single table is a {@link #lookup(LookupTable)}, and a
+   * chain of a single color matrix is applied as greyscale and sepia are.
+   *
+   * @param operation the operation to apply.
+   * @return the new image.
+   * @throws IllegalArgumentException if the operation is null.
+   */
+  @Override
+  public SingleImage pointOperation(PointOperation operation) throws IllegalArgumentException {
+    if (operation == null) {
+      throw new IllegalArgumentException("Point operation cannot be null.");
+    }
+    if (operation.isIdentity()) {
+      return source;
+    }
+    if (operation.size() == 1 && operation.getTable(0) != null) {
+      return lookup(operation.getTable(0));
+    }
+    if (operation.size() == 1) {
+      return colorTransformation(operation.getMatrix(0));
+    }
+    return mapRows((src, srcOffset, dst, dstOffset, index, count) ->
+            operation.apply(src, srcOffset, dst, dstOffset, count));
+  }
+
+  /**
+   * Returns a view of the source with a chain of point operations applied to the pixels the mask
+   * leaves editable whenever it is read, see {@link SingleImageFused}. Nothing is computed unless
+   * the view is read.
+   *
+   * @param operation the operation to apply.
+   * @return the view.
+   * @throws IllegalArgumentException if the operation is null.
+   */
+  public SingleImage pointOperationView(PointOperation operation)
+          throws IllegalArgumentException {
+    if (operation == null) {
+      throw new IllegalArgumentException("Point operation cannot be null.");
+    }
+    if (operation.isIdentity() || allMasked()) {
+      return source;
+    }
+    return new SingleImageFused(source, operation, hasMask ? mask : null);
+  }
+
+  // Looks up one new channel plane from the plane it reads, keeping every masked value.
+  private byte[] lookupPlane(byte[][] planes, LookupTable table, int channel) {
+    byte[] plane = planes[table.getSource(channel)];
+    byte[] newPlane = hasMask ? planes[channel].clone() : new byte[plane.length];
+    forEachSpan((first, last) -> {
+      for (int k = first; k < last; k++) {
+        newPlane[k] = (byte) table.lookup(channel, plane[k] & 0xFF);
+      }
+    });
+    return newPlane;
   }
 
   /**
@@ -152,28 +759,38 @@ public class TransformationsImpl implements Transformations {
    * @return a greyscale value-component image.
    */
   public SingleImage valueScale() {
-    RGB[][] newImage = new RGB[this.height][this.width];
-    for (int i = 0; i < this.height; i++) {
-      for (int j = 0; j < this.width; j++) {
-        int red = image[i][j].getRed();
-        int blue = image[i][j].getBlue();
-        int green = image[i][j].getGreen();
-        if (hasMask) {
-          int maskRed = maskImage[i][j].getRed();
-          int maskGreen = maskImage[i][j].getGreen();
-          int maskBlue = maskImage[i][j].getBlue();
-          // if mask color channels are non-zero, skip transformation.
-          if (maskRed > 0 || maskGreen > 0 || maskBlue > 0) {
-            newImage[i][j] = new RGBImpl(red, green, blue, image[i][j].getAlpha());
-            continue;
-          }
+    if (allMasked()) {
+      return source;
+    }
+    SingleImage patched = inPlaceTarget() == null ? patched(0, 0, TransformationsImpl::valueScale)
+            : null;
+    if (patched != null) {
+      return patched;
+    }
+    if (!usesPlanes()) {
+      return mapRows((src, srcOffset, dst, dstOffset, index, count) -> {
+        for (int k = 0; k < count; k++) {
+          int pixel = src[srcOffset + k];
+          int max = Math.max(pixel >> 16 & 0xFF, Math.max(pixel >> 8 & 0xFF, pixel & 0xFF));
+          dst[dstOffset + k] = SingleImagePacked.pack(max, max, max, pixel >>> 24);
         }
-        int max = Math.max(red,
-                (Math.max(green, blue)));
-        newImage[i][j] = new RGBImpl(max, max, max, image[i][j].getAlpha());
-      }
+      });
     }
-    return new SingleImageImpl(this.width, this.height, this.maxValue, newImage);
+    byte[][] planes = planes();
+    int size = this.width * this.height;
+    byte[] red = hasMask ? planes[0].clone() : new byte[size];
+    byte[] green = hasMask ? planes[1].clone() : new byte[size];
+    byte[] blue = hasMask ? planes[2].clone() : new byte[size];
+    forEachSpan((first, last) -> {
+      for (int k = first; k < last; k++) {
+        int max = Math.max(planes[0][k] & 0xFF,
+                Math.max(planes[1][k] & 0xFF, planes[2][k] & 0xFF));
+        red[k] = (byte) max;
+        green[k] = (byte) max;
+        blue[k] = (byte) max;
+      }
+    });
+    return planarImage(red, green, blue, planes[3].clone());
   }
 
   /**
@@ -182,27 +799,13 @@ public class TransformationsImpl implements Transformations {
    * @return a greyscale intensity-component image.
    */
   public SingleImage intensityScale() {
-    RGB[][] newImage = new RGB[this.height][this.width];
-    for (int i = 0; i < this.height; i++) {
-      for (int j = 0; j < this.width; j++) {
-        int red = image[i][j].getRed();
-        int blue = image[i][j].getBlue();
-        int green = image[i][j].getGreen();
-        if (hasMask) {
-          int maskRed = maskImage[i][j].getRed();
-          int maskGreen = maskImage[i][j].getGreen();
-          int maskBlue = maskImage[i][j].getBlue();
-          // if mask color channels are non-zero, skip transformation.
-          if (maskRed > 0 || maskGreen > 0 || maskBlue > 0) {
-            newImage[i][j] = new RGBImpl(red, green, blue, image[i][j].getAlpha());
-            continue;
-          }
-        }
-        int average = (red + green + blue) / 3;
-        newImage[i][j] = new RGBImpl(average, average, average, image[i][j].getAlpha());
+    return mapRows((src, srcOffset, dst, dstOffset, index, count) -> {
+      for (int k = 0; k < count; k++) {
+        int pixel = src[srcOffset + k];
+        int average = ((pixel >> 16 & 0xFF) + (pixel >> 8 & 0xFF) + (pixel & 0xFF)) / 3;
+        dst[dstOffset + k] = SingleImagePacked.pack(average, average, average, pixel >>> 24);
       }
-    }
-    return new SingleImageImpl(this.width, this.height, this.maxValue, newImage);
+    });
   }
 
   /**
@@ -211,65 +814,351 @@ public class TransformationsImpl implements Transformations {
    * @return a greyscale luma-component image.
    */
   public SingleImage lumaScale() {
-    RGB[][] newImage = new RGB[this.height][this.width];
-    for (int i = 0; i < this.height; i++) {
-      for (int j = 0; j < this.width; j++) {
-        int red = image[i][j].getRed();
-        int blue = image[i][j].getBlue();
-        int green = image[i][j].getGreen();
-        if (hasMask) {
-          int maskRed = maskImage[i][j].getRed();
-          int maskGreen = maskImage[i][j].getGreen();
-          int maskBlue = maskImage[i][j].getBlue();
-          // if mask color channels are non-zero, skip transformation.
-          if (maskRed > 0 || maskGreen > 0 || maskBlue > 0) {
-            newImage[i][j] = new RGBImpl(red, green, blue, image[i][j].getAlpha());
-            continue;
+    // every row of the luma matrix is the luma weighting, so this is the greyscale transform.
+    return colorTransformation(ColorMatrix.LUMA);
+  }
+
+  /**
+   * Flips an image horizontally. The flipped image is a view of the source, no pixels are
+   * copied.
+   *
+   * @return a horizontally flipped image.
+   */
+  public SingleImage flipHorizontal() {
+    return mirror(false, true);
+  }
+
+  /**
+   * Flips an image vertically. The flipped image is a view of the source, no pixels are
+   * copied.
+   *
+   * @return a vertically flipped image.
+   */
+  public SingleImage flipVertical() {
+    return mirror(true, false);
+  }
+
+  /**
+   * Rotates an image a quarter turn clockwise. The image is copied in square blocks that fit in
+   * the cache, so both reading the columns of the source and writing the rows of the new image
+   * stay within a block.
+   *
+   * @return the rotated image, as wide as the source is high.
+   */
+  @Override
+  public SingleImage rotate90() {
+    return turn(true, false);
+  }
+
+  /**
+   * Rotates an image half a turn. The rotated image is a view of the source, flipped both ways,
+   * so no pixels are copied.
+   *
+   * @return the rotated image.
+   */
+  @Override
+  public SingleImage rotate180() {
+    return mirror(true, true);
+  }
+
+  /**
+   * Rotates an image three quarter turns clockwise, which is a quarter turn counterclockwise.
+   * The image is copied in square blocks like {@link #rotate90()}.
+   *
+   * @return the rotated image, as wide as the source is high.
+   */
+  @Override
+  public SingleImage rotate270() {
+    return turn(false, true);
+  }
+
+  /**
+   * Transposes an image, so row i of the new image is column i of the source. The image is
+   * copied in square blocks like {@link #rotate90()}.
+   *
+   * @return the transposed image, as wide as the source is high.
+   */
+  @Override
+  public SingleImage transpose() {
+    return turn(false, false);
+  }
+
+  /**
+   * Rotates an image clockwise by any angle. The new image is just large enough to hold the
+   * whole rotated image, and every new pixel is sampled from the source at the point it comes
+   * from with bilinear interpolation. Points outside the source read the background, so the
+   * edges of the rotated image blend into it. Quarter turns are copied without interpolation.
+   * The new image is made in tiles of 64x64 pixels: each tile reads only the small part of the
+   * source it covers, and the source point is stepped across a row of the tile instead of
+   * computed again for each pixel.
+   *
+   * @param degrees    the clockwise angle to rotate by.
+   * @param background the packed ARGB color, alpha included, of the area not covered by the
+   *                   rotated image.
+   * @return the rotated image.
+   * @throws IllegalArgumentException if the angle is not finite.
+   */
+  @Override
+  public SingleImage rotate(double degrees, int background) throws IllegalArgumentException {
+    if (Double.isNaN(degrees) || Double.isInfinite(degrees)) {
+      throw new IllegalArgumentException("Rotation angle must be finite.");
+    }
+    double turn = (degrees % 360 + 360) % 360;
+    if (turn == 0) {
+      return source;
+    } else if (turn == 90) {
+      return rotate90();
+    } else if (turn == 180) {
+      return rotate180();
+    } else if (turn == 270) {
+      return rotate270();
+    }
+    if (readsByRow() && !(source instanceof SingleImageTiled)
+            && !(source instanceof SingleImageOffHeap)) {
+      // a view cannot copy the part of it a tile covers, so it is copied once and rotated.
+      SingleImage copy = produceRows(this.width, this.height, () -> this::readRow);
+      copy.retain();
+      try {
+        return new TransformationsImpl(copy).rotate(degrees, background);
+      } finally {
+        copy.release();
+      }
+    }
+    double cos = Math.cos(Math.toRadians(turn));
+    double sin = Math.sin(Math.toRadians(turn));
+    // a little below whole numbers, so rounding errors in sin and cos do not add a pixel.
+    int newWidth = (int) Math.ceil(this.width * Math.abs(cos) + this.height * Math.abs(sin)
+            - 1e-6);
+    int newHeight = (int) Math.ceil(this.width * Math.abs(sin) + this.height * Math.abs(cos)
+            - 1e-6);
+    // the source point of the centre of new pixel (0, 0); each new column adds (cos, -sin) and
+    // each new row adds (sin, cos), measured from the centre of source pixel (0, 0).
+    double dx = 0.5 - newWidth / 2.0;
+    double dy = 0.5 - newHeight / 2.0;
+    double originX = this.width / 2.0 + dx * cos + dy * sin - 0.5;
+    double originY = this.height / 2.0 - dx * sin + dy * cos - 0.5;
+    int span = (int) Math.ceil(TURN_BLOCK * (Math.abs(cos) + Math.abs(sin))) + 5;
+    return produceRows(newWidth, newHeight, () -> {
+      int[] rows = new int[TURN_BLOCK * newWidth];
+      int[] region = readsByRow() ? new int[span * span] : null;
+      int[] held = {-1};
+      return (i, dst, offset) -> {
+        int first = i / TURN_BLOCK * TURN_BLOCK;
+        if (held[0] != first) {
+          int count = Math.min(TURN_BLOCK, newHeight - first);
+          for (int x0 = 0; x0 < newWidth; x0 += TURN_BLOCK) {
+            rotateTile(originX, originY, cos, sin, first, x0, count,
+                    Math.min(TURN_BLOCK, newWidth - x0), newWidth, background, rows, region);
           }
+          held[0] = first;
         }
-        int luma = (int) Math.round((0.2126 * red)
-                + (0.7152 * green)
-                + (0.0722 * blue));
-        newImage[i][j] = new RGBImpl(clamp(luma), clamp(luma), clamp(luma), image[i][j].getAlpha());
+        System.arraycopy(rows, (i - first) * newWidth, dst, offset, newWidth);
+      };
+    });
+  }
+
+  /**
+   * Samples one tile of a rotated image into a block of its rows. The part of the source the
+   * tile covers is found from its corners and, unless the source is packed on the heap, copied
+   * into the region array first.
+   */
+  private void rotateTile(double originX, double originY, double cos, double sin, int y0, int x0,
+                          int rows, int cols, int rowWidth, int background, int[] dst,
+                          int[] region) {
+    double minX = Double.MAX_VALUE;
+    double maxX = -Double.MAX_VALUE;
+    double minY = Double.MAX_VALUE;
+    double maxY = -Double.MAX_VALUE;
+    for (int corner = 0; corner < 4; corner++) {
+      int x = x0 + (corner & 1) * (cols - 1);
+      int y = y0 + (corner >> 1) * (rows - 1);
+      double sx = originX + x * cos + y * sin;
+      double sy = originY - x * sin + y * cos;
+      minX = Math.min(minX, sx);
+      maxX = Math.max(maxX, sx);
+      minY = Math.min(minY, sy);
+      maxY = Math.max(maxY, sy);
+    }
+    // the columns and rows the bilinear taps of the tile can read, with a pixel to spare on each
+    // side for the rounding of stepping across a row.
+    int c0 = Math.max(0, (int) Math.floor(minX) - 1);
+    int c1 = Math.min(this.width, (int) Math.floor(maxX) + 3);
+    int r0 = Math.max(0, (int) Math.floor(minY) - 1);
+    int r1 = Math.min(this.height, (int) Math.floor(maxY) + 3);
+    if (c0 >= c1 || r0 >= r1) {
+      for (int a = 0; a < rows; a++) {
+        Arrays.fill(dst, a * rowWidth + x0, a * rowWidth + x0 + cols, background);
+      }
+      return;
+    }
+    int[] pixels;
+    int stride;
+    // the source point of the region's first pixel, in the fixed point of the steps.
+    long left = 0;
+    long top = 0;
+    if (region == null) {
+      pixels = image();
+      stride = this.width;
+      c0 = 0;
+      c1 = this.width;
+      r0 = 0;
+      r1 = this.height;
+    } else {
+      readRegion(r0, c0, r1 - r0, c1 - c0, region, 0, null);
+      pixels = region;
+      stride = c1 - c0;
+      left = (long) c0 << 16;
+      top = (long) r0 << 16;
+      c1 -= c0;
+      r1 -= r0;
+      c0 = 0;
+      r0 = 0;
+    }
+    // the source point steps across a row in fixed point with 16 fractional bits.
+    long stepX = Math.round(cos * ONE);
+    long stepY = -Math.round(sin * ONE);
+    for (int a = 0; a < rows; a++) {
+      int y = y0 + a;
+      long sx = Math.round((originX + x0 * cos + y * sin) * ONE) - left;
+      long sy = Math.round((originY - x0 * sin + y * cos) * ONE) - top;
+      int at = a * rowWidth + x0;
+      for (int b = 0; b < cols; b++, sx += stepX, sy += stepY) {
+        dst[at + b] = sample(pixels, stride, r0, r1, c0, c1, sx, sy, background);
       }
     }
-    return new SingleImageImpl(this.width, this.height, this.maxValue, newImage);
   }
 
   /**
-   * Flips an image horizontally.
+   * Interpolates the four pixels around a point of the source, given in fixed point with 16
+   * fractional bits, with 8-bit weights. Pixels outside rows [r0, r1) and columns [c0, c1) are
+   * the background.
+   */
+  private static int sample(int[] pixels, int stride, int r0, int r1, int c0, int c1, long sx,
+                            long sy, int background) {
+    int col = (int) (sx >> 16);
+    int row = (int) (sy >> 16);
+    if (col + 1 < c0 || col >= c1 || row + 1 < r0 || row >= r1) {
+      return background;
+    }
+    int fx = (int) ((sx & 0xFFFF) + 0x80 >> 8);
+    int fy = (int) ((sy & 0xFFFF) + 0x80 >> 8);
+    int p00;
+    int p01;
+    int p10;
+    int p11;
+    int at = row * stride + col;
+    if (col >= c0 && col + 1 < c1 && row >= r0 && row + 1 < r1) {
+      p00 = pixels[at];
+      p01 = pixels[at + 1];
+      p10 = pixels[at + stride];
+      p11 = pixels[at + stride + 1];
+    } else {
+      boolean left = col >= c0;
+      boolean right = col + 1 < c1;
+      boolean top = row >= r0;
+      boolean bottom = row + 1 < r1;
+      p00 = top && left ? pixels[at] : background;
+      p01 = top && right ? pixels[at + 1] : background;
+      p10 = bottom && left ? pixels[at + stride] : background;
+      p11 = bottom && right ? pixels[at + stride + 1] : background;
+    }
+    int w00 = (256 - fx) * (256 - fy);
+    int w01 = fx * (256 - fy);
+    int w10 = (256 - fx) * fy;
+    int w11 = fx * fy;
+    int packed = 0;
+    for (int shift = 0; shift < 32; shift += 8) {
+      int sum = w00 * (p00 >>> shift & 0xFF) + w01 * (p01 >>> shift & 0xFF)
+              + w10 * (p10 >>> shift & 0xFF) + w11 * (p11 >>> shift & 0xFF);
+      packed |= (sum + (1 << 15) >>> 16) << shift;
+    }
+    return packed;
+  }
+
+  /**
+   * Transposes the image, reversing the rows and/or columns of the source on the way, which
+   * covers both quarter turns. Every band fills a block of new rows at a time from square blocks
+   * of the source: each source block is copied into a small buffer and written into the new rows
+   * column by column, so only the two blocks are touched. Sources that can only be read a whole
+   * row at a time fill larger blocks of new rows, so they are read fewer times.
    *
-   * @return a horizontally flipped image.
+   * @param flipRows whether the new columns run up the source rows instead of down.
+   * @param flipCols whether the new rows run from the last source column instead of the first.
+   * @return the turned image.
    */
-  public SingleImage flipHorizontal() {
-    RGB[][] newImage = new RGB[this.height][this.width];
-    for (int i = 0; i < this.height; i++) {
-      for (int j = 0; j < this.width; j++) {
-        int red = image[i][width - j - 1].getRed();
-        int green = image[i][width - j - 1].getGreen();
-        int blue = image[i][width - j - 1].getBlue();
-        newImage[i][j] = new RGBImpl(red, green, blue, image[i][j].getAlpha());
+  private SingleImage turn(boolean flipRows, boolean flipCols) {
+    int newWidth = this.height;
+    int newHeight = this.width;
+    boolean regions = !readsByRow() || source instanceof SingleImageTiled
+            || source instanceof SingleImageOffHeap;
+    int blockRows = regions ? TURN_BLOCK
+            : Math.max(TURN_BLOCK, Math.min(newHeight, (1 << 20) / Math.max(1, newWidth)));
+    return produceRows(newWidth, newHeight, () -> {
+      int[] rows = new int[blockRows * newWidth];
+      int[] block = new int[TURN_BLOCK * blockRows];
+      int[] scratch = regions ? null : new int[this.width];
+      // the first new row held in rows, blocks start at multiples of the block height.
+      int[] held = {-1};
+      return (i, dst, offset) -> {
+        int first = i / blockRows * blockRows;
+        if (held[0] != first) {
+          int count = Math.min(blockRows, newHeight - first);
+          int firstCol = flipCols ? this.width - first - count : first;
+          for (int r = 0; r < this.height; r += TURN_BLOCK) {
+            int blockHeight = Math.min(TURN_BLOCK, this.height - r);
+            readRegion(r, firstCol, blockHeight, count, block, 0, scratch);
+            for (int c = 0; c < count; c++) {
+              int rowStart = (flipCols ? count - 1 - c : c) * newWidth;
+              for (int a = 0; a < blockHeight; a++) {
+                int y = flipRows ? this.height - 1 - (r + a) : r + a;
+                rows[rowStart + y] = block[a * count + c];
+              }
+            }
+          }
+          held[0] = first;
+        }
+        System.arraycopy(rows, (i - first) * newWidth, dst, offset, newWidth);
+      };
+    });
+  }
+
+  // Mirrors the source, folding a flip of a mirrored view into the view it was taken of.
+  private SingleImage mirror(boolean flipRows, boolean flipCols) {
+    if (source instanceof SingleImageMirrored) {
+      SingleImageMirrored mirrored = (SingleImageMirrored) source;
+      flipRows ^= mirrored.isFlipRows();
+      flipCols ^= mirrored.isFlipCols();
+      if (!flipRows && !flipCols) {
+        return mirrored.getBase();
       }
+      return new SingleImageMirrored(mirrored.getBase(), flipRows, flipCols);
     }
-    return new SingleImageImpl(this.width, this.height, this.maxValue, newImage);
+    return new SingleImageMirrored(source, flipRows, flipCols);
   }
 
   /**
-   * Flips an image vertically.
+   * Crops an image to the rectangle of the given size starting at the given column and row.
+   * The cropped image is a view of the source, no pixels are copied.
    *
-   * @return a vertically flipped image.
+   * @param x         the column where the cropped image starts.
+   * @param y         the row where the cropped image starts.
+   * @param newWidth  the width of the cropped image.
+   * @param newHeight the height of the cropped image.
+   * @return a cropped image.
+   * @throws IllegalArgumentException if the rectangle is not inside the image.
    */
-  public SingleImage flipVertical() {
-    RGB[][] newImage = new RGB[this.height][this.width];
-    for (int i = 0; i < this.height; i++) {
-      for (int j = 0; j < this.width; j++) {
-        int red = image[height - i - 1][j].getRed();
-        int green = image[height - i - 1][j].getGreen();
-        int blue = image[height - i - 1][j].getBlue();
-        newImage[i][j] = new RGBImpl(red, green, blue, image[i][j].getAlpha());
+  @Override
+  public SingleImage crop(int x, int y, int newWidth, int newHeight)
+          throws IllegalArgumentException {
+    if (source instanceof SingleImageCropped) {
+      SingleImageCropped cropped = (SingleImageCropped) source;
+      if (x < 0 || y < 0 || x + newWidth > this.width || y + newHeight > this.height) {
+        throw new IllegalArgumentException("Crop region is outside of the image.");
       }
+      return new SingleImageCropped(cropped.getBase(), cropped.getX() + x, cropped.getY() + y,
+              newWidth, newHeight);
     }
-    return new SingleImageImpl(this.width, this.height, this.maxValue, newImage);
+    return new SingleImageCropped(source, x, y, newWidth, newHeight);
   }
 
   /**
@@ -281,60 +1170,203 @@ public class TransformationsImpl implements Transformations {
    * @throws IllegalArgumentException if the constant is 0.
    */
   public SingleImage brighten(int constant) throws IllegalArgumentException {
-    RGB[][] newImage = new RGB[this.height][this.width];
     if (constant == 0) {
       throw new IllegalArgumentException("Brighten command requires a non-zero constant.");
     }
-    for (int i = 0; i < this.height; i++) {
-      for (int j = 0; j < this.width; j++) {
-        int red = image[i][j].getRed();
-        int blue = image[i][j].getBlue();
-        int green = image[i][j].getGreen();
-        if (hasMask) {
-          int maskRed = maskImage[i][j].getRed();
-          int maskGreen = maskImage[i][j].getGreen();
-          int maskBlue = maskImage[i][j].getBlue();
-          // if mask color channels are non-zero, skip transformation.
-          if (maskRed > 0 || maskGreen > 0 || maskBlue > 0) {
-            newImage[i][j] = new RGBImpl(red, green, blue, image[i][j].getAlpha());
-            continue;
-          }
-        }
-        newImage[i][j] = new RGBImpl(clamp(red + constant), clamp(green + constant),
-                clamp(blue + constant), image[i][j].getAlpha());
-      }
-    }
-    return new SingleImageImpl(this.width, this.height, this.maxValue, newImage);
+    return lookup(LookupTable.brighten(constant));
   }
 
   /**
-   * Downscales an image to a specified width and height.
+   * Downscales an image to a specified width and height by area averaging: each new pixel is the
+   * average of the part of the image it covers, with pixels on its edges weighted by how much of
+   * them it covers. The weights are whole numbers, so the sums are exact and each average is
+   * rounded once. Every row of the source is read and summed across once per band.
    *
    * @param newWidth  the width of the downscaled image.
    * @param newHeight the height of the downscaled image.
+   * @throws IllegalArgumentException if the new size is not positive or is larger than the image.
    */
   @Override
   public SingleImage downscale(int newWidth, int newHeight) throws IllegalArgumentException {
-    RGB[][] newImage = new RGB[newHeight][newWidth];
-    float xRatio = (1.0f * this.width) / newWidth;
-    float yRatio = (1.0f * this.height) / newHeight;
-
-    if ((xRatio < 1.0f) || (yRatio < 1.0f)) {
+    if (newWidth <= 0 || newHeight <= 0) {
+      throw new IllegalArgumentException("Downscaled width and height must be positive.");
+    }
+    if (newWidth > this.width || newHeight > this.height) {
       throw new IllegalArgumentException("provided width or height is greater than original width"
               + "or height");
     }
+    int[] firstCol = new int[newWidth];
+    int[][] colWeights = areaWeights(this.width, newWidth, firstCol);
+    int[] firstRow = new int[newHeight];
+    int[][] rowWeights = areaWeights(this.height, newHeight, firstRow);
+    // the weights of each new column add up to the old width, and those of each row to the old
+    // height.
+    long total = (long) this.width * this.height;
+    return produceRows(newWidth, newHeight, () -> {
+      int[] row = new int[this.width];
+      long[] across = new long[4 * newWidth];
+      long[] sums = new long[4 * newWidth];
+      // the last row summed across, which the next new row starts with when they share it.
+      int[] held = {-1};
+      return (i, dst, offset) -> {
+        Arrays.fill(sums, 0);
+        int[] weights = rowWeights[i];
+        for (int t = 0; t < weights.length; t++) {
+          int r = firstRow[i] + t;
+          if (held[0] != r) {
+            readRow(r, row, 0);
+            sumAcross(row, firstCol, colWeights, across);
+            held[0] = r;
+          }
+          for (int k = 0; k < sums.length; k++) {
+            sums[k] += weights[t] * across[k];
+          }
+        }
+        for (int j = 0; j < newWidth; j++) {
+          dst[offset + j] = SingleImagePacked.pack(average(sums[j], total),
+                  average(sums[newWidth + j], total), average(sums[2 * newWidth + j], total),
+                  average(sums[3 * newWidth + j], total));
+        }
+      };
+    });
+  }
+
+  // Returns, for each of the new positions along a line, the weight of every old position it
+  // covers, and writes the first old position into first. Old position c covers
+  // [c * newLength, (c + 1) * newLength) and new position j covers
+  // [j * oldLength, (j + 1) * oldLength), so the weights are whole and add up to oldLength.
+  private static int[][] areaWeights(int oldLength, int newLength, int[] first) {
+    int[][] weights = new int[newLength][];
+    for (int j = 0; j < newLength; j++) {
+      long start = (long) j * oldLength;
+      long end = start + oldLength;
+      int from = (int) (start / newLength);
+      int to = (int) ((end - 1) / newLength);
+      first[j] = from;
+      weights[j] = new int[to - from + 1];
+      for (int c = from; c <= to; c++) {
+        weights[j][c - from] = (int) (Math.min(end, (long) (c + 1) * newLength)
+                - Math.max(start, (long) c * newLength));
+      }
+    }
+    return weights;
+  }
 
-    for (int i = 0; i < newHeight; i++) {
-      for (int j = 0; j < newWidth; j++) {
-        int x = Math.round(j * xRatio);
-        int y = Math.round(i * yRatio);
-        int red = image[y][x].getRed();
-        int green = image[y][x].getGreen();
-        int blue = image[y][x].getBlue();
-        int alpha = image[y][x].getAlpha();
-        newImage[i][j] = new RGBImpl(clamp(red), clamp(green), clamp(blue), clamp(alpha));
+  // Sums a row of pixels across into the new columns, the red, green, blue and alpha sums one
+  // after another.
+  private static void sumAcross(int[] row, int[] first, int[][] weights, long[] across) {
+    int n = first.length;
+    for (int j = 0; j < n; j++) {
+      long red = 0;
+      long green = 0;
+      long blue = 0;
+      long alpha = 0;
+      int[] w = weights[j];
+      for (int t = 0; t < w.length; t++) {
+        int pixel = row[first[j] + t];
+        red += (long) w[t] * (pixel >> 16 & 0xFF);
+        green += (long) w[t] * (pixel >> 8 & 0xFF);
+        blue += (long) w[t] * (pixel & 0xFF);
+        alpha += (long) w[t] * (pixel >>> 24);
       }
+      across[j] = red;
+      across[n + j] = green;
+      across[2 * n + j] = blue;
+      across[3 * n + j] = alpha;
+    }
+  }
+
+  // Rounds the quotient of a sum and its weight half up.
+  private static int average(long sum, long weight) {
+    return (int) ((2 * sum + weight) / (2 * weight));
+  }
+
+  /**
+   * Resizes an image to any width and height with the given filter, as two separable passes:
+   * every old row the new rows need is resized across into fixed-point sums, and each new row is
+   * the weighted sum of the rows its filter covers, rounded once. Every band of rows keeps the
+   * resized rows its filter covers in a ring, so each old row is resized across once per band.
+   *
+   * @param newWidth  the width of the resized image.
+   * @param newHeight the height of the resized image.
+   * @param filter    the filter to sample the image with.
+   * @return the resized image.
+   * @throws IllegalArgumentException if the new size is not positive or the filter is null.
+   */
+  @Override
+  public SingleImage resize(int newWidth, int newHeight, ResizeFilter filter)
+          throws IllegalArgumentException {
+    if (newWidth <= 0 || newHeight <= 0) {
+      throw new IllegalArgumentException("Resized width and height must be positive.");
+    }
+    if (filter == null) {
+      throw new IllegalArgumentException("Resize filter cannot be null.");
+    }
+    ResizeWeights cols = new ResizeWeights(this.width, newWidth, filter);
+    ResizeWeights rows = new ResizeWeights(this.height, newHeight, filter);
+    int taps = rows.getMaxTaps();
+    long half = 1L << (2 * ResizeWeights.BITS - 1);
+    return produceRows(newWidth, newHeight, () -> {
+      int[] row = new int[this.width];
+      int[][] ring = new int[taps][4 * newWidth];
+      int[] held = new int[taps];
+      Arrays.fill(held, -1);
+      long[] sums = new long[4 * newWidth];
+      return (i, dst, offset) -> {
+        Arrays.fill(sums, 0);
+        int[] weights = rows.getWeights(i);
+        for (int t = 0; t < weights.length; t++) {
+          int r = rows.getFirst(i) + t;
+          int slot = r % taps;
+          if (held[slot] != r) {
+            readRow(r, row, 0);
+            cols.across(row, ring[slot]);
+            held[slot] = r;
+          }
+          int[] across = ring[slot];
+          long weight = weights[t];
+          for (int k = 0; k < sums.length; k++) {
+            sums[k] += weight * across[k];
+          }
+        }
+        for (int j = 0; j < newWidth; j++) {
+          dst[offset + j] = SingleImagePacked.pack(
+                  clamp((int) (sums[j] + half >> 2 * ResizeWeights.BITS)),
+                  clamp((int) (sums[newWidth + j] + half >> 2 * ResizeWeights.BITS)),
+                  clamp((int) (sums[2 * newWidth + j] + half >> 2 * ResizeWeights.BITS)),
+                  clamp((int) (sums[3 * newWidth + j] + half >> 2 * ResizeWeights.BITS)));
+        }
+      };
+    });
+  }
+
+  /**
+   * Builds the given number of levels of a mipmap pyramid: each level is the one before it, or
+   * the image for the first level, downscaled by area averaging to half its width and height,
+   * rounded down but at least one pixel. Each level is made from the one before it, so only the
+   * first level reads the whole image.
+   *
+   * @param levels the number of levels to build.
+   * @return the levels, largest first.
+   * @throws IllegalArgumentException if levels is not positive or the image is too small to be
+   *                                  halved that many times.
+   */
+  @Override
+  public List<SingleImage> pyramid(int levels) throws IllegalArgumentException {
+    if (levels <= 0) {
+      throw new IllegalArgumentException("Pyramid must have at least one level.");
+    }
+    if (31 - Integer.numberOfLeadingZeros(Math.max(this.width, this.height)) < levels) {
+      throw new IllegalArgumentException("Image is too small for " + levels + " levels.");
+    }
+    List<SingleImage> pyramid = new ArrayList<>();
+    Transformations level = this;
+    for (int k = 0; k < levels; k++) {
+      SingleImage next = level.downscale(Math.max(1, this.width >> (k + 1)),
+              Math.max(1, this.height >> (k + 1)));
+      pyramid.add(next);
+      level = new TransformationsImpl(next);
     }
-    return new SingleImageImpl(newWidth, newHeight, this.maxValue, newImage);
+    return pyramid;
   }
 }
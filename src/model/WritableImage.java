@@ -0,0 +1,43 @@
+package model;
+
+/**
+ * Represents a {@link SingleImage} whose pixels can be written one row at a time.
+ * New images are created in the layout that suits their size through {@link #create}.
+ */
+public interface WritableImage extends SingleImage {
+
+  /**
+   * Copies one row of packed ARGB pixels from the given array into the image.
+   *
+   * @param row    the row to write.
+   * @param src    the array holding the new pixels of the row.
+   * @param offset the index in the array of the first pixel of the row.
+   */
+  void setPackedRow(int row, int[] src, int offset);
+
+  /**
+   * Creates a new image of the given size with every pixel set to zero. Images larger than the
+   * tiled threshold are tiled, images larger than the off-heap threshold are stored off-heap and
+   * every other image is packed on the heap, in an array recycled through {@link BufferPool}.
+   *
+   * @param width    the width of the image.
+   * @param height   the height of the image.
+   * @param maxValue the max value of the image.
+   * @return the new image.
+   * @throws IllegalArgumentException if the width or height is negative or if the max value is
+   *                                  invalid.
+   */
+  static WritableImage create(int width, int height, int maxValue)
+          throws IllegalArgumentException {
+    if (SingleImageTiled.isPreferredFor(width, height)) {
+      return new SingleImageTiled(width, height, maxValue);
+    }
+    if (SingleImageOffHeap.isPreferredFor(width, height)) {
+      return new SingleImageOffHeap(width, height, maxValue);
+    }
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("Invalid image dimensions");
+    }
+    return SingleImagePacked.pooled(width, height, maxValue);
+  }
+}
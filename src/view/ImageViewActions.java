@@ -48,6 +48,18 @@ public interface ImageViewActions extends ImageController {
    */
   void downscaleAction(int width, int height, String fileName, String fileNew);
 
+  /**
+   * Resizes an image to a given width and height with a named filter. Updates the view
+   * accordingly.
+   *
+   * @param width    new width of image
+   * @param height   new height of image
+   * @param filter   the filter: nearest, bilinear, bicubic or lanczos3.
+   * @param fileName the name of the image to be updated.
+   * @param fileNew  the name of the new image.
+   */
+  void resizeAction(int width, int height, String filter, String fileName, String fileNew);
+
   /**
    * Applies the greyscale filter on an image using the luma matrix. Updates the view accordingly.
    *
@@ -80,6 +92,25 @@ public interface ImageViewActions extends ImageController {
    */
   void blurAction(String fileName, String fileNew);
 
+  /**
+   * Blurs an image with the average of the pixels within a radius of each pixel. Updates the view
+   * accordingly.
+   *
+   * @param radius   the number of pixels on each side of a pixel that are averaged.
+   * @param fileName the name of the image to be updated.
+   * @param fileNew  the name of the new image.
+   */
+  void boxBlurAction(int radius, String fileName, String fileNew);
+
+  /**
+   * Blurs an image with a gaussian of a given standard deviation. Updates the view accordingly.
+   *
+   * @param sigma    the standard deviation of the gaussian in pixels.
+   * @param fileName the name of the image to be updated.
+   * @param fileNew  the name of the new image.
+   */
+  void gaussianBlurAction(double sigma, String fileName, String fileNew);
+
   /**
    * Applies the horizontal flip transformation on an image. Updates the view accordingly.
    *
@@ -96,6 +127,24 @@ public interface ImageViewActions extends ImageController {
    */
   void verticalFlipAction(String fileName, String fileNew);
 
+  /**
+   * Rotates an image clockwise by any angle, leaving the area it no longer covers transparent.
+   * Updates the view accordingly.
+   *
+   * @param degrees  the clockwise angle to rotate by.
+   * @param fileName the name of the image to be updated.
+   * @param fileNew  the name of the new image.
+   */
+  void rotateAction(double degrees, String fileName, String fileNew);
+
+  /**
+   * Transposes an image, swapping its rows and columns. Updates the view accordingly.
+   *
+   * @param fileName the name of the image to be updated.
+   * @param fileNew  the name of the new image.
+   */
+  void transposeAction(String fileName, String fileNew);
+
   /**
    * Applies the horizontal flip transformation on an image. Updates the view accordingly.
    *
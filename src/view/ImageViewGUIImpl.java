@@ -190,23 +190,47 @@ public class ImageViewGUIImpl extends JFrame implements ImageViewGUI {
     sharpen.addActionListener(e -> processImage("sharpen"));
     JMenuItem blur = new JMenuItem("Blur");
     blur.addActionListener(e -> processImage("blur"));
+    JMenuItem boxBlur = new JMenuItem("Box Blur");
+    boxBlur.addActionListener(e -> processImage("box-blur"));
+    JMenuItem gaussianBlur = new JMenuItem("Gaussian Blur");
+    gaussianBlur.addActionListener(e -> processImage("gaussian-blur"));
 
     filter.add(brighten);
     filter.add(greyScale);
     filter.add(sepia);
     filter.add(sharpen);
     filter.add(blur);
+    filter.add(boxBlur);
+    filter.add(gaussianBlur);
 
     JMenuItem horizontalFlip = new JMenuItem("Horizontal Flip");
     horizontalFlip.addActionListener(e -> processImage("horizontalFlip"));
     JMenuItem verticalFlip = new JMenuItem("Vertical Flip");
     verticalFlip.addActionListener(e -> processImage("verticalFlip"));
+    JMenuItem rotate90 = new JMenuItem("Rotate 90");
+    rotate90.addActionListener(e -> processImage("rotate90"));
+    JMenuItem rotate180 = new JMenuItem("Rotate 180");
+    rotate180.addActionListener(e -> processImage("rotate180"));
+    JMenuItem rotate270 = new JMenuItem("Rotate 270");
+    rotate270.addActionListener(e -> processImage("rotate270"));
+    JMenuItem rotate = new JMenuItem("Rotate By Angle");
+    rotate.addActionListener(e -> processImage("rotate"));
+    JMenuItem transpose = new JMenuItem("Transpose");
+    transpose.addActionListener(e -> processImage("transpose"));
     JMenuItem downscale = new JMenuItem("Downscale");
     downscale.addActionListener(e -> processImage("downscale"));
+    JMenuItem resize = new JMenuItem("Resize");
+    resize.addActionListener(e -> processImage("resize"));
 
     transform.add(horizontalFlip);
     transform.add(verticalFlip);
+    transform.add(rotate90);
+    transform.add(rotate180);
+    transform.add(rotate270);
+    transform.add(rotate);
+    transform.add(transpose);
     transform.add(downscale);
+    transform.add(resize);
 
     JMenuItem redComponent = new JMenuItem("Red Component");
     redComponent.addActionListener(e -> processImage("red-component"));
@@ -323,6 +347,20 @@ public class ImageViewGUIImpl extends JFrame implements ImageViewGUI {
                   fileName, fileNew);
           fileName = fileNew;
           break;
+        case "resize":
+          String resizeWidth = JOptionPane.showInputDialog(this,
+                  "Enter a width:", "Width",
+                  JOptionPane.QUESTION_MESSAGE);
+          String resizeHeight = JOptionPane.showInputDialog(this,
+                  "Enter a height:", "Height",
+                  JOptionPane.QUESTION_MESSAGE);
+          Object resizeFilter = JOptionPane.showInputDialog(this,
+                  "Choose a filter:", "Filter", JOptionPane.QUESTION_MESSAGE, null,
+                  new String[]{"nearest", "bilinear", "bicubic", "lanczos3"}, "bicubic");
+          controller.resizeAction(Integer.parseInt(resizeWidth), Integer.parseInt(resizeHeight),
+                  String.valueOf(resizeFilter), fileName, fileNew);
+          fileName = fileNew;
+          break;
         case "greyscale":
           controller.greyScaleAction(fileName, fileNew);
           fileName = fileNew;
@@ -339,6 +377,20 @@ public class ImageViewGUIImpl extends JFrame implements ImageViewGUI {
           controller.blurAction(fileName, fileNew);
           fileName = fileNew;
           break;
+        case "box-blur":
+          String radius = JOptionPane.showInputDialog(this,
+                  "Enter a radius:", "Radius",
+                  JOptionPane.QUESTION_MESSAGE);
+          controller.boxBlurAction(Integer.parseInt(radius), fileName, fileNew);
+          fileName = fileNew;
+          break;
+        case "gaussian-blur":
+          String sigma = JOptionPane.showInputDialog(this,
+                  "Enter a sigma:", "Sigma",
+                  JOptionPane.QUESTION_MESSAGE);
+          controller.gaussianBlurAction(Double.parseDouble(sigma), fileName, fileNew);
+          fileName = fileNew;
+          break;
         case "horizontalFlip":
           controller.horizontalFlipAction(fileName, fileNew);
           fileName = fileNew;
@@ -347,6 +399,29 @@ public class ImageViewGUIImpl extends JFrame implements ImageViewGUI {
           controller.verticalFlipAction(fileName, fileNew);
           fileName = fileNew;
           break;
+        case "rotate90":
+          controller.rotateAction(90, fileName, fileNew);
+          fileName = fileNew;
+          break;
+        case "rotate180":
+          controller.rotateAction(180, fileName, fileNew);
+          fileName = fileNew;
+          break;
+        case "rotate270":
+          controller.rotateAction(270, fileName, fileNew);
+          fileName = fileNew;
+          break;
+        case "rotate":
+          String degrees = JOptionPane.showInputDialog(this,
+                  "Enter an angle in degrees:", "Angle",
+                  JOptionPane.QUESTION_MESSAGE);
+          controller.rotateAction(Double.parseDouble(degrees), fileName, fileNew);
+          fileName = fileNew;
+          break;
+        case "transpose":
+          controller.transposeAction(fileName, fileNew);
+          fileName = fileNew;
+          break;
         case "red-component":
           controller.componentAction("red-component", fileName, fileNew);
           fileName = fileNew;
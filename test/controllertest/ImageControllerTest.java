@@ -7,15 +7,18 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
 
 import controller.ImageController;
 import controller.ImageControllerImpl;
 import model.ImageGallery;
 import model.ImageGalleryImpl;
+import model.SingleImage;
 import view.ImageView;
 import view.ImageViewImpl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -142,6 +145,91 @@ public class ImageControllerTest {
             + System.lineSeparator());
   }
 
+  @Test
+  public void testFailedChainReportsNoSuccess() {
+    Readable in = new StringReader("load img/transparent.png k" + System.lineSeparator()
+            + "brighten 10 k kb" + System.lineSeparator()
+            + "sepia kb ks" + System.lineSeparator()
+            + "horizontal-flip k kh");
+    Appendable out = new StringBuilder();
+
+    ImageGallery model = new ImageGalleryImpl() {
+      @Override
+      public void put(String fileName, SingleImage image) {
+        if (fileName.equals("ks")) {
+          throw new IllegalArgumentException("Image ks cannot be saved.");
+        }
+        super.put(fileName, image);
+      }
+    };
+    ImageView view = new ImageViewImpl(model, out);
+    ImageController controller = new ImageControllerImpl(model, view, in);
+    controller.runProgram();
+
+    assertEquals("Successfully loaded k from img/transparent.png" + System.lineSeparator()
+            + "Image ks cannot be saved." + System.lineSeparator()
+            + "Invalid command. Please try again." + System.lineSeparator()
+            + "Successfully flipped k horizontally and saved as kh" + System.lineSeparator(),
+            out.toString());
+  }
+
+  @Test
+  public void testLazyPointCommandReportsFailure() throws IOException {
+    File saved = File.createTempFile("lazy-test", ".png");
+    saved.deleteOnExit();
+    Readable in = new StringReader("load img/transparent.png k" + System.lineSeparator()
+            + "load img/Koala.ppm koala" + System.lineSeparator()
+            + "brighten 10 k kb --roi 0 0 99999 5" + System.lineSeparator()
+            + "save " + saved.getPath() + " kb" + System.lineSeparator()
+            + "brighten 10 k koala km" + System.lineSeparator()
+            + "save " + saved.getPath() + " km" + System.lineSeparator()
+            + "brighten 10 k kc" + System.lineSeparator()
+            + "save " + saved.getPath() + " kc");
+    Appendable out = new StringBuilder();
+
+    ImageGallery model = new ImageGalleryImpl();
+    ImageView view = new ImageViewImpl(model, out);
+    ImageControllerImpl controller = new ImageControllerImpl(model, view, in);
+    controller.setLazy(true);
+    controller.runProgram();
+
+    String output = out.toString();
+    assertFalse(output.contains("Successfully brightened k by 10 and saved as kb"));
+    assertFalse(output.contains("Successfully brightened k by 10 and saved as km"));
+    assertFalse(output.contains("Successfully saved kb"));
+    assertFalse(output.contains("Successfully saved km"));
+    assertTrue(output.contains("Invalid command. Please try again."));
+    assertTrue(output.endsWith("Successfully brightened k by 10 and saved as kc"
+            + System.lineSeparator() + "Successfully saved kc to " + saved.getPath()
+            + System.lineSeparator()));
+  }
+
+  @Test
+  public void testParallelScriptMatchesInOrder() {
+    String script = "load img/transparent.png k" + System.lineSeparator()
+            + "vertical-flip k kv" + System.lineSeparator() + "blur k kb"
+            + System.lineSeparator() + "brighten 30 kv kv" + System.lineSeparator()
+            + "sepia kv ks" + System.lineSeparator() + "intensity-component kbbb ki"
+            + System.lineSeparator() + "sharpen kb k" + System.lineSeparator()
+            + "greyscale k kv" + System.lineSeparator();
+    ImageGallery[] models = new ImageGallery[2];
+    Appendable[] outs = new Appendable[2];
+    for (int i = 0; i < 2; i++) {
+      models[i] = new ImageGalleryImpl();
+      outs[i] = new StringBuilder();
+      ImageControllerImpl controller = new ImageControllerImpl(models[i],
+              new ImageViewImpl(models[i], outs[i]), new StringReader(script));
+      controller.setWorkers(i == 0 ? 1 : 3);
+      controller.runProgram();
+    }
+    assertEquals(outs[0].toString(), outs[1].toString());
+    assertEquals(models[0].getGallery().keySet(), models[1].getGallery().keySet());
+    for (String name : models[0].getGallery().keySet()) {
+      assertTrue(Arrays.equals(models[0].getImage(name).getPackedPixels(),
+              models[1].getImage(name).getPackedPixels()));
+    }
+  }
+
   @Test
   public void testMultiExportImage() {
     Readable in = new StringReader("load img/Koala.ppm koala" + System.lineSeparator()
@@ -0,0 +1,91 @@
+package modeltest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.BufferPool;
+import model.ImageGallery;
+import model.ImageGalleryImpl;
+import model.SingleImage;
+import model.TransformationsImpl;
+import model.WritableImage;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test class for {@link BufferPool}.
+ */
+public class BufferPoolTest {
+
+  @Before
+  public void init() {
+    BufferPool.setCapacity(1L << 26);
+    BufferPool.clear();
+  }
+
+  @Test
+  public void replacedImagesAreRecycled() {
+    ImageGallery gallery = new ImageGalleryImpl();
+    WritableImage image = WritableImage.create(100, 50, 255);
+    image.setPackedRow(3, new int[100], 0);
+    gallery.put("a", image);
+    assertEquals(1, BufferPool.getMisses());
+    gallery.put("a", WritableImage.create(100, 50, 255));
+    assertEquals(1, BufferPool.getReturned());
+    assertEquals(4 * 100 * 50, BufferPool.getPooledBytes());
+    WritableImage recycled = WritableImage.create(100, 50, 255);
+    assertEquals(1, BufferPool.getHits());
+    assertEquals(0, BufferPool.getPooledBytes());
+    assertEquals(0, recycled.getPackedPixel(3, 7));
+  }
+
+  @Test
+  public void imagesReadByAViewAreKept() {
+    ImageGallery gallery = new ImageGalleryImpl();
+    gallery.put("a", WritableImage.create(100, 50, 255));
+    gallery.put("b", new TransformationsImpl(gallery.getImage("a")).flipHorizontal());
+    gallery.put("a", WritableImage.create(100, 50, 255));
+    assertEquals(0, BufferPool.getReturned());
+    assertEquals(0, gallery.getImage("b").getPackedPixel(0, 0));
+    gallery.remove("b");
+    assertEquals(1, BufferPool.getReturned());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void recycledImagesCannotBeRead() {
+    ImageGallery gallery = new ImageGalleryImpl();
+    SingleImage image = WritableImage.create(100, 50, 255);
+    gallery.put("a", image);
+    gallery.remove("a");
+    image.getPackedPixel(0, 0);
+  }
+
+  @Test
+  public void smallImagesAreNotPooled() {
+    ImageGallery gallery = new ImageGalleryImpl();
+    gallery.put("a", WritableImage.create(10, 10, 255));
+    gallery.remove("a");
+    assertEquals(0, BufferPool.getMisses());
+    assertEquals(0, BufferPool.getReturned());
+  }
+
+  @Test
+  public void leastRecentlyUsedLengthsAreDropped() {
+    BufferPool.setCapacity(4 * 100 * 50 + 4 * 100 * 60);
+    ImageGallery gallery = new ImageGalleryImpl();
+    gallery.put("a", WritableImage.create(100, 50, 255));
+    gallery.put("b", WritableImage.create(100, 60, 255));
+    gallery.put("c", WritableImage.create(100, 70, 255));
+    gallery.remove("a");
+    gallery.remove("b");
+    gallery.remove("c");
+    assertEquals(3, BufferPool.getReturned());
+    assertEquals(2, BufferPool.getDropped());
+    assertEquals(4 * 100 * 70, BufferPool.getPooledBytes());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeCapacity() {
+    BufferPool.setCapacity(-1);
+  }
+}
@@ -0,0 +1,110 @@
+package modeltest;
+
+import org.junit.Test;
+
+import model.ColorMatrix;
+import model.SingleImage;
+import model.SingleImagePacked;
+import model.TransformationsImpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test class for {@link ColorMatrix}.
+ */
+public class ColorMatrixTest {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void wrongSize() {
+    new ColorMatrix(new double[8]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void notFinite() {
+    new ColorMatrix(new double[]{0, 0, 0, 0, Double.NaN, 0, 0, 0, 0});
+  }
+
+  @Test
+  public void lumaMatchesDoublesOnEveryColor() {
+    assertExhaustive(ColorMatrix.LUMA);
+  }
+
+  @Test
+  public void sepiaMatchesDoublesOnEveryColor() {
+    assertExhaustive(ColorMatrix.SEPIA);
+  }
+
+  @Test
+  public void exactHalvesMatchDoublesOnEveryColor() {
+    // halves, quarters and eighths put many sums exactly on a half, and negative sums clamp to 0.
+    assertExhaustive(new ColorMatrix(new double[]{0.5, 0.25, 0.25, 1, 0, 0, -0.5, 1.5, 0.125}));
+  }
+
+  @Test
+  public void hugeCoefficientsClamp() {
+    ColorMatrix matrix = new ColorMatrix(new double[]{1e12, 0, 0, 0, -1e12, 0, 0, 0, 1});
+    int[] dst = new int[1];
+    matrix.apply(new int[]{0x80010203}, 0, dst, 0, null, 0, 1);
+    assertEquals(0x80FF0003, dst[0]);
+  }
+
+  @Test
+  public void masksAndOffsets() {
+    int[] src = {0, 0x11223344, 0xFF808080, 0x7F102030};
+    int[] mask = {0, 0, 0x000001, 0};
+    int[] dst = new int[5];
+    ColorMatrix.SEPIA.apply(src, 1, dst, 2, mask, 1, 3);
+    assertEquals(0, dst[1]);
+    assertEquals(reference(ColorMatrix.SEPIA.getValues(), src[1]), dst[2]);
+    assertEquals(src[2], dst[3]);
+    assertEquals(reference(ColorMatrix.SEPIA.getValues(), src[3]), dst[4]);
+  }
+
+  @Test
+  public void transformationsUseTheMatrix() {
+    int[] pix = new int[256 * 256];
+    for (int k = 0; k < pix.length; k++) {
+      pix[k] = k * 0x01000193 ^ k << 7;
+    }
+    SingleImage image = new SingleImagePacked(256, 256, 255, pix);
+    int[] sepia = new int[pix.length];
+    int[] luma = new int[pix.length];
+    ColorMatrix.SEPIA.apply(pix, 0, sepia, 0, null, 0, pix.length);
+    ColorMatrix.LUMA.apply(pix, 0, luma, 0, null, 0, pix.length);
+    assertArrayEquals(sepia, new TransformationsImpl(image).sepiaScale().getPackedPixels());
+    assertArrayEquals(luma, new TransformationsImpl(image).greyScale().getPackedPixels());
+    assertArrayEquals(luma, new TransformationsImpl(image).lumaScale().getPackedPixels());
+  }
+
+  // Checks every one of the 2^24 colors, with varying alpha, against the double computation.
+  private static void assertExhaustive(ColorMatrix matrix) {
+    double[] values = matrix.getValues();
+    int[] src = new int[1 << 16];
+    int[] dst = new int[src.length];
+    for (int red = 0; red < 256; red++) {
+      for (int k = 0; k < src.length; k++) {
+        src[k] = (k + red) << 24 | red << 16 | k;
+      }
+      matrix.apply(src, 0, dst, 0, null, 0, src.length);
+      for (int k = 0; k < src.length; k++) {
+        if (dst[k] != reference(values, src[k])) {
+          assertEquals("color " + Integer.toHexString(src[k]), reference(values, src[k]), dst[k]);
+        }
+      }
+    }
+  }
+
+  // The per-pixel double math and rounding the transformations have always used.
+  private static int reference(double[] m, int pixel) {
+    int r = pixel >> 16 & 0xFF;
+    int g = pixel >> 8 & 0xFF;
+    int b = pixel & 0xFF;
+    long red = Math.round((r * m[0]) + (g * m[1]) + (b * m[2]));
+    long green = Math.round((r * m[3]) + (g * m[4]) + (b * m[5]));
+    long blue = Math.round((r * m[6]) + (g * m[7]) + (b * m[8]));
+    return SingleImagePacked.pack((int) Math.max(0, Math.min(255, red)),
+            (int) Math.max(0, Math.min(255, green)), (int) Math.max(0, Math.min(255, blue)),
+            pixel >>> 24);
+  }
+}
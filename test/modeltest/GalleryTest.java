@@ -9,8 +9,12 @@ import model.RGB;
 import model.RGBImpl;
 import model.SingleImage;
 import model.SingleImageImpl;
+import model.SingleImagePatched;
+import model.TransformationsImpl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test class for {@link ImageGallery}.
@@ -43,6 +47,28 @@ public class GalleryTest {
     assertEquals(gallery.getImage("test").getPixels()[1][1], pix[1][1]);
   }
 
+  @Test
+  public void testSharedThroughNamesAndViews() {
+    gallery.put("test", image);
+    assertFalse(gallery.isShared("test"));
+    assertFalse(gallery.isShared("missing"));
+    gallery.put("flipped", new TransformationsImpl(image).flipHorizontal());
+    assertTrue(gallery.isShared("test"));
+    assertTrue(gallery.isShared("flipped"));
+    gallery.remove("flipped");
+    gallery.put("patched", new SingleImagePatched(image,
+            new TransformationsImpl(image).greyScale(), 0, 0));
+    assertTrue(gallery.isShared("test"));
+    gallery.remove("patched");
+    gallery.put("bright", new TransformationsImpl(image).brighten(10));
+    assertTrue(gallery.isShared("test"));
+    gallery.put("test", new TransformationsImpl(image).greyScale());
+    assertFalse(gallery.isShared("test"));
+    assertFalse(gallery.isShared("bright"));
+    gallery.put("again", gallery.getImage("bright"));
+    assertTrue(gallery.isShared("bright"));
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testNullGallery() {
     ImageGallery nullGallery = new ImageGalleryImpl();
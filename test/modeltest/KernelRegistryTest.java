@@ -0,0 +1,84 @@
+package modeltest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Set;
+
+import model.KernelRegistry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link KernelRegistry}.
+ */
+public class KernelRegistryTest {
+  private KernelRegistry registry;
+
+  @Before
+  public void setUp() {
+    registry = new KernelRegistry();
+  }
+
+  @Test
+  public void startsWithBlurAndSharpen() {
+    assertEquals(Set.of("blur", "sharpen"), registry.getNames());
+    assertEquals(1.0 / 4, registry.get("blur")[1][1], 0);
+    assertEquals(5, registry.get("sharpen").length);
+  }
+
+  @Test
+  public void loadsKernalsWithCommentsAndFractions() {
+    Set<String> names = registry.load(new StringReader("# edges\n"
+            + "emboss 3 3  # whole weights\n"
+            + "-2 -1 0\n-1 1 1\n0 1 2\n"
+            + "line 1 3 1/4 0.5 1/4\n"));
+    assertEquals(Arrays.asList("emboss", "line"), Arrays.asList(names.toArray()));
+    assertEquals("[-1.0, 1.0, 1.0]", Arrays.toString(registry.get("emboss")[1]));
+    assertEquals("[0.25, 0.5, 0.25]", Arrays.toString(registry.get("line")[0]));
+    assertTrue(registry.contains("emboss"));
+  }
+
+  @Test
+  public void loadReplacesKernalsWithTheSameName() {
+    registry.load(new StringReader("blur 1 1 1"));
+    assertEquals("[1.0]", Arrays.toString(registry.get("blur")[0]));
+  }
+
+  @Test
+  public void invalidTextLoadsNothing() {
+    try {
+      registry.load(new StringReader("edge 3 3 0 1 0 1 -4 1 0 1 0\neven 2 2 1 1 1 1"));
+    } catch (IllegalArgumentException e) {
+      assertFalse(registry.contains("edge"));
+      assertFalse(registry.contains("even"));
+      return;
+    }
+    throw new AssertionError("Expected the even kernal to be rejected.");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void missingWeights() {
+    registry.load(new StringReader("edge 3 3 0 1 0 1 -4"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidWeight() {
+    registry.load(new StringReader("edge 1 3 0 one 0"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unknownKernal() {
+    registry.get("emboss");
+  }
+
+  @Test
+  public void getReturnsACopy() {
+    registry.get("blur")[0][0] = 100;
+    assertEquals(1.0 / 16, registry.get("blur")[0][0], 0);
+  }
+}
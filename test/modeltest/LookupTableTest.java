@@ -0,0 +1,103 @@
+package modeltest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.LookupTable;
+import model.SingleImage;
+import model.SingleImageLookup;
+import model.SingleImagePacked;
+import model.SingleImagePlanar;
+import model.TransformationsImpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link LookupTable} and {@link SingleImageLookup}.
+ */
+public class LookupTableTest {
+
+  private SingleImage image;
+  private SingleImage mask;
+  private int[] pix;
+
+  @Before
+  public void init() {
+    pix = new int[64 * 40];
+    int[] maskPix = new int[pix.length];
+    for (int k = 0; k < pix.length; k++) {
+      pix[k] = k * 0x01030507 ^ k << 9;
+      maskPix[k] = k % 3 == 0 ? 0x010000 : 0;
+    }
+    image = new SingleImagePacked(64, 40, 255, pix);
+    mask = new SingleImagePacked(64, 40, 255, maskPix);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidChannel() {
+    LookupTable.channel(3);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void nullTable() {
+    new TransformationsImpl(image).lookup(null);
+  }
+
+  @Test
+  public void brightenClamps() {
+    LookupTable table = LookupTable.brighten(50);
+    assertEquals(60, table.lookup(0, 10));
+    assertEquals(255, table.lookup(2, 230));
+    assertEquals(0x7F3C46FF, table.apply(0x7F0A14F0));
+  }
+
+  @Test
+  public void composedTableMatchesSteps() {
+    LookupTable first = LookupTable.channel(2).andThen(LookupTable.brighten(50));
+    LookupTable composed = first.andThen(LookupTable.brighten(-20));
+    for (int k = 0; k < pix.length; k++) {
+      assertEquals(LookupTable.brighten(-20).apply(first.apply(pix[k])), composed.apply(pix[k]));
+    }
+  }
+
+  @Test
+  public void chainIsOneView() {
+    SingleImage once = new TransformationsImpl(image).brighten(50);
+    SingleImage twice = new TransformationsImpl(once).brighten(-20);
+    SingleImage green = new TransformationsImpl(twice).colorScale("green");
+    assertTrue(green instanceof SingleImageLookup);
+    assertSame(image, ((SingleImageLookup) green).getBase());
+    int[] actual = green.getPackedPixels();
+    for (int k = 0; k < pix.length; k++) {
+      int value = Math.max(0, Math.min(255, (pix[k] >> 8 & 0xFF) + 50) - 20);
+      assertEquals(SingleImagePacked.pack(value, value, value, pix[k] >>> 24), actual[k]);
+    }
+  }
+
+  @Test
+  public void identityReturnsBase() {
+    SingleImage red = new TransformationsImpl(image).colorScale("red");
+    SingleImage redOfRed = new TransformationsImpl(red).colorScale("red");
+    assertSame(image, ((SingleImageLookup) redOfRed).getBase());
+    assertArrayEquals(red.getPackedPixels(), redOfRed.getPackedPixels());
+    assertSame(image, new TransformationsImpl(image).lookup(LookupTable.identity()));
+    assertTrue(LookupTable.of(value -> value).isIdentity());
+    assertFalse(LookupTable.channel(1).isIdentity());
+  }
+
+  @Test
+  public void maskedLookupKeepsMaskedPixels() {
+    SingleImage brightened = new TransformationsImpl(image, mask).brighten(-30);
+    assertTrue(brightened instanceof SingleImagePlanar);
+    int[] expected = new int[pix.length];
+    LookupTable.brighten(-30).apply(pix, 0, expected, 0, pix.length);
+    for (int k = 0; k < pix.length; k += 3) {
+      expected[k] = pix[k];
+    }
+    assertArrayEquals(expected, brightened.getPackedPixels());
+  }
+}
@@ -0,0 +1,105 @@
+package modeltest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.ColorMatrix;
+import model.ImageGallery;
+import model.ImageGalleryImpl;
+import model.LookupTable;
+import model.PointOperation;
+import model.SingleImage;
+import model.SingleImageFused;
+import model.SingleImagePacked;
+import model.TransformationsImpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link PointOperation} and {@link SingleImageFused}.
+ */
+public class PointOperationTest {
+
+  private SingleImage image;
+  private SingleImage mask;
+  private int[] pix;
+
+  @Before
+  public void init() {
+    pix = new int[64 * 40];
+    int[] maskPix = new int[pix.length];
+    for (int k = 0; k < pix.length; k++) {
+      pix[k] = k * 0x01030507 ^ k << 9;
+      maskPix[k] = k % 3 == 0 ? 0x010000 : 0;
+    }
+    image = new SingleImagePacked(64, 40, 255, pix);
+    mask = new SingleImagePacked(64, 40, 255, maskPix);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void matrixAfterTableOfSeveralChannels() {
+    LookupTable.brighten(10).andThen(ColorMatrix.SEPIA);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void nullOperation() {
+    new TransformationsImpl(image).pointOperation(null);
+  }
+
+  @Test
+  public void stepsComposeOnlyWhenExact() {
+    assertEquals(1, PointOperation.of(LookupTable.brighten(10))
+            .andThen(LookupTable.channel(1)).size());
+    assertEquals(1, PointOperation.of(LookupTable.channel(2)).andThen(ColorMatrix.SEPIA)
+            .andThen(LookupTable.brighten(-5)).size());
+    assertEquals(2, PointOperation.of(ColorMatrix.LUMA).andThen(LookupTable.brighten(20))
+            .andThen(ColorMatrix.SEPIA).andThen(ColorMatrix.SEPIA).size());
+    assertEquals(2, PointOperation.of(ColorMatrix.SEPIA).andThen(ColorMatrix.SEPIA).size());
+    assertTrue(PointOperation.of(LookupTable.identity()).isIdentity());
+  }
+
+  @Test
+  public void fusedChainMatchesSteps() {
+    SingleImage steps = new TransformationsImpl(image).brighten(40);
+    steps = new TransformationsImpl(steps).sepiaScale();
+    steps = new TransformationsImpl(steps).greyScale();
+    steps = new TransformationsImpl(steps).brighten(-25);
+    steps = new TransformationsImpl(steps).sepiaScale();
+    PointOperation chain = PointOperation.of(LookupTable.brighten(40))
+            .andThen(ColorMatrix.SEPIA).andThen(ColorMatrix.LUMA)
+            .andThen(LookupTable.brighten(-25)).andThen(ColorMatrix.SEPIA);
+    assertArrayEquals(steps.getPackedPixels(),
+            new TransformationsImpl(image).pointOperation(chain).getPackedPixels());
+    for (int k = 0; k < pix.length; k++) {
+      assertEquals(steps.getPackedPixel(k / 64, k % 64), chain.apply(pix[k]));
+    }
+  }
+
+  @Test
+  public void maskedChainKeepsMaskedPixels() {
+    SingleImage steps = new TransformationsImpl(image, mask).sepiaScale();
+    steps = new TransformationsImpl(steps, mask).colorScale("blue");
+    PointOperation chain = PointOperation.of(ColorMatrix.SEPIA)
+            .andThen(LookupTable.channel(2));
+    assertArrayEquals(steps.getPackedPixels(),
+            new TransformationsImpl(image, mask).pointOperation(chain).getPackedPixels());
+    SingleImage view = new TransformationsImpl(image, mask).pointOperationView(chain);
+    assertTrue(view instanceof SingleImageFused);
+    assertArrayEquals(steps.getPackedPixels(), view.getPackedPixels());
+    assertEquals(steps.getPackedPixel(5, 7), view.getPackedPixel(5, 7));
+  }
+
+  @Test
+  public void viewSharesTheSource() {
+    ImageGallery gallery = new ImageGalleryImpl();
+    gallery.put("image", image);
+    SingleImage view = new TransformationsImpl(image)
+            .pointOperationView(PointOperation.of(ColorMatrix.SEPIA));
+    assertSame(image, ((SingleImageFused) view).getBase());
+    gallery.put("sepia", view);
+    assertTrue(gallery.isShared("image"));
+  }
+}
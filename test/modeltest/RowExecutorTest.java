@@ -0,0 +1,76 @@
+package modeltest;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import model.Filter;
+import model.RowExecutor;
+import model.SingleImage;
+import model.SingleImagePacked;
+import model.TransformationsImpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test class for {@link RowExecutor}.
+ */
+public class RowExecutorTest {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidParallelism() {
+    RowExecutor.setParallelism(0);
+  }
+
+  @Test
+  public void everyRowRunsOnce() {
+    RowExecutor.setParallelism(4);
+    try {
+      AtomicIntegerArray runs = new AtomicIntegerArray(1000);
+      RowExecutor.forEachBand(1000, (first, last) -> {
+        for (int i = first; i < last; i++) {
+          runs.incrementAndGet(i);
+        }
+      });
+      for (int i = 0; i < 1000; i++) {
+        assertEquals(1, runs.get(i));
+      }
+    } finally {
+      RowExecutor.setParallelism(1);
+    }
+  }
+
+  @Test
+  public void parallelMatchesSequential() {
+    int[] pix = new int[300 * 200];
+    int[] maskPix = new int[pix.length];
+    for (int k = 0; k < pix.length; k++) {
+      pix[k] = SingleImagePacked.pack(k % 256, k / 3 % 256, k * 7 % 256, 255);
+      maskPix[k] = k % 11 == 0 ? 0xFFFFFF : 0;
+    }
+    SingleImage image = new SingleImagePacked(300, 200, 255, pix);
+    SingleImage mask = new SingleImagePacked(300, 200, 255, maskPix);
+    int[][] sequential = apply(image, mask);
+    RowExecutor.setParallelism(4);
+    try {
+      int[][] parallel = apply(image, mask);
+      for (int i = 0; i < sequential.length; i++) {
+        assertArrayEquals(sequential[i], parallel[i]);
+      }
+    } finally {
+      RowExecutor.setParallelism(1);
+    }
+  }
+
+  // Runs a set of operations on the image and returns their pixels.
+  private int[][] apply(SingleImage image, SingleImage mask) {
+    return new int[][]{
+        new TransformationsImpl(image, mask).sepiaScale().getPackedPixels(),
+        new TransformationsImpl(image, mask).valueScale().getPackedPixels(),
+        new TransformationsImpl(image, mask).brighten(40).getPackedPixels(),
+        new TransformationsImpl(image).downscale(123, 77).getPackedPixels(),
+        new Filter(image, mask).blur().getPackedPixels(),
+        new Filter(image).sharpen().getPackedPixels()};
+  }
+}
@@ -0,0 +1,88 @@
+package modeltest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.ImageGallery;
+import model.ImageGalleryImpl;
+import model.SingleImage;
+import model.SingleImageDeferred;
+import model.SingleImagePacked;
+import model.TransformationsImpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link SingleImageDeferred}.
+ */
+public class SingleImageDeferredTest {
+
+  private SingleImage image;
+  private int[] computed;
+  private int[] dropped;
+
+  @Before
+  public void init() {
+    int[] pix = new int[12 * 7];
+    for (int k = 0; k < pix.length; k++) {
+      pix[k] = k * 0x00030507;
+    }
+    image = new SingleImagePacked(12, 7, 255, pix);
+    computed = new int[1];
+    dropped = new int[1];
+  }
+
+  private SingleImageDeferred sepia() {
+    return new SingleImageDeferred(() -> {
+      computed[0]++;
+      SingleImage sepia = new TransformationsImpl(image).sepiaScale();
+      sepia.retain();
+      return sepia;
+    }, () -> dropped[0]++);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void nullSupplier() {
+    new SingleImageDeferred(null, () -> {
+    });
+  }
+
+  @Test
+  public void computedOnceWhenRead() {
+    SingleImageDeferred deferred = sepia();
+    deferred.retain();
+    assertFalse(deferred.isComputed());
+    assertEquals(0, computed[0]);
+    assertEquals(12, deferred.getWidth());
+    SingleImage expected = new TransformationsImpl(image).sepiaScale();
+    assertArrayEquals(expected.getPackedPixels(), deferred.getPackedPixels());
+    assertEquals(expected.getPackedPixel(3, 4), deferred.getPackedPixel(3, 4));
+    assertSame(deferred.getImage(), deferred.getImage());
+    assertEquals(1, computed[0]);
+    deferred.release();
+    assertEquals(0, dropped[0]);
+  }
+
+  @Test
+  public void droppedWhenReleasedUnread() {
+    ImageGallery gallery = new ImageGalleryImpl();
+    gallery.put("image", image);
+    gallery.put("sepia", sepia());
+    assertTrue(gallery.isShared("image"));
+    gallery.put("sepia", image);
+    assertEquals(0, computed[0]);
+    assertEquals(1, dropped[0]);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void releasedImageCannotBeComputed() {
+    SingleImageDeferred deferred = sepia();
+    deferred.retain();
+    deferred.release();
+    deferred.getImage();
+  }
+}
@@ -0,0 +1,102 @@
+package modeltest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.Filter;
+import model.SingleImage;
+import model.SingleImageOffHeap;
+import model.SingleImagePacked;
+import model.TransformationsImpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link SingleImageOffHeap}.
+ */
+public class SingleImageOffHeapTest {
+
+  private SingleImageOffHeap image;
+  private SingleImage packed;
+  private int[] pix;
+
+  @Before
+  public void init() {
+    pix = new int[]{
+        SingleImagePacked.pack(100, 30, 60, 0), SingleImagePacked.pack(30, 60, 100, 255),
+        SingleImagePacked.pack(30, 100, 60, 10), SingleImagePacked.pack(60, 30, 100, 0),
+        SingleImagePacked.pack(0, 0, 0, 0), SingleImagePacked.pack(255, 255, 255, 0)};
+    packed = new SingleImagePacked(2, 3, 255, pix);
+    image = new SingleImageOffHeap(2, 3, 255);
+    for (int i = 0; i < 3; i++) {
+      image.setPackedRow(i, pix, i * 2);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeWidth() {
+    image = new SingleImageOffHeap(-2, 2, 255);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMaxValue() {
+    image = new SingleImageOffHeap(2, 2, 256);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidThreshold() {
+    SingleImageOffHeap.setThreshold(0);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testPixelOutOfBounds() {
+    image.getPackedPixel(3, 0);
+  }
+
+  @Test
+  public void getPackedPixels() {
+    assertArrayEquals(pix, image.getPackedPixels());
+    assertEquals(0x0A1E643C, image.getPackedPixel(1, 0));
+    assertEquals("255 255 255 ", image.getPixel(2, 1));
+  }
+
+  @Test
+  public void getPackedRow() {
+    int[] row = new int[3];
+    image.getPackedRow(1, row, 1);
+    assertArrayEquals(new int[]{0, pix[2], pix[3]}, row);
+  }
+
+  @Test
+  public void isPreferredFor() {
+    assertTrue(SingleImageOffHeap.isPreferredFor(4096, 4096));
+    assertFalse(SingleImageOffHeap.isPreferredFor(2, 3));
+  }
+
+  @Test
+  public void transformationsMatchPacked() {
+    assertArrayEquals(new TransformationsImpl(packed).sepiaScale().getPackedPixels(),
+            new TransformationsImpl(image).sepiaScale().getPackedPixels());
+    assertArrayEquals(new TransformationsImpl(packed).brighten(10).getPackedPixels(),
+            new TransformationsImpl(image).brighten(10).getPackedPixels());
+    assertArrayEquals(new TransformationsImpl(packed).colorScale("red").getPackedPixels(),
+            new TransformationsImpl(image).colorScale("red").getPackedPixels());
+    assertArrayEquals(new TransformationsImpl(packed).flipHorizontal().getPackedPixels(),
+            new TransformationsImpl(image).flipHorizontal().getPackedPixels());
+    assertArrayEquals(new Filter(packed).blur().getPackedPixels(),
+            new Filter(image).blur().getPackedPixels());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void readAfterRelease() {
+    image.retain();
+    image.retain();
+    image.release();
+    assertEquals(pix[0], image.getPackedPixel(0, 0));
+    image.release();
+    image.getPackedPixel(0, 0);
+  }
+}
@@ -0,0 +1,82 @@
+package modeltest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.SingleImage;
+import model.SingleImagePacked;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test class for {@link SingleImagePacked}.
+ */
+public class SingleImagePackedTest {
+
+  private SingleImage image;
+  private int[] pix;
+
+  @Before
+  public void init() {
+    pix = new int[]{
+        SingleImagePacked.pack(100, 30, 60, 0), SingleImagePacked.pack(30, 60, 100, 255),
+        SingleImagePacked.pack(30, 100, 60, 10), SingleImagePacked.pack(60, 30, 100, 0)};
+    image = new SingleImagePacked(2, 2, 255, pix);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidDimensions() {
+    image = new SingleImagePacked(3, 2, 255, pix);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeWidth() {
+    image = new SingleImagePacked(-2, -2, 255, pix);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullPixels() {
+    image = new SingleImagePacked(2, 2, 255, null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMaxValue() {
+    image = new SingleImagePacked(2, 2, 256, pix);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testPixelOutOfBounds() {
+    image.getPackedPixel(0, 2);
+  }
+
+  @Test
+  public void getPackedPixel() {
+    assertEquals(0x0A1E643C, image.getPackedPixel(1, 0));
+    assertEquals(0xFF1E3C64, image.getPackedPixel(0, 1));
+  }
+
+  @Test
+  public void getPackedRow() {
+    int[] row = new int[3];
+    image.getPackedRow(1, row, 1);
+    assertArrayEquals(new int[]{0, pix[2], pix[3]}, row);
+  }
+
+  @Test
+  public void getPixels() {
+    assertEquals(100, image.getPixels()[0][0].getRed());
+    assertEquals(30, image.getPixels()[0][0].getGreen());
+    assertEquals(60, image.getPixels()[0][0].getBlue());
+    assertEquals(255, image.getPixels()[0][1].getAlpha());
+    assertEquals(10, image.getPixels()[1][0].getAlpha());
+  }
+
+  @Test
+  public void getPixel() {
+    assertEquals("100 30 60 ", image.getPixel(0, 0));
+    assertEquals("30 60 100 ", image.getPixel(0, 1));
+    assertEquals("30 100 60 ", image.getPixel(1, 0));
+    assertEquals("60 30 100 ", image.getPixel(1, 1));
+  }
+}
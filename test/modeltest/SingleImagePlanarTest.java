@@ -0,0 +1,61 @@
+package modeltest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.SingleImage;
+import model.SingleImagePacked;
+import model.SingleImagePlanar;
+import model.TransformationsImpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link SingleImagePlanar}.
+ */
+public class SingleImagePlanarTest {
+
+  private SingleImage packed;
+  private SingleImagePlanar planar;
+
+  @Before
+  public void init() {
+    int[] pix = new int[]{
+        SingleImagePacked.pack(100, 30, 60, 0), SingleImagePacked.pack(30, 60, 100, 255),
+        SingleImagePacked.pack(30, 100, 60, 10), SingleImagePacked.pack(60, 30, 200, 0)};
+    packed = new SingleImagePacked(2, 2, 255, pix);
+    planar = new SingleImagePlanar(packed);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidPlanes() {
+    new SingleImagePlanar(2, 2, 255, new byte[4], new byte[4], new byte[3], new byte[4]);
+  }
+
+  @Test
+  public void convertToPlanar() {
+    assertEquals(200, planar.getBluePlane()[3] & 0xFF);
+    assertEquals(255, planar.getAlphaPlane()[1] & 0xFF);
+    assertEquals("30 100 60 ", planar.getPixel(1, 0));
+  }
+
+  @Test
+  public void convertToPacked() {
+    assertArrayEquals(packed.getPackedPixels(),
+            new SingleImagePacked(planar).getPackedPixels());
+  }
+
+  @Test
+  public void channelOperationsArePlanar() {
+    // unmasked lookups are views, masked ones are computed on planes. A mask that keeps no
+    // pixel counts as no mask, so this one keeps the first pixel.
+    SingleImage mask = new SingleImagePacked(2, 2, 255, new int[]{0x000001, 0, 0, 0});
+    SingleImage model = new TransformationsImpl(packed, mask).brighten(10);
+    assertTrue(model instanceof SingleImagePlanar);
+    assertEquals("70 40 210 ", model.getPixel(1, 1));
+    assertEquals("200 200 200 ", new TransformationsImpl(planar).colorScale("blue")
+            .getPixel(1, 1));
+  }
+}
@@ -0,0 +1,111 @@
+package modeltest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.Filter;
+import model.SingleImage;
+import model.SingleImagePacked;
+import model.SingleImageTiled;
+import model.TransformationsImpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link SingleImageTiled}.
+ */
+public class SingleImageTiledTest {
+
+  private SingleImageTiled image;
+  private SingleImage packed;
+  private SingleImage mask;
+  private int[] pix;
+
+  @Before
+  public void init() {
+    int width = 600;
+    int height = 530;
+    pix = new int[width * height];
+    int[] maskPix = new int[width * height];
+    for (int k = 0; k < pix.length; k++) {
+      pix[k] = SingleImagePacked.pack(k % 256, k / 7 % 256, k * 13 % 256, k % 3 * 100);
+      maskPix[k] = k % 5 == 0 ? 0xFFFFFF : 0;
+    }
+    packed = new SingleImagePacked(width, height, 255, pix);
+    mask = new SingleImagePacked(width, height, 255, maskPix);
+    // a cache of one tile still holds a full row of tiles, the rest is spilled to disk.
+    SingleImageTiled.setCacheTiles(1);
+    image = new SingleImageTiled(width, height, 255);
+    SingleImageTiled.setCacheTiles(256);
+    for (int i = 0; i < height; i++) {
+      image.setPackedRow(i, pix, i * width);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeWidth() {
+    image = new SingleImageTiled(-2, 2, 255);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidTile() {
+    image.setTile(0, 0, new int[4]);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testTileOutOfBounds() {
+    image.getTile(3, 0);
+  }
+
+  @Test
+  public void tiles() {
+    assertEquals(3, image.getTilesAcross());
+    assertEquals(3, image.getTilesDown());
+    assertEquals(88, image.getTileWidth(2));
+    assertEquals(18, image.getTileHeight(2));
+    assertEquals(pix[600 * 257 + 513], image.getTile(1, 2)[256 + 1]);
+  }
+
+  @Test
+  public void readsBackSpilledTiles() {
+    assertArrayEquals(pix, image.getPackedPixels());
+    assertEquals(pix[529 * 600 + 599], image.getPackedPixel(529, 599));
+  }
+
+  @Test
+  public void getRegion() {
+    int[] region = new int[4 * 3 + 1];
+    image.getRegion(254, 254, 4, 3, region, 1);
+    assertEquals(pix[254 * 600 + 254], region[1]);
+    assertEquals(pix[257 * 600 + 256], region[12]);
+  }
+
+  @Test
+  public void transformationsMatchPacked() {
+    SingleImage tiledSepia = new TransformationsImpl(image, mask).sepiaScale();
+    assertTrue(tiledSepia instanceof SingleImageTiled);
+    assertArrayEquals(new TransformationsImpl(packed, mask).sepiaScale().getPackedPixels(),
+            tiledSepia.getPackedPixels());
+    assertArrayEquals(new TransformationsImpl(packed).brighten(-30).getPackedPixels(),
+            new TransformationsImpl(image).brighten(-30).getPackedPixels());
+    assertArrayEquals(new TransformationsImpl(packed).flipVertical().getPackedPixels(),
+            new TransformationsImpl(image).flipVertical().getPackedPixels());
+  }
+
+  @Test
+  public void filtersMatchPackedAcrossTiles() {
+    assertArrayEquals(new Filter(packed, mask).blur().getPackedPixels(),
+            new Filter(image, mask).blur().getPackedPixels());
+    assertArrayEquals(new Filter(packed).sharpen().getPackedPixels(),
+            new Filter(image).sharpen().getPackedPixels());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void readAfterRelease() {
+    image.retain();
+    image.release();
+    image.getPackedPixel(0, 0);
+  }
+}
@@ -3,15 +3,24 @@ package modeltest;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.List;
+
 import model.Filter;
 import model.RGB;
 import model.RGBImpl;
+import model.ResizeFilter;
 import model.SingleImage;
 import model.SingleImageImpl;
+import model.SingleImagePacked;
+import model.SingleImagePatched;
 import model.Transformations;
 import model.TransformationsImpl;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test class for {@link Transformations}.
@@ -38,8 +47,119 @@ public class TransformationsTest {
 
   @Test
   public void downscale() {
+    // the single new pixel covers all four pixels and is their average.
     SingleImage model = transform.downscale(1, 1);
-    assertEquals("100 30 60 ", model.getPixel(0, 0));
+    assertEquals("55 55 80 ", model.getPixel(0, 0));
+  }
+
+  @Test
+  public void downscaleWeighsPartlyCoveredPixels() {
+    // each of the two new pixels covers one and a half old pixels.
+    int[] pix = {SingleImagePacked.pack(30, 0, 255, 255), SingleImagePacked.pack(90, 0, 0, 255),
+        SingleImagePacked.pack(0, 60, 0, 0)};
+    SingleImage model = new TransformationsImpl(new SingleImagePacked(3, 1, 255, pix))
+            .downscale(2, 1);
+    assertEquals(SingleImagePacked.pack(50, 0, 170, 255), model.getPackedPixel(0, 0));
+    assertEquals(SingleImagePacked.pack(30, 40, 0, 85), model.getPackedPixel(0, 1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void downscaleToNothing() {
+    transform.downscale(0, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void downscaleLarger() {
+    transform.downscale(3, 2);
+  }
+
+  @Test
+  public void resizeToTheSameSizeKeepsTheImage() {
+    int[] pix = new int[7 * 5];
+    for (int k = 0; k < pix.length; k++) {
+      pix[k] = k * 0x9E3779B9;
+    }
+    SingleImage image = new SingleImagePacked(7, 5, 255, pix);
+    for (ResizeFilter resizeFilter : ResizeFilter.values()) {
+      assertArrayEquals(pix, new TransformationsImpl(image).resize(7, 5, resizeFilter)
+              .getPackedPixels());
+    }
+  }
+
+  @Test
+  public void resizeBilinearInterpolates() {
+    int[] pix = {SingleImagePacked.pack(0, 0, 0, 255), SingleImagePacked.pack(200, 0, 0, 255)};
+    SingleImage model = new TransformationsImpl(new SingleImagePacked(2, 1, 255, pix))
+            .resize(4, 1, ResizeFilter.BILINEAR);
+    assertEquals("0 0 0 ", model.getPixel(0, 0));
+    assertEquals("50 0 0 ", model.getPixel(0, 1));
+    assertEquals("150 0 0 ", model.getPixel(0, 2));
+    assertEquals("200 0 0 ", model.getPixel(0, 3));
+  }
+
+  @Test
+  public void resizeNearestRepeatsPixels() {
+    SingleImage model = transform.resize(4, 4, ResizeFilter.NEAREST);
+    for (int x = 0; x < 4; x++) {
+      for (int y = 0; y < 4; y++) {
+        assertEquals(image.getPixel(x / 2, y / 2), model.getPixel(x, y));
+      }
+    }
+  }
+
+  @Test
+  public void resizeKeepsFlatImagesFlat() {
+    // lanczos and bicubic weights are negative in places but always add up to exactly one.
+    int[] pix = new int[9 * 4];
+    Arrays.fill(pix, SingleImagePacked.pack(17, 128, 255, 200));
+    SingleImage image = new SingleImagePacked(9, 4, 255, pix);
+    for (ResizeFilter resizeFilter : ResizeFilter.values()) {
+      for (int[] size : new int[][]{{31, 13}, {4, 3}, {1, 1}}) {
+        for (int pixel : new TransformationsImpl(image).resize(size[0], size[1], resizeFilter)
+                .getPackedPixels()) {
+          assertEquals(pix[0], pixel);
+        }
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void resizeToNothing() {
+    transform.resize(3, 0, ResizeFilter.BICUBIC);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unknownResizeFilter() {
+    ResizeFilter.of("sinc");
+  }
+
+  @Test
+  public void pyramidHalvesEachLevel() {
+    int width = 13;
+    int height = 6;
+    int[] pix = new int[width * height];
+    for (int k = 0; k < pix.length; k++) {
+      pix[k] = k * 0x9E3779B9;
+    }
+    SingleImage image = new SingleImagePacked(width, height, 255, pix);
+    List<SingleImage> pyramid = new TransformationsImpl(image).pyramid(3);
+    assertEquals(3, pyramid.size());
+    int[][] sizes = {{6, 3}, {3, 1}, {1, 1}};
+    SingleImage previous = image;
+    for (int k = 0; k < 3; k++) {
+      SingleImage level = pyramid.get(k);
+      assertEquals(sizes[k][0], level.getWidth());
+      assertEquals(sizes[k][1], level.getHeight());
+      // every level is the one before it downscaled.
+      assertArrayEquals(new TransformationsImpl(previous).downscale(sizes[k][0], sizes[k][1])
+              .getPackedPixels(), level.getPackedPixels());
+      previous = level;
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void pyramidTooDeep() {
+    transform.pyramid(2);
   }
 
 
@@ -61,6 +181,260 @@ public class TransformationsTest {
     assertEquals("30 100 60 ", model.getPixel(1, 1));
   }
 
+  @Test
+  public void flipTwiceReturnsSource() {
+    SingleImage model = new TransformationsImpl(transform.flipHorizontal()).flipHorizontal();
+    assertSame(image, model);
+    model = new TransformationsImpl(transform.flipVertical()).flipHorizontal();
+    assertEquals("60 30 100 ", model.getPixel(0, 0));
+    assertEquals("100 30 60 ", model.getPixel(1, 1));
+  }
+
+  // an image wider and taller than one block, so rotations cross blocks in both directions.
+  private static SingleImage numbered(int width, int height) {
+    int[] pix = new int[width * height];
+    for (int k = 0; k < pix.length; k++) {
+      pix[k] = k * 0x9E3779B9;
+    }
+    return new SingleImagePacked(width, height, 255, pix);
+  }
+
+  @Test
+  public void rotateAndTranspose() {
+    SingleImage source = numbered(70, 67);
+    TransformationsImpl turn = new TransformationsImpl(source);
+    SingleImage right = turn.rotate90();
+    SingleImage half = turn.rotate180();
+    SingleImage left = turn.rotate270();
+    SingleImage transposed = turn.transpose();
+    assertEquals(67, right.getWidth());
+    assertEquals(70, right.getHeight());
+    for (int i = 0; i < 67; i++) {
+      for (int j = 0; j < 70; j++) {
+        int pixel = source.getPackedPixel(i, j);
+        assertEquals(pixel, right.getPackedPixel(j, 66 - i));
+        assertEquals(pixel, half.getPackedPixel(66 - i, 69 - j));
+        assertEquals(pixel, left.getPackedPixel(69 - j, i));
+        assertEquals(pixel, transposed.getPackedPixel(j, i));
+      }
+    }
+  }
+
+  @Test
+  public void rotateFourTimesReturnsSource() {
+    SingleImage source = numbered(70, 67);
+    SingleImage model = source;
+    for (int k = 0; k < 4; k++) {
+      model = new TransformationsImpl(model).rotate90();
+    }
+    assertArrayEquals(source.getPackedPixels(), model.getPackedPixels());
+    SingleImage twice = new TransformationsImpl(new TransformationsImpl(source).rotate90())
+            .rotate90();
+    assertArrayEquals(new TransformationsImpl(source).rotate180().getPackedPixels(),
+            twice.getPackedPixels());
+    SingleImage back = new TransformationsImpl(new TransformationsImpl(source).rotate270())
+            .rotate90();
+    assertArrayEquals(source.getPackedPixels(), back.getPackedPixels());
+  }
+
+  @Test
+  public void rotateByQuarterTurnsMatchesQuarterTurns() {
+    SingleImage source = numbered(70, 67);
+    TransformationsImpl turn = new TransformationsImpl(source);
+    assertArrayEquals(turn.rotate90().getPackedPixels(),
+            turn.rotate(90, 0).getPackedPixels());
+    assertArrayEquals(turn.rotate270().getPackedPixels(),
+            turn.rotate(-90, 0).getPackedPixels());
+    assertArrayEquals(turn.rotate180().getPackedPixels(),
+            turn.rotate(540, 0).getPackedPixels());
+    assertSame(source, turn.rotate(360, 0));
+  }
+
+  @Test
+  public void rotateByAngleFillsTheCorners() {
+    int color = SingleImagePacked.pack(200, 100, 50, 255);
+    int background = SingleImagePacked.pack(255, 255, 255, 0);
+    int[] pix = new int[40 * 30];
+    Arrays.fill(pix, color);
+    SingleImage model = new TransformationsImpl(new SingleImagePacked(40, 30, 255, pix))
+            .rotate(30, background);
+    // 40 cos 30 + 30 sin 30 wide and 40 sin 30 + 30 cos 30 high.
+    assertEquals(50, model.getWidth());
+    assertEquals(46, model.getHeight());
+    assertEquals(color, model.getPackedPixel(23, 25));
+    assertEquals(background, model.getPackedPixel(0, 0));
+    assertEquals(background, model.getPackedPixel(45, 49));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rotateByInfiniteAngle() {
+    transform.rotate(Double.POSITIVE_INFINITY, 0);
+  }
+
+  @Test
+  public void inPlaceWritesOverTheSource() {
+    int[] pix = new int[70 * 67];
+    for (int k = 0; k < pix.length; k++) {
+      pix[k] = k * 0x9E3779B9;
+    }
+    int[] expected = new TransformationsImpl(new SingleImagePacked(70, 67, 255, pix.clone()))
+            .sepiaScale().getPackedPixels();
+    SingleImage source = new SingleImagePacked(70, 67, 255, pix);
+    TransformationsImpl inPlace = new TransformationsImpl(source);
+    inPlace.setInPlace(true);
+    assertSame(source, inPlace.sepiaScale());
+    assertArrayEquals(expected, source.getPackedPixels());
+  }
+
+  @Test
+  public void inPlaceWritesOverTheBaseOfALookup() {
+    int[] pix = new int[70 * 67];
+    for (int k = 0; k < pix.length; k++) {
+      pix[k] = k * 0x9E3779B9;
+    }
+    SingleImage source = new SingleImagePacked(70, 67, 255, pix);
+    SingleImage bright = new TransformationsImpl(source).brighten(20);
+    int[] expected = new TransformationsImpl(bright).intensityScale().getPackedPixels();
+    TransformationsImpl inPlace = new TransformationsImpl(bright);
+    inPlace.setInPlace(true);
+    assertSame(source, inPlace.intensityScale());
+    assertArrayEquals(expected, source.getPackedPixels());
+  }
+
+  @Test
+  public void inPlaceKeepsMaskedPixels() {
+    SingleImage mask = new SingleImagePacked(2, 2, 255, new int[]{0, 0xFFFFFF, 0, 0});
+    int[] expected = new TransformationsImpl(image, mask).brighten(30).getPackedPixels();
+    SingleImage source = new SingleImagePacked(2, 2, 255, image.getPackedPixels().clone());
+    TransformationsImpl inPlace = new TransformationsImpl(source, mask);
+    inPlace.setInPlace(true);
+    assertSame(source, inPlace.brighten(30));
+    assertArrayEquals(expected, source.getPackedPixels());
+    assertEquals(image.getPackedPixel(0, 1), source.getPackedPixel(0, 1));
+  }
+
+  @Test
+  public void maskedPixelsKeepTheSourceAcrossSpans() {
+    SingleImage source = numbered(130, 70);
+    int[] maskPix = new int[130 * 70];
+    for (int k = 0; k < maskPix.length; k++) {
+      int col = k % 130;
+      boolean editable = k / 130 % 2 == 1 && (col >= 10 && col < 75 || col >= 100);
+      maskPix[k] = editable ? 0xFF000000 : 0x000100;
+    }
+    SingleImage mask = new SingleImagePacked(130, 70, 255, maskPix);
+    SingleImage[][] results = {
+        {new Filter(source).sepiaScale(), new Filter(source, mask).sepiaScale()},
+        {new Filter(source).blur(), new Filter(source, mask).blur()},
+        {new Filter(source).gaussianBlur(2), new Filter(source, mask).gaussianBlur(2)}};
+    for (SingleImage[] result : results) {
+      int[] unmasked = result[0].getPackedPixels();
+      int[] masked = result[1].getPackedPixels();
+      for (int k = 0; k < maskPix.length; k++) {
+        int expected = maskPix[k] == 0x000100 ? source.getPackedPixels()[k] : unmasked[k];
+        assertEquals(expected, masked[k]);
+      }
+    }
+  }
+
+  @Test
+  public void maskedFilterOfASmallAreaPatchesTheSource() {
+    SingleImage source = numbered(130, 70);
+    int[] maskPix = new int[130 * 70];
+    for (int k = 0; k < maskPix.length; k++) {
+      int row = k / 130;
+      int col = k % 130;
+      maskPix[k] = row >= 20 && row < 30 && col >= 50 && col < 62 ? 0 : 0x010000;
+    }
+    SingleImage mask = new SingleImagePacked(130, 70, 255, maskPix);
+    int[] unmasked = new Filter(source).gaussianBlur(1.5).getPackedPixels();
+    SingleImage model = new Filter(source, mask).gaussianBlur(1.5);
+    assertTrue(model instanceof SingleImagePatched);
+    assertSame(source, ((SingleImagePatched) model).getBase());
+    for (int k = 0; k < maskPix.length; k++) {
+      int expected = maskPix[k] == 0 ? unmasked[k] : source.getPackedPixels()[k];
+      assertEquals(expected, model.getPackedPixel(k / 130, k % 130));
+    }
+    // a second touch-up patches the same source again instead of the first view.
+    SingleImage again = new Filter(model, mask).blur();
+    assertSame(source, ((SingleImagePatched) again).getBase());
+    assertArrayEquals(new Filter(new SingleImagePacked(130, 70, 255, model.getPackedPixels()),
+            mask).blur().getPackedPixels(), again.getPackedPixels());
+  }
+
+  @Test
+  public void regionWorksAsARectangularMask() {
+    SingleImage source = numbered(130, 70);
+    int[] maskPix = new int[130 * 70];
+    int[] rectPix = new int[130 * 70];
+    for (int k = 0; k < maskPix.length; k++) {
+      int row = k / 130;
+      int col = k % 130;
+      maskPix[k] = k % 3 == 0 ? 0x000100 : 0;
+      rectPix[k] = row >= 5 && row < 25 && col >= 40 && col < 70 ? 0 : 0x000100;
+    }
+    TransformationsImpl region = new TransformationsImpl(source);
+    region.setRegion(40, 5, 30, 20);
+    SingleImage model = region.sepiaScale();
+    assertTrue(model instanceof SingleImagePatched);
+    assertSame(source, ((SingleImagePatched) model).getBase());
+    assertArrayEquals(new TransformationsImpl(source,
+            new SingleImagePacked(130, 70, 255, rectPix)).sepiaScale().getPackedPixels(),
+            model.getPackedPixels());
+    // with a mask, only the pixels both leave editable change.
+    for (int k = 0; k < maskPix.length; k++) {
+      rectPix[k] |= maskPix[k];
+    }
+    Filter both = new Filter(source, new SingleImagePacked(130, 70, 255, maskPix));
+    both.setRegion(40, 5, 30, 20);
+    assertArrayEquals(new Filter(source, new SingleImagePacked(130, 70, 255, rectPix)).blur()
+            .getPackedPixels(), both.blur().getPackedPixels());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void regionOutsideOfTheImage() {
+    new TransformationsImpl(image).setRegion(1, 1, 2, 1);
+  }
+
+  @Test
+  public void everyPixelMaskedReturnsTheSource() {
+    int[] maskPix = new int[4];
+    Arrays.fill(maskPix, 0x010101);
+    SingleImage mask = new SingleImagePacked(2, 2, 255, maskPix);
+    assertSame(image, new Filter(image, mask).sepiaScale());
+    assertSame(image, new Filter(image, mask).brighten(10));
+    assertSame(image, new Filter(image, mask).sharpen());
+    assertSame(image, new Filter(image, mask).boxBlur(2));
+  }
+
+  @Test
+  public void maskWrittenInPlaceIsReadAgain() {
+    SingleImage mask = new SingleImagePacked(2, 2, 255, new int[4]);
+    assertEquals(image.getPackedPixel(0, 0) + 0x1E1E1E,
+            new TransformationsImpl(image, mask).brighten(30).getPackedPixel(0, 0));
+    TransformationsImpl inPlace =
+            new TransformationsImpl(new TransformationsImpl(mask).brighten(30));
+    inPlace.setInPlace(true);
+    assertSame(mask, inPlace.intensityScale());
+    assertSame(image, new TransformationsImpl(image, mask).intensityScale());
+  }
+
+  @Test
+  public void crop() {
+    SingleImage model = transform.crop(1, 0, 1, 2);
+    assertEquals(1, model.getWidth());
+    assertEquals(2, model.getHeight());
+    assertEquals("30 60 100 ", model.getPixel(0, 0));
+    assertEquals("60 30 100 ", model.getPixel(1, 0));
+    model = new TransformationsImpl(model).crop(0, 1, 1, 1);
+    assertEquals("60 30 100 ", model.getPixel(0, 0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void cropOutsideImage() {
+    transform.crop(1, 1, 2, 1);
+  }
+
   @Test
   public void brightenPositive() {
     SingleImage model = transform.brighten(10);
@@ -165,6 +539,33 @@ public class TransformationsTest {
     assertEquals("66 58 45 ", model.getPixel(1, 1));
   }
 
+  @Test
+  public void colorMatrixOnLongRows() {
+    // long rows run through full vectors of pixels when the vector module is available.
+    int[] pix = new int[257 * 3];
+    int[] maskPix = new int[pix.length];
+    for (int k = 0; k < pix.length; k++) {
+      pix[k] = k * 0x01030507 ^ k << 13;
+      maskPix[k] = k % 7 == 0 ? 0x000100 : 0;
+    }
+    SingleImage large = new SingleImagePacked(257, 3, 255, pix);
+    SingleImage mask = new SingleImagePacked(257, 3, 255, maskPix);
+    int[] sepia = new TransformationsImpl(large, mask).sepiaScale().getPackedPixels();
+    int[] luma = new TransformationsImpl(large).lumaScale().getPackedPixels();
+    for (int k = 0; k < pix.length; k++) {
+      int r = pix[k] >> 16 & 0xFF;
+      int g = pix[k] >> 8 & 0xFF;
+      int b = pix[k] & 0xFF;
+      int red = Math.min(255, (int) Math.round(r * 0.393 + g * 0.769 + b * 0.189));
+      int green = Math.min(255, (int) Math.round(r * 0.349 + g * 0.686 + b * 0.168));
+      int blue = Math.min(255, (int) Math.round(r * 0.272 + g * 0.534 + b * 0.131));
+      int y = (int) Math.round(r * 0.2126 + g * 0.7152 + b * 0.0722);
+      assertEquals(k % 7 == 0 ? pix[k] : SingleImagePacked.pack(red, green, blue, pix[k] >>> 24),
+              sepia[k]);
+      assertEquals(SingleImagePacked.pack(y, y, y, pix[k] >>> 24), luma[k]);
+    }
+  }
+
   @Test
   public void greyScale() {
     SingleImage model = transform.greyScale();
@@ -183,6 +584,195 @@ public class TransformationsTest {
     assertEquals("29 31 50 ", model.getPixel(1, 1));
   }
 
+  @Test
+  public void blurMatchesTapByTap() {
+    // blur is separable and runs as two passes, which must still round every tap on its own.
+    int width = 37;
+    int height = 29;
+    int[] pix = new int[width * height];
+    int[] maskPix = new int[pix.length];
+    for (int k = 0; k < pix.length; k++) {
+      pix[k] = k * 0x9E3779B9;
+      maskPix[k] = k % 11 == 0 ? 0x000001 : 0;
+    }
+    double[] weights = {0.25, 0.5, 0.25};
+    int[] blurred = new Filter(new SingleImagePacked(width, height, 255, pix),
+            new SingleImagePacked(width, height, 255, maskPix)).blur().getPackedPixels();
+    for (int x = 0; x < height; x++) {
+      for (int y = 0; y < width; y++) {
+        int[] sums = new int[4];
+        for (int i = -1; i <= 1; i++) {
+          for (int j = -1; j <= 1; j++) {
+            if (x + i < 0 || x + i >= height || y + j < 0 || y + j >= width) {
+              continue;
+            }
+            int pixel = pix[(x + i) * width + y + j];
+            for (int c = 0; c < 4; c++) {
+              sums[c] += (int) Math.round((pixel >>> (16 - 8 * c & 31) & 0xFF)
+                      * weights[i + 1] * weights[j + 1]);
+            }
+          }
+        }
+        int k = x * width + y;
+        int expected = k % 11 == 0 ? pix[k] : SingleImagePacked.pack(
+                Math.min(255, sums[0]), Math.min(255, sums[1]), Math.min(255, sums[2]),
+                Math.min(255, sums[3]));
+        assertEquals(expected, blurred[k]);
+      }
+    }
+  }
+
+  @Test
+  public void boxBlur() {
+    SingleImage model = filter.boxBlur(1);
+    assertEquals("55 55 80 ", model.getPixel(0, 0));
+    assertEquals("55 55 80 ", model.getPixel(1, 1));
+  }
+
+  @Test
+  public void boxBlurKeepsMaskedPixels() {
+    SingleImage mask = new SingleImagePacked(2, 2, 255, new int[]{0, 0xFFFFFF, 0, 0});
+    SingleImage model = new Filter(image, mask).boxBlur(5);
+    assertEquals("55 55 80 ", model.getPixel(0, 0));
+    assertEquals("30 60 100 ", model.getPixel(0, 1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void boxBlurZeroRadius() {
+    filter.boxBlur(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void gaussianBlurNegativeSigma() {
+    filter.gaussianBlur(-1.5);
+  }
+
+  @Test
+  public void gaussianBlurSpreadsEvenly() {
+    // the boxes are summed without rounding in between, so even a single pixel spreads out.
+    int[] pix = new int[41 * 41];
+    pix[20 * 41 + 20] = SingleImagePacked.pack(255, 255, 255, 255);
+    SingleImage model = new Filter(new SingleImagePacked(41, 41, 255, pix)).gaussianBlur(3);
+    int[] profile = new int[11];
+    for (int d = 0; d <= 10; d++) {
+      profile[d] = model.getPackedPixel(20, 20 + d) & 0xFF;
+      assertEquals(profile[d], model.getPackedPixel(20 - d, 20) & 0xFF);
+      assertEquals(profile[d], model.getPackedPixel(20, 20 - d) & 0xFF);
+    }
+    assertEquals(4, profile[0]);
+    assertEquals(3, profile[3]);
+    assertEquals(1, profile[6]);
+    assertEquals(0, profile[10]);
+  }
+
+  @Test
+  public void convolveSmallKernelMatchesBlur() {
+    double[][] kernal = {{1.0 / 16, 1.0 / 8, 1.0 / 16}, {1.0 / 8, 1.0 / 4, 1.0 / 8},
+        {1.0 / 16, 1.0 / 8, 1.0 / 16}};
+    assertArrayEquals(filter.blur().getPackedPixels(), filter.convolve(kernal).getPackedPixels());
+  }
+
+  @Test
+  public void convolveLargeKernelRoundsOnce() {
+    // a 15x9 kernal runs through the fast Fourier transform, with blocks narrower and shorter
+    // than the image; eighths of a weight keep every sum exact, so it must match a direct sum.
+    int width = 61;
+    int height = 47;
+    int[] pix = new int[width * height];
+    int[] maskPix = new int[pix.length];
+    for (int k = 0; k < pix.length; k++) {
+      pix[k] = k * 0x9E3779B9;
+      maskPix[k] = k % 13 == 0 ? 0x000001 : 0;
+    }
+    double[][] kernal = new double[15][9];
+    for (int i = 0; i < 15; i++) {
+      for (int j = 0; j < 9; j++) {
+        kernal[i][j] = ((i * 7 + j * 3) % 11 - 3) / 256.0;
+      }
+    }
+    int[] filtered = new Filter(new SingleImagePacked(width, height, 255, pix),
+            new SingleImagePacked(width, height, 255, maskPix)).convolve(kernal)
+            .getPackedPixels();
+    for (int x = 0; x < height; x++) {
+      for (int y = 0; y < width; y++) {
+        double[] sums = new double[4];
+        for (int i = 0; i < 15; i++) {
+          for (int j = 0; j < 9; j++) {
+            int r = x + i - 7;
+            int c = y + j - 4;
+            if (r < 0 || r >= height || c < 0 || c >= width) {
+              continue;
+            }
+            for (int ch = 0; ch < 4; ch++) {
+              sums[ch] += (pix[r * width + c] >>> (16 - 8 * ch & 31) & 0xFF) * kernal[i][j];
+            }
+          }
+        }
+        int[] channels = new int[4];
+        for (int ch = 0; ch < 4; ch++) {
+          channels[ch] = (int) Math.max(0, Math.min(255, Math.round(sums[ch])));
+        }
+        int k = x * width + y;
+        int expected = k % 13 == 0 ? pix[k]
+                : SingleImagePacked.pack(channels[0], channels[1], channels[2], channels[3]);
+        assertEquals("pixel " + x + " " + y, expected, filtered[k]);
+      }
+    }
+  }
+
+  @Test
+  public void convolveWholeKernel() {
+    // whole 3x3 and 5x5 kernals run with int arithmetic and must match the sum of every tap.
+    int width = 23;
+    int height = 19;
+    int[] pix = new int[width * height];
+    for (int k = 0; k < pix.length; k++) {
+      pix[k] = k * 0x9E3779B9;
+    }
+    for (int size = 3; size <= 5; size += 2) {
+      double[][] kernal = new double[size][size];
+      for (int i = 0; i < size; i++) {
+        for (int j = 0; j < size; j++) {
+          kernal[i][j] = (i * 5 + j * 3) % 7 - 3;
+        }
+      }
+      int[] filtered = new Filter(new SingleImagePacked(width, height, 255, pix))
+              .convolve(kernal).getPackedPixels();
+      for (int x = 0; x < height; x++) {
+        for (int y = 0; y < width; y++) {
+          int[] sums = new int[4];
+          for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+              int r = x + i - size / 2;
+              int c = y + j - size / 2;
+              if (r < 0 || r >= height || c < 0 || c >= width) {
+                continue;
+              }
+              for (int ch = 0; ch < 4; ch++) {
+                sums[ch] += (pix[r * width + c] >>> (16 - 8 * ch & 31) & 0xFF) * kernal[i][j];
+              }
+            }
+          }
+          for (int ch = 0; ch < 4; ch++) {
+            sums[ch] = Math.max(0, Math.min(255, sums[ch]));
+          }
+          assertEquals(SingleImagePacked.pack(sums[0], sums[1], sums[2], sums[3]),
+                  filtered[x * width + y]);
+        }
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void convolveEvenKernel() {
+    filter.convolve(new double[][]{{0.5, 0.5}, {0.5, 0.5}});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void convolveRaggedKernel() {
+    filter.convolve(new double[][]{{1, 1, 1}, {1}, {1, 1, 1}});
+  }
+
   @Test
   public void sharpen() {
     SingleImage model = filter.sharpen();
@@ -42,6 +42,27 @@ public class GalleryImplMock implements ImageGallery {
     return null;
   }
 
+  /**
+   * Returns whether the image with the given name is read under another name.
+   *
+   * @param fileName represents the name of the image.
+   * @return false, as the mock holds no images.
+   */
+  @Override
+  public boolean isShared(String fileName) {
+    return false;
+  }
+
+  /**
+   * Removes the image with the given name from the gallery.
+   *
+   * @param fileName represents the name of the image.
+   */
+  @Override
+  public void remove(String fileName) {
+    output.toString();
+  }
+
   /**
    * Returns the gallery of images.
    *